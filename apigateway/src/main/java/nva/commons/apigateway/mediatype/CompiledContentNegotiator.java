@@ -0,0 +1,289 @@
+package nva.commons.apigateway.mediatype;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import nva.commons.apigateway.mediatype.ContentNegotiator.Preference;
+
+/**
+ * A {@link ContentNegotiator} bound to a fixed list of offered representations. Created with
+ * {@link ContentNegotiator#compile(List)} once per handler and then shared across requests.
+ *
+ * <p>Compilation indexes the offered representations by type and by type/subtype, and assigns
+ * every distinct offered profile URI a bit, so each representation's profiles become a single
+ * {@code long}. Negotiating then only visits the representations a range can match, and scores
+ * profile overlap with a bit count instead of building sets. The results are identical to {@link
+ * ContentNegotiator#rank(MediaTypeParseResult, List)} and {@link
+ * ContentNegotiator#best(MediaTypeParseResult, List)} for the same offered list.
+ *
+ * <p>Immutable and thread-safe.
+ */
+public final class CompiledContentNegotiator {
+
+  private static final int MAX_DISTINCT_PROFILES = Long.SIZE;
+  private static final int NO_MATCH = -1;
+  private static final long NO_PROFILES = 0L;
+  private static final double EXCLUDED_QUALITY = 0.0;
+  private static final int[] NO_CANDIDATES = new int[0];
+
+  private final ContentNegotiator negotiator;
+  private final List<MediaType> offered;
+  private final int[] allIndices;
+  private final Map<String, int[]> indicesByType;
+  private final Map<String, int[]> indicesBySubtype;
+  private final Map<String, Map<String, int[]>> indicesByTypeAndSubtype;
+  private final Map<URI, Integer> profileBits;
+  private final long[] profileMasks;
+
+  CompiledContentNegotiator(ContentNegotiator negotiator, List<MediaType> offered) {
+    this.negotiator = negotiator;
+    this.offered = List.copyOf(offered);
+    this.allIndices = indicesOf(this.offered);
+    this.indicesByType = groupIndices(this.offered, MediaType::type);
+    this.indicesBySubtype = groupIndices(this.offered, MediaType::subtype);
+    this.indicesByTypeAndSubtype = groupIndicesByTypeAndSubtype(this.offered);
+    this.profileBits = assignProfileBits(this.offered);
+    this.profileMasks = this.offered.stream().mapToLong(this::profileMask).toArray();
+  }
+
+  /** The offered representations, in the server's order. */
+  public List<MediaType> offered() {
+    return offered;
+  }
+
+  /** Same contract as {@link ContentNegotiator#rank(MediaTypeParseResult, List)}. */
+  public List<Preference> rank(MediaTypeParseResult accept) {
+    var ranges = accept.effectiveRanges();
+    var matches = new Matches(offered.size());
+    for (int rangeIndex = 0; rangeIndex < ranges.size(); rangeIndex++) {
+      collectMatches(ranges.get(rangeIndex), rangeIndex, matches);
+    }
+    var order = matches.acceptableInPreferenceOrder();
+    var preferences = new ArrayList<Preference>(order.length);
+    for (int offeredIndex : order) {
+      var range = ranges.get(matches.rangeIndex[offeredIndex]);
+      preferences.add(
+          new Preference(offered.get(offeredIndex), range, matches.quality[offeredIndex]));
+    }
+    return List.copyOf(preferences);
+  }
+
+  /** Same contract as {@link ContentNegotiator#best(MediaTypeParseResult, List)}. */
+  public Optional<MediaType> best(MediaTypeParseResult accept) {
+    var ranges = accept.effectiveRanges();
+    var matches = new Matches(offered.size());
+    for (int rangeIndex = 0; rangeIndex < ranges.size(); rangeIndex++) {
+      collectMatches(ranges.get(rangeIndex), rangeIndex, matches);
+    }
+    int bestIndex = matches.mostPreferred();
+    return bestIndex == NO_MATCH ? Optional.empty() : Optional.of(offered.get(bestIndex));
+  }
+
+  private void collectMatches(MediaType range, int rangeIndex, Matches matches) {
+    int specificity = negotiator.specificity(range);
+    double quality = range.quality();
+    long requestedProfiles = requestedProfileMask(range);
+    for (int offeredIndex : candidatesFor(range)) {
+      if (negotiator.hardConstraintParametersMatch(range, offered.get(offeredIndex))) {
+        int overlap = Long.bitCount(requestedProfiles & profileMasks[offeredIndex]);
+        matches.offer(offeredIndex, rangeIndex, specificity, quality, overlap);
+      }
+    }
+  }
+
+  private int[] candidatesFor(MediaType range) {
+    if (range.isWildcardType()) {
+      return range.isWildcardSubtype()
+          ? allIndices
+          : indicesBySubtype.getOrDefault(range.subtype(), NO_CANDIDATES);
+    }
+    if (range.isWildcardSubtype()) {
+      return indicesByType.getOrDefault(range.type(), NO_CANDIDATES);
+    }
+    var bySubtype = indicesByTypeAndSubtype.get(range.type());
+    return isNull(bySubtype)
+        ? NO_CANDIDATES
+        : bySubtype.getOrDefault(range.subtype(), NO_CANDIDATES);
+  }
+
+  private long requestedProfileMask(MediaType range) {
+    if (!range.parameters().containsKey(ParameterHandler.PROFILE)) {
+      return NO_PROFILES;
+    }
+    long mask = NO_PROFILES;
+    for (var profile : range.profiles()) {
+      var bit = profileBits.get(profile);
+      if (nonNull(bit)) {
+        mask |= 1L << bit;
+      }
+    }
+    return mask;
+  }
+
+  private long profileMask(MediaType representation) {
+    long mask = NO_PROFILES;
+    for (var profile : representation.profiles()) {
+      mask |= 1L << profileBits.get(profile);
+    }
+    return mask;
+  }
+
+  private static Map<URI, Integer> assignProfileBits(List<MediaType> offered) {
+    var bits = new HashMap<URI, Integer>();
+    offered.stream()
+        .map(MediaType::profiles)
+        .flatMap(List::stream)
+        .forEach(profile -> bits.putIfAbsent(profile, bits.size()));
+    if (bits.size() > MAX_DISTINCT_PROFILES) {
+      throw new IllegalArgumentException(
+          "Cannot compile more than "
+              + MAX_DISTINCT_PROFILES
+              + " distinct offered profiles, found "
+              + bits.size());
+    }
+    return Map.copyOf(bits);
+  }
+
+  private static int[] indicesOf(List<MediaType> offered) {
+    var indices = new int[offered.size()];
+    for (int offeredIndex = 0; offeredIndex < indices.length; offeredIndex++) {
+      indices[offeredIndex] = offeredIndex;
+    }
+    return indices;
+  }
+
+  private static Map<String, int[]> groupIndices(
+      List<MediaType> offered, Function<MediaType, String> key) {
+    var grouped = new HashMap<String, List<Integer>>();
+    for (int offeredIndex = 0; offeredIndex < offered.size(); offeredIndex++) {
+      grouped
+          .computeIfAbsent(key.apply(offered.get(offeredIndex)), ignored -> new ArrayList<>())
+          .add(offeredIndex);
+    }
+    var indices = new HashMap<String, int[]>();
+    grouped.forEach(
+        (name, group) -> indices.put(name, group.stream().mapToInt(Integer::intValue).toArray()));
+    return Map.copyOf(indices);
+  }
+
+  private static Map<String, Map<String, int[]>> groupIndicesByTypeAndSubtype(
+      List<MediaType> offered) {
+    var byType = new HashMap<String, Map<String, List<Integer>>>();
+    for (int offeredIndex = 0; offeredIndex < offered.size(); offeredIndex++) {
+      var representation = offered.get(offeredIndex);
+      byType
+          .computeIfAbsent(representation.type(), ignored -> new HashMap<>())
+          .computeIfAbsent(representation.subtype(), ignored -> new ArrayList<>())
+          .add(offeredIndex);
+    }
+    var indices = new HashMap<String, Map<String, int[]>>();
+    byType.forEach(
+        (type, bySubtype) -> {
+          var subtypeIndices = new HashMap<String, int[]>();
+          bySubtype.forEach(
+              (subtype, group) ->
+                  subtypeIndices.put(
+                      subtype, group.stream().mapToInt(Integer::intValue).toArray()));
+          indices.put(type, Map.copyOf(subtypeIndices));
+        });
+    return Map.copyOf(indices);
+  }
+
+  /**
+   * Per-call scratch state: the best range seen so far for each offered representation, kept in
+   * parallel primitive arrays. A later range only replaces an earlier one if it has strictly higher
+   * precedence (specificity, then quality, then profile overlap), as in {@link ContentNegotiator}.
+   */
+  private static final class Matches {
+
+    private final int[] rangeIndex;
+    private final int[] specificity;
+    private final double[] quality;
+    private final int[] overlap;
+
+    private Matches(int size) {
+      this.rangeIndex = new int[size];
+      this.specificity = new int[size];
+      this.quality = new double[size];
+      this.overlap = new int[size];
+      Arrays.fill(rangeIndex, NO_MATCH);
+    }
+
+    private void offer(
+        int offeredIndex,
+        int candidateRange,
+        int candidateSpecificity,
+        double candidateQuality,
+        int candidateOverlap) {
+      if (rangeIndex[offeredIndex] == NO_MATCH
+          || outranks(offeredIndex, candidateSpecificity, candidateQuality, candidateOverlap)) {
+        rangeIndex[offeredIndex] = candidateRange;
+        specificity[offeredIndex] = candidateSpecificity;
+        quality[offeredIndex] = candidateQuality;
+        overlap[offeredIndex] = candidateOverlap;
+      }
+    }
+
+    private boolean outranks(
+        int offeredIndex, int candidateSpecificity, double candidateQuality, int candidateOverlap) {
+      int bySpecificity = Integer.compare(candidateSpecificity, specificity[offeredIndex]);
+      if (bySpecificity != 0) {
+        return bySpecificity > 0;
+      }
+      int byQuality = Double.compare(candidateQuality, quality[offeredIndex]);
+      if (byQuality != 0) {
+        return byQuality > 0;
+      }
+      return candidateOverlap > overlap[offeredIndex];
+    }
+
+    private boolean isAcceptable(int offeredIndex) {
+      return rangeIndex[offeredIndex] != NO_MATCH && quality[offeredIndex] > EXCLUDED_QUALITY;
+    }
+
+    /** True if {@code left} should be served before {@code right}; ties keep offered order. */
+    private boolean isPreferredOver(int left, int right) {
+      int byQuality = Double.compare(quality[left], quality[right]);
+      if (byQuality != 0) {
+        return byQuality > 0;
+      }
+      return overlap[left] > overlap[right];
+    }
+
+    private int mostPreferred() {
+      int best = NO_MATCH;
+      for (int offeredIndex = 0; offeredIndex < rangeIndex.length; offeredIndex++) {
+        boolean preferred = best == NO_MATCH || isPreferredOver(offeredIndex, best);
+        if (isAcceptable(offeredIndex) && preferred) {
+          best = offeredIndex;
+        }
+      }
+      return best;
+    }
+
+    /** Stable insertion sort; the offered list is small and this avoids boxing. */
+    private int[] acceptableInPreferenceOrder() {
+      var order = new int[rangeIndex.length];
+      int size = 0;
+      for (int offeredIndex = 0; offeredIndex < rangeIndex.length; offeredIndex++) {
+        if (isAcceptable(offeredIndex)) {
+          int position = size++;
+          while (position > 0 && isPreferredOver(offeredIndex, order[position - 1])) {
+            order[position] = order[position - 1];
+            position--;
+          }
+          order[position] = offeredIndex;
+        }
+      }
+      return Arrays.copyOf(order, size);
+    }
+  }
+}
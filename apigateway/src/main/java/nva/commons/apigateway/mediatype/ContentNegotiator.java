@@ -145,6 +145,18 @@ public final class ContentNegotiator {
         .thenComparingInt(range -> profileOverlap(range, representation));
   }
 
+  /**
+   * Binds this negotiator to a fixed list of offered representations. The returned negotiator
+   * gives the same answers as {@link #rank} and {@link #best} but precomputes everything that only
+   * depends on {@code offered}; build it once per handler and reuse it for every request.
+   *
+   * @throws IllegalArgumentException if the offered representations declare more than 64 distinct
+   *     profile URIs.
+   */
+  public CompiledContentNegotiator compile(List<MediaType> offered) {
+    return new CompiledContentNegotiator(this, offered);
+  }
+
   /**
    * The single best representation to serve, or empty if none is acceptable (caller should send
    * 406).
@@ -158,7 +170,7 @@ public final class ContentNegotiator {
     return representation.matchedBy(range) && hardConstraintParametersMatch(range, representation);
   }
 
-  private boolean hardConstraintParametersMatch(MediaType range, MediaType representation) {
+  boolean hardConstraintParametersMatch(MediaType range, MediaType representation) {
     return range.parameters().entrySet().stream()
         .filter(entry -> isHardConstraint(entry.getKey()))
         .allMatch(
@@ -168,7 +180,7 @@ public final class ContentNegotiator {
   /**
    * Higher is more specific: type/subtype dominates wildcards, then more constraining parameters.
    */
-  private int specificity(MediaType range) {
+  int specificity(MediaType range) {
     return range.typeSpecificity() * SPECIFICITY_SCALE
         + (int) range.parameters().keySet().stream().filter(this::isHardConstraint).count();
   }
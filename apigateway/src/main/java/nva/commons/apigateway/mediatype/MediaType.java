@@ -153,7 +153,7 @@ public record MediaType(String type, String subtype, Map<String, String> paramet
   }
 
   private static Map<String, String> normalizeParameters(Map<String, String> source) {
-    return Objects.isNull(source)
+    return Objects.isNull(source) || source.isEmpty()
         ? Collections.emptyMap()
         : source.entrySet().stream()
             .collect(
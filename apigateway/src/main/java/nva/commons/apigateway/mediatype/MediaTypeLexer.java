@@ -90,7 +90,20 @@ final class MediaTypeLexer {
   }
 
   static boolean isToken(String input) {
-    return !input.isEmpty() && input.chars().allMatch(character -> isTokenChar((char) character));
+    return isToken(input, 0, input.length());
+  }
+
+  /** Range variant of {@link #isToken(String)}; scans {@code [from, to)} without copying. */
+  static boolean isToken(CharSequence input, int from, int to) {
+    if (from >= to) {
+      return false;
+    }
+    for (int characterIndex = from; characterIndex < to; characterIndex++) {
+      if (!isTokenChar(input.charAt(characterIndex))) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /** RFC 9110 tchar. */
@@ -100,9 +113,22 @@ final class MediaTypeLexer {
 
   /** RFC 6838 restricted-name: stricter than tchar. */
   static boolean isRestrictedName(String input) {
-    return !input.isEmpty()
-        && isAlnum(input.charAt(0))
-        && input.chars().skip(1).allMatch(character -> isRestrictedNameChar((char) character));
+    return isRestrictedName(input, 0, input.length());
+  }
+
+  /**
+   * Range variant of {@link #isRestrictedName(String)}; scans {@code [from, to)} without copying.
+   */
+  static boolean isRestrictedName(CharSequence input, int from, int to) {
+    if (from >= to || !isAlnum(input.charAt(from))) {
+      return false;
+    }
+    for (int characterIndex = from + 1; characterIndex < to; characterIndex++) {
+      if (!isRestrictedNameChar(input.charAt(characterIndex))) {
+        return false;
+      }
+    }
+    return true;
   }
 
   private static boolean isRestrictedNameChar(char character) {
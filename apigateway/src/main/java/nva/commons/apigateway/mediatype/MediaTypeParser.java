@@ -18,6 +18,10 @@ import java.util.Map;
  * CR/LF/NUL, and length/count caps are rejected before any structural work, because the real risk
  * is <em>differential parsing</em> (your parser and a downstream component disagreeing on the same
  * bytes). Leniency flags only ever relax conformance, never the security floor.
+ *
+ * <p>Performance: inputs of the plain {@code type/subtype[;q=..]} shape are handled by an
+ * index-based scanner that skips the general pipeline, and results can be cached per raw input
+ * (see {@link Builder#resultCacheSize}). Both produce results equal to the general pipeline.
  */
 public final class MediaTypeParser {
 
@@ -25,6 +29,7 @@ public final class MediaTypeParser {
   private static final int DEFAULT_MAX_LIST_ELEMENTS = 64;
   private static final int DEFAULT_MAX_PARAMETERS_PER_TYPE = 32;
   private static final int DEFAULT_MAX_PROFILE_URIS = 16;
+  private static final int DEFAULT_RESULT_CACHE_SIZE = 64;
 
   private final int maxInputChars;
   private final int maxListElements;
@@ -38,6 +43,11 @@ public final class MediaTypeParser {
   private final boolean enforceRestrictedNames;
   private final Map<String, ParameterHandler> handlers;
   private final List<MediaType> allowedTypes;
+  private final ParserConfig configuration;
+  private final MediaTypeScanner contentTypeScanner;
+  private final MediaTypeScanner acceptScanner;
+  private final ParseResultCache contentTypeCache;
+  private final ParseResultCache acceptCache;
 
   private MediaTypeParser(Builder builder) {
     this.maxInputChars = builder.maxInputChars;
@@ -52,6 +62,13 @@ public final class MediaTypeParser {
     this.enforceRestrictedNames = builder.enforceRestrictedNames;
     this.handlers = Map.copyOf(builder.buildHandlers());
     this.allowedTypes = List.copyOf(builder.allowedTypes);
+    this.configuration = createConfig();
+    this.contentTypeScanner =
+        new MediaTypeScanner(configuration, false, builder.hasBuiltinQualityHandler());
+    this.acceptScanner =
+        new MediaTypeScanner(configuration, true, builder.hasBuiltinQualityHandler());
+    this.contentTypeCache = new ParseResultCache(builder.resultCacheSize);
+    this.acceptCache = new ParseResultCache(builder.resultCacheSize);
   }
 
   public static Builder builder() {
@@ -70,11 +87,16 @@ public final class MediaTypeParser {
         .acceptSingleUnquotedProfileString()
         .rejectDuplicateParameters(true)
         .allowObsText(false)
+        .resultCacheSize(DEFAULT_RESULT_CACHE_SIZE)
         .build();
   }
 
   /** Returns a configuration snapshot for use by {@link ParseContext}. */
   ParserConfig config() {
+    return configuration;
+  }
+
+  private ParserConfig createConfig() {
     return new ParserConfig(
         maxInputChars,
         maxListElements,
@@ -95,12 +117,24 @@ public final class MediaTypeParser {
    * required.
    */
   public MediaTypeParseResult parse(String input) {
-    return new ParseContext(config(), false).parse(input);
+    return contentTypeCache.get(input, this::parseContentType);
   }
 
   /** Parse an {@code Accept}-style list: comma-separated, wildcards and {@code q} permitted. */
   public MediaTypeParseResult parseList(String input) {
-    return new ParseContext(config(), true).parseList(input);
+    return acceptCache.get(input, this::parseAcceptList);
+  }
+
+  private MediaTypeParseResult parseContentType(String input) {
+    return contentTypeScanner
+        .scan(input)
+        .orElseGet(() -> new ParseContext(configuration, false).parse(input));
+  }
+
+  private MediaTypeParseResult parseAcceptList(String input) {
+    return acceptScanner
+        .scan(input)
+        .orElseGet(() -> new ParseContext(configuration, true).parseList(input));
   }
 
   @SuppressWarnings("PMD.AvoidFieldNameMatchingMethodName")
@@ -121,6 +155,7 @@ public final class MediaTypeParser {
     private final List<MediaType> allowedTypes = new ArrayList<>();
     private final Map<String, ParameterHandler> customHandlers = new LinkedHashMap<>();
     private boolean installBuiltins = true;
+    private int resultCacheSize = ParseResultCache.DISABLED;
 
     private Builder() {}
 
@@ -217,6 +252,20 @@ public final class MediaTypeParser {
       return this;
     }
 
+    /**
+     * Cache up to {@code value} parse results keyed by the raw input, so repeated header values
+     * return the same result without re-parsing. Only safe with deterministic parameter handlers.
+     * Default: 0 (disabled); {@link #defaultParser()} uses 64.
+     */
+    public Builder resultCacheSize(int value) {
+      this.resultCacheSize = value;
+      return this;
+    }
+
+    boolean hasBuiltinQualityHandler() {
+      return installBuiltins && !customHandlers.containsKey(ParameterHandler.QUALITY);
+    }
+
     Map<String, ParameterHandler> buildHandlers() {
       var map = new LinkedHashMap<String, ParameterHandler>();
       if (installBuiltins) {
@@ -0,0 +1,235 @@
+package nva.commons.apigateway.mediatype;
+
+import static java.util.Objects.isNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Fast path for the overwhelmingly common {@code type/subtype[;q=..]} shape, e.g. {@code
+ * application/json} or {@code text/html, application/xml;q=0.9, *}{@code /*;q=0.8}.
+ *
+ * <p>The scanner works on index ranges of the raw input and allocates nothing while deciding
+ * whether the input qualifies; only an accepted input is materialized into {@link MediaType}s. It
+ * only accepts input that {@link ParseContext} would parse without a single violation, so both
+ * paths produce equal results. Anything else — quotes, other parameters, blank elements, control
+ * characters, names over the soft limit, allow-lists — is declined and left to {@link
+ * ParseContext}.
+ *
+ * <p>Package-private: not part of the public API.
+ */
+final class MediaTypeScanner {
+
+  private static final char COMMA_SEPARATOR = ',';
+  private static final char PARAMETER_SEPARATOR = ';';
+  private static final char TYPE_SUBTYPE_SEPARATOR = '/';
+  private static final char EQUALS_SIGN = '=';
+  private static final char SPACE = ' ';
+  private static final char TAB = '\t';
+  private static final char DECIMAL_POINT = '.';
+  private static final char WILDCARD = '*';
+  private static final char QUALITY_LOWER = 'q';
+  private static final char QUALITY_UPPER = 'Q';
+  private static final char ZERO = '0';
+  private static final char ONE = '1';
+  private static final char NINE = '9';
+  private static final int QUALITY_PREFIX_LENGTH = 2;
+  private static final int QVALUE_INTEGER_LENGTH = 1;
+  private static final int MAX_QVALUE_DECIMALS = 3;
+  private static final int SOFT_NAME_LENGTH = 64;
+  private static final int MAX_CONTENT_TYPE_COUNT = 1;
+  private static final int NOT_SIMPLE = -1;
+
+  private final ParserConfig configuration;
+  private final boolean accept;
+  private final boolean builtinQualityHandler;
+
+  MediaTypeScanner(ParserConfig configuration, boolean accept, boolean builtinQualityHandler) {
+    this.configuration = configuration;
+    this.accept = accept;
+    this.builtinQualityHandler = builtinQualityHandler;
+  }
+
+  /**
+   * Parses {@code input} if it has the simple shape.
+   *
+   * @return the parse result, or empty if the input must go through the full parser.
+   */
+  Optional<MediaTypeParseResult> scan(String input) {
+    if (isNull(input) || input.length() > configuration.maxInputChars()) {
+      return Optional.empty();
+    }
+    int elementCount = countSimpleElements(input);
+    if (elementCount == NOT_SIMPLE) {
+      return Optional.empty();
+    }
+    var mediaTypes = new MediaType[elementCount];
+    int elementStart = 0;
+    for (int elementIndex = 0; elementIndex < elementCount; elementIndex++) {
+      int elementEnd = elementEnd(input, elementStart);
+      mediaTypes[elementIndex] = materialize(input, elementStart, elementEnd);
+      elementStart = elementEnd + 1;
+    }
+    return Optional.of(new MediaTypeParseResult(List.of(mediaTypes), List.of()));
+  }
+
+  private int countSimpleElements(String input) {
+    int elementCount = 0;
+    int elementStart = 0;
+    while (elementStart <= input.length()) {
+      int elementEnd = elementEnd(input, elementStart);
+      if (!isSimpleElement(input, elementStart, elementEnd)) {
+        return NOT_SIMPLE;
+      }
+      elementCount++;
+      elementStart = elementEnd + 1;
+    }
+    return withinElementLimit(elementCount) ? elementCount : NOT_SIMPLE;
+  }
+
+  private boolean withinElementLimit(int elementCount) {
+    return accept
+        ? elementCount <= configuration.maxListElements()
+        : elementCount == MAX_CONTENT_TYPE_COUNT;
+  }
+
+  private boolean isSimpleElement(String input, int from, int to) {
+    int start = skipWhitespace(input, from, to);
+    int end = trimWhitespace(input, start, to);
+    int parameterStart = indexOf(input, PARAMETER_SEPARATOR, start, end);
+    int typeEnd = trimWhitespace(input, start, parameterStart);
+    int slash = indexOf(input, TYPE_SUBTYPE_SEPARATOR, start, typeEnd);
+    return slash < typeEnd
+        && isSimpleName(input, start, slash)
+        && isSimpleName(input, slash + 1, typeEnd)
+        && isAllowedInContext(input, start, slash, typeEnd)
+        && isSimpleParameterSection(input, parameterStart, end);
+  }
+
+  private MediaType materialize(String input, int from, int to) {
+    int start = skipWhitespace(input, from, to);
+    int end = trimWhitespace(input, start, to);
+    int parameterStart = indexOf(input, PARAMETER_SEPARATOR, start, end);
+    int typeEnd = trimWhitespace(input, start, parameterStart);
+    int slash = indexOf(input, TYPE_SUBTYPE_SEPARATOR, start, typeEnd);
+    var parameters =
+        parameterStart == end
+            ? Map.<String, String>of()
+            : Map.of(
+                ParameterHandler.QUALITY,
+                input.substring(qualityValueStart(input, parameterStart, end), end));
+    return new MediaType(
+        input.substring(start, slash), input.substring(slash + 1, typeEnd), parameters);
+  }
+
+  private boolean isSimpleName(String input, int from, int to) {
+    int length = to - from;
+    if (length == 0 || length > SOFT_NAME_LENGTH) {
+      return false;
+    }
+    if (isWildcard(input, from, to)) {
+      return true;
+    }
+    return configuration.enforceRestrictedNames()
+        ? MediaTypeLexer.isRestrictedName(input, from, to)
+        : MediaTypeLexer.isToken(input, from, to);
+  }
+
+  private boolean isAllowedInContext(String input, int start, int slash, int typeEnd) {
+    if (accept) {
+      return true;
+    }
+    return configuration.allowedTypes().isEmpty()
+        && !isWildcard(input, start, slash)
+        && !isWildcard(input, slash + 1, typeEnd);
+  }
+
+  /**
+   * Accepts no parameters, or a single {@code q} with a grammatical qvalue in an {@code Accept}
+   * list — exactly the cases where the built-in quality handler records nothing.
+   */
+  private boolean isSimpleParameterSection(String input, int parameterStart, int end) {
+    if (parameterStart == end) {
+      return true;
+    }
+    if (!accept || !builtinQualityHandler || configuration.maxParametersPerType() <= 0) {
+      return false;
+    }
+    int nameStart = skipWhitespace(input, parameterStart + 1, end);
+    return end - nameStart > QUALITY_PREFIX_LENGTH
+        && isQualityName(input.charAt(nameStart))
+        && input.charAt(nameStart + 1) == EQUALS_SIGN
+        && isQValue(input, nameStart + QUALITY_PREFIX_LENGTH, end);
+  }
+
+  private static int qualityValueStart(String input, int parameterStart, int end) {
+    return skipWhitespace(input, parameterStart + 1, end) + QUALITY_PREFIX_LENGTH;
+  }
+
+  private static boolean isQualityName(char character) {
+    return character == QUALITY_LOWER || character == QUALITY_UPPER;
+  }
+
+  /** RFC 9110 §12.4.2 qvalue: {@code 0[.ddd]} or {@code 1[.000]}. */
+  private static boolean isQValue(String input, int from, int to) {
+    char leading = input.charAt(from);
+    if (leading != ZERO && leading != ONE) {
+      return false;
+    }
+    int pointIndex = from + QVALUE_INTEGER_LENGTH;
+    if (pointIndex == to) {
+      return true;
+    }
+    int decimals = to - pointIndex - 1;
+    if (input.charAt(pointIndex) != DECIMAL_POINT || decimals > MAX_QVALUE_DECIMALS) {
+      return false;
+    }
+    char maxDigit = leading == ZERO ? NINE : ZERO;
+    for (int characterIndex = pointIndex + 1; characterIndex < to; characterIndex++) {
+      char character = input.charAt(characterIndex);
+      if (character < ZERO || character > maxDigit) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isWildcard(String input, int from, int to) {
+    return to - from == 1 && input.charAt(from) == WILDCARD;
+  }
+
+  private static int elementEnd(String input, int from) {
+    int comma = input.indexOf(COMMA_SEPARATOR, from);
+    return comma < 0 ? input.length() : comma;
+  }
+
+  private static int indexOf(String input, char character, int from, int to) {
+    for (int characterIndex = from; characterIndex < to; characterIndex++) {
+      if (input.charAt(characterIndex) == character) {
+        return characterIndex;
+      }
+    }
+    return to;
+  }
+
+  private static int skipWhitespace(String input, int from, int to) {
+    int characterIndex = from;
+    while (characterIndex < to && isWhitespace(input.charAt(characterIndex))) {
+      characterIndex++;
+    }
+    return characterIndex;
+  }
+
+  private static int trimWhitespace(String input, int from, int to) {
+    int characterIndex = to;
+    while (characterIndex > from && isWhitespace(input.charAt(characterIndex - 1))) {
+      characterIndex--;
+    }
+    return characterIndex;
+  }
+
+  private static boolean isWhitespace(char character) {
+    return character == SPACE || character == TAB;
+  }
+}
@@ -0,0 +1,53 @@
+package nva.commons.apigateway.mediatype;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of parse results keyed by the raw header value. Production {@code Accept} and
+ * {@code Content-Type} headers are dominated by a handful of literal strings, and {@link
+ * MediaTypeParseResult} is immutable, so a hit returns the same interned instance without parsing.
+ *
+ * <p>The cache never grows past its capacity: once full it is cleared and refilled, which keeps it
+ * cheap and lets the working set of common headers re-establish itself if a burst of unusual values
+ * pushed them out. Long inputs are never cached, so a client cannot pin large strings in memory.
+ *
+ * <p>Package-private: not part of the public API.
+ */
+final class ParseResultCache {
+
+  static final int DISABLED = 0;
+  private static final int MAX_CACHEABLE_INPUT_CHARS = 256;
+
+  private final int capacity;
+  private final Map<String, MediaTypeParseResult> results;
+
+  ParseResultCache(int capacity) {
+    this.capacity = capacity;
+    this.results = new ConcurrentHashMap<>();
+  }
+
+  MediaTypeParseResult get(String input, Function<String, MediaTypeParseResult> parser) {
+    if (!isCacheable(input)) {
+      return parser.apply(input);
+    }
+    var cached = results.get(input);
+    if (nonNull(cached)) {
+      return cached;
+    }
+    var parsed = parser.apply(input);
+    if (results.size() >= capacity) {
+      results.clear();
+    }
+    results.put(input, parsed);
+    return parsed;
+  }
+
+  private boolean isCacheable(String input) {
+    return capacity > DISABLED && !isNull(input) && input.length() <= MAX_CACHEABLE_INPUT_CHARS;
+  }
+}
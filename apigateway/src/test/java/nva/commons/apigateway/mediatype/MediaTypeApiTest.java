@@ -4,11 +4,13 @@ import static nva.commons.apigateway.mediatype.MediaTypeTestSupport.hasCode;
 import static nva.commons.apigateway.mediatype.MediaTypeTestSupport.parseMediaType;
 import static nva.commons.apigateway.mediatype.MediaTypeTestSupport.rejected;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import nva.commons.apigateway.mediatype.MediaTypeParseResult.Severity;
 import nva.commons.apigateway.mediatype.MediaTypeParseResult.Violation;
@@ -436,6 +438,110 @@ class MediaTypeApiTest {
     }
   }
 
+  // ============================================================ Fast path & cache
+  @Nested
+  @DisplayName("MediaTypeParser — fast path & result cache")
+  class FastPathAndCache {
+
+    @ParameterizedTest(name = "fast path agrees with full pipeline for Accept: {0}")
+    @ValueSource(
+        strings = {
+          "application/json",
+          "text/html, application/xhtml+xml, application/xml;q=0.9, */*;q=0.8",
+          " text/html ;  Q=0.5 , */*",
+          "*/*;q=0",
+          "text/*;q=1.000",
+          "text/html;q=0.5555",
+          "text/html;q =0.5",
+          "text/html;charset=utf-8",
+          "text/html,,application/json",
+          "text/html,",
+          ""
+        })
+    void shouldMatchFullPipelineForAcceptList(String input) {
+      var expected = new ParseContext(PARSER.config(), true).parseList(input);
+
+      assertThat(PARSER.parseList(input)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest(name = "fast path agrees with full pipeline for Content-Type: {0}")
+    @ValueSource(
+        strings = {
+          "application/json",
+          "Application/LD+JSON",
+          "text/*",
+          "text/html;q=0.5",
+          "text/html, application/json",
+          "text/" + "a" + "b".repeat(64)
+        })
+    void shouldMatchFullPipelineForContentType(String input) {
+      var expected = new ParseContext(PARSER.config(), false).parse(input);
+
+      assertThat(PARSER.parse(input)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("a custom q handler is honoured even for simple inputs")
+    void shouldRunCustomQualityHandlerForSimpleInput() {
+      var parser =
+          MediaTypeParser.builder()
+              .parameterHandler(rejectingHandler(ParameterHandler.QUALITY, "no_q"))
+              .build();
+
+      assertThat(rejected(parser.parseList("text/html;q=0.5"), "no_q")).isTrue();
+    }
+
+    @Test
+    void shouldReturnSameInstanceForRepeatedInputWhenCacheEnabled() {
+      var parser = MediaTypeParser.builder().resultCacheSize(2).build();
+      var input = "text/html, application/json;q=0.9";
+
+      assertThat(parser.parseList(input)).isSameAs(parser.parseList(input));
+      assertThat(parser.parse("text/plain; charset=utf-8"))
+          .isSameAs(parser.parse("text/plain; charset=utf-8"));
+    }
+
+    @Test
+    void shouldNotCacheWhenCacheDisabled() {
+      var parser = MediaTypeParser.builder().build();
+
+      assertThat(parser.parseList("text/html")).isNotSameAs(parser.parseList("text/html"));
+    }
+
+    @Test
+    void shouldKeepParsingCorrectlyWhenCacheOverflows() {
+      var parser = MediaTypeParser.builder().resultCacheSize(1).build();
+
+      assertThat(parser.parseList("text/html").first().orElseThrow().essence())
+          .isEqualTo("text/html");
+      assertThat(parser.parseList("application/json").first().orElseThrow().essence())
+          .isEqualTo("application/json");
+      assertThat(parser.parseList("text/html").first().orElseThrow().essence())
+          .isEqualTo("text/html");
+    }
+
+    @Test
+    void shouldNotCacheNullInput() {
+      var parser = MediaTypeParser.builder().resultCacheSize(2).build();
+
+      assertThat(rejected(parser.parseList(null), "null_input")).isTrue();
+    }
+
+    private static ParameterHandler rejectingHandler(String name, String code) {
+      return new ParameterHandler() {
+        @Override
+        public String name() {
+          return name;
+        }
+
+        @Override
+        public void validate(String value, Context context) {
+          context.reject(code, "rejected by test handler");
+        }
+      };
+    }
+  }
+
   // ============================================================ Handlers
   @Nested
   @DisplayName("ParameterHandler — pluggable parameter semantics")
@@ -770,6 +876,63 @@ class MediaTypeApiTest {
 
       assertThat(preference.isAcceptable()).isTrue();
     }
+
+    @ParameterizedTest(name = "compiled negotiator agrees with rank() for Accept: {0}")
+    @ValueSource(
+        strings = {
+          RFC_ACCEPT,
+          "",
+          "*/*;q=0",
+          "text/*, application/*;q=0.2",
+          "*/ld+json",
+          "application/ld+json; profile=\"https://schema.org https://w3.org/ns/expanded\"",
+          "application/ld+json; profile=\"https://unknown.example\"; q=0.9, text/html;level=2"
+        })
+    void shouldRankLikeUncompiledNegotiator(String acceptHeader) {
+      var accept = PARSER.parseList(acceptHeader);
+      var offered =
+          Stream.of(
+                  "text/html;level=1",
+                  "text/html",
+                  "text/plain",
+                  "image/jpeg",
+                  "text/html;level=2",
+                  "application/ld+json; profile=\"https://schema.org\"",
+                  "application/ld+json; profile=\"https://w3.org/ns/expanded https://schema.org\"",
+                  "application/json")
+              .map(MediaTypeTestSupport::parseMediaType)
+              .toList();
+
+      var compiled = NEGOTIATOR.compile(offered);
+
+      assertThat(compiled.rank(accept)).isEqualTo(NEGOTIATOR.rank(accept, offered));
+      assertThat(compiled.best(accept)).isEqualTo(NEGOTIATOR.best(accept, offered));
+    }
+
+    @Test
+    void shouldHonourIgnoredParametersWhenCompiled() {
+      var accept = PARSER.parseList("text/html;charset=utf-8");
+      var offered = List.of(new MediaType("text", "html"));
+
+      assertThat(NEGOTIATOR.compile(offered).best(accept)).isPresent();
+      assertThat(ContentNegotiator.strict().compile(offered).best(accept)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectCompilingMoreThan64DistinctProfiles() {
+      var offered =
+          IntStream.rangeClosed(0, 64)
+              .mapToObj(
+                  index ->
+                      new MediaType(
+                          "application",
+                          "ld+json",
+                          Map.of("profile", "https://profile.example/" + index)))
+              .toList();
+
+      assertThatThrownBy(() -> NEGOTIATOR.compile(offered))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
   }
 
   // ============================================================ Quoted-string parsing
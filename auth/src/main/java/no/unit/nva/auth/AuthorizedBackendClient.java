@@ -1,6 +1,7 @@
 package no.unit.nva.auth;
 
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 import java.io.IOException;
 import java.net.http.HttpClient;
@@ -8,10 +9,10 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.Builder;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandler;
-import java.time.Clock;
 import java.util.concurrent.CompletableFuture;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
+import nva.commons.core.http.HttpClientFactory;
 
 public class AuthorizedBackendClient {
 
@@ -22,23 +23,22 @@ public class AuthorizedBackendClient {
 
   private final HttpClient httpClient;
   private final CachedJwtProvider cachedJwtProvider;
-  private final boolean bearerTokenIsNotInjectedDirectly;
-  private String bearerToken;
+  private final String bearerToken;
 
   protected AuthorizedBackendClient(
       HttpClient httpClient, String bearerToken, CognitoCredentials cognitoCredentials) {
     this.httpClient = httpClient;
     this.bearerToken = bearerToken;
     this.cachedJwtProvider =
-        new CachedJwtProvider(
-            new CognitoAuthenticator(httpClient, cognitoCredentials), Clock.systemDefaultZone());
-    this.bearerTokenIsNotInjectedDirectly = isNull(bearerToken);
+        nonNull(bearerToken) || isNull(cognitoCredentials)
+            ? null
+            : BackendTokenRegistry.providerFor(httpClient, cognitoCredentials);
   }
 
   @JacocoGenerated
   public static AuthorizedBackendClient prepareWithCognitoCredentials(
       CognitoCredentials cognitoCredentials) {
-    return prepareWithCognitoCredentials(HttpClient.newHttpClient(), cognitoCredentials);
+    return prepareWithCognitoCredentials(HttpClientFactory.shared(), cognitoCredentials);
   }
 
   public static AuthorizedBackendClient prepareWithCognitoCredentials(
@@ -48,7 +48,7 @@ public class AuthorizedBackendClient {
 
   @JacocoGenerated
   public static AuthorizedBackendClient prepareWithBearerToken(String bearerToken) {
-    return prepareWithBearerToken(HttpClient.newHttpClient(), bearerToken);
+    return prepareWithBearerToken(HttpClientFactory.shared(), bearerToken);
   }
 
   public static AuthorizedBackendClient prepareWithBearerToken(
@@ -64,8 +64,7 @@ public class AuthorizedBackendClient {
 
   public <T> HttpResponse<T> send(HttpRequest.Builder request, BodyHandler<T> responseBodyHandler)
       throws IOException, InterruptedException {
-    refreshTokenIfExpired();
-    var authorizedRequest = request.setHeader(AUTHORIZATION_HEADER, bearerToken).build();
+    var authorizedRequest = authorize(request, authorizationHeader());
 
     if (hasInvalidBackendHost(authorizedRequest)) {
       throw new IllegalArgumentException(
@@ -82,22 +81,39 @@ public class AuthorizedBackendClient {
         .orElse(true);
   }
 
+  /**
+   * Sends the request without blocking the calling thread, including when the backend access token
+   * has to be fetched or refreshed first. Failures, also when fetching the token, complete the
+   * returned future exceptionally.
+   */
   public <T> CompletableFuture<HttpResponse<T>> sendAsync(
       Builder request, BodyHandler<T> responseBodyHandler) {
-    refreshTokenIfExpired();
-    var authorizedRequest = request.setHeader(AUTHORIZATION_HEADER, bearerToken).build();
-    return httpClient.sendAsync(authorizedRequest, responseBodyHandler);
+    var requestTemplate = request.copy();
+    return authorizationHeaderAsync()
+        .thenApply(header -> authorize(requestTemplate, header))
+        .thenCompose(
+            authorizedRequest -> httpClient.sendAsync(authorizedRequest, responseBodyHandler));
   }
 
   @JacocoGenerated
   protected String getBearerToken() {
-    return bearerToken;
+    return authorizationHeader();
   }
 
-  private void refreshTokenIfExpired() {
-    if (bearerTokenIsNotInjectedDirectly) {
-      this.bearerToken = createBearerToken(cachedJwtProvider.getValue().getToken());
-    }
+  private static HttpRequest authorize(Builder request, String authorizationHeader) {
+    return request.copy().setHeader(AUTHORIZATION_HEADER, authorizationHeader).build();
+  }
+
+  private String authorizationHeader() {
+    return isNull(bearerToken)
+        ? createBearerToken(cachedJwtProvider.getValue().getToken())
+        : bearerToken;
+  }
+
+  private CompletableFuture<String> authorizationHeaderAsync() {
+    return isNull(bearerToken)
+        ? cachedJwtProvider.getValueAsync().thenApply(jwt -> createBearerToken(jwt.getToken()))
+        : CompletableFuture.completedFuture(bearerToken);
   }
 
   private String createBearerToken(String accessToken) {
@@ -0,0 +1,87 @@
+package no.unit.nva.auth;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide backend access tokens, one per Cognito app client and token server. Every {@link
+ * AuthorizedBackendClient} built from {@link CognitoCredentials} gets its token from here, so a
+ * Lambda that creates several clients for the same backend client and HttpClient does a single
+ * client-credentials exchange on cold start and a single refresh before each expiry.
+ *
+ * <p>A token is only handed to callers with the client secret and {@link HttpClient} it was
+ * registered with. A caller with another secret, for example after the secret was rotated, or
+ * another HttpClient replaces the registered token, so a caller never uses credentials or an
+ * HttpClient that another caller registered, and the registry holds at most one secret and
+ * HttpClient per app client.
+ *
+ * <p>Tokens live in static state, so with SnapStart a token fetched during initialization (for
+ * example with {@link #prefetch(HttpClient, CognitoCredentials)}) is part of the snapshot. After a
+ * restore it is reused while it is still valid, and refreshed as usual once it is not.
+ */
+public final class BackendTokenRegistry {
+
+  private static final Map<TokenKey, Registration> REGISTRATIONS = new ConcurrentHashMap<>();
+
+  private BackendTokenRegistry() {}
+
+  /** The shared token provider for {@code credentials} and {@code httpClient}. */
+  public static CachedJwtProvider providerFor(
+      HttpClient httpClient, CognitoCredentials credentials) {
+    var key =
+        new TokenKey(credentials.getCognitoAppClientId(), credentials.getCognitoOAuthServerUri());
+    var clientSecret = credentials.getCognitoAppClientSecret();
+    var registration = REGISTRATIONS.get(key);
+    if (isNull(registration) || !registration.isFor(clientSecret, httpClient)) {
+      registration =
+          REGISTRATIONS.compute(
+              key,
+              (ignored, current) ->
+                  nonNull(current) && current.isFor(clientSecret, httpClient)
+                      ? current
+                      : new Registration(
+                          clientSecret, httpClient, createProvider(httpClient, credentials)));
+    }
+    return registration.provider();
+  }
+
+  /** Fetches the token now, e.g. during Lambda initialization, so the first request does not. */
+  public static void prefetch(HttpClient httpClient, CognitoCredentials credentials) {
+    providerFor(httpClient, credentials).getValue();
+  }
+
+  /** Forgets all tokens, e.g. after rotating client credentials. */
+  public static void clear() {
+    REGISTRATIONS.clear();
+  }
+
+  private static CachedJwtProvider createProvider(
+      HttpClient httpClient, CognitoCredentials credentials) {
+    return new CachedJwtProvider(
+        new CognitoAuthenticator(httpClient, credentials), Clock.systemDefaultZone());
+  }
+
+  private record TokenKey(String clientId, URI authServerUri) {}
+
+  /** HttpClient does not override equals, so clients are compared by identity. */
+  private record Registration(
+      String clientSecret, HttpClient httpClient, CachedJwtProvider provider) {
+
+    private boolean isFor(String clientSecret, HttpClient httpClient) {
+      return Objects.equals(this.httpClient, httpClient)
+          && Objects.equals(this.clientSecret, clientSecret);
+    }
+
+    @Override
+    public String toString() {
+      return "Registration[httpClient=" + httpClient + ", provider=" + provider + "]";
+    }
+  }
+}
@@ -1,11 +1,27 @@
 package no.unit.nva.auth;
 
+import static java.util.Objects.isNull;
+
 import com.auth0.jwt.interfaces.DecodedJWT;
 import java.time.Clock;
+import java.time.Duration;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+/**
+ * Caches the backend bearer token. The token counts as expired 5 seconds before its expiry time,
+ * and is refreshed in the background once it is within a minute of that, so callers normally never
+ * wait for Cognito. For tokens that live less than four minutes the refresh-ahead window is a
+ * quarter of the token's lifetime instead, so that a short-lived token is not refreshed on every
+ * call.
+ */
 public class CachedJwtProvider extends CachedValueProvider<DecodedJWT> {
 
+  private static final Duration EXPIRY_MARGIN = Duration.ofSeconds(5);
+  private static final Duration MAX_REFRESH_AHEAD_WINDOW = Duration.ofSeconds(60);
+  private static final int REFRESH_AHEAD_FRACTION_OF_LIFETIME = 4;
+
   private final CognitoAuthenticator cognitoAuthenticator;
   private final Clock clock;
 
@@ -15,18 +31,45 @@ public class CachedJwtProvider extends CachedValueProvider<DecodedJWT> {
     this.clock = clock;
   }
 
+  public CachedJwtProvider(
+      CognitoAuthenticator cognitoAuthenticator, Clock clock, Executor refreshExecutor) {
+    super(refreshExecutor);
+    this.cognitoAuthenticator = cognitoAuthenticator;
+    this.clock = clock;
+  }
+
   @Override
   protected boolean isExpired() {
-    var in5sec = clock.instant().plusMillis(5000);
-
-    var expiresAtDate = cachedValue.getExpiresAt();
-    var dateIn5Secs = Date.from(in5sec);
+    return expiresWithin(EXPIRY_MARGIN);
+  }
 
-    return expiresAtDate.before(dateIn5Secs);
+  @Override
+  protected boolean shouldRefreshAhead() {
+    return expiresWithin(EXPIRY_MARGIN.plus(refreshAheadWindow()));
   }
 
   @Override
   protected DecodedJWT getNewValue() {
     return cognitoAuthenticator.fetchBearerToken();
   }
+
+  @Override
+  protected CompletableFuture<DecodedJWT> getNewValueAsync() {
+    return cognitoAuthenticator.fetchBearerTokenAsync();
+  }
+
+  private Duration refreshAheadWindow() {
+    var issuedAt = cachedValue.getIssuedAt();
+    if (isNull(issuedAt)) {
+      return MAX_REFRESH_AHEAD_WINDOW;
+    }
+    var lifetime = Duration.between(issuedAt.toInstant(), cachedValue.getExpiresAt().toInstant());
+    var window = lifetime.dividedBy(REFRESH_AHEAD_FRACTION_OF_LIFETIME);
+    return window.compareTo(MAX_REFRESH_AHEAD_WINDOW) < 0 ? window : MAX_REFRESH_AHEAD_WINDOW;
+  }
+
+  private boolean expiresWithin(Duration duration) {
+    var expiresAtDate = cachedValue.getExpiresAt();
+    return expiresAtDate.before(Date.from(clock.instant().plus(duration)));
+  }
 }
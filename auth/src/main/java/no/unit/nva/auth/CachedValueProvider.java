@@ -1,17 +1,184 @@
 package no.unit.nva.auth;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread-safe cache of a single value that is expensive to fetch, such as an access token.
+ *
+ * <p>Refreshes are single-flight: when the value has expired exactly one refresh runs, and
+ * concurrent callers wait for that result instead of fetching their own. {@link #getValue()}
+ * fetches on the calling thread, while {@link #getValueAsync()} returns a future that completes
+ * when {@link #getNewValueAsync()} does, so asynchronous callers never block on a refresh. When
+ * {@link #shouldRefreshAhead()} reports that a still-valid value is about to expire, one background
+ * refresh is started on the refresh executor and callers keep getting the current value until it
+ * completes. A failed background refresh is logged and retried on a later call; the current value
+ * stays in use until it actually expires.
+ *
+ * @param <T> the type of the cached value.
+ */
 public abstract class CachedValueProvider<T> {
 
-  protected T cachedValue;
+  private static final Logger LOGGER = LoggerFactory.getLogger(CachedValueProvider.class);
+  private static final String BACKGROUND_REFRESH_FAILED =
+      "Background refresh of cached value failed";
+
+  protected volatile T cachedValue;
+  private final AtomicReference<CompletableFuture<T>> runningRefresh = new AtomicReference<>();
+  private final Executor refreshExecutor;
+
+  protected CachedValueProvider() {
+    this(CachedValueProvider::startVirtualThread);
+  }
+
+  protected CachedValueProvider(Executor refreshExecutor) {
+    this.refreshExecutor = refreshExecutor;
+  }
 
   public T getValue() {
-    if (cachedValue == null || isExpired()) {
-      cachedValue = getNewValue();
+    var current = cachedValue;
+    if (isNull(current) || isExpired()) {
+      return refreshOnCallingThread();
+    }
+    if (shouldRefreshAhead()) {
+      startBackgroundRefresh();
+    }
+    return current;
+  }
+
+  /**
+   * Same as {@link #getValue()}, but a missing or expired value is fetched with {@link
+   * #getNewValueAsync()} and the calling thread never waits for it. Fetch failures complete the
+   * returned future exceptionally.
+   */
+  public CompletableFuture<T> getValueAsync() {
+    var current = cachedValue;
+    if (isNull(current) || isExpired()) {
+      return refreshAsynchronously();
+    }
+    if (shouldRefreshAhead()) {
+      startBackgroundRefresh();
     }
-    return cachedValue;
+    return CompletableFuture.completedFuture(current);
   }
 
   protected abstract boolean isExpired();
 
   protected abstract T getNewValue();
+
+  /**
+   * Fetches a new value without blocking the calling thread. Default: runs {@link #getNewValue()}
+   * on the refresh executor.
+   */
+  protected CompletableFuture<T> getNewValueAsync() {
+    return CompletableFuture.supplyAsync(this::getNewValue, refreshExecutor);
+  }
+
+  /**
+   * Whether the cached value, although not expired, should be replaced in the background. Only
+   * called when a value is cached. Default: never.
+   */
+  protected boolean shouldRefreshAhead() {
+    return false;
+  }
+
+  private T refreshOnCallingThread() {
+    var refresh = new CompletableFuture<T>();
+    var running = runningRefresh.compareAndExchange(null, refresh);
+    if (nonNull(running)) {
+      return await(running);
+    }
+    fetchInto(refresh, isMissingOrExpired());
+    return await(refresh);
+  }
+
+  private CompletableFuture<T> refreshAsynchronously() {
+    var refresh = new CompletableFuture<T>();
+    var running = runningRefresh.compareAndExchange(null, refresh);
+    if (nonNull(running)) {
+      return running.copy();
+    }
+    if (isMissingOrExpired()) {
+      newValueAsync().whenComplete((value, error) -> complete(refresh, value, error));
+    } else {
+      complete(refresh, cachedValue, null);
+    }
+    return refresh.copy();
+  }
+
+  private void startBackgroundRefresh() {
+    var refresh = new CompletableFuture<T>();
+    if (runningRefresh.compareAndSet(null, refresh)) {
+      refresh.whenComplete(CachedValueProvider::logBackgroundFailure);
+      refreshExecutor.execute(
+          () -> fetchInto(refresh, isMissingOrExpired() || shouldRefreshAhead()));
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private void fetchInto(CompletableFuture<T> refresh, boolean refreshIsNeeded) {
+    try {
+      complete(refresh, refreshIsNeeded ? getNewValue() : cachedValue, null);
+    } catch (RuntimeException exception) {
+      complete(refresh, null, exception);
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private CompletableFuture<T> newValueAsync() {
+    try {
+      return getNewValueAsync();
+    } catch (RuntimeException exception) {
+      return CompletableFuture.failedFuture(exception);
+    }
+  }
+
+  /** Publishes the outcome: the new value is visible before the next refresh can start. */
+  private void complete(CompletableFuture<T> refresh, T value, Throwable error) {
+    if (isNull(error)) {
+      cachedValue = value;
+    }
+    runningRefresh.set(null);
+    if (isNull(error)) {
+      refresh.complete(value);
+    } else {
+      refresh.completeExceptionally(unwrap(error));
+    }
+  }
+
+  private boolean isMissingOrExpired() {
+    return isNull(cachedValue) || isExpired();
+  }
+
+  private static <T> T await(CompletableFuture<T> refresh) {
+    try {
+      return refresh.join();
+    } catch (CompletionException exception) {
+      throw exception.getCause() instanceof RuntimeException cause ? cause : exception;
+    }
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && nonNull(error.getCause())
+        ? error.getCause()
+        : error;
+  }
+
+  private static void logBackgroundFailure(Object value, Throwable error) {
+    if (nonNull(error)) {
+      LOGGER.warn(BACKGROUND_REFRESH_FAILED, error);
+    }
+  }
+
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private static void startVirtualThread(Runnable task) {
+    Thread.ofVirtual().start(task);
+  }
 }
@@ -17,6 +17,7 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import nva.commons.core.paths.UriWrapper;
 import software.amazon.awssdk.http.HttpStatusFamily;
 
@@ -37,7 +38,21 @@ public class CognitoAuthenticator {
   }
 
   public DecodedJWT fetchBearerToken() {
-    var tokenResponse = fetchTokenResponse();
+    return decodeToken(fetchTokenResponse());
+  }
+
+  /**
+   * Same as {@link #fetchBearerToken()}, but the token request is sent with {@link
+   * HttpClient#sendAsync} so the calling thread never waits for the token endpoint.
+   */
+  public CompletableFuture<DecodedJWT> fetchBearerTokenAsync() {
+    return httpClient
+        .sendAsync(createTokenRequest(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+        .thenApply(this::responseIsSuccessful)
+        .thenApply(this::decodeToken);
+  }
+
+  private DecodedJWT decodeToken(HttpResponse<String> tokenResponse) {
     return attempt(() -> tokenResponse)
         .map(HttpResponse::body)
         .map(JSON.std::mapFrom)
@@ -5,7 +5,6 @@ import static nva.commons.core.attempt.Try.attempt;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.nio.charset.StandardCharsets;
@@ -13,6 +12,7 @@ import java.util.Optional;
 import no.unit.nva.auth.AuthorizedBackendClient;
 import no.unit.nva.auth.CognitoCredentials;
 import nva.commons.core.JacocoGenerated;
+import nva.commons.core.http.HttpClientFactory;
 import nva.commons.core.paths.UriWrapper;
 import nva.commons.secrets.SecretsReader;
 import org.slf4j.Logger;
@@ -26,6 +26,7 @@ public class AuthorizedBackendUriRetriever implements RawContentRetriever {
   public static final String FAILED_TO_RETRIEVE_URI = "Failed to retrieve uri {}";
   public static final String API_RESPONDED_WITH_ERROR_CODE = "Api responded with: ";
   public static final String ACCEPT = "Accept";
+  public static final String IF_NONE_MATCH = "If-None-Match";
   private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizedBackendUriRetriever.class);
   private final SecretsReader secretsReader;
 
@@ -50,7 +51,7 @@ public class AuthorizedBackendUriRetriever implements RawContentRetriever {
   public AuthorizedBackendUriRetriever(
       String backendClientAuthUrl, String backendClientSecretName) {
     this(
-        HttpClient.newHttpClient(),
+        HttpClientFactory.shared(),
         SecretsReader.defaultSecretsManagerClient(),
         backendClientAuthUrl,
         backendClientSecretName);
@@ -68,6 +69,18 @@ public class AuthorizedBackendUriRetriever implements RawContentRetriever {
     return attempt(() -> getHttpResponse(uri, mediaType)).toOptional();
   }
 
+  @Override
+  public Optional<HttpResponse<String>> fetchResponseIfNoneMatch(
+      URI uri, String mediaType, String etag) {
+    var request =
+        HttpClientFactory.newRequest(uri).headers(ACCEPT, mediaType, IF_NONE_MATCH, etag).GET();
+    return attempt(
+            () ->
+                authorizedBackendClient.send(
+                    request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
+        .toOptional();
+  }
+
   private URI getCognitoTokenUrl() {
     return UriWrapper.fromHost(backendClientAuthUrl).getUri();
   }
@@ -90,7 +103,7 @@ public class AuthorizedBackendUriRetriever implements RawContentRetriever {
 
   private HttpResponse<String> getHttpResponse(URI customerId, String mediaType)
       throws IOException, InterruptedException {
-    var request = HttpRequest.newBuilder(customerId).headers(ACCEPT, mediaType).GET();
+    var request = HttpClientFactory.newRequest(customerId).headers(ACCEPT, mediaType).GET();
     return authorizedBackendClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8));
   }
 }
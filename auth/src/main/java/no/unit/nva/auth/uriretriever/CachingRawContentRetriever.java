@@ -0,0 +1,292 @@
+package no.unit.nva.auth.uriretriever;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link RawContentRetriever} that caches the successful responses of another retriever, by URI and
+ * media type.
+ *
+ * <p>Example:
+ *
+ * <pre>
+ *      RawContentRetriever retriever = CachingRawContentRetriever.builder(new UriRetriever())
+ *          .withTimeToLive(Duration.ofMinutes(10))
+ *          .withMaximumSize(5000)
+ *          .build();
+ *      Optional&#60;String&#62; context = retriever.getRawContent(contextUri, JSON_LD);
+ * </pre>
+ *
+ * <p>A cached response is served until its time to live has passed. After that, a response with an
+ * {@code ETag} is revalidated with {@code If-None-Match}; a {@code 304 Not Modified} renews it
+ * without transferring the content again. Responses without an {@code ETag} are fetched again.
+ * Unsuccessful responses and failed requests are not cached.
+ *
+ * <p>Concurrent requests for the same URI and media type are single-flight: only one request is
+ * sent, and the other callers wait for its response. When full, the least recently used response
+ * is evicted. {@link #getRawContentAll(Collection, String)} keeps at most the configured maximum
+ * concurrency of requests in flight.
+ */
+public final class CachingRawContentRetriever implements RawContentRetriever {
+
+  private static final String ETAG = "ETag";
+  private static final int NOT_MODIFIED = 304;
+  private static final int SUCCESSFUL_MIN = 200;
+  private static final int SUCCESSFUL_MAX = 299;
+  private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+  private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+  private static final int MINIMUM_SIZE = 1;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final boolean ACCESS_ORDER = true;
+
+  private final RawContentRetriever delegate;
+  private final Duration timeToLive;
+  private final int maxConcurrency;
+  private final Clock clock;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<CacheKey, CachedResponse> entries;
+  private final Map<CacheKey, CompletableFuture<Optional<HttpResponse<String>>>> inFlight =
+      new ConcurrentHashMap<>();
+
+  private CachingRawContentRetriever(Builder builder) {
+    this.delegate = builder.delegate;
+    this.timeToLive = builder.timeToLive;
+    this.maxConcurrency = builder.maxConcurrency;
+    this.clock = builder.clock;
+    var maximumSize = builder.maximumSize;
+    this.entries =
+        new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, ACCESS_ORDER) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<CacheKey, CachedResponse> eldest) {
+            return size() > maximumSize;
+          }
+        };
+  }
+
+  /**
+   * Creates a builder for a cache in front of {@code delegate}.
+   *
+   * @param delegate the retriever that fetches content that is not cached
+   * @return a builder
+   */
+  public static Builder builder(RawContentRetriever delegate) {
+    return new Builder(delegate);
+  }
+
+  /**
+   * Returns the content of a successful response, from the cache if possible.
+   *
+   * @param uri the URI to fetch
+   * @param mediaType the accepted media type
+   * @return the content, or empty if the request failed or was not successful
+   */
+  @Override
+  public Optional<String> getRawContent(URI uri, String mediaType) {
+    return fetchResponse(uri, mediaType)
+        .filter(CachingRawContentRetriever::isSuccessful)
+        .map(HttpResponse::body);
+  }
+
+  /**
+   * Returns the response for {@code uri}, from the cache if possible. A revalidated response is
+   * returned as it was first received, not as the {@code 304} that renewed it.
+   *
+   * @param uri the URI to fetch
+   * @param mediaType the accepted media type
+   * @return the response, or empty if the request failed
+   */
+  @Override
+  public Optional<HttpResponse<String>> fetchResponse(URI uri, String mediaType) {
+    var key = new CacheKey(uri, mediaType);
+    var cached = getCached(key);
+    if (nonNull(cached) && cached.isFreshAt(clock.millis())) {
+      return Optional.of(cached.response());
+    }
+    var call = new CompletableFuture<Optional<HttpResponse<String>>>();
+    var ongoing = inFlight.putIfAbsent(key, call);
+    return isNull(ongoing) ? fetchAndStore(key, cached, call) : await(ongoing);
+  }
+
+  /**
+   * Fetches the content of all {@code uris} concurrently, from the cache if possible, with at most
+   * the configured maximum concurrency of requests in flight. Each distinct URI is fetched once.
+   *
+   * @param uris the URIs to fetch
+   * @param mediaType the accepted media type
+   * @return the content that was found, by URI
+   */
+  @Override
+  public Map<URI, String> getRawContentAll(Collection<URI> uris, String mediaType) {
+    return ParallelContentFetcher.fetchAll(this, uris, mediaType, maxConcurrency);
+  }
+
+  /** Removes all cached responses. */
+  public void invalidateAll() {
+    lock.lock();
+    try {
+      entries.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Number of cached responses, including expired responses that have not been replaced yet. */
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Optional<HttpResponse<String>> fetchAndStore(
+      CacheKey key,
+      CachedResponse cached,
+      CompletableFuture<Optional<HttpResponse<String>>> call) {
+    try {
+      var response = fetch(key, cached);
+      call.complete(response);
+      return response;
+    } catch (RuntimeException exception) {
+      call.completeExceptionally(exception);
+      throw exception;
+    } finally {
+      inFlight.remove(key, call);
+    }
+  }
+
+  private Optional<HttpResponse<String>> fetch(CacheKey key, CachedResponse cached) {
+    if (nonNull(cached) && cached.canRevalidate()) {
+      var response = delegate.fetchResponseIfNoneMatch(key.uri(), key.mediaType(), cached.etag());
+      if (response.filter(CachingRawContentRetriever::isNotModified).isPresent()) {
+        store(key, cached.response());
+        return Optional.of(cached.response());
+      }
+      response.filter(CachingRawContentRetriever::isSuccessful).ifPresent(r -> store(key, r));
+      return response;
+    }
+    var response = delegate.fetchResponse(key.uri(), key.mediaType());
+    response.filter(CachingRawContentRetriever::isSuccessful).ifPresent(r -> store(key, r));
+    return response;
+  }
+
+  private static Optional<HttpResponse<String>> await(
+      CompletableFuture<Optional<HttpResponse<String>>> call) {
+    try {
+      return call.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw exception;
+    }
+  }
+
+  private CachedResponse getCached(CacheKey key) {
+    lock.lock();
+    try {
+      return entries.get(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void store(CacheKey key, HttpResponse<String> response) {
+    var etag = response.headers().firstValue(ETAG).orElse(null);
+    var entry = new CachedResponse(response, etag, clock.millis() + timeToLive.toMillis());
+    lock.lock();
+    try {
+      entries.put(key, entry);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static boolean isNotModified(HttpResponse<String> response) {
+    return response.statusCode() == NOT_MODIFIED;
+  }
+
+  private static boolean isSuccessful(HttpResponse<String> response) {
+    return response.statusCode() >= SUCCESSFUL_MIN && response.statusCode() <= SUCCESSFUL_MAX;
+  }
+
+  private record CacheKey(URI uri, String mediaType) {}
+
+  private record CachedResponse(HttpResponse<String> response, String etag, long freshUntilMillis) {
+
+    private boolean isFreshAt(long nowMillis) {
+      return nowMillis < freshUntilMillis;
+    }
+
+    private boolean canRevalidate() {
+      return nonNull(etag);
+    }
+  }
+
+  public static final class Builder {
+
+    private final RawContentRetriever delegate;
+    private Duration timeToLive = DEFAULT_TIME_TO_LIVE;
+    private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private int maxConcurrency = ParallelContentFetcher.DEFAULT_MAX_CONCURRENCY;
+    private Clock clock = Clock.systemUTC();
+
+    private Builder(RawContentRetriever delegate) {
+      this.delegate = delegate;
+    }
+
+    /** How long a response is served before it is revalidated. Default: 10 minutes. */
+    public Builder withTimeToLive(Duration timeToLive) {
+      this.timeToLive = timeToLive;
+      return this;
+    }
+
+    /** Maximum number of cached responses. Default: 1000. */
+    public Builder withMaximumSize(int maximumSize) {
+      if (maximumSize < MINIMUM_SIZE) {
+        throw new IllegalArgumentException("Maximum size must be positive, was: " + maximumSize);
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Maximum number of requests in flight in {@link
+     * CachingRawContentRetriever#getRawContentAll(Collection, String)}. Default: 16.
+     */
+    public Builder withMaxConcurrency(int maxConcurrency) {
+      if (maxConcurrency < MINIMUM_SIZE) {
+        throw new IllegalArgumentException(
+            "Maximum concurrency must be positive, was: " + maxConcurrency);
+      }
+      this.maxConcurrency = maxConcurrency;
+      return this;
+    }
+
+    public Builder withClock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    public CachingRawContentRetriever build() {
+      return new CachingRawContentRetriever(this);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package no.unit.nva.auth.uriretriever;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import nva.commons.core.attempt.Try;
+import nva.commons.core.parallel.ParallelMapper;
+
+/** Fetches the content of many URIs concurrently with a {@link RawContentRetriever}. */
+final class ParallelContentFetcher {
+
+  static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+  private ParallelContentFetcher() {}
+
+  /**
+   * Fetches each distinct URI once, with at most {@code maxConcurrency} requests in flight.
+   *
+   * @return the content that was found, by URI
+   */
+  static Map<URI, String> fetchAll(
+      RawContentRetriever retriever, Collection<URI> uris, String mediaType, int maxConcurrency) {
+    var mapper =
+        new ParallelMapper<URI, Optional<Map.Entry<URI, String>>>(
+                new LinkedHashSet<>(uris),
+                uri ->
+                    retriever
+                        .getRawContent(uri, mediaType)
+                        .map(content -> Map.entry(uri, content)))
+            .withVirtualThreads(maxConcurrency);
+    try (var results = mapper.mapAsStream()) {
+      return results
+          .map(Try::toOptional)
+          .flatMap(Optional::stream)
+          .flatMap(Optional::stream)
+          .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+  }
+}
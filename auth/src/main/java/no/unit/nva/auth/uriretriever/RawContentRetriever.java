@@ -2,6 +2,8 @@ package no.unit.nva.auth.uriretriever;
 
 import java.net.URI;
 import java.net.http.HttpResponse;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface RawContentRetriever {
@@ -9,4 +11,32 @@ public interface RawContentRetriever {
   Optional<String> getRawContent(URI uri, String mediaType);
 
   Optional<HttpResponse<String>> fetchResponse(URI uri, String mediaType);
+
+  /**
+   * Fetches {@code uri} with an {@code If-None-Match} header, so that the server can answer with
+   * {@code 304 Not Modified} if the content still has the entity tag {@code etag}. Retrievers that
+   * do not support conditional requests fetch the content unconditionally.
+   *
+   * @param uri the URI to fetch
+   * @param mediaType the accepted media type
+   * @param etag the entity tag of the content that the caller already has
+   * @return the response, or empty if the request failed
+   */
+  default Optional<HttpResponse<String>> fetchResponseIfNoneMatch(
+      URI uri, String mediaType, String etag) {
+    return fetchResponse(uri, mediaType);
+  }
+
+  /**
+   * Fetches the content of all {@code uris} concurrently, with at most 16 requests in flight. Each
+   * distinct URI is fetched once.
+   *
+   * @param uris the URIs to fetch
+   * @param mediaType the accepted media type
+   * @return the content that was found, by URI
+   */
+  default Map<URI, String> getRawContentAll(Collection<URI> uris, String mediaType) {
+    return ParallelContentFetcher.fetchAll(
+        this, uris, mediaType, ParallelContentFetcher.DEFAULT_MAX_CONCURRENCY);
+  }
 }
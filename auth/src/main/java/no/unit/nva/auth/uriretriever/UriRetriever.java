@@ -10,15 +10,17 @@ import java.net.http.HttpResponse.BodyHandlers;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import nva.commons.core.JacocoGenerated;
+import nva.commons.core.http.HttpClientFactory;
 
 @JacocoGenerated
 public class UriRetriever implements RawContentRetriever {
 
   public static final String ACCEPT = "Accept";
+  public static final String IF_NONE_MATCH = "If-None-Match";
   private final HttpClient httpClient;
 
   public UriRetriever() {
-    this.httpClient = newHttpClient();
+    this.httpClient = HttpClientFactory.shared();
   }
 
   public UriRetriever(HttpClient httpClient) {
@@ -46,11 +48,19 @@ public class UriRetriever implements RawContentRetriever {
         .toOptional();
   }
 
-  private static HttpClient newHttpClient() {
-    return HttpClient.newHttpClient();
+  @Override
+  public Optional<HttpResponse<String>> fetchResponseIfNoneMatch(
+      URI uri, String mediaType, String etag) {
+    var request =
+        HttpClientFactory.newRequest(uri)
+            .headers(ACCEPT, mediaType, IF_NONE_MATCH, etag)
+            .GET()
+            .build();
+    return attempt(() -> httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
+        .toOptional();
   }
 
   private HttpRequest createHttpRequest(URI uri, String mediaType) {
-    return HttpRequest.newBuilder().uri(uri).headers(ACCEPT, mediaType).GET().build();
+    return HttpClientFactory.newRequest(uri).headers(ACCEPT, mediaType).GET().build();
   }
 }
@@ -1,10 +1,12 @@
 package no.unit.nva.auth;
 
+import static no.unit.nva.auth.AuthorizedBackendClient.AUTHORIZATION_HEADER;
 import static no.unit.nva.auth.AuthorizedBackendClient.prepareWithBearerToken;
 import static no.unit.nva.auth.AuthorizedBackendClient.prepareWithCognitoCredentials;
 import static no.unit.nva.testutils.RandomDataGenerator.randomString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNot.not;
 import static org.hamcrest.core.StringContains.containsString;
@@ -22,6 +24,8 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
 import no.unit.nva.stubs.FakeAuthServer;
 import no.unit.nva.stubs.WiremockHttpClient;
 import nva.commons.core.paths.UriWrapper;
@@ -31,6 +35,7 @@ import org.junit.jupiter.api.Test;
 class AuthorizedBackendClientTest {
 
   public static final String EXAMPLE_RESOURCE_PATH = "/example";
+  private static final int CONCURRENT_REQUESTS = 10;
   private URI serverUri;
   private HttpClient httpClient;
   private String protectedContent;
@@ -82,9 +87,10 @@ class AuthorizedBackendClientTest {
     var request = buildRequest();
     var exception =
         assertThrows(
-            UnexpectedHttpResponseException.class,
+            CompletionException.class,
             () -> client.sendAsync(request, BodyHandlers.ofString(StandardCharsets.UTF_8)).join());
-    assertThat(exception.getMessage(), containsString("403"));
+    assertThat(exception.getCause(), is(instanceOf(UnexpectedHttpResponseException.class)));
+    assertThat(exception.getCause().getMessage(), containsString("403"));
   }
 
   @Test
@@ -94,9 +100,27 @@ class AuthorizedBackendClientTest {
 
     var client = prepareWithCognitoCredentials(httpClient, cognitoCredentials);
     var request = buildRequest();
-    assertThrows(
-        IllegalStateException.class,
-        () -> client.sendAsync(request, BodyHandlers.ofString(StandardCharsets.UTF_8)).join());
+    var exception =
+        assertThrows(
+            CompletionException.class,
+            () -> client.sendAsync(request, BodyHandlers.ofString(StandardCharsets.UTF_8)).join());
+    assertThat(exception.getCause(), is(instanceOf(IllegalStateException.class)));
+  }
+
+  @Test
+  void shouldNotBlockCallerOrModifyRequestBuilderWhenSendingAsync() {
+    var client = prepareWithCognitoCredentials(httpClient, cognitoCredentials);
+    var request = buildRequest();
+
+    var responses =
+        IntStream.range(0, CONCURRENT_REQUESTS)
+            .mapToObj(
+                ignored -> client.sendAsync(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
+            .toList();
+
+    responses.forEach(
+        response -> assertThat(response.join().body(), containsString(protectedContent)));
+    assertThat(request.build().headers().firstValue(AUTHORIZATION_HEADER).isPresent(), is(false));
   }
 
   @Test
@@ -166,6 +190,19 @@ class AuthorizedBackendClientTest {
     assertThat(secondToken, is(equalTo(firstToken)));
   }
 
+  @Test
+  void shouldShareBackendAccessTokenBetweenClientsWithSameCredentials()
+      throws IOException, InterruptedException {
+    var firstClient = prepareWithCognitoCredentials(httpClient, cognitoCredentials);
+    firstClient.send(buildRequest(), BodyHandlers.ofString(StandardCharsets.UTF_8));
+    authClientReturnsAnotherAccessTokenOnTheNextCall(
+        createTestJwt(Instant.now().plus(Duration.ofMinutes(10))));
+
+    var secondClient = prepareWithCognitoCredentials(httpClient, cognitoCredentials);
+
+    assertThat(secondClient.getBearerToken(), is(equalTo(firstClient.getBearerToken())));
+  }
+
   private static String createTestJwt(Instant expiresAt) {
     return JWT.create().withExpiresAt(Date.from(expiresAt)).sign(Algorithm.none());
   }
@@ -0,0 +1,126 @@
+package no.unit.nva.auth;
+
+import static no.unit.nva.testutils.RandomDataGenerator.randomString;
+import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BackendTokenRegistryTest {
+
+  private static final String SECRET = randomString();
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  @AfterEach
+  void tearDown() {
+    BackendTokenRegistry.clear();
+  }
+
+  @Test
+  void shouldShareProviderForSameClientIdAndAuthServer() {
+    var clientId = randomString();
+    var authServer = randomUri();
+
+    var first = BackendTokenRegistry.providerFor(httpClient, credentials(clientId, authServer));
+    var second = BackendTokenRegistry.providerFor(httpClient, credentials(clientId, authServer));
+
+    assertSame(first, second);
+  }
+
+  @Test
+  void shouldNotShareProviderBetweenDifferentClientIds() {
+    var authServer = randomUri();
+
+    var first =
+        BackendTokenRegistry.providerFor(httpClient, credentials(randomString(), authServer));
+    var second =
+        BackendTokenRegistry.providerFor(httpClient, credentials(randomString(), authServer));
+
+    assertNotSame(first, second);
+  }
+
+  @Test
+  void shouldNotShareProviderBetweenDifferentAuthServers() {
+    var clientId = randomString();
+
+    var first = BackendTokenRegistry.providerFor(httpClient, credentials(clientId, randomUri()));
+    var second = BackendTokenRegistry.providerFor(httpClient, credentials(clientId, randomUri()));
+
+    assertNotSame(first, second);
+  }
+
+  @Test
+  void shouldNotShareProviderBetweenDifferentSecrets() {
+    var clientId = randomString();
+    var authServer = randomUri();
+
+    var first =
+        BackendTokenRegistry.providerFor(
+            httpClient, credentials(clientId, randomString(), authServer));
+    var second =
+        BackendTokenRegistry.providerFor(
+            httpClient, credentials(clientId, randomString(), authServer));
+
+    assertNotSame(first, second);
+  }
+
+  @Test
+  void shouldNotShareProviderBetweenDifferentHttpClients() {
+    var credentials = credentials(randomString(), randomUri());
+
+    var first = BackendTokenRegistry.providerFor(httpClient, credentials);
+    var second = BackendTokenRegistry.providerFor(HttpClient.newHttpClient(), credentials);
+
+    assertNotSame(first, second);
+  }
+
+  @Test
+  void shouldShareReplacementProviderAfterSecretIsRotated() {
+    var clientId = randomString();
+    var authServer = randomUri();
+    var rotatedSecret = randomString();
+    var original = BackendTokenRegistry.providerFor(httpClient, credentials(clientId, authServer));
+
+    var first =
+        BackendTokenRegistry.providerFor(
+            httpClient, credentials(clientId, rotatedSecret, authServer));
+    var second =
+        BackendTokenRegistry.providerFor(
+            httpClient, credentials(clientId, rotatedSecret, authServer));
+
+    assertNotSame(original, first);
+    assertSame(first, second);
+  }
+
+  @Test
+  void shouldNotReturnProviderOfReplacedHttpClient() {
+    var credentials = credentials(randomString(), randomUri());
+    var original = BackendTokenRegistry.providerFor(httpClient, credentials);
+    BackendTokenRegistry.providerFor(HttpClient.newHttpClient(), credentials);
+
+    assertNotSame(original, BackendTokenRegistry.providerFor(httpClient, credentials));
+  }
+
+  @Test
+  void shouldCreateNewProviderAfterRegistryIsCleared() {
+    var credentials = credentials(randomString(), randomUri());
+    var first = BackendTokenRegistry.providerFor(httpClient, credentials);
+
+    BackendTokenRegistry.clear();
+
+    assertNotSame(first, BackendTokenRegistry.providerFor(httpClient, credentials));
+  }
+
+  private static CognitoCredentials credentials(String clientId, URI authServer) {
+    return credentials(clientId, SECRET, authServer);
+  }
+
+  private static CognitoCredentials credentials(String clientId, String secret, URI authServer) {
+    return new CognitoCredentials(() -> clientId, () -> secret, authServer);
+  }
+}
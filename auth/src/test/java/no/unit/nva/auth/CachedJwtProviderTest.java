@@ -2,7 +2,11 @@ package no.unit.nva.auth;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
@@ -10,14 +14,23 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 public class CachedJwtProviderTest {
 
   public static final Instant TOKEN_EXPIRE_AT = Instant.parse("2006-12-03T10:15:30.00Z");
+  private static final int CONCURRENT_CALLERS = 20;
+  private static final long SLOW_FETCH_MILLIS = 100;
+  private static final Duration SHORT_LIFETIME = Duration.ofSeconds(40);
   CachedJwtProvider cachedJwtProvider;
   private Clock mockedClock;
+  private CognitoAuthenticator cognitoAuthenticator;
 
   private DecodedJWT jwt1 = mock(DecodedJWT.class);
   private DecodedJWT jwt2 = mock(DecodedJWT.class);
@@ -30,7 +43,7 @@ public class CachedJwtProviderTest {
 
     mockedClock = mock(Clock.class);
 
-    var cognitoAuthenticator = mock(CognitoAuthenticator.class);
+    cognitoAuthenticator = mock(CognitoAuthenticator.class);
     when(cognitoAuthenticator.fetchBearerToken()).thenReturn(jwt1).thenReturn(jwt2);
     cachedJwtProvider = new CachedJwtProvider(cognitoAuthenticator, mockedClock);
   }
@@ -67,4 +80,110 @@ public class CachedJwtProviderTest {
 
     assertNotEquals(token1, token2);
   }
+
+  @Test
+  void shouldFetchTokenOnceWhenManyCallersFindItMissingAtTheSameTime() throws Exception {
+    var dateBeforeTokenExpiration = TOKEN_EXPIRE_AT.minus(Duration.ofMinutes(10));
+    when(mockedClock.instant()).thenReturn(dateBeforeTokenExpiration);
+    when(cognitoAuthenticator.fetchBearerToken())
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(SLOW_FETCH_MILLIS);
+              return jwt1;
+            });
+
+    var start = new CountDownLatch(1);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var futures =
+          IntStream.range(0, CONCURRENT_CALLERS)
+              .mapToObj(
+                  ignored ->
+                      executor.submit(
+                          () -> {
+                            start.await();
+                            return cachedJwtProvider.getValue();
+                          }))
+              .toList();
+      start.countDown();
+      for (Future<DecodedJWT> future : futures) {
+        assertSame(jwt1, future.get());
+      }
+    }
+
+    verify(cognitoAuthenticator, times(1)).fetchBearerToken();
+  }
+
+  @Test
+  void shouldKeepServingCurrentTokenWhileRefreshingAheadOfExpiry() {
+    var provider = new CachedJwtProvider(cognitoAuthenticator, mockedClock, Runnable::run);
+    var dateCloseToTokenExpiration = TOKEN_EXPIRE_AT.minus(Duration.ofSeconds(30));
+    when(mockedClock.instant()).thenReturn(dateCloseToTokenExpiration);
+
+    var firstToken = provider.getValue();
+    var tokenDuringRefresh = provider.getValue();
+    var tokenAfterRefresh = provider.getValue();
+
+    assertSame(jwt1, firstToken);
+    assertSame(jwt1, tokenDuringRefresh);
+    assertSame(jwt2, tokenAfterRefresh);
+  }
+
+  @Test
+  void shouldNotRefreshAheadWhenTokenIsFarFromExpiry() {
+    var provider = new CachedJwtProvider(cognitoAuthenticator, mockedClock, Runnable::run);
+    var dateBeforeTokenExpiration = TOKEN_EXPIRE_AT.minus(Duration.ofMinutes(10));
+    when(mockedClock.instant()).thenReturn(dateBeforeTokenExpiration);
+
+    provider.getValue();
+    provider.getValue();
+
+    verify(cognitoAuthenticator, times(1)).fetchBearerToken();
+  }
+
+  @Test
+  void shouldNotRefreshShortLivedTokenAheadUntilTheLastQuarterOfItsLifetime() {
+    when(jwt1.getIssuedAt()).thenReturn(Date.from(TOKEN_EXPIRE_AT.minus(SHORT_LIFETIME)));
+    var provider = new CachedJwtProvider(cognitoAuthenticator, mockedClock, Runnable::run);
+    var dateHalfwayThroughLifetime = TOKEN_EXPIRE_AT.minus(SHORT_LIFETIME.dividedBy(2));
+    when(mockedClock.instant()).thenReturn(dateHalfwayThroughLifetime);
+
+    provider.getValue();
+    provider.getValue();
+
+    verify(cognitoAuthenticator, times(1)).fetchBearerToken();
+  }
+
+  @Test
+  void shouldKeepCurrentTokenWhenBackgroundRefreshFails() {
+    when(cognitoAuthenticator.fetchBearerToken())
+        .thenReturn(jwt1)
+        .thenThrow(new IllegalStateException("Cognito unavailable"));
+    var provider = new CachedJwtProvider(cognitoAuthenticator, mockedClock, Runnable::run);
+    var dateCloseToTokenExpiration = TOKEN_EXPIRE_AT.minus(Duration.ofSeconds(30));
+    when(mockedClock.instant()).thenReturn(dateCloseToTokenExpiration);
+
+    provider.getValue();
+
+    assertSame(jwt1, provider.getValue());
+    assertSame(jwt1, provider.getValue());
+  }
+
+  @Test
+  void shouldFetchTokenAsynchronouslyOnceForConcurrentAsyncCallers() {
+    var dateBeforeTokenExpiration = TOKEN_EXPIRE_AT.minus(Duration.ofMinutes(10));
+    when(mockedClock.instant()).thenReturn(dateBeforeTokenExpiration);
+    var pendingToken = new CompletableFuture<DecodedJWT>();
+    when(cognitoAuthenticator.fetchBearerTokenAsync()).thenReturn(pendingToken);
+
+    var futures =
+        IntStream.range(0, CONCURRENT_CALLERS)
+            .mapToObj(ignored -> cachedJwtProvider.getValueAsync())
+            .toList();
+    pendingToken.complete(jwt1);
+
+    futures.forEach(future -> assertSame(jwt1, future.join()));
+    assertSame(jwt1, cachedJwtProvider.getValue());
+    verify(cognitoAuthenticator, times(1)).fetchBearerTokenAsync();
+    verify(cognitoAuthenticator, never()).fetchBearerToken();
+  }
 }
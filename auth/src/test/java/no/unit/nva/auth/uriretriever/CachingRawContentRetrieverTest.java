@@ -0,0 +1,265 @@
+package no.unit.nva.auth.uriretriever;
+
+import static no.unit.nva.testutils.RandomDataGenerator.randomString;
+import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CachingRawContentRetrieverTest {
+
+  private static final String JSON_LD = "application/ld+json";
+  private static final String JSON = "application/json";
+  private static final String ETAG = "ETag";
+  private static final int OK = 200;
+  private static final int NOT_MODIFIED = 304;
+  private static final int NOT_FOUND = 404;
+  private static final int CONCURRENT_CALLERS = 10;
+  private static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+  private final MutableClock clock = new MutableClock();
+  private RawContentRetriever delegate;
+  private CachingRawContentRetriever retriever;
+
+  @BeforeEach
+  void setup() {
+    delegate = mock(RawContentRetriever.class);
+    retriever =
+        CachingRawContentRetriever.builder(delegate)
+            .withTimeToLive(TIME_TO_LIVE)
+            .withClock(clock)
+            .build();
+  }
+
+  @Test
+  void shouldServeCachedContentWithinTimeToLive() {
+    var uri = randomUri();
+    var content = randomString();
+    var response = response(OK, content, null);
+    when(delegate.fetchResponse(uri, JSON_LD)).thenReturn(response);
+
+    retriever.getRawContent(uri, JSON_LD);
+    var cached = retriever.getRawContent(uri, JSON_LD);
+
+    assertThat(cached, is(equalTo(Optional.of(content))));
+    verify(delegate, times(1)).fetchResponse(uri, JSON_LD);
+  }
+
+  @Test
+  void shouldCacheContentByUriAndMediaType() {
+    var uri = randomUri();
+    var response = response(OK, randomString(), null);
+    when(delegate.fetchResponse(any(), anyString())).thenReturn(response);
+
+    retriever.getRawContent(uri, JSON_LD);
+    retriever.getRawContent(uri, JSON);
+
+    verify(delegate, times(1)).fetchResponse(uri, JSON_LD);
+    verify(delegate, times(1)).fetchResponse(uri, JSON);
+  }
+
+  @Test
+  void shouldRevalidateExpiredContentWithEtagAndKeepItWhenNotModified() {
+    var uri = randomUri();
+    var content = randomString();
+    var etag = randomString();
+    var response = response(OK, content, etag);
+    var notModified = response(NOT_MODIFIED, null, etag);
+    when(delegate.fetchResponse(uri, JSON_LD)).thenReturn(response);
+    when(delegate.fetchResponseIfNoneMatch(uri, JSON_LD, etag)).thenReturn(notModified);
+
+    retriever.getRawContent(uri, JSON_LD);
+    clock.advance(TIME_TO_LIVE);
+    var revalidated = retriever.getRawContent(uri, JSON_LD);
+    var renewed = retriever.getRawContent(uri, JSON_LD);
+
+    assertThat(revalidated, is(equalTo(Optional.of(content))));
+    assertThat(renewed, is(equalTo(Optional.of(content))));
+    verify(delegate, times(1)).fetchResponse(uri, JSON_LD);
+    verify(delegate, times(1)).fetchResponseIfNoneMatch(uri, JSON_LD, etag);
+  }
+
+  @Test
+  void shouldFetchExpiredContentAgainWhenItHasNoEtag() {
+    var uri = randomUri();
+    var updatedContent = randomString();
+    var response = response(OK, randomString(), null);
+    var updated = response(OK, updatedContent, null);
+    when(delegate.fetchResponse(uri, JSON_LD)).thenReturn(response).thenReturn(updated);
+
+    retriever.getRawContent(uri, JSON_LD);
+    clock.advance(TIME_TO_LIVE);
+
+    assertThat(retriever.getRawContent(uri, JSON_LD), is(equalTo(Optional.of(updatedContent))));
+    verify(delegate, times(2)).fetchResponse(uri, JSON_LD);
+  }
+
+  @Test
+  void shouldNotCacheUnsuccessfulResponses() {
+    var uri = randomUri();
+    var response = response(NOT_FOUND, randomString(), null);
+    when(delegate.fetchResponse(uri, JSON_LD)).thenReturn(response);
+
+    var content = retriever.getRawContent(uri, JSON_LD);
+    retriever.getRawContent(uri, JSON_LD);
+
+    assertThat(content, is(equalTo(Optional.empty())));
+    assertThat(retriever.size(), is(equalTo(0)));
+    verify(delegate, times(2)).fetchResponse(uri, JSON_LD);
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedContentWhenFull() {
+    var retriever = CachingRawContentRetriever.builder(delegate).withMaximumSize(1).build();
+    var first = randomUri();
+    var second = randomUri();
+    var response = response(OK, randomString(), null);
+    when(delegate.fetchResponse(any(), anyString())).thenReturn(response);
+
+    retriever.getRawContent(first, JSON_LD);
+    retriever.getRawContent(second, JSON_LD);
+    retriever.getRawContent(first, JSON_LD);
+
+    assertThat(retriever.size(), is(equalTo(1)));
+    verify(delegate, times(2)).fetchResponse(first, JSON_LD);
+  }
+
+  @Test
+  void shouldSendOneRequestForConcurrentFetchesOfTheSameUri() throws InterruptedException {
+    var uri = randomUri();
+    var content = randomString();
+    var response = response(OK, content, null);
+    var requestStarted = new CountDownLatch(1);
+    var releaseResponse = new CountDownLatch(1);
+    when(delegate.fetchResponse(uri, JSON_LD))
+        .thenAnswer(
+            invocation -> {
+              requestStarted.countDown();
+              releaseResponse.await(1, TimeUnit.MINUTES);
+              return response;
+            });
+
+    var results = new ConcurrentLinkedQueue<Optional<String>>();
+    Runnable fetch = () -> results.add(retriever.getRawContent(uri, JSON_LD));
+    var callers = new ArrayList<Thread>();
+    callers.add(Thread.startVirtualThread(fetch));
+    requestStarted.await(1, TimeUnit.MINUTES);
+    for (int caller = 1; caller < CONCURRENT_CALLERS; caller++) {
+      callers.add(Thread.startVirtualThread(fetch));
+    }
+    releaseResponse.countDown();
+    for (var caller : callers) {
+      caller.join();
+    }
+
+    assertThat(results.size(), is(equalTo(CONCURRENT_CALLERS)));
+    assertThat(results.stream().allMatch(Optional.of(content)::equals), is(true));
+    verify(delegate, times(1)).fetchResponse(uri, JSON_LD);
+  }
+
+  @Test
+  void shouldFetchAllDistinctUrisAndOmitContentThatWasNotFound() {
+    var found = randomUri();
+    var missing = randomUri();
+    var content = randomString();
+    var response = response(OK, content, null);
+    when(delegate.fetchResponse(found, JSON_LD)).thenReturn(response);
+    when(delegate.fetchResponse(missing, JSON_LD)).thenReturn(Optional.empty());
+
+    var result = retriever.getRawContentAll(List.of(found, missing, found), JSON_LD);
+
+    assertThat(result, is(equalTo(Map.of(found, content))));
+    verify(delegate, times(1)).fetchResponse(found, JSON_LD);
+  }
+
+  @Test
+  void shouldKeepAtMostTheRequestedNumberOfRequestsInFlight() {
+    var inFlight = new AtomicInteger();
+    var mostInFlight = new AtomicInteger();
+    var content = randomString();
+    when(delegate.fetchResponse(any(), anyString()))
+        .thenAnswer(
+            invocation -> {
+              mostInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              Thread.sleep(10);
+              inFlight.decrementAndGet();
+              return response(OK, content, null);
+            });
+    var uris = List.of(randomUri(), randomUri(), randomUri(), randomUri());
+    var retriever = CachingRawContentRetriever.builder(delegate).withMaxConcurrency(2).build();
+
+    var result = retriever.getRawContentAll(uris, JSON_LD);
+
+    assertThat(result.keySet(), is(equalTo(Set.copyOf(uris))));
+    assertThat(mostInFlight.get(), is(lessThanOrEqualTo(2)));
+  }
+
+  @Test
+  void shouldRejectMaxConcurrencyThatIsNotPositive() {
+    var builder = CachingRawContentRetriever.builder(delegate);
+
+    assertThrows(IllegalArgumentException.class, () -> builder.withMaxConcurrency(0));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Optional<HttpResponse<String>> response(int statusCode, String body, String etag) {
+    var response = (HttpResponse<String>) mock(HttpResponse.class);
+    var headers =
+        Optional.ofNullable(etag).map(value -> Map.of(ETAG, List.of(value))).orElse(Map.of());
+    when(response.statusCode()).thenReturn(statusCode);
+    when(response.body()).thenReturn(body);
+    when(response.headers()).thenReturn(HttpHeaders.of(headers, (name, value) -> true));
+    return Optional.of(response);
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    private void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
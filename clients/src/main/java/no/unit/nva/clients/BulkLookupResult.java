@@ -0,0 +1,23 @@
+package no.unit.nva.clients;
+
+import java.util.Map;
+
+/**
+ * Outcome of a bulk lookup in {@link IdentityServiceClient}. Every requested key is in exactly one
+ * of the two maps; a key that does not exist fails with a {@link
+ * nva.commons.apigateway.exceptions.NotFoundException}.
+ *
+ * @param found the values that were retrieved, by key
+ * @param failures the reason each remaining key could not be retrieved, by key
+ */
+public record BulkLookupResult<K, V>(Map<K, V> found, Map<K, Exception> failures) {
+
+  public BulkLookupResult {
+    found = Map.copyOf(found);
+    failures = Map.copyOf(failures);
+  }
+
+  public boolean hasFailures() {
+    return !failures.isEmpty();
+  }
+}
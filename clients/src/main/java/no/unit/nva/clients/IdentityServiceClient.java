@@ -1,20 +1,34 @@
 package no.unit.nva.clients;
 
-import static java.net.http.HttpResponse.BodyHandlers.ofString;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static no.unit.nva.auth.FetchUserInfo.AUTHORIZATION_HEADER;
-import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
 import static nva.commons.core.attempt.Try.attempt;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpRequest.Builder;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import no.unit.nva.auth.AuthorizedBackendClient;
 import no.unit.nva.auth.CognitoCredentials;
 import nva.commons.apigateway.exceptions.ApiGatewayException;
@@ -22,6 +36,10 @@ import nva.commons.apigateway.exceptions.NotFoundException;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
 import nva.commons.core.attempt.Failure;
+import nva.commons.core.attempt.FunctionWithException;
+import nva.commons.core.cache.CacheMetrics;
+import nva.commons.core.cache.TtlCache;
+import nva.commons.core.http.HttpClientFactory;
 import nva.commons.core.paths.UriWrapper;
 import nva.commons.secrets.SecretsReader;
 import software.amazon.awssdk.http.HttpStatusCode;
@@ -34,12 +52,17 @@ public class IdentityServiceClient {
   private static final String API_PATH_USERS = "users";
   private static final String CUSTOMER_PATH_PARAM = "customer";
   private static final String CRISTIN_ID_PATH_PARAM = "cristinId";
+  private static final String CUSTOMERS_FIELD = "customers";
   private static final String OPERATION_REQUIRES_AUTHORIZED_CLIENT_MESSAGE =
       "This operation requires an authorized client";
+  private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 16;
+  private static final int MINIMUM_CONCURRENT_REQUESTS = 1;
   private final String apiHost;
   private final String authHost;
   private AuthorizedBackendClient authorizedClient;
   private final HttpClient unauthorizedClient;
+  private final Map<CachedLookup, TtlCache<?, ?>> caches;
+  private final int maxConcurrentRequests;
 
   /**
    * Creates an IdentityServiceClient with authorization support. This client can make both
@@ -92,9 +115,42 @@ public class IdentityServiceClient {
    * @param environment the environment used to resolve configuration values
    */
   public IdentityServiceClient(HttpClient httpClient, Environment environment) {
+    this(httpClient, environment, Map.of(), DEFAULT_MAX_CONCURRENT_REQUESTS);
+  }
+
+  private IdentityServiceClient(
+      HttpClient httpClient,
+      Environment environment,
+      Map<CachedLookup, TtlCache<?, ?>> caches,
+      int maxConcurrentRequests) {
     this.apiHost = environment.readEnv("API_HOST");
     this.authHost = environment.readEnv("BACKEND_CLIENT_AUTH_URL");
     this.unauthorizedClient = httpClient;
+    this.caches = caches;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  private IdentityServiceClient(Builder builder) {
+    this(
+        builder.httpClient,
+        builder.environment,
+        builder.createCaches(),
+        builder.maxConcurrentRequests);
+    if (nonNull(builder.cognitoCredentials) || nonNull(builder.bearerToken)) {
+      this.authorizedClient =
+          AuthorizedBackendClient.prepareWithBearerTokenAndCredentials(
+              builder.httpClient, builder.bearerToken, builder.cognitoCredentials);
+    }
+  }
+
+  /**
+   * Creates a builder for an IdentityServiceClient, e.g. to enable response caching. Without
+   * credentials or a bearer token the built client only supports unauthorized API calls.
+   *
+   * @return a new builder
+   */
+  public static Builder builder() {
+    return new Builder();
   }
 
   /**
@@ -104,7 +160,7 @@ public class IdentityServiceClient {
    */
   @JacocoGenerated
   public static IdentityServiceClient prepare() {
-    var client = new IdentityServiceClient(HttpClient.newBuilder().build());
+    var client = new IdentityServiceClient(HttpClientFactory.shared());
     var credentials = client.fetchCredentials();
     client.authorizedClient =
         AuthorizedBackendClient.prepareWithBearerTokenAndCredentials(
@@ -120,7 +176,7 @@ public class IdentityServiceClient {
    */
   @JacocoGenerated
   public static IdentityServiceClient unauthorizedIdentityServiceClient() {
-    return new IdentityServiceClient(HttpClient.newBuilder().build());
+    return new IdentityServiceClient(HttpClientFactory.shared());
   }
 
   /**
@@ -132,10 +188,14 @@ public class IdentityServiceClient {
    * @throws IllegalStateException if the client was created without authorization support
    */
   public GetExternalClientResponse getExternalClient(String clientId) throws NotFoundException {
+    return lookup(CachedLookup.EXTERNAL_CLIENT, clientId, this::fetchExternalClient);
+  }
+
+  private GetExternalClientResponse fetchExternalClient(String clientId) throws NotFoundException {
     var request = getRequestBuilderFromUri(constructExternalClientsGetPath(clientId));
-    return attempt(getAuthorizedHttpResponseCallable(request))
+    return attempt(getAuthorizedHttpResponseCallable(request, GetExternalClientResponse.class))
         .map(this::validateResponse)
-        .map(response -> mapResponse(GetExternalClientResponse.class, response))
+        .map(IdentityServiceClient::readBody)
         .orElseThrow(this::handleFailure);
   }
 
@@ -149,14 +209,13 @@ public class IdentityServiceClient {
   public GetExternalClientResponse getExternalClientByToken(String bearerToken)
       throws NotFoundException {
     var request =
-        HttpRequest.newBuilder()
+        HttpClientFactory.newRequest(constructExternalClientsUserinfoGetPath())
             .GET()
-            .uri(constructExternalClientsUserinfoGetPath())
             .setHeader(AUTHORIZATION_HEADER, bearerToken);
 
-    return attempt(getUnauthorizedHttpResponseCallable(request))
+    return attempt(getUnauthorizedHttpResponseCallable(request, GetExternalClientResponse.class))
         .map(this::validateResponse)
-        .map(response -> mapResponse(GetExternalClientResponse.class, response))
+        .map(IdentityServiceClient::readBody)
         .orElseThrow(this::handleFailure);
   }
 
@@ -169,10 +228,14 @@ public class IdentityServiceClient {
    * @throws IllegalStateException if the client was created without authorization support
    */
   public UserDto getUser(String userName) throws NotFoundException {
+    return lookup(CachedLookup.USER, userName, this::fetchUser);
+  }
+
+  private UserDto fetchUser(String userName) throws NotFoundException {
     var request = getRequestBuilderFromUri(constructUserGetPath(userName));
-    return attempt(getAuthorizedHttpResponseCallable(request))
+    return attempt(getAuthorizedHttpResponseCallable(request, UserDto.class))
         .map(this::validateResponse)
-        .map(response -> mapResponse(UserDto.class, response))
+        .map(IdentityServiceClient::readBody)
         .orElseThrow(this::handleFailure);
   }
 
@@ -185,10 +248,15 @@ public class IdentityServiceClient {
    * @throws IllegalStateException if the client was created without authorization support
    */
   public CustomerDto getCustomerByCristinId(URI topLevelOrgCristinId) throws NotFoundException {
+    return lookup(
+        CachedLookup.CUSTOMER_BY_CRISTIN_ID, topLevelOrgCristinId, this::fetchCustomerByCristinId);
+  }
+
+  private CustomerDto fetchCustomerByCristinId(URI topLevelOrgCristinId) throws NotFoundException {
     var request = getRequestBuilderFromUri(constructCustomerGetPath(topLevelOrgCristinId));
-    return attempt(getAuthorizedHttpResponseCallable(request))
+    return attempt(getAuthorizedHttpResponseCallable(request, CustomerDto.class))
         .map(this::validateResponse)
-        .map(response -> mapResponse(CustomerDto.class, response))
+        .map(IdentityServiceClient::readBody)
         .orElseThrow(this::handleFailure);
   }
 
@@ -201,10 +269,14 @@ public class IdentityServiceClient {
    * @throws IllegalStateException if the client was created without authorization support
    */
   public CustomerDto getCustomerById(URI customerId) throws NotFoundException {
+    return lookup(CachedLookup.CUSTOMER_BY_ID, customerId, this::fetchCustomerById);
+  }
+
+  private CustomerDto fetchCustomerById(URI customerId) throws NotFoundException {
     var request = getRequestBuilderFromUri(customerId);
-    return attempt(getAuthorizedHttpResponseCallable(request))
+    return attempt(getAuthorizedHttpResponseCallable(request, CustomerDto.class))
         .map(this::validateResponse)
-        .map(response -> mapResponse(CustomerDto.class, response))
+        .map(IdentityServiceClient::readBody)
         .orElseThrow(this::handleFailure);
   }
 
@@ -216,15 +288,79 @@ public class IdentityServiceClient {
    * @throws NotFoundException if the channel claim is not found
    */
   public ChannelClaimDto getChannelClaim(URI channelClaim) throws NotFoundException {
+    return lookup(CachedLookup.CHANNEL_CLAIM, channelClaim, this::fetchChannelClaim);
+  }
+
+  private ChannelClaimDto fetchChannelClaim(URI channelClaim) throws NotFoundException {
     var request = getRequestBuilderFromUri(channelClaim);
-    return attempt(getUnauthorizedHttpResponseCallable(request))
+    return attempt(getUnauthorizedHttpResponseCallable(request, ChannelClaimDto.class))
         .map(this::validateResponse)
-        .map(response -> mapResponse(ChannelClaimDto.class, response))
+        .map(IdentityServiceClient::readBody)
         .orElseThrow(this::handleFailure);
   }
 
-  private static Builder getRequestBuilderFromUri(URI uri) {
-    return HttpRequest.newBuilder().GET().uri(uri);
+  /**
+   * Retrieves a user by username without blocking the calling thread. Requires an authorized
+   * client. Does not use the response cache.
+   *
+   * @param userName the username to retrieve
+   * @return the user data, or a future failed with {@link NotFoundException} if the user is not
+   *     found
+   * @throws IllegalStateException if the client was created without authorization support
+   */
+  public CompletableFuture<UserDto> getUserAsync(String userName) {
+    return fetchAsync(constructUserGetPath(userName), UserDto.class);
+  }
+
+  /**
+   * Retrieves a customer by customer ID without blocking the calling thread. Requires an authorized
+   * client. Does not use the response cache.
+   *
+   * @param customerId the customer ID URI
+   * @return the customer data, or a future failed with {@link NotFoundException} if the customer is
+   *     not found
+   * @throws IllegalStateException if the client was created without authorization support
+   */
+  public CompletableFuture<CustomerDto> getCustomerByIdAsync(URI customerId) {
+    return fetchAsync(customerId, CustomerDto.class);
+  }
+
+  /**
+   * Retrieves many users concurrently, with at most the configured number of requests in flight.
+   * Requires an authorized client.
+   *
+   * @param userNames the usernames to retrieve
+   * @return the users found, and the failure for each username that could not be retrieved
+   * @throws IllegalStateException if the client was created without authorization support
+   */
+  public BulkLookupResult<String, UserDto> getUsers(Collection<String> userNames) {
+    return fetchAll(userNames, this::getUserAsync);
+  }
+
+  /**
+   * Retrieves many customers concurrently, with at most the configured number of requests in
+   * flight. Requires an authorized client.
+   *
+   * @param customerIds the customer ID URIs
+   * @return the customers found, and the failure for each ID that could not be retrieved
+   * @throws IllegalStateException if the client was created without authorization support
+   */
+  public BulkLookupResult<URI, CustomerDto> getCustomersByIds(Collection<URI> customerIds) {
+    return fetchAll(customerIds, this::getCustomerByIdAsync);
+  }
+
+  /**
+   * Hit, miss and eviction counts for a cached lookup.
+   *
+   * @param lookup the lookup
+   * @return the metrics, or empty if caching is not enabled for the lookup
+   */
+  public Optional<CacheMetrics> getCacheMetrics(CachedLookup lookup) {
+    return Optional.ofNullable(caches.get(lookup)).map(TtlCache::getMetrics);
+  }
+
+  private static HttpRequest.Builder getRequestBuilderFromUri(URI uri) {
+    return HttpClientFactory.newRequest(uri).GET();
   }
 
   /**
@@ -235,10 +371,26 @@ public class IdentityServiceClient {
    */
   public CustomerList getAllCustomers() throws ApiGatewayException {
     var request = getRequestBuilderFromUri(constructListCustomerUri());
-    return attempt(getUnauthorizedHttpResponseCallable(request))
+    return attempt(getUnauthorizedHttpResponseCallable(request, CustomerList.class))
+        .map(this::validateResponse)
+        .map(IdentityServiceClient::readBody)
+        .orElseThrow(this::handleFailure);
+  }
+
+  /**
+   * Streams all customers, decoding one customer at a time while the response is received instead
+   * of holding the whole list in memory. Does not require an authorized client. The stream must be
+   * closed to release the connection.
+   *
+   * @return a stream of all customers
+   * @throws ApiGatewayException if the request fails
+   */
+  public Stream<CustomerDto> streamAllCustomers() throws ApiGatewayException {
+    var request = getRequestBuilderFromUri(constructListCustomerUri()).build();
+    var bodyHandler = JsonBodyHandlers.ofJsonArray(CUSTOMERS_FIELD, CustomerDto.class);
+    return attempt(() -> unauthorizedClient.send(request, bodyHandler))
         .map(this::validateResponse)
-        .map(HttpResponse::body)
-        .map(value -> dtoObjectMapper.readValue(value, CustomerList.class))
+        .map(IdentityServiceClient::readBody)
         .orElseThrow(this::handleFailure);
   }
 
@@ -282,9 +434,8 @@ public class IdentityServiceClient {
     return usersAndRolesURI().addChild(API_PATH_EXTERNAL_CLIENTS).getUri();
   }
 
-  private <T> T mapResponse(Class<T> clazz, HttpResponse<String> response)
-      throws JsonProcessingException {
-    return dtoObjectMapper.readValue(response.body(), clazz);
+  private static <T> T readBody(HttpResponse<Supplier<T>> response) {
+    return response.body().get();
   }
 
   private NotFoundException handleFailure(Failure<?> responseFailure) {
@@ -296,8 +447,11 @@ public class IdentityServiceClient {
     throw new RuntimeException("Something went wrong!");
   }
 
-  private <S> HttpResponse<String> validateResponse(HttpResponse<String> response)
+  private <B> HttpResponse<B> validateResponse(HttpResponse<B> response)
       throws NotFoundException {
+    if (response.statusCode() != HttpStatusCode.OK) {
+      JsonBodyHandlers.discard(response.body());
+    }
     if (response.statusCode() == HttpStatusCode.NOT_FOUND) {
       throw new NotFoundException("Client not found");
     }
@@ -309,16 +463,221 @@ public class IdentityServiceClient {
     return response;
   }
 
-  private Callable<HttpResponse<String>> getAuthorizedHttpResponseCallable(
-      HttpRequest.Builder request) {
+  private AuthorizedBackendClient requireAuthorizedClient() {
+    if (isNull(authorizedClient)) {
+      throw new IllegalStateException(OPERATION_REQUIRES_AUTHORIZED_CLIENT_MESSAGE);
+    }
+    return authorizedClient;
+  }
+
+  private <T> Callable<HttpResponse<Supplier<T>>> getAuthorizedHttpResponseCallable(
+      HttpRequest.Builder request, Class<T> type) {
     if (isNull(authorizedClient)) {
       throw new IllegalStateException(OPERATION_REQUIRES_AUTHORIZED_CLIENT_MESSAGE);
     }
-    return () -> authorizedClient.send(request, ofString(UTF_8));
+    return () -> authorizedClient.send(request, JsonBodyHandlers.ofJson(type));
+  }
+
+  /**
+   * The body is decoded on a virtual thread, since decoding blocks until the body has arrived and
+   * must not run on the threads of the HTTP client.
+   */
+  private <T> CompletableFuture<T> fetchAsync(URI uri, Class<T> type) {
+    return requireAuthorizedClient()
+        .sendAsync(getRequestBuilderFromUri(uri), JsonBodyHandlers.ofJson(type))
+        .thenApplyAsync(this::readAsyncResponse, IdentityServiceClient::startVirtualThread);
+  }
+
+  private <T> T readAsyncResponse(HttpResponse<Supplier<T>> response) {
+    try {
+      return readBody(validateResponse(response));
+    } catch (NotFoundException exception) {
+      throw new CompletionException(exception);
+    }
+  }
+
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private static void startVirtualThread(Runnable task) {
+    Thread.ofVirtual().start(task);
+  }
+
+  /**
+   * Starts a request per distinct key, waiting for a free slot whenever {@code
+   * maxConcurrentRequests} are in flight, and collects the outcomes.
+   */
+  private <K, V> BulkLookupResult<K, V> fetchAll(
+      Collection<K> keys, Function<K, CompletableFuture<V>> fetch) {
+    requireAuthorizedClient();
+    var slots = new Semaphore(maxConcurrentRequests);
+    var requests = new LinkedHashMap<K, CompletableFuture<V>>();
+    for (var key : new LinkedHashSet<>(keys)) {
+      slots.acquireUninterruptibly();
+      requests.put(key, startRequest(fetch, key).whenComplete((value, error) -> slots.release()));
+    }
+    var found = new HashMap<K, V>();
+    var failures = new HashMap<K, Exception>();
+    requests.forEach(
+        (key, request) -> {
+          try {
+            found.put(key, request.join());
+          } catch (CompletionException | CancellationException exception) {
+            failures.put(key, causeOf(exception));
+          }
+        });
+    return new BulkLookupResult<>(found, failures);
+  }
+
+  private static Exception causeOf(RuntimeException exception) {
+    return exception.getCause() instanceof Exception cause ? cause : exception;
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private static <K, V> CompletableFuture<V> startRequest(
+      Function<K, CompletableFuture<V>> fetch, K key) {
+    try {
+      return fetch.apply(key);
+    } catch (RuntimeException exception) {
+      return CompletableFuture.failedFuture(exception);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <K, V> V lookup(
+      CachedLookup lookup, K key, FunctionWithException<K, V, NotFoundException> fetch)
+      throws NotFoundException {
+    var cache = (TtlCache<K, V>) caches.get(lookup);
+    return isNull(cache) ? fetch.apply(key) : cache.get(key, fetch);
   }
 
-  private Callable<HttpResponse<String>> getUnauthorizedHttpResponseCallable(
-      HttpRequest.Builder request) {
-    return () -> unauthorizedClient.send(request.build(), ofString(UTF_8));
+  private <T> Callable<HttpResponse<Supplier<T>>> getUnauthorizedHttpResponseCallable(
+      HttpRequest.Builder request, Class<T> type) {
+    return () -> unauthorizedClient.send(request.build(), JsonBodyHandlers.ofJson(type));
+  }
+
+  /** The lookups that can be cached with {@link Builder#withCache(CachedLookup, Duration, int)}. */
+  public enum CachedLookup {
+    USER,
+    CUSTOMER_BY_ID,
+    CUSTOMER_BY_CRISTIN_ID,
+    EXTERNAL_CLIENT,
+    CHANNEL_CLAIM
+  }
+
+  public static final class Builder {
+
+    private HttpClient httpClient;
+    private Environment environment;
+    private String bearerToken;
+    private CognitoCredentials cognitoCredentials;
+    private Duration notFoundTimeToLive;
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private final Map<CachedLookup, CacheSettings> cacheSettings =
+        new EnumMap<>(CachedLookup.class);
+
+    private Builder() {}
+
+    public Builder withHttpClient(HttpClient httpClient) {
+      this.httpClient = httpClient;
+      return this;
+    }
+
+    public Builder withEnvironment(Environment environment) {
+      this.environment = environment;
+      return this;
+    }
+
+    public Builder withBearerToken(String bearerToken) {
+      this.bearerToken = bearerToken;
+      return this;
+    }
+
+    public Builder withCognitoCredentials(CognitoCredentials cognitoCredentials) {
+      this.cognitoCredentials = cognitoCredentials;
+      return this;
+    }
+
+    /**
+     * Caches the responses of every lookup for {@code timeToLive}, keeping at most {@code
+     * maximumSize} responses per lookup. Concurrent requests for the same key share one HTTP call.
+     *
+     * @param timeToLive how long a response is reused
+     * @param maximumSize the maximum number of cached responses per lookup
+     * @return this builder
+     */
+    public Builder withCache(Duration timeToLive, int maximumSize) {
+      Arrays.stream(CachedLookup.values())
+          .forEach(lookup -> withCache(lookup, timeToLive, maximumSize));
+      return this;
+    }
+
+    /**
+     * Caches the responses of one lookup, overriding {@link #withCache(Duration, int)} for it.
+     *
+     * @param lookup the lookup to cache
+     * @param timeToLive how long a response is reused
+     * @param maximumSize the maximum number of cached responses
+     * @return this builder
+     */
+    public Builder withCache(CachedLookup lookup, Duration timeToLive, int maximumSize) {
+      cacheSettings.put(lookup, new CacheSettings(timeToLive, maximumSize));
+      return this;
+    }
+
+    /**
+     * Also caches {@link NotFoundException}s of cached lookups, for {@code timeToLive}. Default:
+     * a lookup that was not found is requested again on the next call.
+     *
+     * @param timeToLive how long a "not found" is reused
+     * @return this builder
+     */
+    public Builder withNotFoundCaching(Duration timeToLive) {
+      this.notFoundTimeToLive = timeToLive;
+      return this;
+    }
+
+    /**
+     * Maximum number of requests a bulk lookup such as {@link IdentityServiceClient#getUsers} keeps
+     * in flight. Default: 16.
+     *
+     * @param maxConcurrentRequests the maximum number of concurrent requests
+     * @return this builder
+     */
+    public Builder withMaxConcurrentRequests(int maxConcurrentRequests) {
+      if (maxConcurrentRequests < MINIMUM_CONCURRENT_REQUESTS) {
+        throw new IllegalArgumentException(
+            "Maximum concurrent requests must be positive, was: " + maxConcurrentRequests);
+      }
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
+    public IdentityServiceClient build() {
+      if (isNull(httpClient)) {
+        httpClient = HttpClientFactory.shared();
+      }
+      if (isNull(environment)) {
+        environment = new Environment();
+      }
+      return new IdentityServiceClient(this);
+    }
+
+    private Map<CachedLookup, TtlCache<?, ?>> createCaches() {
+      var caches = new EnumMap<CachedLookup, TtlCache<?, ?>>(CachedLookup.class);
+      cacheSettings.forEach((lookup, settings) -> caches.put(lookup, createCache(settings)));
+      return Collections.unmodifiableMap(caches);
+    }
+
+    private TtlCache<Object, Object> createCache(CacheSettings settings) {
+      var cache =
+          TtlCache.builder()
+              .withTimeToLive(settings.timeToLive())
+              .withMaximumSize(settings.maximumSize());
+      if (nonNull(notFoundTimeToLive)) {
+        cache.withNegativeCaching(NotFoundException.class, notFoundTimeToLive);
+      }
+      return cache.build();
+    }
+
+    private record CacheSettings(Duration timeToLive, int maximumSize) {}
   }
 }
@@ -0,0 +1,227 @@
+package no.unit.nva.clients;
+
+import static java.util.Objects.isNull;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import nva.commons.core.attempt.FunctionWithException;
+import software.amazon.awssdk.http.HttpStatusFamily;
+
+/**
+ * {@link BodyHandler}s that decode JSON response bodies with Jackson while they are received,
+ * instead of collecting the whole body into a String first.
+ *
+ * <p>Example:
+ *
+ * <pre>
+ *      HttpResponse&#60;Supplier&#60;CustomerDto&#62;&#62; response =
+ *          httpClient.send(request, JsonBodyHandlers.ofJson(CustomerDto.class));
+ *      if (response.statusCode() == 200) {
+ *          CustomerDto customer = response.body().get();
+ *      }
+ * </pre>
+ *
+ * <p>The body is decoded on the thread that calls {@link Supplier#get()}, never on the threads of
+ * the {@link java.net.http.HttpClient}, since decoding blocks until the body has arrived. Only
+ * successful (2xx) bodies are decoded: other bodies are discarded and {@link Supplier#get()} throws
+ * an {@link IllegalStateException}, so check the status code first. Decoding failures are thrown as
+ * {@link UncheckedIOException}. A successful body that is not going to be decoded must be passed to
+ * {@link #discard(Object)}, which closes it and releases the connection.
+ */
+public final class JsonBodyHandlers {
+
+  private static final String NO_JSON_BODY = "Response with status %d has no JSON body";
+  private static final String ARRAY_NOT_FOUND = "Expected a JSON array in field: %s";
+  private static final String TOP_LEVEL_ARRAY_NOT_FOUND = "Expected a top level JSON array";
+
+  private JsonBodyHandlers() {}
+
+  /**
+   * Decodes the body as a single {@code type}.
+   *
+   * @param type the DTO type
+   * @return a handler whose body supplier decodes the response
+   */
+  public static <T> BodyHandler<Supplier<T>> ofJson(Class<T> type) {
+    var reader = dtoObjectMapper.readerFor(type);
+    return responseInfo -> decodeIfSuccessful(responseInfo, body -> reader.readValue(body));
+  }
+
+  /**
+   * Streams the elements of a top level JSON array one at a time, so that only one element is held
+   * in memory. The stream must be closed to release the connection.
+   *
+   * @param elementType the element type
+   * @return a handler whose body supplier opens the element stream
+   */
+  public static <T> BodyHandler<Supplier<Stream<T>>> ofJsonArray(Class<T> elementType) {
+    return ofJsonArray(null, elementType);
+  }
+
+  /**
+   * Streams the elements of the JSON array in field {@code arrayField} of the top level object, such
+   * as {@code "customers"} in {@link CustomerList}. Other fields before the array are skipped and
+   * fields after it are not read. The stream must be closed to release the connection.
+   *
+   * @param arrayField the name of the field holding the array
+   * @param elementType the element type
+   * @return a handler whose body supplier opens the element stream
+   */
+  public static <T> BodyHandler<Supplier<Stream<T>>> ofJsonArray(
+      String arrayField, Class<T> elementType) {
+    var reader = dtoObjectMapper.readerFor(elementType);
+    return responseInfo ->
+        decodeIfSuccessful(responseInfo, body -> streamElements(body, arrayField, reader));
+  }
+
+  /**
+   * Closes a body from one of these handlers without decoding it, so that the connection is
+   * released. Bodies that do not hold an open stream are ignored.
+   *
+   * @param body the body of the response
+   */
+  public static void discard(Object body) {
+    if (body instanceof StreamedBody<?> streamedBody) {
+      streamedBody.close();
+    }
+  }
+
+  private static <T> BodySubscriber<Supplier<T>> decodeIfSuccessful(
+      ResponseInfo responseInfo, FunctionWithException<InputStream, T, IOException> decoder) {
+    var statusCode = responseInfo.statusCode();
+    if (HttpStatusFamily.SUCCESSFUL != HttpStatusFamily.of(statusCode)) {
+      return BodySubscribers.replacing(
+          () -> {
+            throw new IllegalStateException(String.format(NO_JSON_BODY, statusCode));
+          });
+    }
+    return BodySubscribers.mapping(
+        BodySubscribers.ofInputStream(), body -> new StreamedBody<>(body, decoder));
+  }
+
+  private static <T> T decode(
+      InputStream body, FunctionWithException<InputStream, T, IOException> decoder) {
+    try (body) {
+      return decoder.apply(body);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private static <T> Stream<T> streamElements(
+      InputStream body, String arrayField, ObjectReader reader) throws IOException {
+    var parser = dtoObjectMapper.getFactory().createParser(body);
+    try {
+      moveIntoArray(parser, arrayField);
+    } catch (IOException exception) {
+      parser.close();
+      throw exception;
+    }
+    return StreamSupport.stream(new ElementSpliterator<T>(parser, reader), false)
+        .onClose(() -> closeParser(parser));
+  }
+
+  private static void moveIntoArray(JsonParser parser, String arrayField) throws IOException {
+    var token = parser.nextToken();
+    if (isNull(arrayField)) {
+      requireArray(parser, token, TOP_LEVEL_ARRAY_NOT_FOUND);
+      return;
+    }
+    if (token == JsonToken.START_OBJECT) {
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        var isArrayField = arrayField.equals(parser.currentName());
+        token = parser.nextToken();
+        if (isArrayField) {
+          requireArray(parser, token, String.format(ARRAY_NOT_FOUND, arrayField));
+          return;
+        }
+        parser.skipChildren();
+      }
+    }
+    throw JsonMappingException.from(parser, String.format(ARRAY_NOT_FOUND, arrayField));
+  }
+
+  private static void requireArray(JsonParser parser, JsonToken token, String message)
+      throws JsonMappingException {
+    if (token != JsonToken.START_ARRAY) {
+      throw JsonMappingException.from(parser, message);
+    }
+  }
+
+  private static void closeParser(JsonParser parser) {
+    try {
+      parser.close();
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  /** A body that is decoded from the stream when it is first asked for. */
+  private static final class StreamedBody<T> implements Supplier<T> {
+
+    private final InputStream body;
+    private final FunctionWithException<InputStream, T, IOException> decoder;
+
+    private StreamedBody(
+        InputStream body, FunctionWithException<InputStream, T, IOException> decoder) {
+      this.body = body;
+      this.decoder = decoder;
+    }
+
+    @Override
+    public T get() {
+      return decode(body, decoder);
+    }
+
+    private void close() {
+      try {
+        body.close();
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      }
+    }
+  }
+
+  /** Reads one array element per advance, and stops at the end of the array. */
+  private static final class ElementSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final JsonParser parser;
+    private final ObjectReader reader;
+
+    private ElementSpliterator(JsonParser parser, ObjectReader reader) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+      this.parser = parser;
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      try {
+        var token = parser.nextToken();
+        if (isNull(token) || token == JsonToken.END_ARRAY) {
+          return false;
+        }
+        action.accept(reader.<T>readValue(parser));
+        return true;
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      }
+    }
+  }
+}
@@ -1,19 +1,28 @@
 package no.unit.nva.clients.cristin;
 
-import static java.net.http.HttpResponse.BodyHandlers.ofString;
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static nva.commons.core.attempt.Try.attempt;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import no.unit.nva.clients.JsonBodyHandlers;
+import no.unit.nva.clients.cristin.CristinResponseCache.CachedResponse;
 import nva.commons.apigateway.exceptions.NotFoundException;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
+import nva.commons.core.attempt.Try;
+import nva.commons.core.http.HttpClientFactory;
+import nva.commons.core.parallel.ParallelMapper;
 import nva.commons.core.paths.UriWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,15 +35,36 @@ public class CristinClient {
   public static final String ORGANIZATION = "organization";
   private static final Logger LOGGER = LoggerFactory.getLogger(CristinClient.class);
   private static final String API_HOST = new Environment().readEnv("API_HOST");
+  private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 16;
+  private static final int NOT_MODIFIED = 304;
   private final HttpClient httpClient;
+  private final CristinResponseCache responseCache;
+  private final int maxConcurrentRequests;
 
   public CristinClient(HttpClient httpClient) {
+    this(httpClient, null, DEFAULT_MAX_CONCURRENT_REQUESTS);
+  }
+
+  private CristinClient(
+      HttpClient httpClient, CristinResponseCache responseCache, int maxConcurrentRequests) {
     this.httpClient = httpClient;
+    this.responseCache = responseCache;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * Creates a builder for a CristinClient, e.g. to enable response caching or to tune the
+   * concurrency of the batch methods.
+   *
+   * @return a new builder
+   */
+  public static Builder builder() {
+    return new Builder();
   }
 
   @JacocoGenerated
   public static CristinClient defaultClient() {
-    return new CristinClient(HttpClient.newBuilder().build());
+    return new CristinClient(HttpClientFactory.shared());
   }
 
   public Optional<CristinOrganizationDto> getOrganization(String identifier) {
@@ -46,21 +76,88 @@ public class CristinClient {
   }
 
   public Optional<CristinPersonDto> getPerson(URI uri) {
-    var request = HttpRequest.newBuilder().GET().uri(uri).build();
-    return attempt(() -> httpClient.send(request, ofString(UTF_8)))
-        .map(this::validateResponse)
-        .map(response -> mapResponse(CristinPersonDto.class, response))
-        .toOptional();
+    return fetch(uri, CristinPersonDto.class);
   }
 
   public Optional<CristinOrganizationDto> getOrganization(URI uri) {
-    var request = HttpRequest.newBuilder().GET().uri(uri).build();
-    return attempt(() -> httpClient.send(request, ofString(UTF_8)))
+    return fetch(uri, CristinOrganizationDto.class);
+  }
+
+  /**
+   * Fetches the persons concurrently, with at most the configured number of requests in flight.
+   *
+   * @param uris the person URIs
+   * @return the persons that were found, by URI
+   */
+  public Map<URI, CristinPersonDto> getPersons(Collection<URI> uris) {
+    return fetchAll(uris, this::getPerson);
+  }
+
+  /**
+   * Fetches the organizations concurrently, with at most the configured number of requests in
+   * flight.
+   *
+   * @param uris the organization URIs
+   * @return the organizations that were found, by URI
+   */
+  public Map<URI, CristinOrganizationDto> getOrganizations(Collection<URI> uris) {
+    return fetchAll(uris, this::getOrganization);
+  }
+
+  private <T> Map<URI, T> fetchAll(Collection<URI> uris, Function<URI, Optional<T>> fetch) {
+    var mapper =
+        new ParallelMapper<URI, Optional<Map.Entry<URI, T>>>(
+                new LinkedHashSet<>(uris),
+                uri -> fetch.apply(uri).map(value -> Map.entry(uri, value)))
+            .withVirtualThreads(maxConcurrentRequests);
+    try (var results = mapper.mapAsStream()) {
+      return results
+          .map(Try::toOptional)
+          .flatMap(Optional::stream)
+          .flatMap(Optional::stream)
+          .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+  }
+
+  private <T> Optional<T> fetch(URI uri, Class<T> type) {
+    return isNull(responseCache) ? fetchUncached(uri, type) : fetchCached(uri, type);
+  }
+
+  private <T> Optional<T> fetchUncached(URI uri, Class<T> type) {
+    var request = HttpClientFactory.newRequest(uri).GET().build();
+    return attempt(() -> httpClient.send(request, JsonBodyHandlers.ofJson(type)))
         .map(this::validateResponse)
-        .map(response -> mapResponse(CristinOrganizationDto.class, response))
+        .map(CristinClient::readBody)
         .toOptional();
   }
 
+  private <T> Optional<T> fetchCached(URI uri, Class<T> type) {
+    var cached =
+        responseCache.get(uri).filter(response -> type.isInstance(response.value())).orElse(null);
+    if (nonNull(cached) && responseCache.isFresh(cached)) {
+      return Optional.of(type.cast(cached.value()));
+    }
+    var request = HttpClientFactory.newRequest(uri).GET();
+    if (nonNull(cached) && cached.canRevalidate()) {
+      request.setHeader(CristinResponseCache.IF_NONE_MATCH, cached.etag());
+    }
+    return attempt(() -> httpClient.send(request.build(), JsonBodyHandlers.ofJson(type)))
+        .map(response -> readCacheableResponse(uri, type, response, cached))
+        .toOptional();
+  }
+
+  private <T> T readCacheableResponse(
+      URI uri, Class<T> type, HttpResponse<Supplier<T>> response, CachedResponse cached)
+      throws NotFoundException {
+    if (response.statusCode() == NOT_MODIFIED && nonNull(cached)) {
+      responseCache.store(uri, cached.value(), response.headers(), cached.etag());
+      return type.cast(cached.value());
+    }
+    var value = readBody(validateResponse(response));
+    responseCache.store(uri, value, response.headers(), null);
+    return value;
+  }
+
   private static URI createCristinPeronUri(String identifier) {
     return UriWrapper.fromHost(API_HOST)
         .addChild(CRISTIN)
@@ -77,9 +174,12 @@ public class CristinClient {
         .getUri();
   }
 
-  private HttpResponse<String> validateResponse(HttpResponse<String> response)
+  private <B> HttpResponse<B> validateResponse(HttpResponse<B> response)
       throws NotFoundException {
     var requestUri = response.request().uri();
+    if (response.statusCode() != HttpStatusCode.OK) {
+      JsonBodyHandlers.discard(response.body());
+    }
     if (response.statusCode() == HttpStatusCode.NOT_FOUND) {
       LOGGER.error("Cristin responded with not found: {}", requestUri);
       throw new NotFoundException("Not found " + requestUri);
@@ -93,8 +193,63 @@ public class CristinClient {
     return response;
   }
 
-  private <T> T mapResponse(Class<T> clazz, HttpResponse<String> response)
-      throws JsonProcessingException {
-    return dtoObjectMapper.readValue(response.body(), clazz);
+  private static <T> T readBody(HttpResponse<Supplier<T>> response) {
+    return response.body().get();
+  }
+
+  public static final class Builder {
+
+    private static final int MINIMUM_SIZE = 1;
+
+    private HttpClient httpClient;
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private int responseCacheSize;
+
+    private Builder() {}
+
+    public Builder withHttpClient(HttpClient httpClient) {
+      this.httpClient = httpClient;
+      return this;
+    }
+
+    /**
+     * Caches up to {@code maximumSize} responses as allowed by their {@code Cache-Control} and
+     * {@code ETag} headers. Default: no caching.
+     *
+     * @param maximumSize the maximum number of cached responses
+     * @return this builder
+     */
+    public Builder withResponseCache(int maximumSize) {
+      if (maximumSize < MINIMUM_SIZE) {
+        throw new IllegalArgumentException("Cache size must be positive, was: " + maximumSize);
+      }
+      this.responseCacheSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Maximum number of requests {@link CristinClient#getPersons} and {@link
+     * CristinClient#getOrganizations} keep in flight. Default: 16.
+     *
+     * @param maxConcurrentRequests the maximum number of concurrent requests
+     * @return this builder
+     */
+    public Builder withMaxConcurrentRequests(int maxConcurrentRequests) {
+      if (maxConcurrentRequests < MINIMUM_SIZE) {
+        throw new IllegalArgumentException(
+            "Maximum concurrent requests must be positive, was: " + maxConcurrentRequests);
+      }
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
+    public CristinClient build() {
+      var client = isNull(httpClient) ? HttpClientFactory.shared() : httpClient;
+      var cache =
+          responseCacheSize >= MINIMUM_SIZE
+              ? new CristinResponseCache(responseCacheSize, Clock.systemUTC())
+              : null;
+      return new CristinClient(client, cache, maxConcurrentRequests);
+    }
   }
 }
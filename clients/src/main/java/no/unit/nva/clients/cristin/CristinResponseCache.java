@@ -0,0 +1,135 @@
+package no.unit.nva.clients.cristin;
+
+import static java.util.Objects.nonNull;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Private HTTP cache for Cristin responses, following the {@code Cache-Control} and {@code ETag}
+ * headers of each response:
+ *
+ * <ul>
+ *   <li>{@code no-store}: the response is not cached.
+ *   <li>{@code max-age=N}: the response is served from the cache for N seconds.
+ *   <li>{@code no-cache}, or no {@code max-age}: the response is stale at once, and only kept if it
+ *       has an {@code ETag} so it can be revalidated.
+ * </ul>
+ *
+ * <p>Stale responses with an {@code ETag} are revalidated with {@code If-None-Match}; a {@code 304
+ * Not Modified} renews them without transferring the body again. When full, the least recently
+ * used response is evicted.
+ *
+ * <p>Package-private: not part of the public API.
+ */
+final class CristinResponseCache {
+
+  static final String IF_NONE_MATCH = "If-None-Match";
+  private static final String CACHE_CONTROL = "Cache-Control";
+  private static final String ETAG = "ETag";
+  private static final String NO_STORE = "no-store";
+  private static final String NO_CACHE = "no-cache";
+  private static final String MAX_AGE = "max-age=";
+  private static final String DIRECTIVE_SEPARATOR = ",";
+  private static final long MILLIS_PER_SECOND = 1000L;
+  private static final long NO_FRESHNESS = 0L;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final boolean ACCESS_ORDER = true;
+
+  private final Clock clock;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<URI, CachedResponse> entries;
+
+  CristinResponseCache(int maximumSize, Clock clock) {
+    this.clock = clock;
+    this.entries =
+        new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, ACCESS_ORDER) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<URI, CachedResponse> eldest) {
+            return size() > maximumSize;
+          }
+        };
+  }
+
+  Optional<CachedResponse> get(URI uri) {
+    lock.lock();
+    try {
+      return Optional.ofNullable(entries.get(uri));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  boolean isFresh(CachedResponse response) {
+    return isFresh(response.freshUntilMillis());
+  }
+
+  /**
+   * Caches {@code value} as the response for {@code uri} according to {@code headers}. For a
+   * revalidated response, pass the {@code ETag} of the cached response, which a {@code 304} may
+   * omit.
+   */
+  void store(URI uri, Object value, HttpHeaders headers, String previousEtag) {
+    var cacheControl = cacheControlDirectives(headers);
+    var etag = headers.firstValue(ETAG).orElse(previousEtag);
+    var freshUntil = clock.millis() + freshnessMillis(cacheControl);
+    var cacheable = !cacheControl.contains(NO_STORE) && (isFresh(freshUntil) || nonNull(etag));
+    lock.lock();
+    try {
+      if (cacheable) {
+        entries.put(uri, new CachedResponse(value, etag, freshUntil));
+      } else {
+        entries.remove(uri);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private boolean isFresh(long freshUntilMillis) {
+    return clock.millis() < freshUntilMillis;
+  }
+
+  private static String cacheControlDirectives(HttpHeaders headers) {
+    return String.join(DIRECTIVE_SEPARATOR, headers.allValues(CACHE_CONTROL))
+        .toLowerCase(Locale.ROOT);
+  }
+
+  private static long freshnessMillis(String cacheControl) {
+    if (cacheControl.contains(NO_CACHE)) {
+      return NO_FRESHNESS;
+    }
+    for (var directive : cacheControl.split(DIRECTIVE_SEPARATOR)) {
+      var trimmed = directive.strip();
+      if (trimmed.startsWith(MAX_AGE)) {
+        return parseSeconds(trimmed.substring(MAX_AGE.length())) * MILLIS_PER_SECOND;
+      }
+    }
+    return NO_FRESHNESS;
+  }
+
+  private static long parseSeconds(String value) {
+    try {
+      return Math.max(NO_FRESHNESS, Long.parseLong(value.strip()));
+    } catch (NumberFormatException exception) {
+      return NO_FRESHNESS;
+    }
+  }
+
+  /** A parsed response body with the validator and freshness it was served with. */
+  record CachedResponse(Object value, String etag, long freshUntilMillis) {
+
+    boolean canRevalidate() {
+      return nonNull(etag);
+    }
+  }
+}
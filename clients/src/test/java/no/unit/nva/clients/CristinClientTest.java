@@ -1,5 +1,7 @@
 package no.unit.nva.clients;
 
+import static no.unit.nva.clients.FakeHttpResponse.decode;
+import static no.unit.nva.clients.FakeHttpResponse.respondWith;
 import static no.unit.nva.testutils.RandomDataGenerator.randomString;
 import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -7,6 +9,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static software.amazon.awssdk.http.HttpStatusCode.BAD_GATEWAY;
 import static software.amazon.awssdk.http.HttpStatusCode.NOT_FOUND;
@@ -16,15 +20,33 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import no.unit.nva.clients.cristin.CristinClient;
 import nva.commons.core.Environment;
 import nva.commons.core.paths.UriWrapper;
 import nva.commons.logutils.LogRecorder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
 
 class CristinClientTest {
 
+  private static final int CACHE_SIZE = 10;
+  private static final int NOT_MODIFIED = 304;
+  private static final String CACHE_CONTROL = "Cache-Control";
+  private static final String ETAG = "ETag";
+  private static final String ETAG_VALUE = "\"v1\"";
+  private static final String MAX_AGE = "max-age=300";
+  private static final String NO_CACHE = "no-cache";
+  private static final String NO_STORE = "no-store";
+
   private HttpClient httpClient;
   private CristinClient cristinClient;
   private LogRecorder logRecorder;
@@ -44,7 +66,7 @@ class CristinClientTest {
     var request = HttpRequest.newBuilder().GET().uri(cristinPersonId).build();
 
     when(httpClient.send(eq(request), any()))
-        .thenReturn(FakeHttpResponse.create(request, null, NOT_FOUND));
+        .thenAnswer(respondWith(FakeHttpResponse.create(request, null, NOT_FOUND)));
 
     var person = cristinClient.getPerson(cristinPersonId);
     var message = logRecorder.asString();
@@ -60,7 +82,7 @@ class CristinClientTest {
     var request = HttpRequest.newBuilder().GET().uri(cristinPersonId).build();
 
     when(httpClient.send(eq(request), any()))
-        .thenReturn(FakeHttpResponse.create(request, null, BAD_GATEWAY));
+        .thenAnswer(respondWith(FakeHttpResponse.create(request, null, BAD_GATEWAY)));
 
     var person = cristinClient.getPerson(cristinPersonId);
     var message = logRecorder.asString();
@@ -76,11 +98,12 @@ class CristinClientTest {
     var request = HttpRequest.newBuilder().GET().uri(cristinPersonId).build();
 
     when(httpClient.send(eq(request), any()))
-        .thenReturn(
-            FakeHttpResponse.create(
-                request,
-                cristinPersonResponseBody().replace("_ID_", cristinPersonId.toString()),
-                OK));
+        .thenAnswer(
+            respondWith(
+                FakeHttpResponse.create(
+                    request,
+                    cristinPersonResponseBody().replace("_ID_", cristinPersonId.toString()),
+                    OK)));
 
     var person = cristinClient.getPerson(cristinPersonId).orElseThrow();
 
@@ -96,7 +119,7 @@ class CristinClientTest {
     var request = HttpRequest.newBuilder().GET().uri(organizationId).build();
 
     when(httpClient.send(eq(request), any()))
-        .thenReturn(FakeHttpResponse.create(request, null, NOT_FOUND));
+        .thenAnswer(respondWith(FakeHttpResponse.create(request, null, NOT_FOUND)));
 
     var organization = cristinClient.getOrganization(organizationId);
     var message = logRecorder.asString();
@@ -113,11 +136,12 @@ class CristinClientTest {
     var request = HttpRequest.newBuilder().GET().uri(organizationId).build();
 
     when(httpClient.send(eq(request), any()))
-        .thenReturn(
-            FakeHttpResponse.create(
-                request,
-                cristinOrganizationResponseBody().replace("_ID_", organizationId.toString()),
-                OK));
+        .thenAnswer(
+            respondWith(
+                FakeHttpResponse.create(
+                    request,
+                    cristinOrganizationResponseBody().replace("_ID_", organizationId.toString()),
+                    OK)));
 
     var organization = cristinClient.getOrganization(organizationId).orElseThrow();
 
@@ -138,9 +162,10 @@ class CristinClientTest {
     var request = HttpRequest.newBuilder().GET().uri(requestUri).build();
 
     when(httpClient.send(eq(request), any()))
-        .thenReturn(
-            FakeHttpResponse.create(
-                request, cristinPersonResponseBody().replace("_ID_", personIdentifier), OK));
+        .thenAnswer(
+            respondWith(
+                FakeHttpResponse.create(
+                    request, cristinPersonResponseBody().replace("_ID_", personIdentifier), OK)));
 
     var organization = cristinClient.getPerson(personIdentifier);
 
@@ -154,17 +179,125 @@ class CristinClientTest {
     var request = HttpRequest.newBuilder().GET().uri(requestUri).build();
 
     when(httpClient.send(eq(request), any()))
-        .thenReturn(
-            FakeHttpResponse.create(
-                request,
-                cristinOrganizationResponseBody().replace("_ID_", organizationIdentifier),
-                OK));
+        .thenAnswer(
+            respondWith(
+                FakeHttpResponse.create(
+                    request,
+                    cristinOrganizationResponseBody().replace("_ID_", organizationIdentifier),
+                    OK)));
 
     var organization = cristinClient.getOrganization(organizationIdentifier);
 
     assertTrue(organization.isPresent());
   }
 
+  @Test
+  void shouldServeFreshResponseFromCacheWithoutNewRequest()
+      throws IOException, InterruptedException {
+    var client = cachingClient();
+    var personId = randomUri();
+    when(httpClient.send(any(HttpRequest.class), any()))
+        .thenAnswer(
+            invocation -> personResponse(invocation, Map.of(CACHE_CONTROL, MAX_AGE)));
+
+    var first = client.getPerson(personId).orElseThrow();
+    var second = client.getPerson(personId).orElseThrow();
+
+    assertEquals(first, second);
+    verify(httpClient, times(1)).send(any(HttpRequest.class), any());
+  }
+
+  @Test
+  void shouldRevalidateStaleResponseWithEtagAndReuseItWhenNotModified()
+      throws IOException, InterruptedException {
+    var client = cachingClient();
+    var personId = randomUri();
+    var headers = Map.of(CACHE_CONTROL, NO_CACHE, ETAG, ETAG_VALUE);
+    when(httpClient.send(any(HttpRequest.class), any()))
+        .thenAnswer(invocation -> personResponse(invocation, headers))
+        .thenAnswer(
+            invocation ->
+                decode(
+                    FakeHttpResponse.create(
+                        invocation.getArgument(0), null, NOT_MODIFIED, headerValues(headers)),
+                    invocation.getArgument(1)));
+
+    var first = client.getPerson(personId).orElseThrow();
+    var second = client.getPerson(personId).orElseThrow();
+
+    assertEquals(first, second);
+    var requests = ArgumentCaptor.forClass(HttpRequest.class);
+    verify(httpClient, times(2)).send(requests.capture(), any());
+    var revalidation = requests.getAllValues().get(1);
+    assertEquals(Optional.of(ETAG_VALUE), revalidation.headers().firstValue("If-None-Match"));
+  }
+
+  @Test
+  void shouldNotCacheResponseMarkedNoStore() throws IOException, InterruptedException {
+    var client = cachingClient();
+    var personId = randomUri();
+    when(httpClient.send(any(HttpRequest.class), any()))
+        .thenAnswer(
+            invocation -> personResponse(invocation, Map.of(CACHE_CONTROL, NO_STORE)));
+
+    client.getPerson(personId);
+    client.getPerson(personId);
+
+    verify(httpClient, times(2)).send(any(HttpRequest.class), any());
+  }
+
+  @Test
+  void shouldReturnFoundOrganizationsWhenFetchingOrganizationsConcurrently()
+      throws IOException, InterruptedException {
+    var existing = List.of(randomUri(), randomUri(), randomUri());
+    var missing = randomUri();
+    when(httpClient.send(any(HttpRequest.class), any()))
+        .thenAnswer(
+            invocation -> {
+              HttpRequest request = invocation.getArgument(0);
+              var response =
+                  existing.contains(request.uri())
+                      ? FakeHttpResponse.create(
+                          request,
+                          cristinOrganizationResponseBody()
+                              .replace(
+                                  "https://api.dev.nva.aws.unit.no/cristin/organization/ABCD.X.0.0",
+                                  request.uri().toString()),
+                          OK)
+                      : FakeHttpResponse.create(request, null, NOT_FOUND);
+              return decode(response, invocation.getArgument(1));
+            });
+    var requested = new ArrayList<>(existing);
+    requested.add(missing);
+
+    var organizations =
+        CristinClient.builder()
+            .withHttpClient(httpClient)
+            .withMaxConcurrentRequests(2)
+            .build()
+            .getOrganizations(requested);
+
+    assertEquals(Set.copyOf(existing), organizations.keySet());
+    existing.forEach(id -> assertEquals(id, organizations.get(id).id()));
+  }
+
+  private CristinClient cachingClient() {
+    return CristinClient.builder().withHttpClient(httpClient).withResponseCache(CACHE_SIZE).build();
+  }
+
+  private HttpResponse<?> personResponse(InvocationOnMock invocation, Map<String, String> headers) {
+    HttpRequest request = invocation.getArgument(0);
+    var body = cristinPersonResponseBody().replace("_ID_", request.uri().toString());
+    return decode(
+        FakeHttpResponse.create(request, body, OK, headerValues(headers)),
+        invocation.getArgument(1));
+  }
+
+  private static Map<String, List<String>> headerValues(Map<String, String> headers) {
+    return headers.entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> List.of(entry.getValue())));
+  }
+
   private static URI uriWithPathParams(String... params) {
     return UriWrapper.fromHost(new Environment().readEnv("API_HOST"))
         .addChild()
@@ -1,19 +1,63 @@
 package no.unit.nva.clients;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 import java.net.URI;
 import java.net.http.HttpClient.Version;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Flow;
 import javax.net.ssl.SSLSession;
+import org.mockito.stubbing.Answer;
 
-public record FakeHttpResponse<T>(HttpRequest request, T body, int statusCode)
+public record FakeHttpResponse<T>(HttpRequest request, T body, int statusCode, HttpHeaders headers)
     implements HttpResponse<T> {
 
   public static <T> FakeHttpResponse<T> create(
       HttpRequest request, T responseBody, int statusCode) {
-    return new FakeHttpResponse<>(request, responseBody, statusCode);
+    return create(request, responseBody, statusCode, Map.of());
+  }
+
+  public static <T> FakeHttpResponse<T> create(
+      HttpRequest request, T responseBody, int statusCode, Map<String, List<String>> headers) {
+    return new FakeHttpResponse<>(
+        request, responseBody, statusCode, HttpHeaders.of(headers, (name, value) -> true));
+  }
+
+  /**
+   * Answers {@code HttpClient.send(request, bodyHandler)} with {@code response}, after passing its
+   * String body through the body handler the code under test asked for.
+   */
+  public static Answer<HttpResponse<?>> respondWith(HttpResponse<String> response) {
+    return invocation -> decode(response, invocation.getArgument(1));
+  }
+
+  /** Feeds the String body of {@code response} to {@code bodyHandler}, as the HttpClient would. */
+  public static <T> HttpResponse<T> decode(
+      HttpResponse<String> response, BodyHandler<T> bodyHandler) {
+    if (isNull(response)) {
+      return null;
+    }
+    var headers =
+        isNull(response.headers())
+            ? HttpHeaders.of(Map.of(), (name, value) -> true)
+            : response.headers();
+    var statusCode = response.statusCode();
+    var subscriber = bodyHandler.apply(new FakeResponseInfo(statusCode, headers));
+    subscriber.onSubscribe(new NoBackpressureSubscription());
+    if (nonNull(response.body())) {
+      subscriber.onNext(List.of(ByteBuffer.wrap(response.body().getBytes(UTF_8))));
+    }
+    subscriber.onComplete();
+    var body = subscriber.getBody().toCompletableFuture().join();
+    return new FakeHttpResponse<>(response.request(), body, statusCode, headers);
   }
 
   @Override
@@ -26,11 +70,6 @@ public record FakeHttpResponse<T>(HttpRequest request, T body, int statusCode)
     return Optional.empty();
   }
 
-  @Override
-  public HttpHeaders headers() {
-    return null;
-  }
-
   @Override
   public Optional<SSLSession> sslSession() {
     return Optional.empty();
@@ -45,4 +84,21 @@ public record FakeHttpResponse<T>(HttpRequest request, T body, int statusCode)
   public Version version() {
     return null;
   }
+
+  private record FakeResponseInfo(int statusCode, HttpHeaders headers) implements ResponseInfo {
+
+    @Override
+    public Version version() {
+      return Version.HTTP_1_1;
+    }
+  }
+
+  private static final class NoBackpressureSubscription implements Flow.Subscription {
+
+    @Override
+    public void request(long items) {}
+
+    @Override
+    public void cancel() {}
+  }
 }
@@ -1,16 +1,21 @@
 package no.unit.nva.clients;
 
+import static java.util.Objects.isNull;
+import static no.unit.nva.clients.FakeHttpResponse.decode;
+import static no.unit.nva.clients.FakeHttpResponse.respondWith;
 import static no.unit.nva.auth.FetchUserInfo.AUTHORIZATION_HEADER;
 import static no.unit.nva.testutils.RandomDataGenerator.randomString;
 import static no.unit.nva.testutils.RandomDataGenerator.randomUri;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,13 +28,22 @@ import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandler;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import no.unit.nva.auth.CognitoCredentials;
 import no.unit.nva.clients.ChannelClaimDto.ChannelClaim;
 import no.unit.nva.clients.ChannelClaimDto.ChannelClaim.ChannelConstraint;
 import no.unit.nva.clients.ChannelClaimDto.CustomerSummaryDto;
 import no.unit.nva.clients.CustomerDto.RightsRetentionStrategy;
+import no.unit.nva.clients.IdentityServiceClient.CachedLookup;
 import no.unit.nva.clients.UserDto.Role;
 import no.unit.nva.clients.UserDto.ViewingScope;
 import no.unit.nva.commons.json.JsonUtils;
@@ -53,6 +67,9 @@ class IdentityServiceClientTest {
   public static final String BEARER_BEARER_TOKEN_TEST = "Bearer BEARER_TOKEN_TEST";
   public static final String OPERATION_REQUIRES_AN_AUTHORIZED_CLIENT_MESSAGE =
       "This operation requires an authorized client";
+  private static final int CACHE_SIZE = 100;
+  private static final int MAX_CONCURRENT_REQUESTS = 2;
+  private static final long SLOW_RESPONSE_MILLIS = 50;
   HttpClient httpClient = mock(HttpClient.class);
   CognitoCredentials cognitoCredentials;
   HttpResponse<String> okResponseWithBody = mock(HttpResponse.class);
@@ -84,7 +101,7 @@ class IdentityServiceClientTest {
     when(okResponseWithBody.body()).thenReturn(response.toString());
 
     when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     authorizedIdentityServiceClient =
         new IdentityServiceClient(httpClient, BEARER_TOKEN, cognitoCredentials);
@@ -101,7 +118,7 @@ class IdentityServiceClientTest {
                   HttpRequest request = (HttpRequest) args[0];
                   var path = request.uri().getPath();
                   if (path.equals("/users-roles/external-clients/" + clientId)) {
-                    return okResponseWithBody;
+                    return decode(okResponseWithBody, invocation.getArgument(1));
                   }
                   return null;
                 });
@@ -127,7 +144,7 @@ class IdentityServiceClientTest {
     var expectedUser = createUser(userName);
     var mockedResponse = mockResponse(expectedUser.toJsonString());
     when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class)))
-        .thenReturn(mockedResponse);
+        .thenAnswer(respondWith(mockedResponse));
     var actual = authorizedIdentityServiceClient.getUser(userName);
     assertEquals(expectedUser, actual);
   }
@@ -135,7 +152,7 @@ class IdentityServiceClientTest {
   @Test
   void shouldThrowNotFoundWhenUserNotFound() throws IOException, InterruptedException {
     when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class)))
-        .thenReturn(notFoundResponse);
+        .thenAnswer(respondWith(notFoundResponse));
     assertThrows(
         NotFoundException.class, () -> authorizedIdentityServiceClient.getUser(randomString()));
   }
@@ -152,7 +169,7 @@ class IdentityServiceClientTest {
                   HttpRequest request = (HttpRequest) args[0];
                   var path = request.uri().getPath();
                   if (path.equals("/users-roles/users/" + userName)) {
-                    return okResponseWithBody;
+                    return decode(okResponseWithBody, invocation.getArgument(1));
                   }
                   return null;
                 });
@@ -183,7 +200,8 @@ class IdentityServiceClientTest {
   @Test
   void shouldThrowRuntimeExceptionWhenHttpClientReturnsUnhandledError()
       throws IOException, InterruptedException {
-    when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class))).thenReturn(notOkResponse);
+    when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class)))
+        .thenAnswer(respondWith(notOkResponse));
 
     Executable action = () -> authorizedIdentityServiceClient.getExternalClient(clientId);
 
@@ -193,7 +211,7 @@ class IdentityServiceClientTest {
   @Test
   void shouldThrowNotFoundWhenHttpClientNotFound() throws IOException, InterruptedException {
     when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class)))
-        .thenReturn(notFoundResponse);
+        .thenAnswer(respondWith(notFoundResponse));
 
     Executable action = () -> authorizedIdentityServiceClient.getExternalClient(clientId);
 
@@ -214,7 +232,7 @@ class IdentityServiceClientTest {
     when(okResponseWithBody.body()).thenReturn(expectedCustomer.toJsonString());
     when(okResponseWithBody.statusCode()).thenReturn(200);
     when(httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     var actual = authorizedIdentityServiceClient.getCustomerByCristinId(customerCristinId);
 
@@ -235,7 +253,7 @@ class IdentityServiceClientTest {
     when(okResponseWithBody.body()).thenReturn(null);
     when(okResponseWithBody.statusCode()).thenReturn(404);
     when(httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     assertThrows(
         NotFoundException.class,
@@ -252,7 +270,7 @@ class IdentityServiceClientTest {
     when(okResponseWithBody.body()).thenReturn(expectedCustomer.toJsonString());
     when(okResponseWithBody.statusCode()).thenReturn(200);
     when(httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     var actual = authorizedIdentityServiceClient.getCustomerById(customerId);
 
@@ -280,7 +298,7 @@ class IdentityServiceClientTest {
     when(okResponseWithBody.body()).thenReturn(null);
     when(okResponseWithBody.statusCode()).thenReturn(404);
     when(httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     assertThrows(
         NotFoundException.class, () -> authorizedIdentityServiceClient.getCustomerById(customerId));
@@ -297,13 +315,26 @@ class IdentityServiceClientTest {
         .thenReturn(JsonUtils.dtoObjectMapper.writeValueAsString(customerList));
     when(okResponseWithBody.statusCode()).thenReturn(200);
     when(httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     var actual = authorizedIdentityServiceClient.getAllCustomers();
 
     assertEquals(customerList, actual);
   }
 
+  @Test
+  void shouldStreamAllCustomers() throws IOException, ApiGatewayException {
+    var customerList =
+        new CustomerList(List.of(createCustomer(randomCustomerId()), createCustomer(randomUri())));
+    when(okResponseWithBody.body())
+        .thenReturn(JsonUtils.dtoObjectMapper.writeValueAsString(customerList));
+    when(okResponseWithBody.statusCode()).thenReturn(200);
+
+    try (var customers = authorizedIdentityServiceClient.streamAllCustomers()) {
+      assertEquals(customerList.customers(), customers.toList());
+    }
+  }
+
   @Test
   void shouldThrowRuntimeExceptionWhenFetchingAllCustomersFails()
       throws IOException, InterruptedException {
@@ -312,7 +343,7 @@ class IdentityServiceClientTest {
     when(okResponseWithBody.body()).thenReturn(null);
     when(okResponseWithBody.statusCode()).thenReturn(502);
     when(httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     assertThrows(RuntimeException.class, () -> authorizedIdentityServiceClient.getAllCustomers());
   }
@@ -327,7 +358,7 @@ class IdentityServiceClientTest {
     when(okResponseWithBody.body()).thenReturn(expectedChannelClaim.toJsonString());
     when(okResponseWithBody.statusCode()).thenReturn(200);
     when(httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     var actual = authorizedIdentityServiceClient.getChannelClaim(channelClaim);
 
@@ -342,7 +373,7 @@ class IdentityServiceClientTest {
 
     when(okResponseWithBody.statusCode()).thenReturn(404);
     when(httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     assertThrows(
         NotFoundException.class,
@@ -357,7 +388,7 @@ class IdentityServiceClientTest {
 
     when(okResponseWithBody.statusCode()).thenReturn(500);
     when(httpClient.send(request, BodyHandlers.ofString(StandardCharsets.UTF_8)))
-        .thenReturn(okResponseWithBody);
+        .thenAnswer(respondWith(okResponseWithBody));
 
     assertThrows(
         RuntimeException.class,
@@ -486,4 +517,144 @@ class IdentityServiceClientTest {
         .withAccessRights(List.of("MANAGE_PUBLISHING_REQUESTS"))
         .build();
   }
+
+  @Test
+  void shouldServeRepeatedUserLookupsFromCacheWhenCachingIsEnabled()
+      throws NotFoundException, IOException, InterruptedException {
+    var userName = randomString();
+    var expectedUser = createUser(userName);
+    var mockedResponse = mockResponse(expectedUser.toJsonString());
+    when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class)))
+        .thenAnswer(respondWith(mockedResponse));
+    var client = cachingIdentityServiceClient();
+
+    var first = client.getUser(userName);
+    var second = client.getUser(userName);
+
+    assertEquals(expectedUser, first);
+    assertEquals(expectedUser, second);
+    verify(httpClient, times(1)).send(any(HttpRequest.class), any(BodyHandler.class));
+    var metrics = client.getCacheMetrics(CachedLookup.USER).orElseThrow();
+    assertThat(metrics.getHits(), is(equalTo(1L)));
+    assertThat(metrics.getMisses(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldCacheNotFoundWhenNotFoundCachingIsEnabled() throws IOException, InterruptedException {
+    when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class)))
+        .thenAnswer(respondWith(notFoundResponse));
+    var client = cachingIdentityServiceClient();
+    var customerId = randomUri();
+
+    assertThrows(NotFoundException.class, () -> client.getCustomerById(customerId));
+    assertThrows(NotFoundException.class, () -> client.getCustomerById(customerId));
+
+    verify(httpClient, times(1)).send(any(HttpRequest.class), any(BodyHandler.class));
+  }
+
+  @Test
+  void shouldNotCacheLookupsWhenCachingIsNotEnabled()
+      throws NotFoundException, IOException, InterruptedException {
+    var userName = randomString();
+    var mockedResponse = mockResponse(createUser(userName).toJsonString());
+    when(httpClient.send(any(HttpRequest.class), any(BodyHandler.class)))
+        .thenAnswer(respondWith(mockedResponse));
+
+    authorizedIdentityServiceClient.getUser(userName);
+    authorizedIdentityServiceClient.getUser(userName);
+
+    verify(httpClient, times(2)).send(any(HttpRequest.class), any(BodyHandler.class));
+    assertThat(
+        authorizedIdentityServiceClient.getCacheMetrics(CachedLookup.USER).isPresent(), is(false));
+  }
+
+  @Test
+  void shouldReturnFoundCustomersAndFailurePerMissingCustomerWhenFetchingInBulk() {
+    var existingCustomers =
+        Stream.generate(IdentityServiceClientTest::randomCustomerId)
+            .limit(3)
+            .collect(Collectors.toMap(Function.identity(), this::createCustomer));
+    var missingCustomer = randomCustomerId();
+    when(httpClient.sendAsync(any(HttpRequest.class), any(BodyHandler.class)))
+        .thenAnswer(
+            invocation -> {
+              HttpRequest request = invocation.getArgument(0);
+              var customer = existingCustomers.get(request.uri());
+              var response =
+                  isNull(customer)
+                      ? FakeHttpResponse.create(request, "", 404)
+                      : FakeHttpResponse.create(request, customer.toJsonString(), 200);
+              return CompletableFuture.completedFuture(
+                  decode(response, invocation.getArgument(1)));
+            });
+    var requested = new ArrayList<>(existingCustomers.keySet());
+    requested.add(missingCustomer);
+
+    var result = authorizedIdentityServiceClient.getCustomersByIds(requested);
+
+    assertThat(result.found(), is(equalTo(existingCustomers)));
+    assertThat(result.failures().keySet(), is(equalTo(Set.of(missingCustomer))));
+    assertThat(result.failures().get(missingCustomer), is(instanceOf(NotFoundException.class)));
+  }
+
+  @Test
+  void shouldKeepAtMostMaxConcurrentRequestsInFlightWhenFetchingUsersInBulk() {
+    var inFlight = new AtomicInteger();
+    var maxInFlight = new AtomicInteger();
+    when(httpClient.sendAsync(any(HttpRequest.class), any(BodyHandler.class)))
+        .thenAnswer(
+            invocation -> {
+              HttpRequest request = invocation.getArgument(0);
+              BodyHandler<?> bodyHandler = invocation.getArgument(1);
+              var userName = UriWrapper.fromUri(request.uri()).getLastPathElement();
+              return CompletableFuture.supplyAsync(
+                  () -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    sleep(SLOW_RESPONSE_MILLIS);
+                    inFlight.decrementAndGet();
+                    return decode(
+                        FakeHttpResponse.create(request, createUser(userName).toJsonString(), 200),
+                        bodyHandler);
+                  });
+            });
+    var client =
+        IdentityServiceClient.builder()
+            .withHttpClient(httpClient)
+            .withBearerToken(BEARER_TOKEN)
+            .withMaxConcurrentRequests(MAX_CONCURRENT_REQUESTS)
+            .build();
+    var userNames = Stream.generate(() -> randomString()).limit(10).toList();
+
+    var result = client.getUsers(userNames);
+
+    assertThat(result.found().keySet(), is(equalTo(Set.copyOf(userNames))));
+    assertThat(result.hasFailures(), is(false));
+    assertThat(maxInFlight.get() <= MAX_CONCURRENT_REQUESTS, is(true));
+  }
+
+  @Test
+  void shouldThrowWhenFetchingInBulkWithoutAuthorizedClient() {
+    var service = new IdentityServiceClient(mock(HttpClient.class));
+
+    assertThrows(IllegalStateException.class, () -> service.getUsers(List.of(randomString())));
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private IdentityServiceClient cachingIdentityServiceClient() {
+    return IdentityServiceClient.builder()
+        .withHttpClient(httpClient)
+        .withBearerToken(BEARER_TOKEN)
+        .withCognitoCredentials(cognitoCredentials)
+        .withCache(Duration.ofMinutes(5), CACHE_SIZE)
+        .withNotFoundCaching(Duration.ofMinutes(1))
+        .build();
+  }
 }
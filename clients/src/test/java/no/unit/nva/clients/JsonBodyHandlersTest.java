@@ -0,0 +1,119 @@
+package no.unit.nva.clients;
+
+import static no.unit.nva.clients.FakeHttpResponse.decode;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JsonBodyHandlersTest {
+
+  private static final int OK = 200;
+  private static final int NOT_FOUND = 404;
+  private static final HttpRequest REQUEST =
+      HttpRequest.newBuilder(URI.create("https://example.org/items")).build();
+
+  @Test
+  void shouldDecodeSuccessfulBody() {
+    var response =
+        decode(
+            FakeHttpResponse.create(REQUEST, "{\"name\":\"first\",\"count\":1}", OK),
+            JsonBodyHandlers.ofJson(Item.class));
+
+    assertThat(response.body().get(), is(equalTo(new Item("first", 1))));
+  }
+
+  @Test
+  void shouldNotDecodeUnsuccessfulBody() {
+    var response =
+        decode(
+            FakeHttpResponse.create(REQUEST, "{\"message\":\"Not found\"}", NOT_FOUND),
+            JsonBodyHandlers.ofJson(Item.class));
+
+    assertThrows(IllegalStateException.class, () -> response.body().get());
+  }
+
+  @Test
+  void shouldThrowUncheckedIoExceptionWhenBodyIsNotValidJson() {
+    var response =
+        decode(
+            FakeHttpResponse.create(REQUEST, "{\"name\":", OK),
+            JsonBodyHandlers.ofJson(Item.class));
+
+    assertThrows(UncheckedIOException.class, () -> response.body().get());
+  }
+
+  @Test
+  void shouldCloseBodyThatIsDiscarded() {
+    var response =
+        decode(
+            FakeHttpResponse.create(REQUEST, "{\"name\":\"first\",\"count\":1}", OK),
+            JsonBodyHandlers.ofJson(Item.class));
+
+    JsonBodyHandlers.discard(response.body());
+
+    assertThrows(UncheckedIOException.class, () -> response.body().get());
+  }
+
+  @Test
+  void shouldStreamElementsOfArrayFieldAndSkipOtherFields() {
+    var body =
+        """
+        {
+          "context": {"nested": [1, 2, {"deep": true}]},
+          "items": [{"name": "first", "count": 1}, {"name": "second", "count": 2}],
+          "next": "ignored"
+        }
+        """;
+    var response =
+        decode(
+            FakeHttpResponse.create(REQUEST, body, OK),
+            JsonBodyHandlers.ofJsonArray("items", Item.class));
+
+    try (var items = response.body().get()) {
+      assertThat(items.toList(), is(equalTo(List.of(new Item("first", 1), new Item("second", 2)))));
+    }
+  }
+
+  @Test
+  void shouldStreamElementsOfTopLevelArray() {
+    var response =
+        decode(
+            FakeHttpResponse.create(REQUEST, "[{\"name\":\"first\",\"count\":1}]", OK),
+            JsonBodyHandlers.ofJsonArray(Item.class));
+
+    try (var items = response.body().get()) {
+      assertThat(items.toList(), is(equalTo(List.of(new Item("first", 1)))));
+    }
+  }
+
+  @Test
+  void shouldReturnEmptyStreamForEmptyArray() {
+    var response =
+        decode(
+            FakeHttpResponse.create(REQUEST, "{\"items\":[]}", OK),
+            JsonBodyHandlers.ofJsonArray("items", Item.class));
+
+    try (var items = response.body().get()) {
+      assertThat(items.count(), is(equalTo(0L)));
+    }
+  }
+
+  @Test
+  void shouldThrowUncheckedIoExceptionWhenArrayFieldIsMissing() {
+    var response =
+        decode(
+            FakeHttpResponse.create(REQUEST, "{\"other\":[]}", OK),
+            JsonBodyHandlers.ofJsonArray("items", Item.class));
+
+    assertThrows(UncheckedIOException.class, () -> response.body().get());
+  }
+
+  public record Item(String name, int count) {}
+}
@@ -107,6 +107,16 @@ public final class StringUtils {
     return !isBlank(string);
   }
 
+  /**
+   * The length of the string in bytes when encoded as UTF-8.
+   *
+   * @param string the string, or {@code null}.
+   * @return the number of bytes, or 0 if the string is {@code null}.
+   */
+  public static long utf8Length(String string) {
+    return isNull(string) ? 0 : string.getBytes(StandardCharsets.UTF_8).length;
+  }
+
   public static String removeXmlTags(String input) {
     String output = null;
     DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newDefaultInstance();
@@ -0,0 +1,85 @@
+package nva.commons.core.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Live counters for a {@link TtlCache}. Safe to read at any time, e.g. for periodic logging. */
+public final class CacheMetrics {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder negativeHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Lookups answered without calling the loader, including callers that waited for a load already
+   * in flight and lookups answered with a cached failure.
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /** Hits that rethrew a cached failure, e.g. a cached "not found". */
+  public long getNegativeHits() {
+    return negativeHits.sum();
+  }
+
+  /** Lookups that called the loader. */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /** Loads that threw, whether or not the failure was cached. */
+  public long getLoadFailures() {
+    return loadFailures.sum();
+  }
+
+  /** Entries removed to stay within the maximum size. */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /** Hits divided by all lookups, or 0 before the first lookup. */
+  public double getHitRate() {
+    long hitCount = getHits();
+    long lookups = hitCount + getMisses();
+    return lookups > 0 ? (double) hitCount / lookups : 0.0;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheMetrics{"
+        + "hits="
+        + getHits()
+        + ", negativeHits="
+        + getNegativeHits()
+        + ", misses="
+        + getMisses()
+        + ", loadFailures="
+        + getLoadFailures()
+        + ", evictions="
+        + getEvictions()
+        + '}';
+  }
+
+  void recordHit() {
+    hits.increment();
+  }
+
+  void recordNegativeHit() {
+    hits.increment();
+    negativeHits.increment();
+  }
+
+  void recordMiss() {
+    misses.increment();
+  }
+
+  void recordLoadFailure() {
+    loadFailures.increment();
+  }
+
+  void recordEviction() {
+    evictions.increment();
+  }
+}
@@ -0,0 +1,285 @@
+package nva.commons.core.cache;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import nva.commons.core.attempt.FunctionWithException;
+
+/**
+ * Bounded read-through cache where every entry lives for a fixed time.
+ *
+ * <p>Example:
+ *
+ * <pre>
+ *      TtlCache&#60;URI, CustomerDto&#62; customers = TtlCache.&#60;URI, CustomerDto&#62;builder()
+ *          .withTimeToLive(Duration.ofMinutes(5))
+ *          .withMaximumSize(1000)
+ *          .withNegativeCaching(NotFoundException.class, Duration.ofMinutes(1))
+ *          .build();
+ *      CustomerDto customer = customers.get(customerId, this::fetchCustomer);
+ * </pre>
+ *
+ * <p>Concurrent misses for the same key are single-flight: the first caller runs the loader on its
+ * own thread and the others wait for its result. A failure is only cached when it is one of the
+ * types configured with {@link Builder#withNegativeCaching(Class, Duration)}, e.g. a "not found";
+ * every caller then gets that same exception until it expires. Other failures are passed to the
+ * caller that loaded and to the callers that waited for it, and are not cached.
+ *
+ * <p>When full, the least recently used entry is evicted. Expired entries are replaced on their
+ * next lookup.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+public final class TtlCache<K, V> {
+
+  private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+  private static final int MINIMUM_SIZE = 1;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final boolean ACCESS_ORDER = true;
+  private static final long LOADING = Long.MAX_VALUE;
+  private static final String INVALID_SIZE_MESSAGE = "Maximum size must be positive, was: ";
+
+  private final Duration timeToLive;
+  private final int maximumSize;
+  private final Class<? extends Exception> negativelyCachedType;
+  private final Duration negativeTimeToLive;
+  private final Clock clock;
+  private final CacheMetrics metrics = new CacheMetrics();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<K, Entry<V>> entries;
+
+  private TtlCache(Builder<K, V> builder) {
+    this.timeToLive = builder.timeToLive;
+    this.maximumSize = builder.maximumSize;
+    this.negativelyCachedType = builder.negativelyCachedType;
+    this.negativeTimeToLive = builder.negativeTimeToLive;
+    this.clock = builder.clock;
+    this.entries = new BoundedLinkedHashMap();
+  }
+
+  public static <K, V> Builder<K, V> builder() {
+    return new Builder<>();
+  }
+
+  /**
+   * Returns the cached value for {@code key}, loading it with {@code loader} if it is missing or
+   * expired.
+   *
+   * @throws E if the loader fails, or a cached failure for this key has not yet expired.
+   */
+  public <E extends Exception> V get(K key, FunctionWithException<K, V, E> loader) throws E {
+    var now = clock.millis();
+    Entry<V> entry;
+    boolean loadsHere;
+    lock.lock();
+    try {
+      entry = entries.get(key);
+      loadsHere = isNull(entry) || entry.isExpiredAt(now);
+      if (loadsHere) {
+        entry = new Entry<>();
+        entries.put(key, entry);
+      }
+    } finally {
+      lock.unlock();
+    }
+    return loadsHere ? load(key, entry, loader) : await(entry);
+  }
+
+  public void invalidate(K key) {
+    lock.lock();
+    try {
+      entries.remove(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void invalidateAll() {
+    lock.lock();
+    try {
+      entries.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Number of entries, including expired entries that have not been replaced yet. */
+  public int size() {
+    lock.lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+
+  private <E extends Exception> V load(
+      K key, Entry<V> entry, FunctionWithException<K, V, E> loader) throws E {
+    metrics.recordMiss();
+    try {
+      var value = loader.apply(key);
+      entry.succeed(value, clock.millis() + timeToLive.toMillis());
+      return value;
+    } catch (Exception exception) {
+      metrics.recordLoadFailure();
+      if (isNegativelyCached(exception)) {
+        entry.failAndCache(exception, clock.millis() + negativeTimeToLive.toMillis());
+      } else {
+        removeFailed(key, entry);
+        entry.fail(exception);
+      }
+      throw exception;
+    } catch (Error error) {
+      // Fail the waiting callers too, instead of leaving the entry loading forever.
+      metrics.recordLoadFailure();
+      removeFailed(key, entry);
+      entry.fail(error);
+      throw error;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <E extends Exception> V await(Entry<V> entry) throws E {
+    try {
+      var value = entry.result.join();
+      metrics.recordHit();
+      return value;
+    } catch (CompletionException exception) {
+      var cause = exception.getCause();
+      if (entry.isCachedFailure()) {
+        metrics.recordNegativeHit();
+      } else {
+        metrics.recordHit();
+      }
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw (E) cause;
+    }
+  }
+
+  private boolean isNegativelyCached(Exception exception) {
+    return nonNull(negativelyCachedType) && negativelyCachedType.isInstance(exception);
+  }
+
+  private void removeFailed(K key, Entry<V> entry) {
+    lock.lock();
+    try {
+      entries.remove(key, entry);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** A value or cached failure, or a load in progress that callers can wait for. */
+  private static final class Entry<V> {
+
+    private final CompletableFuture<V> result = new CompletableFuture<>();
+    private volatile long expiresAtMillis = LOADING;
+    private volatile boolean cachedFailure;
+
+    private boolean isExpiredAt(long nowMillis) {
+      return nowMillis >= expiresAtMillis;
+    }
+
+    private boolean isCachedFailure() {
+      return cachedFailure;
+    }
+
+    private void succeed(V value, long expiresAt) {
+      expiresAtMillis = expiresAt;
+      result.complete(value);
+    }
+
+    private void failAndCache(Exception exception, long expiresAt) {
+      expiresAtMillis = expiresAt;
+      cachedFailure = true;
+      result.completeExceptionally(exception);
+    }
+
+    private void fail(Throwable failure) {
+      result.completeExceptionally(failure);
+    }
+  }
+
+  /** Least recently used order; only accessed while holding the lock. */
+  private final class BoundedLinkedHashMap extends LinkedHashMap<K, Entry<V>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private BoundedLinkedHashMap() {
+      super(INITIAL_CAPACITY, LOAD_FACTOR, ACCESS_ORDER);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+      var full = size() > maximumSize;
+      if (full) {
+        metrics.recordEviction();
+      }
+      return full;
+    }
+  }
+
+  public static final class Builder<K, V> {
+
+    private Duration timeToLive = Duration.ZERO;
+    private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+    private Class<? extends Exception> negativelyCachedType;
+    private Duration negativeTimeToLive = Duration.ZERO;
+    private Clock clock = Clock.systemUTC();
+
+    private Builder() {}
+
+    /** How long a loaded value is served before it is loaded again. */
+    public Builder<K, V> withTimeToLive(Duration timeToLive) {
+      this.timeToLive = timeToLive;
+      return this;
+    }
+
+    /** Maximum number of entries. Default: 1000. */
+    public Builder<K, V> withMaximumSize(int maximumSize) {
+      if (maximumSize < MINIMUM_SIZE) {
+        throw new IllegalArgumentException(INVALID_SIZE_MESSAGE + maximumSize);
+      }
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Also cache failures of {@code exceptionType} (and its subclasses) for {@code timeToLive}.
+     * Default: failures are never cached.
+     */
+    public Builder<K, V> withNegativeCaching(
+        Class<? extends Exception> exceptionType, Duration timeToLive) {
+      this.negativelyCachedType = exceptionType;
+      this.negativeTimeToLive = timeToLive;
+      return this;
+    }
+
+    public Builder<K, V> withClock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    public TtlCache<K, V> build() {
+      return new TtlCache<>(this);
+    }
+  }
+}
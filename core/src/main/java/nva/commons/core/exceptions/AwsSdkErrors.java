@@ -0,0 +1,32 @@
+package nva.commons.core.exceptions;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+/**
+ * Classifies exceptions thrown by AWS SDK v2 clients.
+ *
+ * <p>Core depends on the AWS SDK only at compile time, so this class can only be used by modules
+ * that have the SDK ({@code software.amazon.awssdk:sdk-core}) on their own classpath.
+ */
+public final class AwsSdkErrors {
+
+  private static final int SERVER_ERROR = 500;
+
+  private AwsSdkErrors() {}
+
+  /**
+   * Whether the call may succeed if it is made again: the service throttled it or failed with a
+   * server error, or the client could not reach the service.
+   *
+   * @param exception the exception thrown by the SDK client.
+   * @return {@code true} for throttling, 5xx and client-side errors.
+   */
+  public static boolean isTransient(Throwable exception) {
+    if (exception instanceof SdkServiceException serviceException) {
+      return serviceException.isThrottlingException()
+          || serviceException.statusCode() >= SERVER_ERROR;
+    }
+    return exception instanceof SdkClientException;
+  }
+}
@@ -0,0 +1,69 @@
+package nva.commons.core.http;
+
+/**
+ * Limit on the number of in-flight calls to one host, adjusted with additive increase and
+ * multiplicative decrease: every successful call that used at least half of the limit raises it by
+ * {@code 1 / limit}, i.e. by one per limit's worth of successes, and a failure halves it.
+ *
+ * <p>The limit is halved at most once per window: the calls that were in flight when it was halved
+ * were sent under the old limit, so their failures do not halve it again. Like TCP, which decreases
+ * its window once per round trip, a burst of concurrent failures counts as one congestion signal.
+ */
+final class AdaptiveConcurrencyLimit {
+
+  private static final double MINIMUM_LIMIT = 1.0;
+  private static final double DECREASE_FACTOR = 0.5;
+  private static final double INCREASE_UTILIZATION = 0.5;
+
+  private final double maximumLimit;
+  private double limit;
+  private int inFlight;
+  private int callsUntilNextDecrease;
+
+  AdaptiveConcurrencyLimit(int initialLimit, int maximumLimit) {
+    this.limit = initialLimit;
+    this.maximumLimit = maximumLimit;
+  }
+
+  synchronized boolean tryAcquire() {
+    if (inFlight >= getLimit()) {
+      return false;
+    }
+    inFlight++;
+    return true;
+  }
+
+  synchronized void onSuccess() {
+    if (inFlight >= limit * INCREASE_UTILIZATION) {
+      limit = Math.min(maximumLimit, limit + 1 / limit);
+    }
+    onCompleted();
+  }
+
+  synchronized void onFailure() {
+    if (callsUntilNextDecrease == 0) {
+      limit = Math.max(MINIMUM_LIMIT, limit * DECREASE_FACTOR);
+      callsUntilNextDecrease = inFlight;
+    }
+    onCompleted();
+  }
+
+  synchronized void onIgnored() {
+    onCompleted();
+  }
+
+  synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  private void onCompleted() {
+    inFlight--;
+    if (callsUntilNextDecrease > 0) {
+      callsUntilNextDecrease--;
+    }
+  }
+}
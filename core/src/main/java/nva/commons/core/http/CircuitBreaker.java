@@ -0,0 +1,110 @@
+package nva.commons.core.http;
+
+import java.time.Clock;
+import java.time.Duration;
+import nva.commons.core.http.ResilientHttpClient.CircuitState;
+
+/**
+ * Count-based circuit breaker for one host. The outcomes of the last {@code windowSize} calls are
+ * kept, and the circuit opens when the window is full and the share of failures in it reaches the
+ * threshold. An open circuit rejects calls until the open duration has passed, and then lets a
+ * single trial call through: its success closes the circuit, its failure opens it again.
+ */
+final class CircuitBreaker {
+
+  private final int windowSize;
+  private final double failureRateThreshold;
+  private final Duration openDuration;
+  private final Clock clock;
+  private final boolean[] failed;
+  private int recorded;
+  private int next;
+  private int failures;
+  private CircuitState state = CircuitState.CLOSED;
+  private long openUntilMillis;
+  private boolean trialInFlight;
+
+  CircuitBreaker(int windowSize, double failureRateThreshold, Duration openDuration, Clock clock) {
+    this.windowSize = windowSize;
+    this.failureRateThreshold = failureRateThreshold;
+    this.openDuration = openDuration;
+    this.clock = clock;
+    this.failed = new boolean[windowSize];
+  }
+
+  synchronized boolean tryAcquire() {
+    if (state == CircuitState.CLOSED) {
+      return true;
+    }
+    if (state == CircuitState.OPEN) {
+      if (clock.millis() < openUntilMillis) {
+        return false;
+      }
+      state = CircuitState.HALF_OPEN;
+    }
+    if (trialInFlight) {
+      return false;
+    }
+    trialInFlight = true;
+    return true;
+  }
+
+  synchronized void onSuccess() {
+    if (state == CircuitState.HALF_OPEN) {
+      close();
+    } else if (state == CircuitState.CLOSED) {
+      record(false);
+    }
+  }
+
+  synchronized void onFailure() {
+    if (state == CircuitState.HALF_OPEN) {
+      open();
+    } else if (state == CircuitState.CLOSED) {
+      record(true);
+      if (recorded == windowSize && failures >= failureRateThreshold * windowSize) {
+        open();
+      }
+    }
+  }
+
+  /** For calls that neither succeeded nor failed, such as interrupted or rejected calls. */
+  synchronized void onIgnored() {
+    if (state == CircuitState.HALF_OPEN) {
+      trialInFlight = false;
+    }
+  }
+
+  synchronized CircuitState getState() {
+    return state;
+  }
+
+  private void record(boolean failure) {
+    if (recorded == windowSize) {
+      failures -= failed[next] ? 1 : 0;
+    } else {
+      recorded++;
+    }
+    failed[next] = failure;
+    failures += failure ? 1 : 0;
+    next = (next + 1) % windowSize;
+  }
+
+  private void open() {
+    state = CircuitState.OPEN;
+    openUntilMillis = clock.millis() + openDuration.toMillis();
+    reset();
+  }
+
+  private void close() {
+    state = CircuitState.CLOSED;
+    reset();
+  }
+
+  private void reset() {
+    trialInFlight = false;
+    recorded = 0;
+    next = 0;
+    failures = 0;
+  }
+}
@@ -0,0 +1,86 @@
+package nva.commons.core.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the JDK {@link HttpClient}s used by NVA clients, so that all clients in a process share
+ * one connection pool and one executor.
+ *
+ * <p>Example:
+ *
+ * <pre>
+ *      HttpClient httpClient = HttpClientFactory.shared();
+ *      HttpRequest request = HttpClientFactory.newRequest(uri).GET().build();
+ *      HttpResponse&#60;String&#62; response = httpClient.send(request, BodyHandlers.ofString());
+ * </pre>
+ *
+ * <p>Reusing {@link #shared()} across clients means that a Lambda pays for the TLS handshake with a
+ * host once, instead of once per client. The shared client prefers HTTP/2, so concurrent requests
+ * to the same host are multiplexed over one connection, and falls back to HTTP/1.1 for hosts that
+ * do not support it. It runs its asynchronous work on virtual threads and, like {@link
+ * HttpClient#newHttpClient()}, does not follow redirects.
+ *
+ * <p>The JDK client has no default timeout for requests, so requests should be created with {@link
+ * #newRequest(URI)}, or given a timeout by the caller.
+ */
+public final class HttpClientFactory {
+
+  /** How long to wait for a connection to be established. */
+  public static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+  /** How long to wait for the response headers after a request has been sent. */
+  public static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  private HttpClientFactory() {}
+
+  /**
+   * Returns the process-wide client, which is created on first use.
+   *
+   * @return the shared HttpClient.
+   */
+  public static HttpClient shared() {
+    return SharedClientHolder.CLIENT;
+  }
+
+  /**
+   * Creates a builder with the settings of the shared client, for clients that need something
+   * more, such as a custom SSL context. Clients built from it have their own connection pool, but
+   * share the executor.
+   *
+   * @return a pre-configured HttpClient builder.
+   */
+  public static HttpClient.Builder newBuilder() {
+    return HttpClient.newBuilder()
+        .version(Version.HTTP_2)
+        .connectTimeout(CONNECT_TIMEOUT)
+        .followRedirects(Redirect.NEVER)
+        .executor(SharedExecutorHolder.EXECUTOR);
+  }
+
+  /**
+   * Creates a request builder for {@code uri} with the default request timeout.
+   *
+   * @param uri the request URI.
+   * @return a request builder.
+   */
+  public static HttpRequest.Builder newRequest(URI uri) {
+    return HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT);
+  }
+
+  private static final class SharedExecutorHolder {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  private static final class SharedClientHolder {
+
+    private static final HttpClient CLIENT = newBuilder().build();
+  }
+}
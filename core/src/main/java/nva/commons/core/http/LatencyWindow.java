@@ -0,0 +1,38 @@
+package nva.commons.core.http;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/** The latencies of the last successful calls to one host. */
+final class LatencyWindow {
+
+  private static final double P95 = 0.95;
+
+  private final long[] samplesNanos;
+  private final int minimumSamples;
+  private int count;
+  private int next;
+
+  LatencyWindow(int size, int minimumSamples) {
+    this.samplesNanos = new long[size];
+    this.minimumSamples = minimumSamples;
+  }
+
+  synchronized void record(long latencyNanos) {
+    samplesNanos[next] = latencyNanos;
+    next = (next + 1) % samplesNanos.length;
+    count = Math.min(count + 1, samplesNanos.length);
+  }
+
+  /** The 95th percentile, or empty until there are enough samples for it to be meaningful. */
+  synchronized Optional<Duration> getP95() {
+    if (count < minimumSamples) {
+      return Optional.empty();
+    }
+    var sorted = Arrays.copyOf(samplesNanos, count);
+    Arrays.sort(sorted);
+    var index = (int) Math.ceil(P95 * count) - 1;
+    return Optional.of(Duration.ofNanos(sorted[index]));
+  }
+}
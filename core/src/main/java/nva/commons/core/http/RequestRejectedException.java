@@ -0,0 +1,14 @@
+package nva.commons.core.http;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@link ResilientHttpClient} when a request is not sent, because the circuit for its
+ * host is open or its host has reached the concurrency limit.
+ */
+public class RequestRejectedException extends IOException {
+
+  public RequestRejectedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,535 @@
+package nva.commons.core.http;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.PushPromiseHandler;
+import java.net.http.WebSocket;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+
+/**
+ * {@link HttpClient} decorator that protects callers from a slow or failing backend. Each host has
+ * its own state:
+ *
+ * <ul>
+ *   <li>Circuit breaker: when the share of failures among the last calls to a host reaches the
+ *       threshold, calls to that host are rejected at once until the open duration has passed. Then
+ *       a single trial call is let through, and its outcome closes or reopens the circuit.
+ *   <li>Adaptive concurrency limit: calls beyond the current limit of in-flight calls to a host are
+ *       rejected. The limit grows by one for every limit's worth of successful calls and is halved
+ *       on failure, at most once per window of in-flight calls.
+ *   <li>Hedged GETs, if enabled: when a GET has not completed within the p95 latency of recent
+ *       calls to its host, an identical second request is sent, and the first response is used.
+ *       The second request counts against the concurrency limit, and is not sent if the limit is
+ *       reached.
+ * </ul>
+ *
+ * <p>Example:
+ *
+ * <pre>
+ *      HttpClient httpClient = ResilientHttpClient.builder()
+ *          .withHttpClient(HttpClientFactory.shared())
+ *          .withHedgedGets()
+ *          .build();
+ *      CristinClient cristinClient = new CristinClient(httpClient);
+ * </pre>
+ *
+ * <p>A failure is an {@link IOException}, such as a timeout, or a 429 or 5xx response. A rejected
+ * call fails with {@link RequestRejectedException}, which is an {@link IOException}, so callers
+ * handle it like any other failed request. {@link #getMetrics(String)} reports the state of a host.
+ */
+public final class ResilientHttpClient extends HttpClient {
+
+  private static final int TOO_MANY_REQUESTS = 429;
+  private static final int FIRST_SERVER_ERROR = 500;
+  private static final String GET = "GET";
+  private static final int LATENCY_WINDOW_SIZE = 100;
+  private static final int MINIMUM_LATENCY_SAMPLES = 20;
+  private static final String CIRCUIT_OPEN_MESSAGE = "Circuit is open for host: ";
+  private static final String LIMIT_REACHED_MESSAGE = "Concurrency limit reached for host: ";
+
+  private final HttpClient delegate;
+  private final int windowSize;
+  private final double failureRateThreshold;
+  private final Duration openDuration;
+  private final int initialConcurrencyLimit;
+  private final int maximumConcurrencyLimit;
+  private final boolean hedgedGets;
+  private final Clock clock;
+  private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+  private ResilientHttpClient(Builder builder) {
+    this.delegate = builder.httpClient;
+    this.windowSize = builder.windowSize;
+    this.failureRateThreshold = builder.failureRateThreshold;
+    this.openDuration = builder.openDuration;
+    this.initialConcurrencyLimit = builder.initialConcurrencyLimit;
+    this.maximumConcurrencyLimit = builder.maximumConcurrencyLimit;
+    this.hedgedGets = builder.hedgedGets;
+    this.clock = builder.clock;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * The current state of a host.
+   *
+   * @param host the host name, as in {@link java.net.URI#getHost()}.
+   * @return the metrics, or empty if no request has been sent to the host.
+   */
+  public Optional<HostMetrics> getMetrics(String host) {
+    return Optional.ofNullable(hosts.get(host)).map(HostState::getMetrics);
+  }
+
+  @Override
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  public <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> responseBodyHandler)
+      throws IOException, InterruptedException {
+    var host = hostStateOf(request);
+    if (host.hedgeDelay(request).isPresent()) {
+      return await(sendAsync(request, responseBodyHandler));
+    }
+    host.acquire();
+    var start = System.nanoTime();
+    try {
+      var response = delegate.send(request, responseBodyHandler);
+      host.onResponse(response.statusCode(), System.nanoTime() - start);
+      return response;
+    } catch (IOException exception) {
+      host.onFailure();
+      throw exception;
+    } catch (InterruptedException | RuntimeException exception) {
+      host.onIgnored();
+      throw exception;
+    }
+  }
+
+  @Override
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+      HttpRequest request, BodyHandler<T> responseBodyHandler) {
+    return sendAsync(request, responseBodyHandler, null);
+  }
+
+  @Override
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(
+      HttpRequest request,
+      BodyHandler<T> responseBodyHandler,
+      PushPromiseHandler<T> pushPromiseHandler) {
+    var host = hostStateOf(request);
+    try {
+      host.acquire();
+    } catch (RequestRejectedException exception) {
+      return CompletableFuture.failedFuture(exception);
+    }
+    var start = System.nanoTime();
+    Supplier<CompletableFuture<HttpResponse<T>>> send =
+        () -> delegate.sendAsync(request, responseBodyHandler, pushPromiseHandler);
+    var response =
+        host.hedgeDelay(request)
+            .map(
+                delay ->
+                    new HedgedCall<>(send).start(delay, host::tryAcquireHedge, host::releaseHedge))
+            .orElseGet(send);
+    return response.whenComplete(
+        (value, error) -> host.onCompletion(value, error, System.nanoTime() - start));
+  }
+
+  @Override
+  public Optional<CookieHandler> cookieHandler() {
+    return delegate.cookieHandler();
+  }
+
+  @Override
+  public Optional<Duration> connectTimeout() {
+    return delegate.connectTimeout();
+  }
+
+  @Override
+  public Redirect followRedirects() {
+    return delegate.followRedirects();
+  }
+
+  @Override
+  public Optional<ProxySelector> proxy() {
+    return delegate.proxy();
+  }
+
+  @Override
+  public SSLContext sslContext() {
+    return delegate.sslContext();
+  }
+
+  @Override
+  public SSLParameters sslParameters() {
+    return delegate.sslParameters();
+  }
+
+  @Override
+  public Optional<Authenticator> authenticator() {
+    return delegate.authenticator();
+  }
+
+  @Override
+  public Version version() {
+    return delegate.version();
+  }
+
+  @Override
+  public Optional<Executor> executor() {
+    return delegate.executor();
+  }
+
+  @Override
+  public WebSocket.Builder newWebSocketBuilder() {
+    return delegate.newWebSocketBuilder();
+  }
+
+  private HostState hostStateOf(HttpRequest request) {
+    return hosts.computeIfAbsent(request.uri().getHost(), HostState::new);
+  }
+
+  private static boolean isFailure(int statusCode) {
+    return statusCode == TOO_MANY_REQUESTS || statusCode >= FIRST_SERVER_ERROR;
+  }
+
+  private static <T> T await(CompletableFuture<T> response)
+      throws IOException, InterruptedException {
+    try {
+      return response.get();
+    } catch (InterruptedException exception) {
+      response.cancel(true);
+      throw exception;
+    } catch (ExecutionException exception) {
+      throw asIoException(exception.getCause());
+    }
+  }
+
+  private static IOException asIoException(Throwable cause) {
+    if (cause instanceof IOException ioException) {
+      return ioException;
+    }
+    if (cause instanceof RuntimeException runtimeException) {
+      throw runtimeException;
+    }
+    return new IOException(cause);
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && nonNull(error.getCause())
+        ? error.getCause()
+        : error;
+  }
+
+  /** Circuit state of a host. */
+  public enum CircuitState {
+    /** Requests are sent. */
+    CLOSED,
+    /** Requests are rejected. */
+    OPEN,
+    /** A single trial request decides whether the circuit closes or opens again. */
+    HALF_OPEN
+  }
+
+  /**
+   * The state of a host.
+   *
+   * @param circuitState the state of the circuit breaker.
+   * @param concurrencyLimit the current limit of in-flight requests.
+   * @param inFlightRequests the number of requests in flight.
+   * @param rejectedRequests the number of requests rejected so far.
+   * @param hedgedRequests the number of second requests sent for slow GETs so far.
+   * @param p95Latency the p95 latency of recent successful requests, or zero until there are enough
+   *     of them.
+   */
+  public record HostMetrics(
+      CircuitState circuitState,
+      int concurrencyLimit,
+      int inFlightRequests,
+      long rejectedRequests,
+      long hedgedRequests,
+      Duration p95Latency) {}
+
+  private final class HostState {
+
+    private final String host;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final LatencyWindow latencies;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+
+    private HostState(String host) {
+      this.host = host;
+      this.circuitBreaker =
+          new CircuitBreaker(windowSize, failureRateThreshold, openDuration, clock);
+      this.concurrencyLimit =
+          new AdaptiveConcurrencyLimit(initialConcurrencyLimit, maximumConcurrencyLimit);
+      this.latencies = new LatencyWindow(LATENCY_WINDOW_SIZE, MINIMUM_LATENCY_SAMPLES);
+    }
+
+    private void acquire() throws RequestRejectedException {
+      if (!circuitBreaker.tryAcquire()) {
+        rejected.increment();
+        throw new RequestRejectedException(CIRCUIT_OPEN_MESSAGE + host);
+      }
+      if (!concurrencyLimit.tryAcquire()) {
+        circuitBreaker.onIgnored();
+        rejected.increment();
+        throw new RequestRejectedException(LIMIT_REACHED_MESSAGE + host);
+      }
+    }
+
+    private Optional<Duration> hedgeDelay(HttpRequest request) {
+      return hedgedGets && GET.equals(request.method()) ? latencies.getP95() : Optional.empty();
+    }
+
+    private boolean tryAcquireHedge() {
+      if (!concurrencyLimit.tryAcquire()) {
+        return false;
+      }
+      hedged.increment();
+      return true;
+    }
+
+    private void releaseHedge() {
+      concurrencyLimit.onIgnored();
+    }
+
+    private void onCompletion(HttpResponse<?> response, Throwable error, long latencyNanos) {
+      if (isNull(error)) {
+        onResponse(response.statusCode(), latencyNanos);
+      } else if (unwrap(error) instanceof IOException) {
+        onFailure();
+      } else {
+        onIgnored();
+      }
+    }
+
+    private void onResponse(int statusCode, long latencyNanos) {
+      if (isFailure(statusCode)) {
+        onFailure();
+        return;
+      }
+      latencies.record(latencyNanos);
+      circuitBreaker.onSuccess();
+      concurrencyLimit.onSuccess();
+    }
+
+    private void onFailure() {
+      circuitBreaker.onFailure();
+      concurrencyLimit.onFailure();
+    }
+
+    private void onIgnored() {
+      circuitBreaker.onIgnored();
+      concurrencyLimit.onIgnored();
+    }
+
+    private HostMetrics getMetrics() {
+      return new HostMetrics(
+          circuitBreaker.getState(),
+          concurrencyLimit.getLimit(),
+          concurrencyLimit.getInFlight(),
+          rejected.sum(),
+          hedged.sum(),
+          latencies.getP95().orElse(Duration.ZERO));
+    }
+  }
+
+  /**
+   * Sends a request, and an identical second one if the first has not completed after the hedge
+   * delay. The first response wins and the other request is cancelled; the call only fails if every
+   * request that was sent failed. No second request is sent once the first has completed, or if no
+   * permit can be acquired for it; the permit is released when the second request completes.
+   */
+  private static final class HedgedCall<T> {
+
+    private final Supplier<CompletableFuture<HttpResponse<T>>> send;
+    private final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+    private final List<CompletableFuture<HttpResponse<T>>> attempts = new ArrayList<>();
+    private int pendingAttempts;
+
+    private HedgedCall(Supplier<CompletableFuture<HttpResponse<T>>> send) {
+      this.send = send;
+    }
+
+    private CompletableFuture<HttpResponse<T>> start(
+        Duration hedgeDelay, BooleanSupplier tryAcquirePermit, Runnable releasePermit) {
+      startAttempt();
+      CompletableFuture.delayedExecutor(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS)
+          .execute(() -> hedge(tryAcquirePermit, releasePermit));
+      return result;
+    }
+
+    private void hedge(BooleanSupplier tryAcquirePermit, Runnable releasePermit) {
+      if (!result.isDone() && tryAcquirePermit.getAsBoolean()) {
+        startAttempt().whenComplete((response, error) -> releasePermit.run());
+      }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private CompletableFuture<HttpResponse<T>> startAttempt() {
+      CompletableFuture<HttpResponse<T>> attempt;
+      try {
+        attempt = send.get();
+      } catch (RuntimeException exception) {
+        attempt = CompletableFuture.failedFuture(exception);
+      }
+      synchronized (this) {
+        pendingAttempts++;
+        attempts.add(attempt);
+      }
+      attempt.whenComplete(this::onAttemptCompleted);
+      if (result.isDone()) {
+        cancelUnfinishedAttempts();
+      }
+      return attempt;
+    }
+
+    private void onAttemptCompleted(HttpResponse<T> response, Throwable error) {
+      boolean lastAttempt;
+      synchronized (this) {
+        lastAttempt = --pendingAttempts == 0;
+      }
+      if (isNull(error)) {
+        if (result.complete(response)) {
+          cancelUnfinishedAttempts();
+        } else {
+          discardBody(response);
+        }
+      } else if (lastAttempt) {
+        result.completeExceptionally(unwrap(error));
+      }
+    }
+
+    /** Closes the body of a response that lost the race, so its connection is released. */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static void discardBody(HttpResponse<?> response) {
+      if (response.body() instanceof AutoCloseable body) {
+        try {
+          body.close();
+        } catch (Exception ignored) {
+          // The response is discarded, so there is nobody to report the failure to.
+        }
+      }
+    }
+
+    private void cancelUnfinishedAttempts() {
+      List<CompletableFuture<HttpResponse<T>>> started;
+      synchronized (this) {
+        started = List.copyOf(attempts);
+      }
+      started.stream()
+          .filter(attempt -> !attempt.isDone())
+          .forEach(attempt -> attempt.cancel(true));
+    }
+  }
+
+  public static final class Builder {
+
+    private static final int MINIMUM_SIZE = 1;
+
+    private HttpClient httpClient;
+    private int windowSize = 20;
+    private double failureRateThreshold = 0.5;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int initialConcurrencyLimit = 20;
+    private int maximumConcurrencyLimit = 200;
+    private boolean hedgedGets;
+    private Clock clock = Clock.systemUTC();
+
+    private Builder() {}
+
+    /** The client that sends the requests. Default: {@link HttpClientFactory#shared()}. */
+    public Builder withHttpClient(HttpClient httpClient) {
+      this.httpClient = httpClient;
+      return this;
+    }
+
+    /**
+     * Opens the circuit for a host for {@code openDuration} when at least {@code
+     * failureRateThreshold} of its last {@code windowSize} calls failed. Default: 50% of 20 calls,
+     * open for 30 seconds.
+     */
+    public Builder withCircuitBreaker(
+        int windowSize, double failureRateThreshold, Duration openDuration) {
+      requireAtLeastOne(windowSize);
+      if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+        throw new IllegalArgumentException(
+            "Failure rate threshold must be in (0, 1], was: " + failureRateThreshold);
+      }
+      this.windowSize = windowSize;
+      this.failureRateThreshold = failureRateThreshold;
+      this.openDuration = openDuration;
+      return this;
+    }
+
+    /**
+     * Starts each host at {@code initialLimit} concurrent calls, and never lets the limit grow
+     * beyond {@code maximumLimit}. Default: 20 and 200.
+     */
+    public Builder withConcurrencyLimit(int initialLimit, int maximumLimit) {
+      requireAtLeastOne(initialLimit);
+      if (maximumLimit < initialLimit) {
+        throw new IllegalArgumentException(
+            "Maximum limit must be at least the initial limit, was: " + maximumLimit);
+      }
+      this.initialConcurrencyLimit = initialLimit;
+      this.maximumConcurrencyLimit = maximumLimit;
+      return this;
+    }
+
+    /**
+     * Sends a second request for a GET that has not completed within the p95 latency of its host.
+     * Only enable this for backends where GETs are safe to repeat. Default: disabled.
+     */
+    public Builder withHedgedGets() {
+      this.hedgedGets = true;
+      return this;
+    }
+
+    public Builder withClock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    public ResilientHttpClient build() {
+      if (isNull(httpClient)) {
+        httpClient = HttpClientFactory.shared();
+      }
+      return new ResilientHttpClient(this);
+    }
+
+    private static void requireAtLeastOne(int value) {
+      if (value < MINIMUM_SIZE) {
+        throw new IllegalArgumentException("Value must be positive, was: " + value);
+      }
+    }
+  }
+}
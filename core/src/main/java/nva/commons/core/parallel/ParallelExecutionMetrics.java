@@ -0,0 +1,93 @@
+package nva.commons.core.parallel;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for a {@link ParallelMapper} run. Safe to read while the mapper is running, e.g.
+ * for progress logging.
+ */
+public final class ParallelExecutionMetrics {
+
+  private static final long NOT_STARTED = 0L;
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final LongAdder attempts = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
+  private final LongAdder successes = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final AtomicLong firstAttemptNanos = new AtomicLong(NOT_STARTED);
+
+  /** Attempts started, including retries. */
+  public long getAttempts() {
+    return attempts.sum();
+  }
+
+  public long getRetries() {
+    return retries.sum();
+  }
+
+  /** Attempts that were abandoned because they exceeded the policy timeout. */
+  public long getTimeouts() {
+    return timeouts.sum();
+  }
+
+  /** Items that eventually succeeded. */
+  public long getSuccesses() {
+    return successes.sum();
+  }
+
+  /** Items that failed after their last attempt. */
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  /** Completed items (successes and failures) per second, from the first attempt until now. */
+  public double getThroughputPerSecond() {
+    long start = firstAttemptNanos.get();
+    if (start == NOT_STARTED) {
+      return 0.0;
+    }
+    double elapsedSeconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+    return elapsedSeconds > 0 ? (getSuccesses() + getFailures()) / elapsedSeconds : 0.0;
+  }
+
+  @Override
+  public String toString() {
+    return "ParallelExecutionMetrics{"
+        + "attempts="
+        + getAttempts()
+        + ", retries="
+        + getRetries()
+        + ", timeouts="
+        + getTimeouts()
+        + ", successes="
+        + getSuccesses()
+        + ", failures="
+        + getFailures()
+        + '}';
+  }
+
+  void recordAttempt() {
+    firstAttemptNanos.compareAndSet(NOT_STARTED, System.nanoTime());
+    attempts.increment();
+  }
+
+  void recordRetry() {
+    retries.increment();
+  }
+
+  void recordTimeout() {
+    timeouts.increment();
+  }
+
+  void recordSuccess() {
+    successes.increment();
+  }
+
+  void recordFailure() {
+    failures.increment();
+  }
+}
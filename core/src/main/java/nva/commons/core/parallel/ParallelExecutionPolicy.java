@@ -0,0 +1,165 @@
+package nva.commons.core.parallel;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * How {@link ParallelMapper} runs each item: an optional per-attempt timeout, retries with jittered
+ * exponential backoff ({@link RetryBackoff}) for chosen exceptions, and an optional rate limit
+ * shared by all items.
+ *
+ * <p>Example:
+ *
+ * <pre>
+ *      ParallelExecutionPolicy policy = ParallelExecutionPolicy.builder()
+ *          .withTimeout(Duration.ofSeconds(5))
+ *          .withRetries(3, Duration.ofMillis(100), Duration.ofSeconds(2))
+ *          .withRetryOn(IOException.class, TimeoutException.class)
+ *          .withRateLimit(20)
+ *          .build();
+ *      new ParallelMapper&#60;&#62;(uris, this::dereference).withPolicy(policy).map();
+ * </pre>
+ *
+ * <p>A timed out attempt is interrupted and fails with a {@link TimeoutException}. The rate limit is
+ * a token bucket holding up to one second of permits, and every attempt, including retries, takes
+ * one permit.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class ParallelExecutionPolicy {
+
+  private static final String INVALID_RATE_MESSAGE = "Rate limit must be positive, was: ";
+
+  private final Duration timeout;
+  private final RetryBackoff retries;
+  private final List<Class<? extends Exception>> retryableExceptions;
+  private final TokenBucket rateLimiter;
+
+  private ParallelExecutionPolicy(Builder builder) {
+    this.timeout = builder.timeout;
+    this.retries = builder.retries;
+    this.retryableExceptions = List.copyOf(builder.retryableExceptions);
+    this.rateLimiter =
+        isNull(builder.permitsPerSecond) ? null : new TokenBucket(builder.permitsPerSecond);
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** No timeout, no retries and no rate limit: each item is run once, as it is. */
+  public static ParallelExecutionPolicy none() {
+    return builder().build();
+  }
+
+  <O> O execute(Callable<O> action, ParallelExecutionMetrics metrics) throws Exception {
+    int attempt = RetryBackoff.FIRST_ATTEMPT;
+    while (true) {
+      try {
+        O result = runAttempt(action, metrics);
+        metrics.recordSuccess();
+        return result;
+      } catch (Exception exception) {
+        if (!retries.canRetry(attempt) || !isRetryable(exception)) {
+          metrics.recordFailure();
+          throw exception;
+        }
+        metrics.recordRetry();
+        retries.backOff(attempt);
+        attempt++;
+      }
+    }
+  }
+
+  private <O> O runAttempt(Callable<O> action, ParallelExecutionMetrics metrics)
+      throws Exception {
+    if (nonNull(rateLimiter)) {
+      rateLimiter.acquire();
+    }
+    metrics.recordAttempt();
+    return isNull(timeout) ? action.call() : callWithTimeout(action, metrics);
+  }
+
+  private <O> O callWithTimeout(Callable<O> action, ParallelExecutionMetrics metrics)
+      throws Exception {
+    var task = new FutureTask<>(action);
+    Thread.ofVirtual().start(task);
+    try {
+      return task.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException exception) {
+      task.cancel(true);
+      metrics.recordTimeout();
+      throw exception;
+    } catch (InterruptedException exception) {
+      task.cancel(true);
+      throw exception;
+    } catch (ExecutionException exception) {
+      throw exception.getCause() instanceof Exception cause ? cause : exception;
+    }
+  }
+
+  private boolean isRetryable(Exception exception) {
+    if (exception instanceof InterruptedException) {
+      return false;
+    }
+    return retryableExceptions.isEmpty()
+        || retryableExceptions.stream().anyMatch(type -> type.isInstance(exception));
+  }
+
+  public static final class Builder {
+
+    private Duration timeout;
+    private RetryBackoff retries = RetryBackoff.none();
+    private final List<Class<? extends Exception>> retryableExceptions = new ArrayList<>();
+    private Double permitsPerSecond;
+
+    private Builder() {}
+
+    /** Fail an attempt that takes longer than {@code timeout}. Default: no timeout. */
+    public Builder withTimeout(Duration timeout) {
+      this.timeout = timeout;
+      return this;
+    }
+
+    /**
+     * Try each item up to {@code maxAttempts} times. Before retry {@code n} the item waits a random
+     * delay up to {@code initialBackoff * 2^(n-1)}, capped at {@code maxBackoff}. Default: 1
+     * attempt.
+     */
+    public Builder withRetries(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+      this.retries = RetryBackoff.of(maxAttempts, initialBackoff, maxBackoff);
+      return this;
+    }
+
+    /**
+     * Only retry these exceptions (and their subclasses). Default: retry every exception except
+     * {@link InterruptedException}.
+     */
+    @SafeVarargs
+    public final Builder withRetryOn(Class<? extends Exception>... exceptionTypes) {
+      this.retryableExceptions.addAll(List.of(exceptionTypes));
+      return this;
+    }
+
+    /** Start at most {@code permitsPerSecond} attempts per second across all items. */
+    public Builder withRateLimit(double permitsPerSecond) {
+      if (permitsPerSecond <= 0) {
+        throw new IllegalArgumentException(INVALID_RATE_MESSAGE + permitsPerSecond);
+      }
+      this.permitsPerSecond = permitsPerSecond;
+      return this;
+    }
+
+    public ParallelExecutionPolicy build() {
+      return new ParallelExecutionPolicy(this);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package nva.commons.core.parallel;
 
 import static java.lang.Math.min;
+import static java.util.Objects.isNull;
 import static nva.commons.core.attempt.Try.attempt;
 
 import java.util.ArrayList;
@@ -10,8 +11,10 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import nva.commons.core.attempt.Failure;
 import nva.commons.core.attempt.Try;
 
@@ -48,6 +51,19 @@ import nva.commons.core.attempt.Try;
  * be executed, etc. {@code ParallelMapper} creates one execution thread per item in a batch and
  * therefore it not recommended when the mapping function is trivial.
  *
+ * <p>Alternatively, {@link ParallelMapper#withVirtualThreads(int)} runs each item on its own
+ * virtual thread and bounds the number of items in flight instead of batching them. A new item is
+ * started as soon as any running item completes, so a single slow item does not hold back the rest
+ * of the input the way it holds back the rest of its batch in batch mode:
+ *
+ * <pre>
+ *      mapper = new ParallelMapper &#60;&#62;(inputs, uri-&#62;dereference(URI)).withVirtualThreads(50);
+ * </pre>
+ *
+ * <p>A {@link ParallelExecutionPolicy} adds per-item timeouts, retries with backoff and a rate limit
+ * through {@link ParallelMapper#withPolicy(ParallelExecutionPolicy)}. Counters for attempts,
+ * retries, timeouts and throughput are available through {@link ParallelMapper#getMetrics()}.
+ *
  * @param <I> the class of the input objects.
  * @param <O> the class of the output objects.
  */
@@ -55,10 +71,17 @@ import nva.commons.core.attempt.Try;
 public class ParallelMapper<I, O> {
 
   public static final int DEFAULT_BATCH_SIZE = 100;
-  private final List<Callable<O>> actions;
+  private static final int BATCH_MODE = 0;
+  private static final String INVALID_CONCURRENCY_MESSAGE =
+      "Maximum concurrency must be positive, was: ";
+  private final Stream<I> inputs;
   private final int batchSize;
   private final List<Future<O>> futures;
   private final Function<I, O> mappingFunction;
+  private final ParallelExecutionMetrics metrics = new ParallelExecutionMetrics();
+  private int maxConcurrency = BATCH_MODE;
+  private List<Callable<O>> actions;
+  private ParallelExecutionPolicy policy = ParallelExecutionPolicy.none();
 
   public ParallelMapper(Collection<I> inputs, Function<I, O> function) {
     this(inputs.stream().parallel(), function, DEFAULT_BATCH_SIZE);
@@ -74,20 +97,81 @@ public class ParallelMapper<I, O> {
 
   public ParallelMapper(Stream<I> inputs, Function<I, O> mappingFunction, int batchSize) {
     this.mappingFunction = mappingFunction;
-    actions = inputs.map(this::toCallable).toList();
+    this.inputs = inputs;
     this.batchSize = batchSize;
     futures = new ArrayList<>();
   }
 
-  @SuppressWarnings("PMD.CloseResource")
+  /**
+   * Process the inputs on virtual threads with at most {@code maxConcurrency} items in flight,
+   * starting the next item as soon as a running one completes. Replaces batch processing; the
+   * batch size is ignored.
+   *
+   * @param maxConcurrency the maximum number of items processed at the same time.
+   * @return this mapper.
+   */
+  public ParallelMapper<I, O> withVirtualThreads(int maxConcurrency) {
+    if (maxConcurrency <= BATCH_MODE) {
+      throw new IllegalArgumentException(INVALID_CONCURRENCY_MESSAGE + maxConcurrency);
+    }
+    this.maxConcurrency = maxConcurrency;
+    return this;
+  }
+
+  /**
+   * Run every item according to {@code policy}: timeouts, retries and rate limiting. Items that
+   * still fail are reported as {@link ParallelExecutionException}s with the exception of the last
+   * attempt as the cause.
+   *
+   * @param policy the execution policy.
+   * @return this mapper.
+   */
+  public ParallelMapper<I, O> withPolicy(ParallelExecutionPolicy policy) {
+    this.policy = policy;
+    return this;
+  }
+
+  /** Counters for the items processed so far. Can be read while the mapper is running. */
+  public ParallelExecutionMetrics getMetrics() {
+    return metrics;
+  }
+
   public ParallelMapper<I, O> map() throws InterruptedException {
-    ExecutorService executor = Executors.newCachedThreadPool();
-    for (int index = 0; index < actions.size(); index += batchSize) {
-      executeBatch(executor, index);
+    if (maxConcurrency == BATCH_MODE) {
+      mapInBatches();
+    } else {
+      mapWithVirtualThreads();
     }
     return this;
   }
 
+  /**
+   * Process the inputs lazily and return the results in input order as they become available.
+   * See {@link #mapAsStreamUnordered()}.
+   *
+   * @return the results, one {@link Try} per input, in input order.
+   */
+  public Stream<Try<O>> mapAsStream() {
+    return streamResults(true);
+  }
+
+  /**
+   * Process the inputs lazily and return the results in completion order. Inputs are pulled from
+   * the source only when there is room in the window of items in flight (the max concurrency in
+   * virtual thread mode, otherwise the batch size), and the window only advances as the returned
+   * stream is consumed. Memory use is therefore bounded by the window, not by the input size.
+   * Failed items are returned as failures containing a {@link ParallelExecutionException}.
+   *
+   * <p>The inputs can only be consumed once: use either {@link #map()} or one of the streaming
+   * methods. Close the returned stream if it is not consumed to the end, to stop the items still
+   * in flight.
+   *
+   * @return the results, one {@link Try} per input, in completion order.
+   */
+  public Stream<Try<O>> mapAsStreamUnordered() {
+    return streamResults(false);
+  }
+
   public List<O> getSuccesses() {
     return getCompleted().filter(Try::isSuccess).map(Try::orElseThrow).toList();
   }
@@ -101,14 +185,60 @@ public class ParallelMapper<I, O> {
         .toList();
   }
 
+  private Stream<Try<O>> streamResults(boolean ordered) {
+    var results =
+        new ParallelResultSpliterator<>(
+            inputs.sequential().map(this::toCallable).iterator(), streamingWindow(), ordered);
+    return StreamSupport.stream(results, false).onClose(results::close);
+  }
+
+  private int streamingWindow() {
+    return maxConcurrency == BATCH_MODE ? batchSize : maxConcurrency;
+  }
+
+  private List<Callable<O>> actions() {
+    if (isNull(actions)) {
+      actions = inputs.map(this::toCallable).toList();
+    }
+    return actions;
+  }
+
+  private void mapInBatches() throws InterruptedException {
+    try (ExecutorService executor = Executors.newCachedThreadPool()) {
+      for (int index = 0; index < actions().size(); index += batchSize) {
+        executeBatch(executor, index);
+      }
+    }
+  }
+
+  private void mapWithVirtualThreads() throws InterruptedException {
+    var permits = new Semaphore(maxConcurrency);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (Callable<O> action : actions()) {
+        permits.acquire();
+        futures.add(executor.submit(releasingPermitWhenDone(action, permits)));
+      }
+    }
+  }
+
+  private static <O> Callable<O> releasingPermitWhenDone(Callable<O> action, Semaphore permits) {
+    return () -> {
+      try {
+        return action.call();
+      } finally {
+        permits.release();
+      }
+    };
+  }
+
   private void executeBatch(ExecutorService executor, int index) throws InterruptedException {
-    List<Callable<O>> actionsForExecution = actions.subList(index, endIndex(index));
+    List<Callable<O>> actionsForExecution = actions().subList(index, endIndex(index));
     List<Future<O>> executed = executor.invokeAll(actionsForExecution);
     futures.addAll(executed);
   }
 
   private int endIndex(int index) {
-    return min(actions.size(), index + batchSize);
+    return min(actions().size(), index + batchSize);
   }
 
   private Stream<Try<O>> getCompleted() {
@@ -121,7 +251,7 @@ public class ParallelMapper<I, O> {
 
   private Callable<O> toCallable(I input) {
     return () ->
-        attempt(() -> mappingFunction.apply(input))
+        attempt(() -> policy.execute(() -> mappingFunction.apply(input), metrics))
             .orElseThrow(fail -> captureAllExceptionsAndAddInputObject(input, fail));
   }
 
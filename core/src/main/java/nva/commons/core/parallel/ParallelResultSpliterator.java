@@ -0,0 +1,98 @@
+package nva.commons.core.parallel;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import nva.commons.core.attempt.Failure;
+import nva.commons.core.attempt.Success;
+import nva.commons.core.attempt.Try;
+
+/**
+ * Pull-based source for {@link ParallelMapper#mapAsStream()} and {@link
+ * ParallelMapper#mapAsStreamUnordered()}. Each {@link #tryAdvance} tops up the window of items in
+ * flight from the input iterator and then waits for one result, so the input is consumed only as
+ * fast as the results are, and at most {@code window} items are held at any time.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+final class ParallelResultSpliterator<O> extends Spliterators.AbstractSpliterator<Try<O>>
+    implements AutoCloseable {
+
+  private final Iterator<Callable<O>> actions;
+  private final int window;
+  private final boolean ordered;
+  private final ExecutorService executor;
+  private final CompletionService<O> completionService;
+  private final Deque<Future<O>> inFlight;
+
+  ParallelResultSpliterator(Iterator<Callable<O>> actions, int window, boolean ordered) {
+    super(Long.MAX_VALUE, characteristics(ordered));
+    this.actions = actions;
+    this.window = window;
+    this.ordered = ordered;
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    this.completionService = new ExecutorCompletionService<>(executor);
+    this.inFlight = new ArrayDeque<>(window);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Try<O>> consumer) {
+    fillWindow();
+    if (inFlight.isEmpty()) {
+      executor.shutdown();
+      return false;
+    }
+    consumer.accept(nextResult());
+    return true;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void fillWindow() {
+    while (inFlight.size() < window && actions.hasNext()) {
+      inFlight.addLast(submit(actions.next()));
+    }
+  }
+
+  private Future<O> submit(Callable<O> action) {
+    return ordered ? executor.submit(action) : completionService.submit(action);
+  }
+
+  private Try<O> nextResult() {
+    try {
+      var completed = ordered ? inFlight.removeFirst() : takeCompleted();
+      return new Success<>(completed.get());
+    } catch (ExecutionException exception) {
+      return new Failure<>(unwrap(exception));
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return new Failure<>(exception);
+    }
+  }
+
+  private Future<O> takeCompleted() throws InterruptedException {
+    var completed = completionService.take();
+    inFlight.remove(completed);
+    return completed;
+  }
+
+  private static Exception unwrap(ExecutionException exception) {
+    return exception.getCause() instanceof Exception cause ? cause : exception;
+  }
+
+  private static int characteristics(boolean ordered) {
+    return ordered ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL;
+  }
+}
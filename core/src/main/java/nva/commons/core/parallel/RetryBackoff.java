@@ -0,0 +1,104 @@
+package nva.commons.core.parallel;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How many times to try an action, and how long to wait between the attempts: before retry {@code
+ * n} the caller waits a random delay up to {@code initialBackoff * 2^(n-1)}, capped at {@code
+ * maxBackoff} (full jitter). Attempts are counted from {@link #FIRST_ATTEMPT}.
+ *
+ * <p>Used by {@link ParallelExecutionPolicy}, and by callers that retry parts of a batch
+ * themselves:
+ *
+ * <pre>
+ *      for (int attempt = RetryBackoff.FIRST_ATTEMPT; !remaining.isEmpty(); attempt++) {
+ *        remaining = send(remaining);
+ *        if (!remaining.isEmpty() &#38;&#38; !retries.awaitRetry(attempt)) {
+ *          giveUp(remaining);
+ *        }
+ *      }
+ * </pre>
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class RetryBackoff {
+
+  public static final int FIRST_ATTEMPT = 1;
+  public static final String INVALID_ATTEMPTS_MESSAGE = "Maximum attempts must be positive, was: ";
+  private static final int MAX_BACKOFF_DOUBLINGS = 30;
+  private static final RetryBackoff NO_RETRIES =
+      new RetryBackoff(FIRST_ATTEMPT, Duration.ZERO, Duration.ZERO);
+
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+
+  private RetryBackoff(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+  }
+
+  /**
+   * Try up to {@code maxAttempts} times, waiting up to {@code initialBackoff * 2^(n-1)}, capped at
+   * {@code maxBackoff}, before retry {@code n}.
+   *
+   * @throws IllegalArgumentException if {@code maxAttempts} is not positive.
+   */
+  public static RetryBackoff of(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+    if (maxAttempts < FIRST_ATTEMPT) {
+      throw new IllegalArgumentException(INVALID_ATTEMPTS_MESSAGE + maxAttempts);
+    }
+    return new RetryBackoff(maxAttempts, initialBackoff, maxBackoff);
+  }
+
+  /** A single attempt. */
+  public static RetryBackoff none() {
+    return NO_RETRIES;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /** Whether another attempt may follow {@code attempt}. */
+  public boolean canRetry(int attempt) {
+    return attempt < maxAttempts;
+  }
+
+  /**
+   * Waits before the attempt after {@code attempt}.
+   *
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public void backOff(int attempt) throws InterruptedException {
+    long ceiling = ceilingMillis(attempt);
+    if (ceiling > 0) {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+  }
+
+  /**
+   * Waits before the attempt after {@code attempt}, if there is one.
+   *
+   * @return {@code false} if the attempts are exhausted or the thread was interrupted while
+   *     waiting, in which case the interrupt flag is set again.
+   */
+  public boolean awaitRetry(int attempt) {
+    if (!canRetry(attempt)) {
+      return false;
+    }
+    try {
+      backOff(attempt);
+      return true;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private long ceilingMillis(int attempt) {
+    int doublings = Math.min(attempt - FIRST_ATTEMPT, MAX_BACKOFF_DOUBLINGS);
+    return Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << doublings);
+  }
+}
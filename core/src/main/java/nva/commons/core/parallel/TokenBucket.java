@@ -0,0 +1,46 @@
+package nva.commons.core.parallel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter shared by all items of a {@link ParallelMapper}. The bucket holds up
+ * to one second worth of permits and refills continuously. Callers reserve a permit under the lock
+ * and sleep outside it, so waiting callers are served in the order they arrived.
+ */
+final class TokenBucket {
+
+  private static final double ONE_PERMIT = 1.0;
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final double capacity;
+  private final double permitsPerNano;
+  private double availablePermits;
+  private long lastRefillNanos;
+
+  TokenBucket(double permitsPerSecond) {
+    this.capacity = Math.max(ONE_PERMIT, permitsPerSecond);
+    this.permitsPerNano = permitsPerSecond / NANOS_PER_SECOND;
+    this.availablePermits = capacity;
+    this.lastRefillNanos = System.nanoTime();
+  }
+
+  void acquire() throws InterruptedException {
+    long waitNanos = reserve();
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  private synchronized long reserve() {
+    refill();
+    availablePermits -= ONE_PERMIT;
+    return availablePermits >= 0 ? 0 : (long) (-availablePermits / permitsPerNano);
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    availablePermits =
+        Math.min(capacity, availablePermits + (now - lastRefillNanos) * permitsPerNano);
+    lastRefillNanos = now;
+  }
+}
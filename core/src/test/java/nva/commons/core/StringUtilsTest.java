@@ -150,6 +150,13 @@ public class StringUtilsTest {
     assertThat(updatedString, is(equalTo(expected)));
   }
 
+  @Test
+  void shouldReturnNumberOfUtf8BytesAndZeroForNull() {
+    assertThat(StringUtils.utf8Length("abc"), is(equalTo(3L)));
+    assertThat(StringUtils.utf8Length("æøå"), is(equalTo(6L)));
+    assertThat(StringUtils.utf8Length(NULL), is(equalTo(0L)));
+  }
+
   static Stream<String> blankStrings() {
     return Stream.of(
         EMPTY_STRING, BLANK_STRING, TAB_STRING, CARRIAGE_RETURN, LINE_FEED, END_OF_LINE, NULL);
@@ -0,0 +1,197 @@
+package nva.commons.core.cache;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class TtlCacheTest {
+
+  private static final Duration TIME_TO_LIVE = Duration.ofMinutes(5);
+  private static final Duration NEGATIVE_TIME_TO_LIVE = Duration.ofMinutes(1);
+  private static final int CONCURRENT_CALLERS = 20;
+  private static final String KEY = "key";
+
+  private final MutableClock clock = new MutableClock();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void shouldLoadOnceAndServeCachedValueUntilItExpires() {
+    var cache = cacheBuilder().build();
+
+    var first = cache.get(KEY, this::countingLoader);
+    clock.advance(TIME_TO_LIVE.minusSeconds(1));
+    var second = cache.get(KEY, this::countingLoader);
+    clock.advance(Duration.ofSeconds(1));
+    var third = cache.get(KEY, this::countingLoader);
+
+    assertThat(first, is(equalTo("key-1")));
+    assertThat(second, is(equalTo("key-1")));
+    assertThat(third, is(equalTo("key-2")));
+    assertThat(cache.getMetrics().getHits(), is(equalTo(1L)));
+    assertThat(cache.getMetrics().getMisses(), is(equalTo(2L)));
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedEntryWhenFull() {
+    var cache = cacheBuilder().withMaximumSize(2).build();
+
+    cache.get("a", this::countingLoader);
+    cache.get("b", this::countingLoader);
+    cache.get("a", this::countingLoader);
+    cache.get("c", this::countingLoader);
+    cache.get("a", this::countingLoader);
+    cache.get("b", this::countingLoader);
+
+    assertThat(cache.size(), is(equalTo(2)));
+    assertThat(loads.get(), is(equalTo(4)));
+    assertThat(cache.getMetrics().getEvictions(), is(equalTo(2L)));
+  }
+
+  @Test
+  void shouldCacheConfiguredFailureUntilNegativeTimeToLiveExpires() {
+    var cache =
+        cacheBuilder().withNegativeCaching(IOException.class, NEGATIVE_TIME_TO_LIVE).build();
+
+    assertThrows(IOException.class, () -> cache.get(KEY, this::failingLoader));
+    assertThrows(IOException.class, () -> cache.get(KEY, this::failingLoader));
+    clock.advance(NEGATIVE_TIME_TO_LIVE);
+    assertThrows(IOException.class, () -> cache.get(KEY, this::failingLoader));
+
+    assertThat(loads.get(), is(equalTo(2)));
+    assertThat(cache.getMetrics().getNegativeHits(), is(equalTo(1L)));
+    assertThat(cache.getMetrics().getLoadFailures(), is(equalTo(2L)));
+  }
+
+  @Test
+  void shouldNotCacheFailuresThatAreNotConfigured() {
+    var cache = cacheBuilder().build();
+
+    assertThrows(IOException.class, () -> cache.get(KEY, this::failingLoader));
+    var value = cache.get(KEY, this::countingLoader);
+
+    assertThat(value, is(equalTo("key-2")));
+    assertThat(cache.getMetrics().getNegativeHits(), is(equalTo(0L)));
+  }
+
+  @Test
+  void shouldLoadOnceWhenManyCallersMissTheSameKeyConcurrently() throws Exception {
+    var cache = cacheBuilder().build();
+    var loaderStarted = new CountDownLatch(1);
+    var releaseLoader = new CountDownLatch(1);
+
+    List<Future<String>> results = new ArrayList<>();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      results.add(
+          executor.submit(
+              () ->
+                  cache.get(
+                      KEY,
+                      key -> {
+                        loaderStarted.countDown();
+                        releaseLoader.await();
+                        return countingLoader(key);
+                      })));
+      loaderStarted.await();
+      for (int caller = 1; caller < CONCURRENT_CALLERS; caller++) {
+        results.add(executor.submit(() -> cache.get(KEY, this::countingLoader)));
+      }
+      waitUntilCallersAreBlocked();
+      releaseLoader.countDown();
+      for (var result : results) {
+        assertThat(result.get(), is(equalTo("key-1")));
+      }
+    }
+
+    assertThat(loads.get(), is(equalTo(1)));
+    assertThat(cache.getMetrics().getMisses(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldLoadAgainWhenLoaderThrowsError() {
+    var cache = cacheBuilder().build();
+
+    assertThrows(
+        AssertionError.class,
+        () ->
+            cache.get(
+                KEY,
+                key -> {
+                  throw new AssertionError();
+                }));
+    var value = cache.get(KEY, this::countingLoader);
+
+    assertThat(value, is(equalTo("key-1")));
+    assertThat(cache.getMetrics().getLoadFailures(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldLoadAgainAfterInvalidation() {
+    var cache = cacheBuilder().build();
+
+    cache.get(KEY, this::countingLoader);
+    cache.invalidate(KEY);
+
+    assertThat(cache.get(KEY, this::countingLoader), is(equalTo("key-2")));
+  }
+
+  @Test
+  void shouldRejectNonPositiveMaximumSize() {
+    assertThrows(IllegalArgumentException.class, () -> cacheBuilder().withMaximumSize(0));
+  }
+
+  private TtlCache.Builder<String, String> cacheBuilder() {
+    return TtlCache.<String, String>builder().withTimeToLive(TIME_TO_LIVE).withClock(clock);
+  }
+
+  private String countingLoader(String key) {
+    return key + "-" + loads.incrementAndGet();
+  }
+
+  private String failingLoader(String key) throws IOException {
+    loads.incrementAndGet();
+    throw new IOException("Failed to load " + key);
+  }
+
+  private static void waitUntilCallersAreBlocked() throws InterruptedException {
+    Thread.sleep(100);
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    private void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package nva.commons.core.exceptions;
+
+import static nva.commons.core.exceptions.AwsSdkErrors.isTransient;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+class AwsSdkErrorsTest {
+
+  @ParameterizedTest
+  @ValueSource(ints = {429, 500, 503})
+  void shouldTreatThrottlingAndServerErrorsAsTransient(int statusCode) {
+    assertThat(isTransient(serviceException(statusCode)), is(true));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {400, 403, 404})
+  void shouldNotTreatOtherServiceErrorsAsTransient(int statusCode) {
+    assertThat(isTransient(serviceException(statusCode)), is(false));
+  }
+
+  @Test
+  void shouldTreatClientErrorsAsTransient() {
+    assertThat(isTransient(SdkClientException.create("Connection reset")), is(true));
+  }
+
+  @Test
+  void shouldNotTreatOtherExceptionsAsTransient() {
+    assertThat(isTransient(new IllegalStateException()), is(false));
+  }
+
+  private static SdkServiceException serviceException(int statusCode) {
+    return SdkServiceException.builder().statusCode(statusCode).build();
+  }
+}
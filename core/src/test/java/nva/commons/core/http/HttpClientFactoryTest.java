@@ -0,0 +1,45 @@
+package nva.commons.core.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+
+import java.net.URI;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class HttpClientFactoryTest {
+
+  @Test
+  void shouldReturnSameClientEveryTime() {
+    assertThat(HttpClientFactory.shared(), is(sameInstance(HttpClientFactory.shared())));
+  }
+
+  @Test
+  void shouldPreferHttp2AndUseConnectTimeout() {
+    var client = HttpClientFactory.shared();
+
+    assertThat(client.version(), is(equalTo(Version.HTTP_2)));
+    assertThat(
+        client.connectTimeout(), is(equalTo(Optional.of(HttpClientFactory.CONNECT_TIMEOUT))));
+    assertThat(client.followRedirects(), is(equalTo(Redirect.NEVER)));
+    assertThat(client.executor().isPresent(), is(true));
+  }
+
+  @Test
+  void shouldShareExecutorWithClientsCreatedFromBuilder() {
+    var client = HttpClientFactory.newBuilder().build();
+
+    assertThat(client.executor(), is(equalTo(HttpClientFactory.shared().executor())));
+  }
+
+  @Test
+  void shouldCreateRequestsWithDefaultTimeout() {
+    var request = HttpClientFactory.newRequest(URI.create("https://example.org")).GET().build();
+
+    assertThat(request.timeout(), is(equalTo(Optional.of(HttpClientFactory.REQUEST_TIMEOUT))));
+  }
+}
@@ -0,0 +1,285 @@
+package nva.commons.core.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import nva.commons.core.http.ResilientHttpClient.CircuitState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResilientHttpClientTest {
+
+  private static final String HOST = "localhost";
+  private static final String RESOURCE = "/resource";
+  private static final String SLOW_RESOURCE = "/slow";
+  private static final int OK = 200;
+  private static final int SERVICE_UNAVAILABLE = 503;
+  private static final int WINDOW_SIZE = 4;
+  private static final int WARM_UP_REQUESTS = 20;
+  private static final int SLOW_RESPONSE_MILLIS = 2000;
+  private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+  private static final String HEDGE_SENT = "Hedge sent";
+  private static final int CONCURRENT_REQUESTS = 8;
+  private static final int CONCURRENT_RESPONSE_MILLIS = 500;
+
+  private final MutableClock clock = new MutableClock();
+  private final HttpClient httpClient = HttpClient.newBuilder().version(Version.HTTP_1_1).build();
+  private WireMockServer wireMockServer;
+
+  @BeforeEach
+  void setup() {
+    wireMockServer = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+    wireMockServer.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    wireMockServer.stop();
+  }
+
+  @Test
+  void shouldOpenCircuitWhenFailureRateIsReachedAndRejectWithoutCallingHost()
+      throws IOException, InterruptedException {
+    stubResponse(SERVICE_UNAVAILABLE);
+    var client = clientWithCircuitBreaker();
+
+    for (int call = 0; call < WINDOW_SIZE; call++) {
+      assertThat(send(client, RESOURCE).statusCode(), is(equalTo(SERVICE_UNAVAILABLE)));
+    }
+
+    assertThrows(RequestRejectedException.class, () -> send(client, RESOURCE));
+    wireMockServer.verify(WINDOW_SIZE, WireMock.getRequestedFor(WireMock.urlEqualTo(RESOURCE)));
+    var metrics = client.getMetrics(HOST).orElseThrow();
+    assertThat(metrics.circuitState(), is(equalTo(CircuitState.OPEN)));
+    assertThat(metrics.rejectedRequests(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldCloseCircuitWhenTrialRequestSucceedsAfterOpenDuration()
+      throws IOException, InterruptedException {
+    var client = clientWithOpenCircuit();
+    stubResponse(OK);
+
+    clock.advance(OPEN_DURATION);
+    var response = send(client, RESOURCE);
+
+    assertThat(response.statusCode(), is(equalTo(OK)));
+    assertThat(client.getMetrics(HOST).orElseThrow().circuitState(), is(CircuitState.CLOSED));
+  }
+
+  @Test
+  void shouldOpenCircuitAgainWhenTrialRequestFails() throws IOException, InterruptedException {
+    var client = clientWithOpenCircuit();
+
+    clock.advance(OPEN_DURATION);
+    send(client, RESOURCE);
+
+    assertThat(client.getMetrics(HOST).orElseThrow().circuitState(), is(CircuitState.OPEN));
+    assertThrows(RequestRejectedException.class, () -> send(client, RESOURCE));
+  }
+
+  @Test
+  void shouldRejectRequestsBeyondConcurrencyLimit() throws IOException, InterruptedException {
+    wireMockServer.stubFor(
+        WireMock.get(RESOURCE)
+            .willReturn(WireMock.aResponse().withStatus(OK).withFixedDelay(SLOW_RESPONSE_MILLIS)));
+    var client =
+        ResilientHttpClient.builder()
+            .withHttpClient(httpClient)
+            .withConcurrencyLimit(1, 1)
+            .build();
+
+    var inFlight = client.sendAsync(request(RESOURCE), BodyHandlers.ofString());
+
+    assertThrows(RequestRejectedException.class, () -> send(client, RESOURCE));
+    assertThat(inFlight.join().statusCode(), is(equalTo(OK)));
+    assertThat(client.getMetrics(HOST).orElseThrow().rejectedRequests(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldHalveConcurrencyLimitOnceWhenConcurrentRequestsFail() throws InterruptedException {
+    wireMockServer.stubFor(
+        WireMock.get(RESOURCE)
+            .willReturn(
+                WireMock.aResponse()
+                    .withStatus(SERVICE_UNAVAILABLE)
+                    .withFixedDelay(CONCURRENT_RESPONSE_MILLIS)));
+    var client =
+        ResilientHttpClient.builder()
+            .withHttpClient(httpClient)
+            .withConcurrencyLimit(CONCURRENT_REQUESTS, CONCURRENT_REQUESTS)
+            .build();
+
+    var started = new CountDownLatch(CONCURRENT_REQUESTS);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int call = 0; call < CONCURRENT_REQUESTS; call++) {
+        executor.submit(
+            () -> {
+              started.countDown();
+              return send(client, RESOURCE);
+            });
+      }
+      started.await();
+    }
+
+    var metrics = client.getMetrics(HOST).orElseThrow();
+    assertThat(metrics.concurrencyLimit(), is(equalTo(CONCURRENT_REQUESTS / 2)));
+    assertThat(metrics.inFlightRequests(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldSendSecondRequestWhenGetIsSlowerThanP95AndUseFirstResponse()
+      throws IOException, InterruptedException {
+    stubResponse(OK);
+    wireMockServer.stubFor(
+        WireMock.get(SLOW_RESOURCE)
+            .inScenario(SLOW_RESOURCE)
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(WireMock.aResponse().withBody("slow").withFixedDelay(SLOW_RESPONSE_MILLIS))
+            .willSetStateTo(HEDGE_SENT));
+    wireMockServer.stubFor(
+        WireMock.get(SLOW_RESOURCE)
+            .inScenario(SLOW_RESOURCE)
+            .whenScenarioStateIs(HEDGE_SENT)
+            .willReturn(WireMock.aResponse().withBody("fast")));
+    var client = ResilientHttpClient.builder().withHttpClient(httpClient).withHedgedGets().build();
+    for (int call = 0; call < WARM_UP_REQUESTS; call++) {
+      send(client, RESOURCE);
+    }
+
+    var start = System.nanoTime();
+    var response = send(client, SLOW_RESOURCE);
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    assertThat(response.body(), is(equalTo("fast")));
+    assertThat(elapsed.toMillis() < SLOW_RESPONSE_MILLIS, is(true));
+    assertThat(client.getMetrics(HOST).orElseThrow().hedgedRequests(), is(equalTo(1L)));
+  }
+
+  @Test
+  void shouldNotHedgeGetWhenConcurrencyLimitIsReached() throws IOException, InterruptedException {
+    stubResponse(OK);
+    wireMockServer.stubFor(
+        WireMock.get(SLOW_RESOURCE)
+            .willReturn(
+                WireMock.aResponse().withBody("slow").withFixedDelay(SLOW_RESPONSE_MILLIS)));
+    var client =
+        ResilientHttpClient.builder()
+            .withHttpClient(httpClient)
+            .withConcurrencyLimit(1, 1)
+            .withHedgedGets()
+            .build();
+    for (int call = 0; call < WARM_UP_REQUESTS; call++) {
+      send(client, RESOURCE);
+    }
+
+    var response = send(client, SLOW_RESOURCE);
+
+    var metrics = client.getMetrics(HOST).orElseThrow();
+    assertThat(response.body(), is(equalTo("slow")));
+    assertThat(metrics.hedgedRequests(), is(equalTo(0L)));
+    assertThat(metrics.inFlightRequests(), is(equalTo(0)));
+    wireMockServer.verify(1, WireMock.getRequestedFor(WireMock.urlEqualTo(SLOW_RESOURCE)));
+  }
+
+  @Test
+  void shouldNotHedgeRequestsWhenHedgingIsDisabled() throws IOException, InterruptedException {
+    stubResponse(OK);
+    var client = ResilientHttpClient.builder().withHttpClient(httpClient).build();
+
+    for (int call = 0; call < WARM_UP_REQUESTS; call++) {
+      send(client, RESOURCE);
+    }
+
+    var metrics = client.getMetrics(HOST).orElseThrow();
+    assertThat(metrics.hedgedRequests(), is(equalTo(0L)));
+    assertThat(metrics.inFlightRequests(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldRejectInvalidSettings() {
+    var builder = ResilientHttpClient.builder();
+
+    assertThrows(
+        IllegalArgumentException.class, () -> builder.withCircuitBreaker(0, 0.5, OPEN_DURATION));
+    assertThrows(
+        IllegalArgumentException.class, () -> builder.withCircuitBreaker(1, 1.5, OPEN_DURATION));
+    assertThrows(IllegalArgumentException.class, () -> builder.withConcurrencyLimit(2, 1));
+  }
+
+  private ResilientHttpClient clientWithCircuitBreaker() {
+    return ResilientHttpClient.builder()
+        .withHttpClient(httpClient)
+        .withCircuitBreaker(WINDOW_SIZE, 0.5, OPEN_DURATION)
+        .withClock(clock)
+        .build();
+  }
+
+  private ResilientHttpClient clientWithOpenCircuit() throws IOException, InterruptedException {
+    stubResponse(SERVICE_UNAVAILABLE);
+    var client = clientWithCircuitBreaker();
+    for (int call = 0; call < WINDOW_SIZE; call++) {
+      send(client, RESOURCE);
+    }
+    return client;
+  }
+
+  private void stubResponse(int statusCode) {
+    wireMockServer.stubFor(
+        WireMock.get(RESOURCE).willReturn(WireMock.aResponse().withStatus(statusCode)));
+  }
+
+  private HttpResponse<String> send(HttpClient client, String path)
+      throws IOException, InterruptedException {
+    return client.send(request(path), BodyHandlers.ofString());
+  }
+
+  private HttpRequest request(String path) {
+    return HttpRequest.newBuilder(URI.create(wireMockServer.baseUrl() + path)).GET().build();
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    private void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -3,9 +3,21 @@ package nva.commons.core.parallel;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import nva.commons.core.attempt.Try;
 import org.junit.jupiter.api.Test;
 
 class ParallelMapperTest {
@@ -13,6 +25,9 @@ class ParallelMapperTest {
   private static final String MESSAGE_TEMPLATE = "ExpectedMessage:";
   private static final int NUMBER_OF_INPUTS_WITH_TOTAL_FOOTPRINT_LARGER_THAN_AVAILABLE_MEMORY = 10;
   private static final int SIGNIFICANT_PART_OF_AVAILABLE_MEMORY = 3;
+  private static final int MAX_CONCURRENCY = 4;
+  private static final long SLOW_INPUT_MILLIS = 1_000;
+  private static final int RATE_LIMIT_PER_SECOND = 10;
 
   @Test
   public void parallelMapperReturnsFunctionResultsOnSetOfInputs() throws InterruptedException {
@@ -73,6 +88,243 @@ class ParallelMapperTest {
     assertThat(successes.size(), is(equalTo(input.size())));
   }
 
+  @Test
+  void parallelMapperReturnsFunctionResultsWhenUsingVirtualThreads() throws InterruptedException {
+    List<Integer> inputs = sampleInputs(1_000);
+
+    ParallelMapper<Integer, String> mapper =
+        new ParallelMapper<>(inputs, this::integerToString).withVirtualThreads(10).map();
+
+    verifyParallelMapperTransformsInputObjects(mapper, inputs);
+  }
+
+  @Test
+  void parallelMapperReturnsExceptionsContainingTheFailingInputsWhenUsingVirtualThreads()
+      throws InterruptedException {
+    List<Integer> inputs = sampleInputs(100);
+    ParallelMapper<Integer, String> mapper =
+        new ParallelMapper<>(inputs, this::failingIntegerToString).withVirtualThreads(10).map();
+
+    List<Object> regeneratedInputs =
+        mapper.getExceptions().stream().map(ParallelExecutionException::getInput).toList();
+
+    assertThat(regeneratedInputs, is(equalTo(List.copyOf(inputs))));
+  }
+
+  @Test
+  void parallelMapperNeverExceedsMaxConcurrencyWhenUsingVirtualThreads()
+      throws InterruptedException {
+    var running = new AtomicInteger();
+    var maxObserved = new AtomicInteger();
+    Function<Integer, Integer> trackingFunction =
+        input -> {
+          maxObserved.accumulateAndGet(running.incrementAndGet(), Math::max);
+          sleep();
+          running.decrementAndGet();
+          return input;
+        };
+
+    new ParallelMapper<>(sampleInputs(200), trackingFunction)
+        .withVirtualThreads(MAX_CONCURRENCY)
+        .map();
+
+    assertThat(maxObserved.get() <= MAX_CONCURRENCY, is(true));
+  }
+
+  @Test
+  void parallelMapperKeepsProcessingOtherInputsWhileOneInputIsSlow() throws InterruptedException {
+    var slowInputDone = new AtomicBoolean(false);
+    var completedWhileSlowInputRan = new AtomicInteger();
+    Function<Integer, Integer> function =
+        input -> {
+          if (input == 0) {
+            sleep(SLOW_INPUT_MILLIS);
+            slowInputDone.set(true);
+          } else if (!slowInputDone.get()) {
+            completedWhileSlowInputRan.incrementAndGet();
+          }
+          return input;
+        };
+
+    new ParallelMapper<>(sampleInputs(50), function).withVirtualThreads(2).map();
+
+    assertThat(completedWhileSlowInputRan.get(), is(equalTo(49)));
+  }
+
+  @Test
+  void parallelMapperRejectsNonPositiveConcurrency() {
+    var mapper = new ParallelMapper<>(sampleInputs(1), this::integerToString);
+
+    assertThrows(IllegalArgumentException.class, () -> mapper.withVirtualThreads(0));
+  }
+
+  @Test
+  void mapAsStreamReturnsResultsInInputOrder() {
+    List<Integer> inputs = sampleInputs(1_000);
+    var mapper = new ParallelMapper<>(inputs, this::integerToString).withVirtualThreads(10);
+
+    try (Stream<Try<String>> results = mapper.mapAsStream()) {
+      List<Integer> regeneratedInputs =
+          results.map(Try::orElseThrow).map(Integer::parseInt).toList();
+      assertThat(regeneratedInputs, is(equalTo(inputs)));
+    }
+  }
+
+  @Test
+  void mapAsStreamUnorderedReturnsAllResults() {
+    List<Integer> inputs = sampleInputs(1_000);
+    var mapper = new ParallelMapper<>(inputs, this::integerToString).withVirtualThreads(10);
+
+    try (Stream<Try<String>> results = mapper.mapAsStreamUnordered()) {
+      List<Integer> regeneratedInputs =
+          results.map(Try::orElseThrow).map(Integer::parseInt).sorted().toList();
+      assertThat(regeneratedInputs, is(equalTo(inputs)));
+    }
+  }
+
+  @Test
+  void mapAsStreamReturnsFailuresContainingTheFailingInputs() {
+    List<Integer> inputs = sampleInputs(100);
+    var mapper = new ParallelMapper<>(inputs, this::failingIntegerToString);
+
+    try (Stream<Try<String>> results = mapper.mapAsStream()) {
+      List<Object> regeneratedInputs =
+          results
+              .map(Try::getException)
+              .map(exception -> (ParallelExecutionException) exception)
+              .map(ParallelExecutionException::getInput)
+              .toList();
+      assertThat(regeneratedInputs, is(equalTo(List.copyOf(inputs))));
+    }
+  }
+
+  @Test
+  void mapAsStreamPullsInputsOnlyAsResultsAreConsumed() {
+    var pulledInputs = new AtomicInteger();
+    Stream<Integer> infiniteInputs =
+        Stream.iterate(0, input -> input + 1).peek(input -> pulledInputs.incrementAndGet());
+    var mapper =
+        new ParallelMapper<>(infiniteInputs, this::integerToString)
+            .withVirtualThreads(MAX_CONCURRENCY);
+
+    try (Stream<Try<String>> results = mapper.mapAsStream()) {
+      results.limit(10).forEach(Try::orElseThrow);
+    }
+
+    assertThat(pulledInputs.get() <= 10 + MAX_CONCURRENCY, is(true));
+  }
+
+  @Test
+  void parallelMapperRetriesRetryableFailuresAccordingToPolicy() throws InterruptedException {
+    var attemptsPerInput = new ConcurrentHashMap<Integer, AtomicInteger>();
+    Function<Integer, Integer> failsTwiceThenSucceeds =
+        input -> {
+          var attempts = attemptsPerInput.computeIfAbsent(input, ignored -> new AtomicInteger());
+          if (attempts.incrementAndGet() < 3) {
+            throw new IllegalStateException(exceptionMessage(input));
+          }
+          return input;
+        };
+    var policy =
+        ParallelExecutionPolicy.builder()
+            .withRetries(3, Duration.ofMillis(1), Duration.ofMillis(5))
+            .withRetryOn(IllegalStateException.class)
+            .build();
+
+    var mapper =
+        new ParallelMapper<>(sampleInputs(10), failsTwiceThenSucceeds)
+            .withVirtualThreads(MAX_CONCURRENCY)
+            .withPolicy(policy)
+            .map();
+
+    assertThat(mapper.getSuccesses(), is(equalTo(sampleInputs(10))));
+    assertThat(mapper.getMetrics().getRetries(), is(equalTo(20L)));
+    assertThat(mapper.getMetrics().getAttempts(), is(equalTo(30L)));
+  }
+
+  @Test
+  void parallelMapperDoesNotRetryExceptionsThatAreNotRetryable() throws InterruptedException {
+    var policy =
+        ParallelExecutionPolicy.builder()
+            .withRetries(3, Duration.ZERO, Duration.ZERO)
+            .withRetryOn(IllegalStateException.class)
+            .build();
+
+    var mapper =
+        new ParallelMapper<>(sampleInputs(10), this::failingIntegerToString)
+            .withPolicy(policy)
+            .map();
+
+    assertThat(mapper.getExceptions().size(), is(equalTo(10)));
+    assertThat(mapper.getMetrics().getRetries(), is(equalTo(0L)));
+    assertThat(mapper.getMetrics().getFailures(), is(equalTo(10L)));
+  }
+
+  @Test
+  void parallelMapperFailsItemsThatExceedThePolicyTimeout() throws InterruptedException {
+    Function<Integer, Integer> slowForFirstInput =
+        input -> {
+          if (input == 0) {
+            sleep(SLOW_INPUT_MILLIS);
+          }
+          return input;
+        };
+    var policy = ParallelExecutionPolicy.builder().withTimeout(Duration.ofMillis(50)).build();
+
+    var mapper =
+        new ParallelMapper<>(sampleInputs(10), slowForFirstInput)
+            .withVirtualThreads(MAX_CONCURRENCY)
+            .withPolicy(policy)
+            .map();
+
+    var exception = mapper.getExceptions().getFirst();
+    assertThat((Integer) exception.getInput(), is(equalTo(0)));
+    assertThat(exception.getCause() instanceof TimeoutException, is(true));
+    assertThat(mapper.getMetrics().getTimeouts(), is(equalTo(1L)));
+    assertThat(mapper.getSuccesses().size(), is(equalTo(9)));
+  }
+
+  @Test
+  void policyCancelsTimedAttemptWhenTheCallerIsInterrupted() throws InterruptedException {
+    var policy = ParallelExecutionPolicy.builder().withTimeout(Duration.ofMinutes(1)).build();
+    var attemptStarted = new CountDownLatch(1);
+    var attemptInterrupted = new CountDownLatch(1);
+    Callable<Integer> slowAttempt =
+        () -> {
+          attemptStarted.countDown();
+          try {
+            Thread.sleep(Duration.ofMinutes(1));
+          } catch (InterruptedException exception) {
+            attemptInterrupted.countDown();
+            throw exception;
+          }
+          return 0;
+        };
+    var metrics = new ParallelExecutionMetrics();
+    var caller =
+        Thread.ofVirtual().start(() -> Try.attempt(() -> policy.execute(slowAttempt, metrics)));
+
+    attemptStarted.await();
+    caller.interrupt();
+
+    assertThat(attemptInterrupted.await(SLOW_INPUT_MILLIS, TimeUnit.MILLISECONDS), is(true));
+  }
+
+  @Test
+  void parallelMapperDoesNotExceedThePolicyRateLimit() throws InterruptedException {
+    var policy = ParallelExecutionPolicy.builder().withRateLimit(RATE_LIMIT_PER_SECOND).build();
+    var inputs = sampleInputs(3 * RATE_LIMIT_PER_SECOND);
+
+    var start = System.nanoTime();
+    new ParallelMapper<>(inputs, this::integerToString)
+        .withVirtualThreads(inputs.size())
+        .withPolicy(policy)
+        .map();
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    assertThat(elapsed.compareTo(Duration.ofMillis(1_900)) >= 0, is(true));
+  }
+
   private List<Integer> sampleInputs(int i) {
     return IntStream.range(0, i).boxed().toList();
   }
@@ -98,8 +350,12 @@ class ParallelMapperTest {
   }
 
   private void sleep() {
+    sleep(5);
+  }
+
+  private void sleep(long millis) {
     try {
-      Thread.sleep(5);
+      Thread.sleep(millis);
     } catch (InterruptedException e) {
       e.printStackTrace();
     }
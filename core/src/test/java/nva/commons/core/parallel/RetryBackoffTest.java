@@ -0,0 +1,48 @@
+package nva.commons.core.parallel;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class RetryBackoffTest {
+
+  private static final int MAX_ATTEMPTS = 3;
+  private static final Duration LONG_BACKOFF = Duration.ofMinutes(1);
+
+  @Test
+  void shouldAllowRetriesUntilMaxAttemptsIsReached() {
+    var retries = RetryBackoff.of(MAX_ATTEMPTS, Duration.ZERO, Duration.ZERO);
+
+    assertThat(retries.awaitRetry(1), is(true));
+    assertThat(retries.awaitRetry(2), is(true));
+    assertThat(retries.awaitRetry(MAX_ATTEMPTS), is(false));
+  }
+
+  @Test
+  void shouldNotRetryWhenThereIsASingleAttempt() {
+    assertThat(RetryBackoff.none().getMaxAttempts(), is(equalTo(1)));
+    assertThat(RetryBackoff.none().canRetry(RetryBackoff.FIRST_ATTEMPT), is(false));
+  }
+
+  @Test
+  void shouldStopRetryingAndKeepInterruptFlagWhenInterruptedWhileWaiting() {
+    var retries = RetryBackoff.of(MAX_ATTEMPTS, LONG_BACKOFF, LONG_BACKOFF);
+    Thread.currentThread().interrupt();
+    try {
+      assertThat(retries.awaitRetry(RetryBackoff.FIRST_ATTEMPT), is(false));
+      assertThat(Thread.currentThread().isInterrupted(), is(true));
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  void shouldRejectNonPositiveMaxAttempts() {
+    assertThrows(
+        IllegalArgumentException.class, () -> RetryBackoff.of(0, Duration.ZERO, Duration.ZERO));
+  }
+}
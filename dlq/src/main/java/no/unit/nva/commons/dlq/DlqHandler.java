@@ -2,8 +2,12 @@ package no.unit.nva.commons.dlq;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse.BatchItemFailure;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import nva.commons.core.CollectionUtils;
 
@@ -32,28 +36,85 @@ import nva.commons.core.CollectionUtils;
  *
  * See more detailed example in the test resources.
  *
+ * <p>The failed events of a batch are handed to the {@link FailedEventHandlingService} in groups of
+ * {@link #DEFAULT_GROUP_SIZE} events, unless the handler sets another group size. Handlers whose
+ * service does its own batching, like {@link PushToFirehoseService}, should pass {@link
+ * #WHOLE_BATCH}, so that the service gets all events at once and can pack them as it sees fit.
+ *
+ * <p>Messages whose events could not be handled are reported as batch item failures, so that they
+ * stay in the queue when the event source mapping has {@code ReportBatchItemFailures} in its {@code
+ * FunctionResponseTypes}. Without it, they are deleted with the rest of the batch as before.
+ *
  * <p>This class cannot be instantiated on purpose. This will force developers to create an explicit
  * trace of the logic they are using in their code. Example implementation can be found in tests.
  */
-public class DlqHandler implements RequestHandler<SQSEvent, Void> {
-  // TODO: Make number of groups configurable.
-  public static final int NUMBER_OF_GROUPS = 10;
+public class DlqHandler implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+  /** The number of events handed to the service at a time, unless the handler sets another. */
+  public static final int DEFAULT_GROUP_SIZE = 10;
+
+  /**
+   * The number of events in each group, not the number of groups.
+   *
+   * @deprecated use {@link #DEFAULT_GROUP_SIZE}.
+   */
+  @Deprecated
+  public static final int NUMBER_OF_GROUPS = DEFAULT_GROUP_SIZE;
+
+  /** Group size that hands every event of a batch to the service at once. */
+  public static final int WHOLE_BATCH = Integer.MAX_VALUE;
+
+  public static final String INVALID_GROUP_SIZE = "Group size must be positive: ";
   private final FailedEventHandlingService failedEventsHandlingService;
+  private final int groupSize;
 
   protected DlqHandler(FailedEventHandlingService failedEventsHandlingService) {
+    this(failedEventsHandlingService, DEFAULT_GROUP_SIZE);
+  }
+
+  /**
+   * Constructor for handlers whose service handles at most {@code groupSize} events at a time, or
+   * all events of a batch with {@link #WHOLE_BATCH}.
+   *
+   * @param failedEventsHandlingService the service handling the failed events.
+   * @param groupSize the number of events handed to the service at a time.
+   */
+  protected DlqHandler(FailedEventHandlingService failedEventsHandlingService, int groupSize) {
+    if (groupSize < 1) {
+      throw new IllegalArgumentException(INVALID_GROUP_SIZE + groupSize);
+    }
     this.failedEventsHandlingService = failedEventsHandlingService;
+    this.groupSize = groupSize;
   }
 
   @Override
-  public Void handleRequest(SQSEvent input, Context context) {
-
+  public SQSBatchResponse handleRequest(SQSEvent input, Context context) {
     var failedEvents = extractFailedEventsFromDlqMessages(input);
-    CollectionUtils.partition(failedEvents, NUMBER_OF_GROUPS)
-        .forEach(failedEventsHandlingService::handleFailedEvents);
-    return null;
+    var unhandledEvents = new HashSet<String>();
+    groups(failedEvents).stream()
+        .map(failedEventsHandlingService::handleFailedEventsReportingFailures)
+        .forEach(unhandledEvents::addAll);
+    return new SQSBatchResponse(batchItemFailures(input, unhandledEvents));
+  }
+
+  private List<List<String>> groups(List<String> failedEvents) {
+    if (failedEvents.isEmpty()) {
+      return List.of();
+    }
+    return failedEvents.size() <= groupSize
+        ? List.of(failedEvents)
+        : CollectionUtils.partition(failedEvents, groupSize);
   }
 
   private static List<String> extractFailedEventsFromDlqMessages(SQSEvent input) {
     return input.getRecords().stream().map(SQSMessage::getBody).toList();
   }
+
+  private static List<BatchItemFailure> batchItemFailures(
+      SQSEvent input, Collection<String> unhandledEvents) {
+    return input.getRecords().stream()
+        .filter(message -> unhandledEvents.contains(message.getBody()))
+        .map(message -> new BatchItemFailure(message.getMessageId()))
+        .toList();
+  }
 }
@@ -1,9 +1,23 @@
 package no.unit.nva.commons.dlq;
 
 import java.util.Collection;
+import java.util.List;
 
 @FunctionalInterface
 public interface FailedEventHandlingService {
 
   void handleFailedEvents(Collection<String> failedEvents);
+
+  /**
+   * Handles the failed events and returns the ones that could not be handled, so that the {@link
+   * DlqHandler} can leave them in the queue. By default all events are reported as handled when
+   * {@link #handleFailedEvents(Collection)} returns.
+   *
+   * @param failedEvents the failed events.
+   * @return the events that could not be handled.
+   */
+  default Collection<String> handleFailedEventsReportingFailures(Collection<String> failedEvents) {
+    handleFailedEvents(failedEvents);
+    return List.of();
+  }
 }
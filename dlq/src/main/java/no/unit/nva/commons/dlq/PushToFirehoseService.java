@@ -1,42 +1,235 @@
 package no.unit.nva.commons.dlq;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static nva.commons.core.StringUtils.utf8Length;
+import static nva.commons.core.exceptions.AwsSdkErrors.isTransient;
+
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import nva.commons.core.attempt.Try;
+import nva.commons.core.parallel.ParallelExecutionException;
+import nva.commons.core.parallel.ParallelMapper;
+import nva.commons.core.parallel.RetryBackoff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.exception.SdkException;
 import software.amazon.awssdk.services.firehose.FirehoseClient;
 import software.amazon.awssdk.services.firehose.model.PutRecordBatchRequest;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponse;
 import software.amazon.awssdk.services.firehose.model.Record;
 
+/**
+ * Pushes failed events to a Firehose delivery stream.
+ *
+ * <p>The events are packed into {@code PutRecordBatch} requests of at most {@link
+ * #MAX_RECORDS_PER_BATCH} records and {@link #MAX_BATCH_SIZE_BYTES} bytes, which are sent
+ * concurrently, at most {@code maxConcurrency} at a time. Records that Firehose rejects, and
+ * requests that fail with a network, throttling or server error, are retried with jittered
+ * exponential backoff; only the rejected records are sent again. Events that are larger than a
+ * record can be, or that still fail after all attempts, are returned by {@link
+ * #handleFailedEventsReportingFailures(Collection)}.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
 public class PushToFirehoseService implements FailedEventHandlingService {
 
+  public static final int MAX_RECORDS_PER_BATCH = 500;
+  public static final int MAX_BATCH_SIZE_BYTES = 4 * 1024 * 1024;
+  public static final int MAX_RECORD_SIZE_BYTES = 1000 * 1024;
+  public static final int DEFAULT_MAX_CONCURRENCY = 4;
+  public static final int DEFAULT_MAX_ATTEMPTS = 5;
+  public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+  public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(5);
+  public static final String INVALID_CONCURRENCY = "Max concurrency must be positive: ";
+  public static final String COULD_NOT_PUSH_EVENTS = "Could not push %d event(s) to Firehose";
+  private static final Logger LOGGER = LoggerFactory.getLogger(PushToFirehoseService.class);
+  private static final String COULD_NOT_PUSH = "Could not push {} event(s) to {}: {}";
+  private static final String ATTEMPTS_EXHAUSTED = "all attempts failed";
+  private static final String RECORD_TOO_LARGE = "record too large";
+
   private final FirehoseClient firehoseClient;
   private final String deliveryStreamName;
+  private final int maxConcurrency;
+  private final RetryBackoff retries;
 
   public PushToFirehoseService(FirehoseClient firehoseClient, String deliveryStreamName) {
-    this.firehoseClient = firehoseClient;
-    this.deliveryStreamName = deliveryStreamName;
+    this(builder(firehoseClient, deliveryStreamName));
+  }
+
+  private PushToFirehoseService(Builder builder) {
+    this.firehoseClient = builder.firehoseClient;
+    this.deliveryStreamName = builder.deliveryStreamName;
+    this.maxConcurrency = builder.maxConcurrency;
+    this.retries = builder.retries;
   }
 
+  public static Builder builder(FirehoseClient firehoseClient, String deliveryStreamName) {
+    return new Builder(firehoseClient, deliveryStreamName);
+  }
+
+  /**
+   * Pushes the events, see {@link #handleFailedEventsReportingFailures(Collection)}.
+   *
+   * @throws IllegalStateException if some events could not be pushed.
+   */
   @Override
   public void handleFailedEvents(Collection<String> failedEvents) {
-    pushToFirehose(failedEvents);
+    var unhandledEvents = handleFailedEventsReportingFailures(failedEvents);
+    if (!unhandledEvents.isEmpty()) {
+      throw new IllegalStateException(String.format(COULD_NOT_PUSH_EVENTS, unhandledEvents.size()));
+    }
   }
 
-  private static Record createFirehoseRecord(String failedEvent) {
-    return Record.builder().data(SdkBytes.fromString(failedEvent, StandardCharsets.UTF_8)).build();
+  @Override
+  public Collection<String> handleFailedEventsReportingFailures(Collection<String> failedEvents) {
+    var unhandledEvents = new ArrayList<String>();
+    var batches = packIntoBatches(failedEvents, unhandledEvents);
+    var mapper =
+        new ParallelMapper<List<String>, List<String>>(batches, this::pushWithRetries)
+            .withVirtualThreads(maxConcurrency);
+    try (var results = mapper.mapAsStreamUnordered()) {
+      results.map(this::unhandledEvents).forEach(unhandledEvents::addAll);
+    }
+    return unhandledEvents;
+  }
+
+  private List<List<String>> packIntoBatches(
+      Collection<String> events, List<String> unhandledEvents) {
+    var batches = new ArrayList<List<String>>();
+    var batch = new ArrayList<String>();
+    long batchSize = 0;
+    for (var event : events) {
+      long size = utf8Length(event);
+      if (size > MAX_RECORD_SIZE_BYTES) {
+        giveUp(List.of(event), RECORD_TOO_LARGE);
+        unhandledEvents.add(event);
+        continue;
+      }
+      if (batch.size() == MAX_RECORDS_PER_BATCH || batchSize + size > MAX_BATCH_SIZE_BYTES) {
+        batches.add(batch);
+        batch = new ArrayList<>();
+        batchSize = 0;
+      }
+      batch.add(event);
+      batchSize += size;
+    }
+    if (!batch.isEmpty()) {
+      batches.add(batch);
+    }
+    return batches;
+  }
+
+  /** Pushes the batch and returns the events that could not be pushed. */
+  private List<String> pushWithRetries(List<String> batch) {
+    var remaining = batch;
+    var unhandledEvents = new ArrayList<String>();
+    for (int attempt = RetryBackoff.FIRST_ATTEMPT; ; attempt++) {
+      remaining = push(remaining, unhandledEvents);
+      if (remaining.isEmpty()) {
+        return unhandledEvents;
+      }
+      if (!retries.awaitRetry(attempt)) {
+        giveUp(remaining, ATTEMPTS_EXHAUSTED);
+        unhandledEvents.addAll(remaining);
+        return unhandledEvents;
+      }
+    }
+  }
+
+  /** Pushes the events and returns the ones to retry. */
+  private List<String> push(List<String> events, List<String> unhandledEvents) {
+    PutRecordBatchResponse response;
+    try {
+      response = firehoseClient.putRecordBatch(assemblePutBatchRequest(events));
+    } catch (SdkException exception) {
+      if (isTransient(exception)) {
+        return events;
+      }
+      giveUp(events, exception);
+      unhandledEvents.addAll(events);
+      return List.of();
+    }
+    return eventsToRetry(events, response);
   }
 
-  private PutRecordBatchRequest assemblePutBatchRequest(List<Record> records) {
+  private static List<String> eventsToRetry(List<String> events, PutRecordBatchResponse response) {
+    if (isNull(response.failedPutCount()) || response.failedPutCount() == 0) {
+      return List.of();
+    }
+    var results = response.requestResponses();
+    var toRetry = new ArrayList<String>();
+    for (int index = 0; index < results.size() && index < events.size(); index++) {
+      if (nonNull(results.get(index).errorCode())) {
+        toRetry.add(events.get(index));
+      }
+    }
+    return toRetry;
+  }
+
+  private PutRecordBatchRequest assemblePutBatchRequest(List<String> events) {
+    var records = events.stream().map(PushToFirehoseService::createFirehoseRecord).toList();
     return PutRecordBatchRequest.builder()
         .records(records)
         .deliveryStreamName(deliveryStreamName)
         .build();
   }
 
-  private void pushToFirehose(Collection<String> group) {
-    var records = group.stream().map(PushToFirehoseService::createFirehoseRecord).toList();
-    var request = assemblePutBatchRequest(records);
-    firehoseClient.putRecordBatch(request);
+  private static Record createFirehoseRecord(String failedEvent) {
+    return Record.builder().data(SdkBytes.fromString(failedEvent, StandardCharsets.UTF_8)).build();
+  }
+
+  private void giveUp(List<String> events, Object reason) {
+    LOGGER.error(COULD_NOT_PUSH, events.size(), deliveryStreamName, reason);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<String> unhandledEvents(Try<List<String>> result) {
+    if (result.isSuccess()) {
+      return result.get();
+    }
+    var failure = (ParallelExecutionException) result.getException();
+    var events = (List<String>) failure.getInput();
+    giveUp(events, failure.getCause());
+    return events;
+  }
+
+  public static final class Builder {
+
+    private final FirehoseClient firehoseClient;
+    private final String deliveryStreamName;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private RetryBackoff retries =
+        RetryBackoff.of(DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+
+    private Builder(FirehoseClient firehoseClient, String deliveryStreamName) {
+      this.firehoseClient = firehoseClient;
+      this.deliveryStreamName = deliveryStreamName;
+    }
+
+    /** The most PutRecordBatch requests in flight at the same time. */
+    public Builder withMaxConcurrency(int maxConcurrency) {
+      if (maxConcurrency < 1) {
+        throw new IllegalArgumentException(INVALID_CONCURRENCY + maxConcurrency);
+      }
+      this.maxConcurrency = maxConcurrency;
+      return this;
+    }
+
+    /**
+     * Try each record up to {@code maxAttempts} times. Before retry {@code n} the records wait a
+     * random delay up to {@code initialBackoff * 2^(n-1)}, capped at {@code maxBackoff}.
+     */
+    public Builder withRetries(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+      this.retries = RetryBackoff.of(maxAttempts, initialBackoff, maxBackoff);
+      return this;
+    }
+
+    public PushToFirehoseService build() {
+      return new PushToFirehoseService(this);
+    }
   }
 }
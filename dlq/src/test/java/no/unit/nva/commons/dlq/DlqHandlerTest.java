@@ -4,14 +4,20 @@ import static no.unit.nva.testutils.RandomDataGenerator.randomJson;
 import static no.unit.nva.testutils.RandomDataGenerator.randomString;
 import static nva.commons.core.attempt.Try.attempt;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse.BatchItemFailure;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -20,6 +26,7 @@ import no.unit.nva.stubs.FakeFirehoseClient;
 import nva.commons.core.attempt.Try;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -32,6 +39,8 @@ public class DlqHandlerTest {
   public static final String SOME_FIREHOSE = "someFirehose";
   private static final String DLQ_ARN = randomString();
   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final int MAX_ATTEMPTS = 3;
+  private static final int LARGE_EVENT_SIZE = 900 * 1024;
   private FakeFirehoseClient firehoseClient;
   private SampleDlqHandler handler;
 
@@ -63,6 +72,98 @@ public class DlqHandlerTest {
     assertThat(failedEvents, is(equalTo(pushedRecords)));
   }
 
+  @Test
+  void shouldPackEventsIntoBatchesOfAtMostFiveHundredRecords() {
+    var failedEvents = randomJsons(1200);
+
+    var response =
+        handler.handleRequest(createDlqEventContainingFailedEvents(failedEvents), EMPTY_CONTEXT);
+
+    assertThat(firehoseClient.getBatchSizes(), containsInAnyOrder(500, 500, 200));
+    assertThat(response.getBatchItemFailures(), is(empty()));
+  }
+
+  @Test
+  void shouldPackEventsIntoBatchesWithinTheBatchSizeLimit() {
+    var failedEvents =
+        IntStream.range(0, 10).mapToObj(index -> index + "a".repeat(LARGE_EVENT_SIZE)).toList();
+
+    handler.handleRequest(createDlqEvent(failedEvents), EMPTY_CONTEXT);
+
+    assertThat(firehoseClient.getBatchSizes(), containsInAnyOrder(4, 4, 2));
+  }
+
+  @Test
+  void shouldRetryOnlyTheRecordsThatFirehoseRejected() {
+    var failedEvents = randomJsons(20);
+    firehoseClient.failNextRecords(3);
+
+    var response =
+        handler.handleRequest(createDlqEventContainingFailedEvents(failedEvents), EMPTY_CONTEXT);
+    var pushedRecords =
+        firehoseClient.extractPushedContent(this::parseJsonString).collect(Collectors.toSet());
+
+    assertThat(firehoseClient.getBatchSizes(), is(equalTo(List.of(20, 3))));
+    assertThat(pushedRecords, is(equalTo(failedEvents)));
+    assertThat(response.getBatchItemFailures(), is(empty()));
+  }
+
+  @Test
+  void shouldReportMessagesThatCouldNotBePushedAsBatchItemFailures() {
+    var dlqEvent = createDlqEventContainingFailedEvents(randomJsons(5));
+    firehoseClient.failNextRecords(5 * MAX_ATTEMPTS);
+
+    var response = handler.handleRequest(dlqEvent, EMPTY_CONTEXT);
+
+    var failedMessageIds =
+        response.getBatchItemFailures().stream().map(BatchItemFailure::getItemIdentifier).toList();
+    var expectedMessageIds = dlqEvent.getRecords().stream().map(SQSMessage::getMessageId).toList();
+    assertThat(failedMessageIds, containsInAnyOrder(expectedMessageIds.toArray()));
+  }
+
+  @Test
+  void shouldReportEventsLargerThanARecordWithoutSendingThem() {
+    var tooLargeEvent = "a".repeat(PushToFirehoseService.MAX_RECORD_SIZE_BYTES + 1);
+    var dlqEvent = createDlqEvent(List.of(tooLargeEvent, randomString()));
+
+    var response = handler.handleRequest(dlqEvent, EMPTY_CONTEXT);
+
+    var tooLargeMessageId = dlqEvent.getRecords().getFirst().getMessageId();
+    assertThat(response.getBatchItemFailures().size(), is(equalTo(1)));
+    assertThat(
+        response.getBatchItemFailures().getFirst().getItemIdentifier(),
+        is(equalTo(tooLargeMessageId)));
+    assertThat(firehoseClient.getBatchSizes(), is(equalTo(List.of(1))));
+  }
+
+  @Test
+  void shouldHandEventsToServiceInGroupsWhenGroupSizeIsSet() {
+    var failedEvents = randomJsons(25);
+    var groupingHandler = new SampleDlqHandler(firehoseClient, SOME_FIREHOSE, 4);
+
+    groupingHandler.handleRequest(
+        createDlqEventContainingFailedEvents(failedEvents), EMPTY_CONTEXT);
+
+    assertThat(firehoseClient.getBatchSizes(), containsInAnyOrder(4, 4, 4, 4, 4, 4, 1));
+  }
+
+  @Test
+  void shouldHandEventsToServiceInGroupsOfDefaultSizeWhenNoGroupSizeIsSet() {
+    var failedEvents = randomJsons(25);
+    var defaultHandler = new DlqHandler(SampleDlqHandler.service(firehoseClient, SOME_FIREHOSE)) {};
+
+    defaultHandler.handleRequest(createDlqEventContainingFailedEvents(failedEvents), EMPTY_CONTEXT);
+
+    assertThat(firehoseClient.getBatchSizes(), containsInAnyOrder(10, 10, 5));
+  }
+
+  @Test
+  void shouldRejectNonPositiveGroupSize() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new SampleDlqHandler(firehoseClient, SOME_FIREHOSE, 0));
+  }
+
   private static Set<JsonNode> randomJsons(Integer numberOfMessages) {
     return IntStream.range(0, numberOfMessages)
         .boxed()
@@ -73,15 +174,23 @@ public class DlqHandlerTest {
   }
 
   private static SQSEvent createDlqEventContainingFailedEvents(Set<JsonNode> failedEvents) {
+    return createDlqEvent(
+        failedEvents.stream()
+            .map(attempt(OBJECT_MAPPER::writeValueAsString))
+            .map(Try::orElseThrow)
+            .toList());
+  }
+
+  private static SQSEvent createDlqEvent(List<String> failedEvents) {
     var eventMessages = failedEvents.stream().map(DlqHandlerTest::createEventMessage).toList();
     var event = new SQSEvent();
     event.setRecords(eventMessages);
     return event;
   }
 
-  private static SQSMessage createEventMessage(JsonNode failedEvent) {
+  private static SQSMessage createEventMessage(String failedEvent) {
     var sqsMessage = new SQSMessage();
-    sqsMessage.setBody(attempt(() -> OBJECT_MAPPER.writeValueAsString(failedEvent)).orElseThrow());
+    sqsMessage.setBody(failedEvent);
     sqsMessage.setEventSource(DLQ_IS_SOURCE);
     sqsMessage.setEventSourceArn(DLQ_ARN);
     sqsMessage.setMd5OfBody(randomString());
@@ -96,7 +205,19 @@ public class DlqHandlerTest {
   private static class SampleDlqHandler extends DlqHandler {
 
     public SampleDlqHandler(FirehoseClient firehoseClient, String deliveryStreamName) {
-      super(new PushToFirehoseService(firehoseClient, deliveryStreamName));
+      super(service(firehoseClient, deliveryStreamName), WHOLE_BATCH);
+    }
+
+    public SampleDlqHandler(
+        FirehoseClient firehoseClient, String deliveryStreamName, int groupSize) {
+      super(service(firehoseClient, deliveryStreamName), groupSize);
+    }
+
+    private static PushToFirehoseService service(
+        FirehoseClient firehoseClient, String deliveryStreamName) {
+      return PushToFirehoseService.builder(firehoseClient, deliveryStreamName)
+          .withRetries(MAX_ATTEMPTS, Duration.ZERO, Duration.ZERO)
+          .build();
     }
   }
 }
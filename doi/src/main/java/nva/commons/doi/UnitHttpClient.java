@@ -7,6 +7,7 @@ import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandler;
 import java.util.concurrent.CompletableFuture;
 import nva.commons.core.JacocoGenerated;
+import nva.commons.core.http.HttpClientFactory;
 
 public class UnitHttpClient {
 
@@ -19,7 +20,7 @@ public class UnitHttpClient {
 
   @JacocoGenerated
   public UnitHttpClient() {
-    httpClient = HttpClient.newHttpClient();
+    httpClient = HttpClientFactory.shared();
   }
 
   @JacocoGenerated
@@ -0,0 +1,72 @@
+package no.unit.nva.events.claimcheck;
+
+import static java.util.Objects.nonNull;
+import static nva.commons.core.attempt.Try.attempt;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.util.Optional;
+import java.util.Set;
+import no.unit.nva.events.models.EventReference;
+import no.unit.nva.s3.S3Driver;
+
+/**
+ * Recognizes event details that are claim checks: {@link EventReference}s to a detail stored in S3.
+ *
+ * <p>A detail is a claim check when it is a JSON object with an S3 {@code uri} and no fields other
+ * than those of an {@link EventReference}. A detail type that happens to have the same fields is
+ * therefore read as a claim check too.
+ */
+final class ClaimCheck {
+
+  private static final Set<String> REFERENCE_FIELDS =
+      Set.of(
+          EventReference.TOPIC,
+          EventReference.SUBTOPIC,
+          EventReference.URI,
+          EventReference.TIMESTAMP);
+
+  private ClaimCheck() {}
+
+  static Optional<EventReference> referenceIn(JsonNode detail, ObjectMapper objectMapper) {
+    return isClaimCheck(detail)
+        ? Optional.of(attempt(() -> toReference(detail, objectMapper)).orElseThrow())
+        : Optional.empty();
+  }
+
+  private static EventReference toReference(JsonNode detail, ObjectMapper objectMapper)
+      throws JsonProcessingException {
+    return objectMapper.treeToValue(detail, EventReference.class);
+  }
+
+  private static boolean isClaimCheck(JsonNode detail) {
+    return nonNull(detail)
+        && detail.isObject()
+        && hasS3Uri(detail.get(EventReference.URI))
+        && onlyReferenceFields(detail);
+  }
+
+  private static boolean hasS3Uri(JsonNode uri) {
+    return nonNull(uri) && uri.isTextual() && isS3Uri(uri.textValue());
+  }
+
+  private static boolean isS3Uri(String uri) {
+    try {
+      return S3Driver.S3_SCHEME.equals(URI.create(uri).getScheme());
+    } catch (IllegalArgumentException exception) {
+      return false;
+    }
+  }
+
+  private static boolean onlyReferenceFields(JsonNode detail) {
+    var fieldNames = detail.fieldNames();
+    while (fieldNames.hasNext()) {
+      if (!REFERENCE_FIELDS.contains(fieldNames.next())) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,114 @@
+package no.unit.nva.events.claimcheck;
+
+import static java.util.Objects.isNull;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import no.unit.nva.events.EventsConfig;
+import no.unit.nva.events.handlers.EventHandler;
+import no.unit.nva.events.handlers.EventParser;
+import no.unit.nva.events.models.AwsEventBridgeEvent;
+import no.unit.nva.events.models.EventReference;
+import no.unit.nva.s3.S3Driver;
+import nva.commons.core.paths.UriWrapper;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * An {@link EventHandler} for events published through a {@link ClaimCheckPublisher}.
+ *
+ * <p>When the detail of an event is a claim check, the detail is streamed from S3, decompressed if
+ * it is gzipped, and parsed straight into the input type before {@link #processInput} is called.
+ * Other details are parsed as they are. Handlers therefore see the same input whichever way the
+ * event was published.
+ *
+ * <p>Not meant for handlers whose input type is {@link EventReference} itself: such events would
+ * be dereferenced too.
+ *
+ * @param <I> the type of the event detail.
+ * @param <O> the result of processing the event.
+ */
+public abstract class ClaimCheckEventHandler<I, O> extends EventHandler<I, O> {
+
+  private final S3Client s3Client;
+  private final ObjectReader envelopeReader;
+  private volatile ObjectReader detailReader;
+
+  /*
+   Raw class usage in order to support parameterized types when ClaimCheckEventHandler is extended
+   by another class.
+  */
+
+  @SuppressWarnings({"rawtypes"})
+  protected ClaimCheckEventHandler(Class iclass, ObjectMapper objectMapper, S3Client s3Client) {
+    super(iclass, objectMapper);
+    this.s3Client = s3Client;
+    var envelopeType = EventParser.eventType(objectMapper.getTypeFactory(), JsonNode.class);
+    this.envelopeReader = objectMapper.readerFor(envelopeType);
+  }
+
+  @SuppressWarnings({"rawtypes"})
+  protected ClaimCheckEventHandler(Class iclass, S3Client s3Client) {
+    this(iclass, EventsConfig.objectMapper, s3Client);
+  }
+
+  @Override
+  protected AwsEventBridgeEvent<I> parseEvent(byte[] input) {
+    try {
+      return resolveClaimCheck(envelopeReader.readValue(input));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private AwsEventBridgeEvent<I> resolveClaimCheck(AwsEventBridgeEvent<JsonNode> envelope)
+      throws IOException {
+    var detailNode = envelope.getDetail();
+    if (isNull(detailNode)) {
+      return withDetail(envelope, null);
+    }
+    var reference = ClaimCheck.referenceIn(detailNode, objectMapper);
+    I detail =
+        reference.isPresent()
+            ? readStoredDetail(reference.get())
+            : detailReader().readValue(detailNode);
+    return withDetail(envelope, detail);
+  }
+
+  private I readStoredDetail(EventReference reference) throws IOException {
+    var s3Driver = new S3Driver(s3Client, reference.extractBucketName());
+    var path = UriWrapper.fromUri(reference.getUri()).toS3bucketPath();
+    try (InputStream detail = s3Driver.openFile(path)) {
+      return detailReader().readValue(detail);
+    }
+  }
+
+  private ObjectReader detailReader() {
+    var reader = detailReader;
+    if (isNull(reader)) {
+      JavaType detailType = eventType().containedType(0);
+      reader = objectMapper.readerFor(detailType);
+      detailReader = reader;
+    }
+    return reader;
+  }
+
+  private static <I> AwsEventBridgeEvent<I> withDetail(
+      AwsEventBridgeEvent<JsonNode> envelope, I detail) {
+    var event = new AwsEventBridgeEvent<I>();
+    event.setVersion(envelope.getVersion());
+    event.setId(envelope.getId());
+    event.setDetailType(envelope.getDetailType());
+    event.setSource(envelope.getSource());
+    event.setAccount(envelope.getAccount());
+    event.setTime(envelope.getTime());
+    event.setRegion(envelope.getRegion());
+    event.setResources(envelope.getResources());
+    event.setDetail(detail);
+    return event;
+  }
+}
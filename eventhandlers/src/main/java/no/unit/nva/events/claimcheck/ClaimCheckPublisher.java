@@ -0,0 +1,125 @@
+package no.unit.nva.events.claimcheck;
+
+import static no.unit.nva.events.EventsConfig.objectMapper;
+import static nva.commons.core.attempt.Try.attempt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import no.unit.nva.events.models.EventBody;
+import no.unit.nva.events.models.EventReference;
+import no.unit.nva.s3.S3Driver;
+import nva.commons.core.paths.UnixPath;
+
+/**
+ * Prepares event details for EventBridge, which rejects events larger than 256 KB.
+ *
+ * <p>Details up to {@link Builder#withMaxInlineDetailBytes(int)} bytes are published as they are.
+ * Larger details are stored gzipped in S3 with {@link S3Driver#insertEvent(UnixPath, String)}, and
+ * an {@link EventReference} to them is published instead: the claim check. A {@link
+ * ClaimCheckEventHandler} reads both kinds transparently.
+ *
+ * <pre>{@code
+ * var publisher = ClaimCheckPublisher.builder(new S3Driver(s3Client, bucketName)).build();
+ * var entry = PutEventsRequestEntry.builder()
+ *     .eventBusName(eventBusName)
+ *     .detailType(detailType)
+ *     .source(source)
+ *     .detail(publisher.toDetail(eventBody))
+ *     .build();
+ * }</pre>
+ */
+public final class ClaimCheckPublisher {
+
+  /** Leaves room for the rest of the event within the 256 KB EventBridge limit. */
+  public static final int DEFAULT_MAX_INLINE_DETAIL_BYTES = 200 * 1024;
+
+  public static final UnixPath DEFAULT_FOLDER = UnixPath.of("events");
+  public static final String INVALID_MAX_INLINE_DETAIL_BYTES =
+      "Max inline detail bytes must be positive: ";
+  private static final int MAX_UTF8_BYTES_PER_CHAR = 3;
+
+  private final S3Driver s3Driver;
+  private final UnixPath folder;
+  private final int maxInlineDetailBytes;
+
+  private ClaimCheckPublisher(Builder builder) {
+    this.s3Driver = builder.s3Driver;
+    this.folder = builder.folder;
+    this.maxInlineDetailBytes = builder.maxInlineDetailBytes;
+  }
+
+  public static Builder builder(S3Driver s3Driver) {
+    return new Builder(s3Driver);
+  }
+
+  /**
+   * The detail to publish for the event body: the body as JSON, or a claim check if that is too
+   * large.
+   *
+   * @param eventBody the event body.
+   * @return the detail to publish.
+   */
+  public String toDetail(EventBody eventBody) {
+    var detail = attempt(() -> objectMapper.writeValueAsString(eventBody)).orElseThrow();
+    return toDetail(eventBody.getTopic(), detail);
+  }
+
+  /**
+   * The detail to publish: the detail itself, or a claim check with the given topic if it is too
+   * large.
+   *
+   * @param topic the topic of the claim check.
+   * @param detail the detail as JSON.
+   * @return the detail to publish.
+   */
+  public String toDetail(String topic, String detail) {
+    return fitsInline(detail) ? detail : claimCheck(topic, detail).toJsonString();
+  }
+
+  /** Encodes the detail only when its length in chars does not settle the question. */
+  private boolean fitsInline(String detail) {
+    return detail.length() <= maxInlineDetailBytes / MAX_UTF8_BYTES_PER_CHAR
+        || detail.length() <= maxInlineDetailBytes
+            && detail.getBytes(StandardCharsets.UTF_8).length <= maxInlineDetailBytes;
+  }
+
+  private EventReference claimCheck(String topic, String detail) {
+    try {
+      return new EventReference(topic, s3Driver.insertEvent(folder, detail));
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  public static final class Builder {
+
+    private final S3Driver s3Driver;
+    private UnixPath folder = DEFAULT_FOLDER;
+    private int maxInlineDetailBytes = DEFAULT_MAX_INLINE_DETAIL_BYTES;
+
+    private Builder(S3Driver s3Driver) {
+      this.s3Driver = s3Driver;
+    }
+
+    /** The folder in the bucket where large details are stored. Defaults to {@code events}. */
+    public Builder withFolder(UnixPath folder) {
+      this.folder = folder;
+      return this;
+    }
+
+    /** The largest detail, in UTF-8 bytes, that is published as it is. */
+    public Builder withMaxInlineDetailBytes(int maxInlineDetailBytes) {
+      if (maxInlineDetailBytes < 1) {
+        throw new IllegalArgumentException(
+            INVALID_MAX_INLINE_DETAIL_BYTES + maxInlineDetailBytes);
+      }
+      this.maxInlineDetailBytes = maxInlineDetailBytes;
+      return this;
+    }
+
+    public ClaimCheckPublisher build() {
+      return new ClaimCheckPublisher(this);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package no.unit.nva.events.handlers;
+
+import static nva.commons.core.exceptions.ExceptionUtils.stackTraceInSingleLine;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse.BatchItemFailure;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import no.unit.nva.events.EventsConfig;
+import no.unit.nva.events.models.AwsEventBridgeEvent;
+import nva.commons.core.attempt.Try;
+import nva.commons.core.parallel.ParallelExecutionException;
+import nva.commons.core.parallel.ParallelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Handler for EventBridge events that are delivered through an SQS queue, in batches.
+ *
+ * <p>Each SQS message body is an EventBridge event, which is parsed and passed to {@link
+ * #processInput(Object, AwsEventBridgeEvent, Context)}. The messages of a batch are processed
+ * concurrently on virtual threads, at most {@code maxConcurrency} at a time. The handler returns
+ * the messages that failed as batch item failures, so that only those are retried, provided that
+ * the event source mapping has {@code ReportBatchItemFailures} enabled:
+ *
+ * <pre>{@code
+ * SomeLambda:
+ *   Type: AWS::Serverless::Function
+ *   Properties:
+ *     Events:
+ *       SqsEvent:
+ *         Type: SQS
+ *         Properties:
+ *           Queue: !GetAtt SomeQueue.Arn
+ *           BatchSize: 1000
+ *           MaximumBatchingWindowInSeconds: 5
+ *           FunctionResponseTypes:
+ *             - ReportBatchItemFailures
+ * }</pre>
+ *
+ * <p>Messages from a FIFO queue are processed one at a time, in order. After the first failure,
+ * the remaining messages are reported as failed without being processed, so that they are retried
+ * in order.
+ *
+ * @param <I> the type of the event detail.
+ * @param <O> the result of processing one event.
+ */
+public abstract class BatchEventHandler<I, O>
+    implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+  public static final int DEFAULT_MAX_CONCURRENCY = 16;
+  public static final String FIFO_QUEUE_SUFFIX = ".fifo";
+  public static final String FAILED_TO_PROCESS_MESSAGE = "Failed to process message: ";
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchEventHandler.class);
+  protected final ObjectMapper objectMapper;
+  private final ObjectReader eventReader;
+  private final int maxConcurrency;
+
+  /*
+   Raw class usage in order to support parameterized types when BatchEventHandler is extended by
+   another class.
+  */
+
+  @SuppressWarnings({"rawtypes"})
+  protected BatchEventHandler(Class iclass, ObjectMapper objectMapper, int maxConcurrency) {
+    super();
+    this.objectMapper = objectMapper;
+    this.eventReader =
+        objectMapper.readerFor(EventParser.eventType(objectMapper.getTypeFactory(), iclass));
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  @SuppressWarnings({"rawtypes"})
+  protected BatchEventHandler(Class iclass, ObjectMapper objectMapper) {
+    this(iclass, objectMapper, DEFAULT_MAX_CONCURRENCY);
+  }
+
+  @SuppressWarnings({"rawtypes"})
+  protected BatchEventHandler(Class iclass) {
+    this(iclass, EventsConfig.objectMapper);
+  }
+
+  @Override
+  public SQSBatchResponse handleRequest(SQSEvent input, Context context) {
+    var messages = input.getRecords();
+    var failures =
+        messages.stream().anyMatch(BatchEventHandler::isFromFifoQueue)
+            ? processInOrder(messages, context)
+            : processConcurrently(messages, context);
+    return new SQSBatchResponse(failures);
+  }
+
+  protected abstract O processInput(I input, AwsEventBridgeEvent<I> event, Context context);
+
+  protected AwsEventBridgeEvent<I> parseEvent(String input) {
+    try {
+      return eventReader.readValue(input);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  protected void handleError(Exception exception, SQSMessage message) {
+    LOGGER.error(FAILED_TO_PROCESS_MESSAGE + message.getMessageId());
+    LOGGER.error(stackTraceInSingleLine(exception));
+  }
+
+  private List<BatchItemFailure> processConcurrently(List<SQSMessage> messages, Context context) {
+    var mapper =
+        new ParallelMapper<SQSMessage, O>(messages, message -> process(message, context))
+            .withVirtualThreads(maxConcurrency);
+    try (var results = mapper.mapAsStreamUnordered()) {
+      return results
+          .filter(Try::isFailure)
+          .map(failure -> (ParallelExecutionException) failure.getException())
+          .map(this::reportFailure)
+          .toList();
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private List<BatchItemFailure> processInOrder(List<SQSMessage> messages, Context context) {
+    var failures = new ArrayList<BatchItemFailure>();
+    for (var message : messages) {
+      if (!failures.isEmpty()) {
+        failures.add(new BatchItemFailure(message.getMessageId()));
+        continue;
+      }
+      try {
+        process(message, context);
+      } catch (RuntimeException exception) {
+        handleError(exception, message);
+        failures.add(new BatchItemFailure(message.getMessageId()));
+      }
+    }
+    return failures;
+  }
+
+  private O process(SQSMessage message, Context context) {
+    var event = parseEvent(message.getBody());
+    return processInput(event.getDetail(), event, context);
+  }
+
+  private BatchItemFailure reportFailure(ParallelExecutionException failure) {
+    var message = (SQSMessage) failure.getInput();
+    handleError(unwrap(failure), message);
+    return new BatchItemFailure(message.getMessageId());
+  }
+
+  private static Exception unwrap(ParallelExecutionException failure) {
+    return failure.getCause() instanceof Exception cause ? cause : failure;
+  }
+
+  private static boolean isFromFifoQueue(SQSMessage message) {
+    var queueArn = message.getEventSourceArn();
+    return queueArn != null && queueArn.endsWith(FIFO_QUEUE_SUFFIX);
+  }
+}
@@ -1,6 +1,7 @@
 package no.unit.nva.events.handlers;
 
 import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import no.unit.nva.events.EventsConfig;
 import no.unit.nva.events.models.AwsEventBridgeDetail;
@@ -29,11 +30,9 @@ public abstract class DestinationsEventBridgeEventHandler<I, O>
     return processInputPayload(input.getResponsePayload(), event, context);
   }
 
-  @SuppressWarnings("unchecked")
   @Override
-  protected AwsEventBridgeEvent<AwsEventBridgeDetail<I>> parseEvent(String input) {
-    return new EventParser<AwsEventBridgeDetail<I>>(input, objectMapper)
-        .parse(AwsEventBridgeDetail.class, iclass);
+  protected JavaType eventType() {
+    return EventParser.eventType(objectMapper.getTypeFactory(), AwsEventBridgeDetail.class, iclass);
   }
 
   protected abstract O processInputPayload(
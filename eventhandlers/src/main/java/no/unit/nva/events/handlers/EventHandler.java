@@ -1,26 +1,37 @@
 package no.unit.nva.events.handlers;
 
+import static java.util.Objects.isNull;
 import static nva.commons.core.exceptions.ExceptionUtils.stackTraceInSingleLine;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import no.unit.nva.events.EventsConfig;
 import no.unit.nva.events.models.AwsEventBridgeEvent;
-import nva.commons.core.ioutils.IoUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /*
  Implemented as RequestStreamHandler because RequestHandler has problem with java.time.Instant class.
  Probably the class RequestHandler does not include the java-8-module.
+
+ The input is read once into a byte array and parsed with an ObjectReader that is built once per
+ handler. It is not parsed straight from the InputStream, because handleError receives the input
+ when parsing or processing fails, so the bytes have to be kept anyway. They are decoded into a
+ String only for the TRACE log, for handleError, and for subclasses that still override the
+ deprecated parseEvent(String).
 */
 public abstract class EventHandler<I, O> implements RequestStreamHandler {
 
@@ -28,8 +39,11 @@ public abstract class EventHandler<I, O> implements RequestStreamHandler {
   public static final String ERROR_WRITING_TO_OUTPUT_STREAM =
       "Error writing output to output stream. Output is: ";
   private static final Logger LOGGER = LoggerFactory.getLogger(EventHandler.class);
+  private static final String PARSE_EVENT = "parseEvent";
   protected final ObjectMapper objectMapper;
   private final Class<I> iclass;
+  private final boolean parsesStrings;
+  private volatile ObjectReader eventReader;
 
   /*
    Raw class usage in order to support parameterized types when EventHandler is extended by another class.
@@ -40,6 +54,7 @@ public abstract class EventHandler<I, O> implements RequestStreamHandler {
     super();
     this.iclass = (Class<I>) iclass;
     this.objectMapper = objectMapper;
+    this.parsesStrings = overridesParseEventFromString(getClass());
   }
 
   @SuppressWarnings({"rawtypes", "unchecked"})
@@ -50,16 +65,19 @@ public abstract class EventHandler<I, O> implements RequestStreamHandler {
   @Override
   @SuppressWarnings("PMD.AvoidCatchingGenericException")
   public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context) {
-    String inputString = null;
+    byte[] inputBytes = null;
     try {
-      inputString = IoUtils.streamToString(inputStream);
-      LOGGER.trace(HANDLER_INPUT + inputString);
-      AwsEventBridgeEvent<I> input = parseEvent(inputString);
+      inputBytes = readInput(inputStream);
+      if (LOGGER.isTraceEnabled()) {
+        LOGGER.trace(HANDLER_INPUT + asString(inputBytes));
+      }
+      AwsEventBridgeEvent<I> input =
+          parsesStrings ? parseEvent(asString(inputBytes)) : parseEvent(inputBytes);
       O output = processInput(input.getDetail(), input, context);
 
       writeOutput(outputStream, output);
     } catch (Exception e) {
-      handleError(e, inputString);
+      handleError(e, asString(inputBytes));
       throw e;
     }
   }
@@ -79,11 +97,88 @@ public abstract class EventHandler<I, O> implements RequestStreamHandler {
 
   protected abstract O processInput(I input, AwsEventBridgeEvent<I> event, Context context);
 
+  /**
+   * The type of the events this handler reads. Override when the detail object has a nested
+   * generic type, see {@link EventParser#eventType(TypeFactory, Class[])}.
+   *
+   * @return the type of the events this handler reads.
+   */
+  protected JavaType eventType() {
+    return EventParser.eventType(objectMapper.getTypeFactory(), iclass);
+  }
+
+  /**
+   * Parses the input of the handler. Override this method, or {@link #eventType()}, to change how
+   * events are read.
+   *
+   * @param input the input, as UTF-8 encoded JSON.
+   * @return the event.
+   */
+  protected AwsEventBridgeEvent<I> parseEvent(byte[] input) {
+    try {
+      return eventReader().readValue(input);
+    } catch (IOException e) {
+      LOGGER.error(EventParser.ERROR_PARSING_INPUT + asString(input));
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Parses the event with {@link #parseEvent(byte[])}. Handlers that override this method are still
+   * given the input as a String.
+   *
+   * @param input the input as a String.
+   * @return the event.
+   * @deprecated override {@link #parseEvent(byte[])} instead, which does not need the input decoded
+   *     into a String.
+   */
+  @Deprecated
   protected AwsEventBridgeEvent<I> parseEvent(String input) {
-    return new EventParser<I>(input, objectMapper).parse(iclass);
+    return parseEvent(input.getBytes(StandardCharsets.UTF_8));
   }
 
+  /**
+   * Called when reading, parsing or processing the input fails, before the exception is rethrown.
+   *
+   * @param e the exception.
+   * @param inputString the input, or {@code null} if it could not be read.
+   */
   protected void handleError(Exception e, String inputString) {
     LOGGER.error(stackTraceInSingleLine(e));
   }
+
+  private ObjectReader eventReader() {
+    var reader = eventReader;
+    if (isNull(reader)) {
+      reader = objectMapper.readerFor(eventType());
+      eventReader = reader;
+    }
+    return reader;
+  }
+
+  private static boolean overridesParseEventFromString(Class<?> handlerClass) {
+    for (var type = handlerClass; !EventHandler.class.equals(type); type = type.getSuperclass()) {
+      if (Arrays.stream(type.getDeclaredMethods()).anyMatch(EventHandler::isParseEventFromString)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isParseEventFromString(Method method) {
+    return PARSE_EVENT.equals(method.getName())
+        && Arrays.equals(method.getParameterTypes(), new Class<?>[] {String.class});
+  }
+
+  private static byte[] readInput(InputStream inputStream) {
+    try {
+      return inputStream.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String asString(byte[] input) {
+    return isNull(input) ? null : new String(input, StandardCharsets.UTF_8);
+  }
 }
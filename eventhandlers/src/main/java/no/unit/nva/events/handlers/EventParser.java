@@ -6,6 +6,7 @@ import static nva.commons.core.exceptions.ExceptionUtils.stackTraceInSingleLine;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import no.unit.nva.events.models.AwsEventBridgeEvent;
 import nva.commons.core.attempt.Failure;
 import org.slf4j.Logger;
@@ -46,18 +47,28 @@ public class EventParser<I> {
     return attempt(() -> parseJson(nestedParameterClasses)).orElseThrow(this::handleParsingError);
   }
 
+  /**
+   * The {@link JavaType} of an AwsEventBridgeEvent whose detail object is of type {@literal
+   * ClassA<ClassB<ClassC<...ClassZ>>..>}, for handlers that build an {@link
+   * com.fasterxml.jackson.databind.ObjectReader} once and reuse it for every event.
+   *
+   * @param typeFactory the type factory of the ObjectMapper that will read the events.
+   * @param nestedParameterClasses the classes of the nested generic type of the detail object.
+   * @return the type of an AwsEventBridgeEvent with a nested generic type as detail object.
+   */
+  @SuppressWarnings(RAWTYPES)
+  public static JavaType eventType(TypeFactory typeFactory, Class... nestedParameterClasses) {
+    JavaType nestedJavaTypes = nestedGenericTypesToJavaType(typeFactory, nestedParameterClasses);
+    return typeFactory.constructParametricType(AwsEventBridgeEvent.class, nestedJavaTypes);
+  }
+
   private AwsEventBridgeEvent<I> parseJson(Class<I> iclass) throws JsonProcessingException {
-    JavaType javaType =
-        objectMapper.getTypeFactory().constructParametricType(AwsEventBridgeEvent.class, iclass);
-    return objectMapper.readValue(input, javaType);
+    return objectMapper.readValue(input, eventType(objectMapper.getTypeFactory(), iclass));
   }
 
   private AwsEventBridgeEvent<?> parseJson(Class<?>... nestedClasses)
       throws JsonProcessingException {
-    JavaType nestedJavaTypes = nestedGenericTypesToJavaType(nestedClasses);
-    JavaType eventBridgeJavaType =
-        constructAwsEventBridgeDataTypeWithAllNestedTypes(nestedJavaTypes);
-    return objectMapper.readValue(input, eventBridgeJavaType);
+    return objectMapper.readValue(input, eventType(objectMapper.getTypeFactory(), nestedClasses));
   }
 
   private <O> RuntimeException handleParsingError(Failure<O> fail) {
@@ -71,29 +82,18 @@ public class EventParser<I> {
    * it creates a {@link JavaType} for the object  ClassA<ClassB<ClassC...<ClassZ>>>>
    */
   @SuppressWarnings(RAWTYPES)
-  private JavaType nestedGenericTypesToJavaType(Class... classes) {
+  private static JavaType nestedGenericTypesToJavaType(TypeFactory typeFactory, Class... classes) {
     // Variables not inlined for readability purposes.
-    JavaType mostRecentType = objectMapper.getTypeFactory().constructType(innermostType(classes));
+    JavaType mostRecentType = typeFactory.constructType(innermostType(classes));
     for (int index = classes.length - SKIP_BOTTOM_TYPE; index >= 0; index--) {
       Class<?> currentClass = classes[index];
-      mostRecentType = createGenericClassContainingAllPreviousTypes(mostRecentType, currentClass);
+      mostRecentType = typeFactory.constructParametricType(currentClass, mostRecentType);
     }
     return mostRecentType;
   }
 
-  private JavaType createGenericClassContainingAllPreviousTypes(
-      JavaType mostRecentType, Class<?> currentClass) {
-    return objectMapper.getTypeFactory().constructParametricType(currentClass, mostRecentType);
-  }
-
   @SafeVarargs
-  private <T> T innermostType(T... classes) {
+  private static <T> T innermostType(T... classes) {
     return classes[classes.length - 1];
   }
-
-  private JavaType constructAwsEventBridgeDataTypeWithAllNestedTypes(JavaType mostRecentType) {
-    return objectMapper
-        .getTypeFactory()
-        .constructParametricType(AwsEventBridgeEvent.class, mostRecentType);
-  }
 }
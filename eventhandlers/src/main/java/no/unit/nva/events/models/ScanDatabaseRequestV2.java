@@ -1,5 +1,6 @@
 package no.unit.nva.events.models;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static no.unit.nva.events.EventsConfig.objectMapperLight;
 import static nva.commons.core.attempt.Try.attempt;
@@ -7,12 +8,17 @@ import static nva.commons.core.attempt.Try.attempt;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import nva.commons.core.JacocoGenerated;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
 
 /**
@@ -20,15 +26,31 @@ import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
  * The {@code startMarker} is a scan start marker as required by the DynamoDb client. The {@code
  * pageSize} is the number of the results the scan will return (max 1000). The {@code topic} is the
  * event topic that the handler is listening for events.
+ *
+ * <p>A table can be scanned by several chains of events in parallel. A request created with {@link
+ * #fanOut(String, Integer, int)} carries only {@code totalSegments}; the handler receiving it
+ * publishes the entries from {@link #createSegmentEventEntries(String, String, String)}, one per
+ * segment, and each segment is then scanned page by page as before. {@code scannedItems} counts the
+ * items scanned by the previous pages of the same segment, so that every event shows how far its
+ * segment has come. The segment fields are validated when a request is constructed, read with
+ * {@link #fromJson(String)} or turned into a scan, so that an invalid segment fails here rather
+ * than in DynamoDB.
  */
 public class ScanDatabaseRequestV2 implements EventBody {
 
   public static final String START_MARKER = "startMarker";
   public static final String PAGE_SIZE = "pageSize";
+  public static final String SEGMENT = "segment";
+  public static final String TOTAL_SEGMENTS = "totalSegments";
+  public static final String SCANNED_ITEMS = "scannedItems";
 
   public static final int DEFAULT_PAGE_SIZE = 700; // Choosing for safety 3/4 of max page size.
   public static final int MAX_PAGE_SIZE = 1000;
   public static final Map<String, AttributeValue> DYNAMODB_EMPTY_MARKER = null;
+  public static final int MAX_TOTAL_SEGMENTS = 1_000_000;
+  public static final String INVALID_TOTAL_SEGMENTS = "Total segments must be between 1 and ";
+  public static final String INVALID_SEGMENT = "Segment must be between 0 and totalSegments - 1: ";
+  public static final String NOT_A_FAN_OUT_REQUEST = "Request is not a fan-out request: ";
 
   @JsonProperty(START_MARKER)
   private Map<String, String> startMarker;
@@ -39,6 +61,15 @@ public class ScanDatabaseRequestV2 implements EventBody {
   @JsonProperty(TOPIC)
   private String topic;
 
+  @JsonProperty(SEGMENT)
+  private Integer segment;
+
+  @JsonProperty(TOTAL_SEGMENTS)
+  private Integer totalSegments;
+
+  @JsonProperty(SCANNED_ITEMS)
+  private Long scannedItems;
+
   public ScanDatabaseRequestV2() {}
 
   public ScanDatabaseRequestV2(String topic, Integer pageSize, Map<String, String> startMarker) {
@@ -47,9 +78,43 @@ public class ScanDatabaseRequestV2 implements EventBody {
     setStartMarker(startMarker);
   }
 
+  public ScanDatabaseRequestV2(
+      String topic,
+      Integer pageSize,
+      Map<String, String> startMarker,
+      Integer segment,
+      Integer totalSegments) {
+    this(topic, pageSize, startMarker);
+    validateSegment(segment, totalSegments);
+    setSegment(segment);
+    setTotalSegments(totalSegments);
+  }
+
+  /**
+   * Creates the request that starts a parallel scan of {@code totalSegments} segments.
+   *
+   * @param topic the event topic of the scan.
+   * @param pageSize the page size of every segment.
+   * @param totalSegments the number of segments, between 1 and {@link #MAX_TOTAL_SEGMENTS}.
+   * @return a request that is {@link #isFanOut()}.
+   */
+  public static ScanDatabaseRequestV2 fanOut(String topic, Integer pageSize, int totalSegments) {
+    return new ScanDatabaseRequestV2(topic, pageSize, null, null, totalSegments);
+  }
+
+  /**
+   * Reads a request from the detail of an event.
+   *
+   * @param detail the request as JSON.
+   * @return the request.
+   * @throws IllegalArgumentException if the segment fields are not valid.
+   */
   public static ScanDatabaseRequestV2 fromJson(String detail) {
-    return attempt(() -> objectMapperLight.beanFrom(ScanDatabaseRequestV2.class, detail))
-        .orElseThrow();
+    var request =
+        attempt(() -> objectMapperLight.beanFrom(ScanDatabaseRequestV2.class, detail))
+            .orElseThrow();
+    validateSegment(request.getSegment(), request.getTotalSegments());
+    return request;
   }
 
   public Map<String, String> getStartMarker() {
@@ -68,8 +133,112 @@ public class ScanDatabaseRequestV2 implements EventBody {
     this.pageSize = isValid(pageSize) ? pageSize : DEFAULT_PAGE_SIZE;
   }
 
+  public Integer getSegment() {
+    return segment;
+  }
+
+  public final void setSegment(Integer segment) {
+    this.segment = segment;
+  }
+
+  public Integer getTotalSegments() {
+    return totalSegments;
+  }
+
+  public final void setTotalSegments(Integer totalSegments) {
+    this.totalSegments = totalSegments;
+  }
+
+  /** The items scanned by the previous pages of the segment, or null before the first page. */
+  public Long getScannedItems() {
+    return scannedItems;
+  }
+
+  public final void setScannedItems(Long scannedItems) {
+    this.scannedItems = scannedItems;
+  }
+
+  /** True for a request that should be split into one request per segment, see {@link #fanOut}. */
+  @JsonIgnore
+  public boolean isFanOut() {
+    return nonNull(totalSegments) && isNull(segment);
+  }
+
+  /** True for a request that scans one segment of the table. */
+  @JsonIgnore
+  public boolean isSegment() {
+    return nonNull(totalSegments) && nonNull(segment);
+  }
+
+  /**
+   * The request for the page starting at {@code newStartMarker}, in the same segment. The scanned
+   * count of the page is not known here, so the page is counted as a full page; {@link
+   * #nextRequest(ScanResponse)} counts the items that were actually scanned.
+   *
+   * @param newStartMarker the last evaluated key of the page that was scanned.
+   * @return the request for the next page.
+   */
   public ScanDatabaseRequestV2 newScanDatabaseRequest(Map<String, AttributeValue> newStartMarker) {
-    return new ScanDatabaseRequestV2(getTopic(), getPageSize(), toSerializableForm(newStartMarker));
+    return nextPage(newStartMarker, getPageSize());
+  }
+
+  /**
+   * The request for the page after the one the {@code response} is for, in the same segment.
+   *
+   * @param response the response to the scan request created by {@link #toScanRequest(String)}.
+   * @return the next request, or empty if the response was for the last page.
+   */
+  public Optional<ScanDatabaseRequestV2> nextRequest(ScanResponse response) {
+    if (!response.hasLastEvaluatedKey() || response.lastEvaluatedKey().isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(nextPage(response.lastEvaluatedKey(), response.scannedCount()));
+  }
+
+  /**
+   * The requests for the individual segments of a fan-out request, all starting from the beginning
+   * of the table.
+   *
+   * @return one request per segment.
+   * @throws IllegalStateException if this is not a fan-out request.
+   */
+  public List<ScanDatabaseRequestV2> segmentRequests() {
+    if (!isFanOut()) {
+      throw new IllegalStateException(NOT_A_FAN_OUT_REQUEST + this);
+    }
+    validateSegment(segment, totalSegments);
+    return IntStream.range(0, totalSegments)
+        .mapToObj(
+            index ->
+                new ScanDatabaseRequestV2(getTopic(), getPageSize(), null, index, totalSegments))
+        .toList();
+  }
+
+  public List<PutEventsRequestEntry> createSegmentEventEntries(
+      String eventBusName, String detailType, String invokedFunctionArn) {
+    return segmentRequests().stream()
+        .map(request -> request.createNewEventEntry(eventBusName, detailType, invokedFunctionArn))
+        .toList();
+  }
+
+  /**
+   * The DynamoDB scan request for the page this request describes.
+   *
+   * @param tableName the table to scan.
+   * @return a scan request, limited to the segment if this request is for a segment.
+   * @throws IllegalArgumentException if the segment fields are not valid.
+   */
+  public ScanRequest toScanRequest(String tableName) {
+    validateSegment(segment, totalSegments);
+    var builder =
+        ScanRequest.builder()
+            .tableName(tableName)
+            .limit(getPageSize())
+            .exclusiveStartKey(toDynamoScanMarker());
+    if (isSegment()) {
+      builder.segment(segment).totalSegments(totalSegments);
+    }
+    return builder.build();
   }
 
   @Override
@@ -103,7 +272,13 @@ public class ScanDatabaseRequestV2 implements EventBody {
   @JacocoGenerated
   @Override
   public int hashCode() {
-    return Objects.hash(getStartMarker(), getPageSize(), getTopic());
+    return Objects.hash(
+        getStartMarker(),
+        getPageSize(),
+        getTopic(),
+        getSegment(),
+        getTotalSegments(),
+        getScannedItems());
   }
 
   @JacocoGenerated
@@ -118,7 +293,10 @@ public class ScanDatabaseRequestV2 implements EventBody {
     ScanDatabaseRequestV2 that = (ScanDatabaseRequestV2) o;
     return getPageSize() == that.getPageSize()
         && Objects.equals(getStartMarker(), that.getStartMarker())
-        && Objects.equals(getTopic(), that.getTopic());
+        && Objects.equals(getTopic(), that.getTopic())
+        && Objects.equals(getSegment(), that.getSegment())
+        && Objects.equals(getTotalSegments(), that.getTotalSegments())
+        && Objects.equals(getScannedItems(), that.getScannedItems());
   }
 
   @Override
@@ -131,10 +309,29 @@ public class ScanDatabaseRequestV2 implements EventBody {
         .collect(Collectors.toMap(Entry::getKey, e -> createAttributeValue(e.getValue())));
   }
 
+  private ScanDatabaseRequestV2 nextPage(
+      Map<String, AttributeValue> newStartMarker, long scannedOnPage) {
+    var request =
+        new ScanDatabaseRequestV2(
+            getTopic(), getPageSize(), toSerializableForm(newStartMarker), segment, totalSegments);
+    long scannedBefore = nonNull(scannedItems) ? scannedItems : 0;
+    request.setScannedItems(scannedBefore + scannedOnPage);
+    return request;
+  }
+
   private boolean isValid(Integer pageSize) {
     return nonNull(pageSize) && pageSize > 0 && pageSize < MAX_PAGE_SIZE;
   }
 
+  private static void validateSegment(Integer segment, Integer totalSegments) {
+    if (nonNull(totalSegments) && (totalSegments < 1 || totalSegments > MAX_TOTAL_SEGMENTS)) {
+      throw new IllegalArgumentException(INVALID_TOTAL_SEGMENTS + MAX_TOTAL_SEGMENTS);
+    }
+    if (nonNull(segment) && (isNull(totalSegments) || segment < 0 || segment >= totalSegments)) {
+      throw new IllegalArgumentException(INVALID_SEGMENT + segment);
+    }
+  }
+
   private Map<String, String> toSerializableForm(Map<String, AttributeValue> newStartMarker) {
     return newStartMarker.entrySet().stream()
         .collect(Collectors.toMap(Entry::getKey, entry -> entry.getValue().s()));
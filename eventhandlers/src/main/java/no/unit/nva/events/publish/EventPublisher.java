@@ -0,0 +1,295 @@
+package no.unit.nva.events.publish;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static nva.commons.core.StringUtils.utf8Length;
+import static nva.commons.core.exceptions.AwsSdkErrors.isTransient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import nva.commons.core.parallel.RetryBackoff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequest;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResponse;
+
+/**
+ * Publishes events to EventBridge in as few PutEvents requests as the limits allow.
+ *
+ * <p>Entries are packed into requests of at most {@link #MAX_ENTRIES_PER_REQUEST} entries and
+ * {@link #MAX_REQUEST_SIZE_BYTES} bytes, with entry sizes calculated the way EventBridge does. Full
+ * requests are sent in the background, at most {@code maxConcurrency} at a time; {@link
+ * #publish(PutEventsRequestEntry)} waits when that many are in flight. Entries that fail with a
+ * throttling or internal error, and requests that fail with a network, throttling or server error,
+ * are retried with jittered exponential backoff. Only the failed entries are sent again.
+ *
+ * <p>{@link #flush()} sends the last, partially filled request and waits for all requests. It
+ * throws an {@link EventPublishingException} with the entries that could not be published. {@link
+ * #close()} flushes too:
+ *
+ * <pre>{@code
+ * try (var publisher = EventPublisher.builder(eventBridgeClient).build()) {
+ *   entries.forEach(publisher::publish);
+ * }
+ * }</pre>
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class EventPublisher implements AutoCloseable {
+
+  public static final int MAX_ENTRIES_PER_REQUEST = 10;
+  public static final int MAX_REQUEST_SIZE_BYTES = 256 * 1024;
+  public static final int DEFAULT_MAX_CONCURRENCY = 4;
+  public static final int DEFAULT_MAX_ATTEMPTS = 5;
+  public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(100);
+  public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(5);
+  public static final String ENTRY_TOO_LARGE = "Event entry is larger than a PutEvents request: ";
+  public static final String INVALID_CONCURRENCY = "Max concurrency must be positive: ";
+  public static final String PUBLISHER_CLOSED = "Cannot publish after the publisher is closed";
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventPublisher.class);
+  private static final String COULD_NOT_PUBLISH = "Could not publish {} event(s): {}";
+  private static final String ATTEMPTS_EXHAUSTED = "all attempts failed";
+  private static final Set<String> RETRYABLE_ENTRY_ERRORS =
+      Set.of("InternalFailure", "ThrottlingException");
+  private static final int TIME_SIZE_BYTES = 14;
+
+  private final EventBridgeClient client;
+  private final Semaphore requestPermits;
+  private final RetryBackoff retries;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final List<CompletableFuture<Void>> requestsInFlight = new ArrayList<>();
+  private final Queue<PutEventsRequestEntry> failedEntries = new ConcurrentLinkedQueue<>();
+  private List<PutEventsRequestEntry> pendingEntries = new ArrayList<>();
+  private long pendingSize;
+  private boolean closed;
+
+  private EventPublisher(Builder builder) {
+    this.client = builder.client;
+    this.requestPermits = new Semaphore(builder.maxConcurrency);
+    this.retries = builder.retries;
+  }
+
+  public static Builder builder(EventBridgeClient client) {
+    return new Builder(client);
+  }
+
+  /**
+   * The size of the entry as EventBridge calculates it against the PutEvents limit.
+   *
+   * @param entry the entry.
+   * @return the size in bytes.
+   */
+  public static long entrySize(PutEventsRequestEntry entry) {
+    long size = nonNull(entry.time()) ? TIME_SIZE_BYTES : 0;
+    size += utf8Length(entry.source()) + utf8Length(entry.detailType());
+    size += utf8Length(entry.detail());
+    for (var resource : entry.resources()) {
+      size += utf8Length(resource);
+    }
+    return size;
+  }
+
+  /**
+   * Adds the entry to the current request, and sends the request in the background when it is
+   * full. Waits while {@code maxConcurrency} requests are in flight.
+   *
+   * @param entry the entry to publish.
+   * @throws IllegalArgumentException if the entry alone exceeds the request size limit.
+   * @throws IllegalStateException if the publisher has been closed.
+   */
+  public void publish(PutEventsRequestEntry entry) {
+    var size = entrySize(entry);
+    if (size > MAX_REQUEST_SIZE_BYTES) {
+      throw new IllegalArgumentException(ENTRY_TOO_LARGE + size);
+    }
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException(PUBLISHER_CLOSED);
+      }
+      if (pendingSize + size > MAX_REQUEST_SIZE_BYTES) {
+        sendPendingEntries();
+      }
+      pendingEntries.add(entry);
+      pendingSize += size;
+      if (pendingEntries.size() == MAX_ENTRIES_PER_REQUEST) {
+        sendPendingEntries();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void publish(Collection<PutEventsRequestEntry> entries) {
+    entries.forEach(this::publish);
+  }
+
+  /**
+   * Sends the entries that have not been sent yet and waits for all requests to complete.
+   *
+   * @throws EventPublishingException if some entries could not be published, after retries.
+   */
+  public void flush() {
+    List<CompletableFuture<Void>> requests;
+    lock.lock();
+    try {
+      sendPendingEntries();
+      requests = List.copyOf(requestsInFlight);
+      requestsInFlight.clear();
+    } finally {
+      lock.unlock();
+    }
+    CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+    var failed = new ArrayList<PutEventsRequestEntry>();
+    for (var entry = failedEntries.poll(); nonNull(entry); entry = failedEntries.poll()) {
+      failed.add(entry);
+    }
+    if (!failed.isEmpty()) {
+      throw new EventPublishingException(failed);
+    }
+  }
+
+  /**
+   * Flushes, see {@link #flush()}, and stops the background threads. Entries published after this
+   * are rejected, since there is no thread left to send them.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+    } finally {
+      lock.unlock();
+    }
+    try {
+      flush();
+    } finally {
+      executor.close();
+    }
+  }
+
+  /** Must be called holding the lock. */
+  private void sendPendingEntries() {
+    if (pendingEntries.isEmpty()) {
+      return;
+    }
+    var entries = pendingEntries;
+    pendingEntries = new ArrayList<>();
+    pendingSize = 0;
+    requestPermits.acquireUninterruptibly();
+    requestsInFlight.removeIf(CompletableFuture::isDone);
+    requestsInFlight.add(CompletableFuture.runAsync(() -> sendWithRetries(entries), executor));
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private void sendWithRetries(List<PutEventsRequestEntry> entries) {
+    var remaining = entries;
+    try {
+      for (int attempt = RetryBackoff.FIRST_ATTEMPT; !remaining.isEmpty(); attempt++) {
+        remaining = send(remaining);
+        if (!remaining.isEmpty() && !retries.awaitRetry(attempt)) {
+          giveUp(remaining, ATTEMPTS_EXHAUSTED);
+          return;
+        }
+      }
+    } catch (RuntimeException exception) {
+      // Report the entries instead of failing the request, which flush() might not wait for.
+      giveUp(remaining, exception);
+    } finally {
+      requestPermits.release();
+    }
+  }
+
+  /** Sends the entries and returns the ones to retry. */
+  private List<PutEventsRequestEntry> send(List<PutEventsRequestEntry> entries) {
+    PutEventsResponse response;
+    try {
+      response = client.putEvents(PutEventsRequest.builder().entries(entries).build());
+    } catch (SdkException exception) {
+      if (isTransient(exception)) {
+        return entries;
+      }
+      giveUp(entries, exception);
+      return List.of();
+    }
+    return entriesToRetry(entries, response);
+  }
+
+  /**
+   * The results are in the order of the entries. An entry without a result is not known to be
+   * published, so it is retried like a throttled entry.
+   */
+  private List<PutEventsRequestEntry> entriesToRetry(
+      List<PutEventsRequestEntry> entries, PutEventsResponse response) {
+    var results = response.entries();
+    var toRetry = new ArrayList<PutEventsRequestEntry>();
+    for (int index = 0; index < entries.size(); index++) {
+      if (index >= results.size()) {
+        toRetry.add(entries.get(index));
+        continue;
+      }
+      var errorCode = results.get(index).errorCode();
+      if (isNull(errorCode)) {
+        continue;
+      }
+      if (RETRYABLE_ENTRY_ERRORS.contains(errorCode)) {
+        toRetry.add(entries.get(index));
+      } else {
+        giveUp(List.of(entries.get(index)), errorCode);
+      }
+    }
+    return toRetry;
+  }
+
+  private void giveUp(List<PutEventsRequestEntry> entries, Object reason) {
+    LOGGER.error(COULD_NOT_PUBLISH, entries.size(), reason);
+    failedEntries.addAll(entries);
+  }
+
+  public static final class Builder {
+
+    private final EventBridgeClient client;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private RetryBackoff retries =
+        RetryBackoff.of(DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+
+    private Builder(EventBridgeClient client) {
+      this.client = client;
+    }
+
+    /** The most PutEvents requests in flight at the same time. */
+    public Builder withMaxConcurrency(int maxConcurrency) {
+      if (maxConcurrency < 1) {
+        throw new IllegalArgumentException(INVALID_CONCURRENCY + maxConcurrency);
+      }
+      this.maxConcurrency = maxConcurrency;
+      return this;
+    }
+
+    /**
+     * Try each entry up to {@code maxAttempts} times. Before retry {@code n} the entries wait a
+     * random delay up to {@code initialBackoff * 2^(n-1)}, capped at {@code maxBackoff}.
+     */
+    public Builder withRetries(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+      this.retries = RetryBackoff.of(maxAttempts, initialBackoff, maxBackoff);
+      return this;
+    }
+
+    public EventPublisher build() {
+      return new EventPublisher(this);
+    }
+  }
+}
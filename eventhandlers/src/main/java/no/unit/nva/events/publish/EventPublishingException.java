@@ -0,0 +1,21 @@
+package no.unit.nva.events.publish;
+
+import java.util.List;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+
+/** Thrown by {@link EventPublisher} when some entries could not be published. */
+public class EventPublishingException extends RuntimeException {
+
+  private static final String MESSAGE = "Could not publish %d event(s)";
+  private final transient List<PutEventsRequestEntry> failedEntries;
+
+  public EventPublishingException(List<PutEventsRequestEntry> failedEntries) {
+    super(String.format(MESSAGE, failedEntries.size()));
+    this.failedEntries = List.copyOf(failedEntries);
+  }
+
+  /** The entries that were not published, so that callers can store them elsewhere. */
+  public List<PutEventsRequestEntry> getFailedEntries() {
+    return failedEntries;
+  }
+}
@@ -0,0 +1,218 @@
+package no.unit.nva.events.claimcheck;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static no.unit.nva.testutils.RandomDataGenerator.randomString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import no.unit.nva.events.handlers.SampleEventDetail;
+import no.unit.nva.events.models.AwsEventBridgeEvent;
+import no.unit.nva.events.models.EventReference;
+import no.unit.nva.s3.S3Driver;
+import no.unit.nva.stubs.FakeContext;
+import no.unit.nva.stubs.FakeS3Client;
+import nva.commons.core.ioutils.IoUtils;
+import nva.commons.core.paths.UnixPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.S3Client;
+
+class ClaimCheckEventHandlerTest {
+
+  private static final String AWS_EVENT_BRIDGE_EVENT =
+      IoUtils.stringFromResources(Path.of("validEventBridgeEvent.json"));
+  private static final String BUCKET_NAME = "event-bodies";
+  private static final String DETAIL = "detail";
+  private static final String TOPIC = "PublicationService.Resource.Update";
+  private static final int SMALL_INLINE_LIMIT = 10;
+
+  private S3Client s3Client;
+  private S3Driver s3Driver;
+  private Context context;
+
+  @BeforeEach
+  public void init() {
+    this.s3Client = new FakeS3Client();
+    this.s3Driver = new S3Driver(s3Client, BUCKET_NAME);
+    this.context = new FakeContext();
+  }
+
+  @Test
+  void shouldPublishSmallDetailsAsTheyAre() throws JsonProcessingException {
+    var detail = sampleDetailJson();
+    var publisher = ClaimCheckPublisher.builder(s3Driver).build();
+
+    assertThat(publisher.toDetail(TOPIC, detail), is(equalTo(detail)));
+  }
+
+  @Test
+  void shouldPublishClaimCheckWhenDetailIsLargerThanInlineLimit() throws JsonProcessingException {
+    var detail = sampleDetailJson();
+    var publisher = largeDetailPublisher();
+
+    var reference = EventReference.fromJson(publisher.toDetail(TOPIC, detail));
+
+    assertThat(reference.getTopic(), is(equalTo(TOPIC)));
+    assertThat(reference.extractBucketName(), is(equalTo(BUCKET_NAME)));
+    assertThat(s3Driver.readEvent(reference.getUri()), is(equalTo(detail)));
+  }
+
+  @Test
+  void shouldCountUtf8BytesWhenDecidingWhetherDetailFitsInline() {
+    var multiByteDetail = "\"" + "ø".repeat(SMALL_INLINE_LIMIT) + "\"";
+    var publisher =
+        ClaimCheckPublisher.builder(s3Driver)
+            .withMaxInlineDetailBytes(multiByteDetail.length())
+            .build();
+
+    assertThat(publisher.toDetail(TOPIC, multiByteDetail), is(not(equalTo(multiByteDetail))));
+  }
+
+  @Test
+  void shouldRejectNonPositiveInlineLimit() {
+    var builder = ClaimCheckPublisher.builder(s3Driver);
+    assertThrows(IllegalArgumentException.class, () -> builder.withMaxInlineDetailBytes(0));
+  }
+
+  @Test
+  void shouldPassInlineDetailToProcessInput() throws JsonProcessingException {
+    var handler = new RecordingHandler(s3Client);
+    var expectedDetail = sampleDetail();
+
+    handler.handleRequest(event(sampleDetailJson()), new ByteArrayOutputStream(), context);
+
+    assertThat(handler.inputBuffer.get(), is(equalTo(expectedDetail)));
+  }
+
+  @Test
+  void shouldPassStoredDetailToProcessInputWhenDetailIsClaimCheck()
+      throws JsonProcessingException {
+    var handler = new RecordingHandler(s3Client);
+    var expectedDetail = sampleDetail();
+    var claimCheck = largeDetailPublisher().toDetail(TOPIC, sampleDetailJson());
+
+    handler.handleRequest(event(claimCheck), new ByteArrayOutputStream(), context);
+
+    assertThat(handler.inputBuffer.get(), is(equalTo(expectedDetail)));
+    assertThat(handler.eventBuffer.get().getDetail(), is(equalTo(expectedDetail)));
+  }
+
+  @Test
+  void shouldKeepEnvelopeFieldsWhenDetailIsClaimCheck() throws JsonProcessingException {
+    var handler = new RecordingHandler(s3Client);
+    var claimCheck = largeDetailPublisher().toDetail(TOPIC, sampleDetailJson());
+
+    handler.handleRequest(event(claimCheck), new ByteArrayOutputStream(), context);
+
+    var expectedEvent = dtoObjectMapper.readTree(AWS_EVENT_BRIDGE_EVENT);
+    var actualEvent = handler.eventBuffer.get();
+    assertThat(actualEvent.getId(), is(equalTo(expectedEvent.get("id").textValue())));
+    assertThat(actualEvent.getRegion(), is(equalTo(expectedEvent.get("region").textValue())));
+    assertThat(actualEvent.getResources().size(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldNotTreatDetailsWithOtherFieldsAsClaimChecks() throws JsonProcessingException {
+    var detail = (ObjectNode) dtoObjectMapper.readTree(sampleDetailJson());
+    detail.put(EventReference.URI, "s3://" + BUCKET_NAME + "/" + randomString());
+    var handler = new RecordingHandler(s3Client);
+
+    handler.handleRequest(
+        event(dtoObjectMapper.writeValueAsString(detail)), new ByteArrayOutputStream(), context);
+
+    assertThat(handler.inputBuffer.get().getName(), is(equalTo(sampleDetail().getName())));
+  }
+
+  @Test
+  void shouldReadClaimCheckWithTheObjectMapperOfTheHandler() throws JsonProcessingException {
+    var referencesRead = new AtomicInteger();
+    var objectMapper = dtoObjectMapper.copy().registerModule(countingReferences(referencesRead));
+    var handler = new RecordingHandler(objectMapper, s3Client);
+    var claimCheck = largeDetailPublisher().toDetail(TOPIC, sampleDetailJson());
+
+    handler.handleRequest(event(claimCheck), new ByteArrayOutputStream(), context);
+
+    assertThat(referencesRead.get(), is(equalTo(1)));
+    assertThat(handler.inputBuffer.get(), is(equalTo(sampleDetail())));
+  }
+
+  private static SimpleModule countingReferences(AtomicInteger referencesRead) {
+    return new SimpleModule()
+        .addDeserializer(
+            EventReference.class,
+            new StdDeserializer<>(EventReference.class) {
+              @Override
+              public EventReference deserialize(JsonParser parser, DeserializationContext context)
+                  throws IOException {
+                referencesRead.incrementAndGet();
+                return dtoObjectMapper.readValue(parser, EventReference.class);
+              }
+            });
+  }
+
+  private ClaimCheckPublisher largeDetailPublisher() {
+    return ClaimCheckPublisher.builder(s3Driver)
+        .withFolder(UnixPath.of(randomString()))
+        .withMaxInlineDetailBytes(SMALL_INLINE_LIMIT)
+        .build();
+  }
+
+  private static SampleEventDetail sampleDetail() throws JsonProcessingException {
+    return dtoObjectMapper.readValue(sampleDetailJson(), SampleEventDetail.class);
+  }
+
+  private static String sampleDetailJson() throws JsonProcessingException {
+    return dtoObjectMapper.writeValueAsString(
+        dtoObjectMapper.readTree(AWS_EVENT_BRIDGE_EVENT).get(DETAIL));
+  }
+
+  private static InputStream event(String detail) {
+    try {
+      var event = (ObjectNode) dtoObjectMapper.readTree(AWS_EVENT_BRIDGE_EVENT);
+      event.set(DETAIL, dtoObjectMapper.readTree(detail));
+      return IoUtils.stringToStream(dtoObjectMapper.writeValueAsString(event));
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static class RecordingHandler extends ClaimCheckEventHandler<SampleEventDetail, Void> {
+
+    private final AtomicReference<AwsEventBridgeEvent<SampleEventDetail>> eventBuffer =
+        new AtomicReference<>();
+    private final AtomicReference<SampleEventDetail> inputBuffer = new AtomicReference<>();
+
+    RecordingHandler(S3Client s3Client) {
+      this(dtoObjectMapper, s3Client);
+    }
+
+    RecordingHandler(ObjectMapper objectMapper, S3Client s3Client) {
+      super(SampleEventDetail.class, objectMapper, s3Client);
+    }
+
+    @Override
+    protected Void processInput(
+        SampleEventDetail input, AwsEventBridgeEvent<SampleEventDetail> event, Context context) {
+      eventBuffer.set(event);
+      inputBuffer.set(input);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package no.unit.nva.events.handlers;
+
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse.BatchItemFailure;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import no.unit.nva.events.models.AwsEventBridgeEvent;
+import no.unit.nva.stubs.FakeContext;
+import nva.commons.core.ioutils.IoUtils;
+import nva.commons.logutils.LogRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchEventHandlerTest {
+
+  private static final String AWS_EVENT_BRIDGE_EVENT =
+      IoUtils.stringFromResources(Path.of("validEventBridgeEvent.json"));
+  private static final String STANDARD_QUEUE_ARN = "arn:aws:sqs:eu-west-1:123456789012:queue";
+  private static final String FIFO_QUEUE_ARN = STANDARD_QUEUE_ARN + ".fifo";
+  private static final String MESSAGE_ID_PREFIX = "message-";
+  private static final String INVALID_BODY = "not an event";
+  private static final String EXCEPTION_MESSAGE = "EXCEPTION_MESSAGE";
+  private static final int NUMBER_OF_MESSAGES = 10;
+  private static final int MAX_CONCURRENCY = 3;
+
+  private Context context;
+
+  @BeforeEach
+  public void init() {
+    this.context = new FakeContext();
+  }
+
+  @Test
+  void shouldReturnNoFailuresWhenAllMessagesAreProcessed() {
+    var handler = new FailingOnIdentifiers(Set.of());
+    var response = handler.handleRequest(sqsEvent(STANDARD_QUEUE_ARN), context);
+
+    assertThat(response.getBatchItemFailures(), is(empty()));
+    assertThat(handler.processed.get(), is(equalTo(NUMBER_OF_MESSAGES)));
+  }
+
+  @Test
+  void shouldReportOnlyTheMessagesThatFailed() {
+    var handler = new FailingOnIdentifiers(Set.of(2, 7));
+    var response = handler.handleRequest(sqsEvent(STANDARD_QUEUE_ARN), context);
+
+    assertThat(
+        failedMessageIds(response),
+        containsInAnyOrder(MESSAGE_ID_PREFIX + 2, MESSAGE_ID_PREFIX + 7));
+    assertThat(handler.processed.get(), is(equalTo(NUMBER_OF_MESSAGES)));
+  }
+
+  @Test
+  void shouldReportMessagesWithBodiesThatAreNotEvents() {
+    var event = sqsEvent(STANDARD_QUEUE_ARN);
+    event.getRecords().get(4).setBody(INVALID_BODY);
+    var handler = new FailingOnIdentifiers(Set.of());
+    var response = handler.handleRequest(event, context);
+
+    assertThat(failedMessageIds(response), contains(MESSAGE_ID_PREFIX + 4));
+  }
+
+  @Test
+  void shouldLogTheIdOfTheFailedMessageAndTheException() {
+    var logRecorder = LogRecorder.forClass(BatchEventHandler.class);
+    var handler = new FailingOnIdentifiers(Set.of(5));
+    handler.handleRequest(sqsEvent(STANDARD_QUEUE_ARN), context);
+
+    assertThat(logRecorder.asString(), containsString(MESSAGE_ID_PREFIX + 5));
+    assertThat(logRecorder.asString(), containsString(EXCEPTION_MESSAGE));
+  }
+
+  @Test
+  void shouldProcessAtMostMaxConcurrencyMessagesAtTheSameTime() {
+    var handler = new FailingOnIdentifiers(Set.of());
+    handler.handleRequest(sqsEvent(STANDARD_QUEUE_ARN), context);
+
+    assertThat(handler.maxInFlight.get(), is(lessThanOrEqualTo(MAX_CONCURRENCY)));
+  }
+
+  @Test
+  void shouldStopAtFirstFailureAndReportTheRestWhenQueueIsFifo() {
+    var handler = new FailingOnIdentifiers(Set.of(3));
+    var response = handler.handleRequest(sqsEvent(FIFO_QUEUE_ARN), context);
+
+    var expectedFailures =
+        IntStream.range(3, NUMBER_OF_MESSAGES).mapToObj(i -> MESSAGE_ID_PREFIX + i).toList();
+    assertThat(failedMessageIds(response), is(equalTo(expectedFailures)));
+    assertThat(handler.processed.get(), is(equalTo(4)));
+  }
+
+  private static List<String> failedMessageIds(SQSBatchResponse response) {
+    return response.getBatchItemFailures().stream()
+        .map(BatchItemFailure::getItemIdentifier)
+        .toList();
+  }
+
+  private static SQSEvent sqsEvent(String queueArn) {
+    var messages = IntStream.range(0, NUMBER_OF_MESSAGES).mapToObj(i -> message(i, queueArn));
+    var event = new SQSEvent();
+    event.setRecords(messages.toList());
+    return event;
+  }
+
+  private static SQSMessage message(int identifier, String queueArn) {
+    var message = new SQSMessage();
+    message.setMessageId(MESSAGE_ID_PREFIX + identifier);
+    message.setEventSourceArn(queueArn);
+    message.setBody(eventWithIdentifier(identifier));
+    return message;
+  }
+
+  private static String eventWithIdentifier(int identifier) {
+    try {
+      var event = (ObjectNode) dtoObjectMapper.readTree(AWS_EVENT_BRIDGE_EVENT);
+      ((ObjectNode) event.get("detail")).put("identifier", identifier);
+      return dtoObjectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static class FailingOnIdentifiers extends BatchEventHandler<SampleEventDetail, Void> {
+
+    private final Set<Integer> failingIdentifiers;
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    FailingOnIdentifiers(Set<Integer> failingIdentifiers) {
+      super(SampleEventDetail.class, dtoObjectMapper, MAX_CONCURRENCY);
+      this.failingIdentifiers = failingIdentifiers;
+    }
+
+    @Override
+    protected Void processInput(
+        SampleEventDetail input, AwsEventBridgeEvent<SampleEventDetail> event, Context context) {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        processed.incrementAndGet();
+        if (failingIdentifiers.contains(input.getIdentifier())) {
+          throw new IllegalStateException(EXCEPTION_MESSAGE);
+        }
+        return null;
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+  }
+}
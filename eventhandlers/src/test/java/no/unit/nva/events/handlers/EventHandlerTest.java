@@ -17,6 +17,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.util.concurrent.atomic.AtomicReference;
 import no.unit.nva.events.models.AwsEventBridgeEvent;
@@ -33,6 +34,7 @@ public class EventHandlerTest extends AbstractEventHandlerTest {
       IoUtils.stringFromResources(Path.of("validEventBridgeEvent.json"));
 
   public static final String EXCEPTION_MESSAGE = "EXCEPTION_MESSAGE";
+  public static final String NOT_AN_EVENT = "not an event";
 
   private ByteArrayOutputStream outputStream;
   private Context context;
@@ -73,6 +75,45 @@ public class EventHandlerTest extends AbstractEventHandlerTest {
     assertThat(exception.getMessage(), is(equalTo(EXCEPTION_MESSAGE)));
   }
 
+  @Test
+  public void handleRequestParsesEveryEventWhenTheSameHandlerIsInvokedRepeatedly()
+      throws JsonProcessingException {
+    var handler = new EventHandlerTestClass();
+    var expectedEvent = parseEventFromSampleEventString();
+    for (int invocation = 0; invocation < 3; invocation++) {
+      handler.handleRequest(
+          sampleInputStream(AWS_EVENT_BRIDGE_EVENT), new ByteArrayOutputStream(), context);
+      assertThat(handler.eventBuffer.get(), is(equalTo(expectedEvent)));
+    }
+  }
+
+  @Test
+  public void handleRequestThrowsUncheckedIoExceptionWhenInputIsNotAnEvent() {
+    var handler = new EventHandlerTestClass();
+    Executable action =
+        () -> handler.handleRequest(sampleInputStream(NOT_AN_EVENT), outputStream, context);
+    assertThrows(UncheckedIOException.class, action);
+  }
+
+  @Test
+  public void handleRequestPassesInputToHandleErrorWhenProcessingFails() {
+    var handler = new EventHandlerThrowingException();
+    Executable action =
+        () ->
+            handler.handleRequest(sampleInputStream(AWS_EVENT_BRIDGE_EVENT), outputStream, context);
+    assertThrows(RuntimeException.class, action);
+    assertThat(handler.inputOnError.get(), is(equalTo(AWS_EVENT_BRIDGE_EVENT)));
+  }
+
+  @Test
+  public void handleRequestPassesInputAsStringToHandlersThatOverrideParseEventFromString()
+      throws JsonProcessingException {
+    var handler = new EventHandlerParsingStrings();
+    handler.handleRequest(sampleInputStream(AWS_EVENT_BRIDGE_EVENT), outputStream, context);
+    assertThat(handler.parsedInput.get(), is(equalTo(AWS_EVENT_BRIDGE_EVENT)));
+    assertThat(handler.eventBuffer.get(), is(equalTo(parseEventFromSampleEventString())));
+  }
+
   @Test
   public void handleRequestSerializesObjectsWithoutOmittingEmptyValuesWhenSuchMapperHasBeenSet()
       throws JsonProcessingException {
@@ -137,8 +178,22 @@ public class EventHandlerTest extends AbstractEventHandlerTest {
     }
   }
 
+  private static class EventHandlerParsingStrings extends EventHandlerTestClass {
+
+    private final AtomicReference<String> parsedInput = new AtomicReference<>();
+
+    @Override
+    @Deprecated
+    protected AwsEventBridgeEvent<SampleEventDetail> parseEvent(String input) {
+      parsedInput.set(input);
+      return super.parseEvent(input);
+    }
+  }
+
   private static class EventHandlerThrowingException extends EventHandler<SampleEventDetail, Void> {
 
+    private final AtomicReference<String> inputOnError = new AtomicReference<>();
+
     protected EventHandlerThrowingException() {
       super(SampleEventDetail.class);
     }
@@ -148,5 +203,11 @@ public class EventHandlerTest extends AbstractEventHandlerTest {
         SampleEventDetail input, AwsEventBridgeEvent<SampleEventDetail> event, Context context) {
       throw new RuntimeException(EXCEPTION_MESSAGE);
     }
+
+    @Override
+    protected void handleError(Exception e, String inputString) {
+      inputOnError.set(inputString);
+      super.handleError(e, inputString);
+    }
   }
 }
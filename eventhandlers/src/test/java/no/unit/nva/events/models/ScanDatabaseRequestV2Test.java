@@ -6,23 +6,37 @@ import static no.unit.nva.events.models.ScanDatabaseRequestV2.MAX_PAGE_SIZE;
 import static no.unit.nva.testutils.RandomDataGenerator.randomInteger;
 import static no.unit.nva.testutils.RandomDataGenerator.randomString;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 import no.unit.nva.commons.json.JsonUtils;
 import no.unit.nva.events.EventsConfig;
+import no.unit.nva.stubs.FakeDynamoDbClient;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 
 class ScanDatabaseRequestV2Test {
 
   public static final String EVENT_TOPIC = "topic";
   private static final Map<String, String> EMPTY_MARKER = null;
+  private static final String TABLE_NAME = "table";
+  private static final String PARTITION_KEY = "PK0";
+  private static final int TOTAL_SEGMENTS = 5;
 
   @Test
   void shouldReturnAnEventBridgeEventWhereTheTopicIsSetInTheDetailBody()
@@ -95,6 +109,131 @@ class ScanDatabaseRequestV2Test {
     assertThat(sampleRequest.toDynamoScanMarker(), is(equalTo(DYNAMODB_EMPTY_MARKER)));
   }
 
+  @Test
+  void shouldSerializeAndDeserializeSegmentAndProgress() {
+    var startMarker = randomMarker();
+    var sampleRequest =
+        new ScanDatabaseRequestV2(randomString(), randomInteger(), startMarker, 2, TOTAL_SEGMENTS);
+    sampleRequest.setScannedItems(randomInteger().longValue());
+
+    var deserialized = ScanDatabaseRequestV2.fromJson(sampleRequest.toString());
+
+    assertThat(deserialized, is(equalTo(sampleRequest)));
+    assertThat(deserialized.isSegment(), is(true));
+  }
+
+  @Test
+  void shouldOmitScannedItemsFromRequestsThatHaveNotScannedAnything() {
+    var sampleRequest = new ScanDatabaseRequestV2(randomString(), randomInteger(), randomMarker());
+
+    assertThat(sampleRequest.toString(), not(containsString(ScanDatabaseRequestV2.SCANNED_ITEMS)));
+  }
+
+  @Test
+  void shouldCreateOneEventPerSegmentFromFanOutRequest() {
+    var fanOut = ScanDatabaseRequestV2.fanOut(randomString(), randomInteger(MAX_PAGE_SIZE), 3);
+    var entries = fanOut.createSegmentEventEntries(randomString(), randomString(), randomString());
+
+    var requests = entries.stream().map(entry -> ScanDatabaseRequestV2.fromJson(entry.detail()));
+
+    var segments = new ArrayList<Integer>();
+    for (var request : requests.toList()) {
+      assertThat(request.getTopic(), is(equalTo(fanOut.getTopic())));
+      assertThat(request.getTotalSegments(), is(equalTo(3)));
+      segments.add(request.getSegment());
+    }
+    assertThat(segments, contains(0, 1, 2));
+  }
+
+  @Test
+  void shouldNotSplitRequestThatIsNotAFanOutRequest() {
+    var request = new ScanDatabaseRequestV2(randomString(), randomInteger(), null);
+    assertThrows(IllegalStateException.class, request::segmentRequests);
+  }
+
+  @ParameterizedTest(name = "should reject segment {0} of {1}")
+  @CsvSource({"-1, 5", "5, 5", "0, 0", "0, 1000001", "0,"})
+  void shouldRejectInvalidSegments(Integer segment, Integer totalSegments) {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ScanDatabaseRequestV2(randomString(), 100, null, segment, totalSegments));
+  }
+
+  @Test
+  void shouldRejectInvalidSegmentThatWasSetAfterConstruction() {
+    var request = new ScanDatabaseRequestV2(randomString(), 100, null, 0, TOTAL_SEGMENTS);
+    request.setSegment(TOTAL_SEGMENTS);
+    var json = request.toString();
+
+    assertThrows(IllegalArgumentException.class, () -> ScanDatabaseRequestV2.fromJson(json));
+    assertThrows(IllegalArgumentException.class, () -> request.toScanRequest(TABLE_NAME));
+  }
+
+  @Test
+  void shouldScanEveryItemExactlyOnceWhenScanningSegmentsInParallel() {
+    var client = new FakeDynamoDbClient(PARTITION_KEY);
+    var items = putRandomItems(client, 100);
+    var fanOut = ScanDatabaseRequestV2.fanOut(randomString(), 7, TOTAL_SEGMENTS);
+
+    var scanned =
+        fanOut.segmentRequests().parallelStream()
+            .map(segment -> scanSegment(client, segment))
+            .flatMap(List::stream)
+            .toList();
+
+    assertThat(scanned, containsInAnyOrder(items.toArray()));
+  }
+
+  @Test
+  void shouldCountScannedItemsOfTheSegmentInEveryNextRequest() {
+    var client = new FakeDynamoDbClient(PARTITION_KEY);
+    putRandomItems(client, 20);
+    var request = new ScanDatabaseRequestV2(randomString(), 7, null, 0, 1);
+
+    var second = request.nextRequest(client.scan(request.toScanRequest(TABLE_NAME))).orElseThrow();
+    var third = second.nextRequest(client.scan(second.toScanRequest(TABLE_NAME))).orElseThrow();
+    var last = third.nextRequest(client.scan(third.toScanRequest(TABLE_NAME)));
+
+    assertThat(second.getScannedItems(), is(equalTo(7L)));
+    assertThat(third.getScannedItems(), is(equalTo(14L)));
+    assertThat(third.getSegment(), is(equalTo(0)));
+    assertThat(last.isPresent(), is(false));
+  }
+
+  @Test
+  void shouldCountPageAsFullPageWhenNextRequestIsCreatedFromStartMarker() {
+    var request = new ScanDatabaseRequestV2(randomString(), 7, null, 0, 1);
+
+    var second = request.newScanDatabaseRequest(Map.of(PARTITION_KEY, randomStringAttribute()));
+    var third = second.newScanDatabaseRequest(Map.of(PARTITION_KEY, randomStringAttribute()));
+
+    assertThat(second.getScannedItems(), is(equalTo(7L)));
+    assertThat(third.getScannedItems(), is(equalTo(14L)));
+  }
+
+  private static List<Map<String, AttributeValue>> scanSegment(
+      FakeDynamoDbClient client, ScanDatabaseRequestV2 segment) {
+    var items = new ArrayList<Map<String, AttributeValue>>();
+    var request = segment;
+    while (request != null) {
+      var response = client.scan(request.toScanRequest(TABLE_NAME));
+      items.addAll(response.items());
+      request = request.nextRequest(response).orElse(null);
+    }
+    return items;
+  }
+
+  private static List<Map<String, AttributeValue>> putRandomItems(
+      FakeDynamoDbClient client, int count) {
+    var items =
+        IntStream.range(0, count)
+            .mapToObj(index -> Map.of(PARTITION_KEY, randomStringAttribute()))
+            .toList();
+    items.forEach(
+        item -> client.putItem(PutItemRequest.builder().tableName(TABLE_NAME).item(item).build()));
+    return items;
+  }
+
   private void
       assertThatNonSerializableDynamoScanMarkerConstainsSameValuesAsItsEquivalentSerializableRepresentation(
           Map<String, String> startMarker, ScanDatabaseRequestV2 deserialized) {
@@ -111,7 +250,7 @@ class ScanDatabaseRequestV2Test {
         randomString(), randomString());
   }
 
-  private AttributeValue randomStringAttribute() {
+  private static AttributeValue randomStringAttribute() {
     return AttributeValue.builder().s(randomString()).build();
   }
 
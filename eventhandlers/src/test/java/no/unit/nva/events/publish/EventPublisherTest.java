@@ -0,0 +1,184 @@
+package no.unit.nva.events.publish;
+
+import static no.unit.nva.testutils.RandomDataGenerator.randomString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+import no.unit.nva.stubs.FakeEventBridgeClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequest;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResponse;
+
+class EventPublisherTest {
+
+  private static final int LARGE_DETAIL_SIZE = 100 * 1024;
+  private static final int MAX_ATTEMPTS = 3;
+
+  private FakeEventBridgeClient client;
+
+  @BeforeEach
+  public void init() {
+    this.client = new FakeEventBridgeClient();
+  }
+
+  @Test
+  void shouldPackEntriesIntoRequestsOfAtMostTenEntries() {
+    var entries = entries(25, randomString());
+    try (var publisher = publisher()) {
+      publisher.publish(entries);
+    }
+
+    assertThat(client.getBatchSizes(), containsInAnyOrder(10, 10, 5));
+    assertThat(client.getRequestEntries(), containsInAnyOrder(entries.toArray()));
+  }
+
+  @Test
+  void shouldPackEntriesIntoRequestsWithinTheRequestSizeLimit() {
+    var entries = entries(5, "a".repeat(LARGE_DETAIL_SIZE));
+    try (var publisher = publisher()) {
+      publisher.publish(entries);
+    }
+
+    assertThat(client.getBatchSizes(), containsInAnyOrder(2, 2, 1));
+  }
+
+  @Test
+  void shouldCountEntrySizeAsEventBridgeDoes() {
+    var entry =
+        PutEventsRequestEntry.builder()
+            .time(Instant.now())
+            .source("source")
+            .detailType("type")
+            .detail("{\"ø\":1}")
+            .resources("a", "bc")
+            .build();
+
+    assertThat(EventPublisher.entrySize(entry), is(equalTo(14L + 6 + 4 + 8 + 3)));
+  }
+
+  @Test
+  void shouldRejectEntriesLargerThanARequest() {
+    var entry = entry("a".repeat(EventPublisher.MAX_REQUEST_SIZE_BYTES));
+    try (var publisher = publisher()) {
+      assertThrows(IllegalArgumentException.class, () -> publisher.publish(entry));
+    }
+  }
+
+  @Test
+  void shouldRetryOnlyTheFailedEntries() {
+    var entries = entries(10, randomString());
+    client.failNextEntries(3);
+    try (var publisher = publisher()) {
+      publisher.publish(entries);
+    }
+
+    assertThat(client.getBatchSizes(), is(equalTo(List.of(10, 3))));
+    assertThat(client.getRequestEntries(), containsInAnyOrder(entries.toArray()));
+  }
+
+  @Test
+  void shouldRetryEntriesThatHaveNoResultInTheResponse() {
+    client =
+        new FakeEventBridgeClient() {
+          private boolean responded;
+
+          @Override
+          public synchronized PutEventsResponse putEvents(PutEventsRequest request) {
+            var response = super.putEvents(request);
+            if (responded) {
+              return response;
+            }
+            responded = true;
+            return response.toBuilder().entries(response.entries().getFirst()).build();
+          }
+        };
+    var entries = entries(10, randomString());
+    try (var publisher = publisher()) {
+      publisher.publish(entries);
+    }
+
+    assertThat(client.getBatchSizes(), is(equalTo(List.of(10, 9))));
+  }
+
+  @Test
+  void shouldReportEntriesThatFailAfterAllAttempts() {
+    var entries = entries(4, randomString());
+    client.failNextEntries(entries.size() * MAX_ATTEMPTS);
+    var publisher = publisher();
+    publisher.publish(entries);
+
+    var exception = assertThrows(EventPublishingException.class, publisher::close);
+    assertThat(exception.getFailedEntries(), containsInAnyOrder(entries.toArray()));
+    assertThat(client.getRequestEntries(), is(empty()));
+  }
+
+  @Test
+  void shouldSendPartiallyFilledRequestOnFlush() {
+    try (var publisher = publisher()) {
+      publisher.publish(entries(3, randomString()));
+      assertThat(client.getBatchSizes(), is(empty()));
+
+      publisher.flush();
+      assertThat(client.getBatchSizes(), is(equalTo(List.of(3))));
+    }
+  }
+
+  @Test
+  void shouldNotSendAnythingWhenNothingWasPublished() {
+    publisher().close();
+
+    assertThat(client.getBatchSizes(), is(empty()));
+  }
+
+  @Test
+  void shouldRejectEntriesPublishedAfterClose() {
+    var publisher = publisher();
+    publisher.close();
+    var entry = entries(1, randomString()).getFirst();
+
+    assertThrows(IllegalStateException.class, () -> publisher.publish(entry));
+    assertThat(client.getBatchSizes(), is(empty()));
+  }
+
+  @Test
+  void shouldKeepEveryRequestWithinTheEntryLimitWhenPublishingConcurrently() {
+    var entries = entries(200, randomString());
+    try (var publisher = publisher()) {
+      entries.parallelStream().forEach(publisher::publish);
+    }
+
+    assertThat(client.getBatchSizes(), everyItem(lessThanOrEqualTo(10)));
+    assertThat(client.getRequestEntries(), containsInAnyOrder(entries.toArray()));
+  }
+
+  private EventPublisher publisher() {
+    return EventPublisher.builder(client)
+        .withRetries(MAX_ATTEMPTS, Duration.ZERO, Duration.ZERO)
+        .build();
+  }
+
+  private static List<PutEventsRequestEntry> entries(int count, String detailPrefix) {
+    return IntStream.range(0, count).mapToObj(index -> entry(detailPrefix + index)).toList();
+  }
+
+  private static PutEventsRequestEntry entry(String detail) {
+    return PutEventsRequestEntry.builder()
+        .eventBusName(randomString())
+        .source(randomString())
+        .detailType(randomString())
+        .detail(detail)
+        .build();
+  }
+}
@@ -1,15 +1,28 @@
 package no.unit.nva.identifiers;
 
+import static java.util.Objects.isNull;
+
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import java.net.URI;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Generates ids of the form "0176f264a5ad-446893d8-3c02-4f64-936b-2997fec34e98". where the first
  * part is an Instant encoded in 12 hex digits (enough until the year 10889) and the rest is a UUID.
  * The timestamp is should be used only for sorting and not for identifying creation date
+ *
+ * <p>Identifiers are kept as three longs, so that equality, hashing and ordering do not touch
+ * strings. Equality ignores case, and ordering is the case-insensitive order of the string forms.
+ * Plain UUIDs are accepted too. For backwards compatibility, any other string of one of the two
+ * lengths is accepted as well and kept as it is. {@link #toString()} returns the string the
+ * identifier was created from.
+ *
+ * <p>The UUID part of a new identifier is a version 4 UUID whose first 16 bits are a counter, so
+ * that identifiers created in the same millisecond sort in the order they were created. The random
+ * bits come from {@link ThreadLocalRandom}: identifiers are unique, but not unguessable.
  */
 @JsonSerialize(using = SortableIdentifierSerializer.class)
 @JsonDeserialize(using = SortableIdentifierDeserializer.class)
@@ -23,16 +36,74 @@ public final class SortableIdentifier implements Comparable<SortableIdentifier>
   public static final String PATH_DELIMITER = "/";
   public static final String INVALID_URI_ERROR_MESSAGE =
       "The URI %s does not contain a valid Sortable identifier:";
-  private static final String IDENTIFIER_FORMATTING = "%0" + TIMESTAMP_LENGTH + "x-%s";
-  private final String identifier;
+
+  private static final byte UUID_FORM = 0;
+  private static final byte SORTABLE_FORM = 1;
+  private static final byte TEXT_FORM = 2;
+  private static final char DASH = '-';
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  private static final byte[] HEX_VALUES = hexValues();
+  private static final int INVALID_HEX = -1;
+  private static final int BITS_PER_HEX_DIGIT = 4;
+  private static final int HEX_DIGIT_MASK = 0xf;
+  private static final int[] UUID_DASH_POSITIONS = {8, 13, 18, 23};
+  private static final int HEX_DIGITS_PER_LONG = 16;
+  private static final int LEAST_SIGNIFICANT_START = 19;
+  private static final int SEQUENCE_BITS = 16;
+  private static final int SEQUENCE_SHIFT = Long.SIZE - SEQUENCE_BITS;
+  private static final int SEQUENCE_START_BOUND = 1 << (SEQUENCE_BITS - 1);
+  private static final long TIMESTAMP_MASK = (1L << (Long.SIZE - SEQUENCE_BITS)) - 1;
+  private static final long RANDOM_MOST_SIGNIFICANT_MASK = 0x0000_ffff_ffff_0fffL;
+  private static final long VERSION_4 = 0x4000L;
+  private static final long RANDOM_LEAST_SIGNIFICANT_MASK = 0x3fff_ffff_ffff_ffffL;
+  private static final long IETF_VARIANT = 0x8000_0000_0000_0000L;
+  private static final int HASH_MULTIPLIER = 31;
+
+  /** The timestamp of the last generated identifier, followed by its 16 bit sequence number. */
+  private static final AtomicLong LAST_GENERATED = new AtomicLong();
+
+  private final long timestamp;
+  private final long mostSignificantBits;
+  private final long leastSignificantBits;
+  private final byte form;
+  private String text;
 
   public SortableIdentifier(String identifier) {
     validate(identifier);
-    this.identifier = identifier;
+    this.text = identifier;
+    var timestampEnd = identifier.length() == SORTABLE_ID_LENGTH ? TIMESTAMP_LENGTH : 0;
+    var uuidStart = timestampEnd == 0 ? 0 : timestampEnd + EXTRA_DASH;
+    if (isHexIdentifier(identifier, timestampEnd, uuidStart)) {
+      this.timestamp = decodeHex(identifier, 0, timestampEnd);
+      this.mostSignificantBits = decodeUuidHalf(identifier, uuidStart);
+      this.leastSignificantBits = decodeUuidHalf(identifier, uuidStart + LEAST_SIGNIFICANT_START);
+      this.form = timestampEnd == 0 ? UUID_FORM : SORTABLE_FORM;
+    } else {
+      this.timestamp = 0;
+      this.mostSignificantBits = 0;
+      this.leastSignificantBits = 0;
+      this.form = TEXT_FORM;
+    }
+  }
+
+  private SortableIdentifier(long timestamp, long mostSignificantBits, long leastSignificantBits) {
+    this.timestamp = timestamp;
+    this.mostSignificantBits = mostSignificantBits;
+    this.leastSignificantBits = leastSignificantBits;
+    this.form = SORTABLE_FORM;
   }
 
   public static SortableIdentifier next() {
-    return new SortableIdentifier(newIdentifierString());
+    var random = ThreadLocalRandom.current();
+    long now = System.currentTimeMillis() & TIMESTAMP_MASK;
+    long sequenceStart = random.nextInt(SEQUENCE_START_BOUND);
+    long generated = LAST_GENERATED.updateAndGet(last -> nextGenerated(last, now, sequenceStart));
+    long sequence = generated & ((1L << SEQUENCE_BITS) - 1);
+    long mostSignificantBits =
+        sequence << SEQUENCE_SHIFT | random.nextLong() & RANDOM_MOST_SIGNIFICANT_MASK | VERSION_4;
+    long leastSignificantBits = random.nextLong() & RANDOM_LEAST_SIGNIFICANT_MASK | IETF_VARIANT;
+    return new SortableIdentifier(
+        generated >>> SEQUENCE_BITS, mostSignificantBits, leastSignificantBits);
   }
 
   @SuppressWarnings("PMD.AvoidCatchingGenericException")
@@ -47,7 +118,13 @@ public final class SortableIdentifier implements Comparable<SortableIdentifier>
 
   @Override
   public int hashCode() {
-    return Objects.hash(identifier);
+    if (form == TEXT_FORM) {
+      return caseInsensitiveHash(text);
+    }
+    int hash = Long.hashCode(timestamp);
+    hash = HASH_MULTIPLIER * hash + Long.hashCode(mostSignificantBits);
+    hash = HASH_MULTIPLIER * hash + Long.hashCode(leastSignificantBits);
+    return HASH_MULTIPLIER * hash + form;
   }
 
   @Override
@@ -59,25 +136,156 @@ public final class SortableIdentifier implements Comparable<SortableIdentifier>
       return false;
     }
     SortableIdentifier that = (SortableIdentifier) o;
-    return toString().equalsIgnoreCase(that.toString());
+    if (form != that.form) {
+      return false;
+    }
+    return form == TEXT_FORM
+        ? text.equalsIgnoreCase(that.text)
+        : timestamp == that.timestamp
+            && mostSignificantBits == that.mostSignificantBits
+            && leastSignificantBits == that.leastSignificantBits;
   }
 
   @Override
   public String toString() {
-    return identifier;
+    var string = text;
+    if (isNull(string)) {
+      string = encode();
+      text = string;
+    }
+    return string;
   }
 
   @Override
   public int compareTo(SortableIdentifier o) {
-    return this.toString().compareTo(o.toString());
+    if (form != o.form || form == TEXT_FORM) {
+      return String.CASE_INSENSITIVE_ORDER.compare(toString(), o.toString());
+    }
+    int result = Long.compare(timestamp, o.timestamp);
+    if (result == 0) {
+      result = Long.compareUnsigned(mostSignificantBits, o.mostSignificantBits);
+    }
+    return result == 0
+        ? Long.compareUnsigned(leastSignificantBits, o.leastSignificantBits)
+        : result;
+  }
+
+  private static long nextGenerated(long last, long now, long sequenceStart) {
+    // Within the same millisecond, or if the clock went backwards, count on from the last
+    // identifier. A sequence overflow carries into the timestamp, which keeps the order.
+    return now > last >>> SEQUENCE_BITS ? now << SEQUENCE_BITS | sequenceStart : last + 1;
   }
 
   private static IllegalArgumentException invalidUriError(URI uri) {
     return new IllegalArgumentException(String.format(INVALID_URI_ERROR_MESSAGE, uri.toString()));
   }
 
-  private static String newIdentifierString() {
-    return String.format(IDENTIFIER_FORMATTING, System.currentTimeMillis(), UUID.randomUUID());
+  private String encode() {
+    var chars = new char[form == SORTABLE_FORM ? SORTABLE_ID_LENGTH : UUID_LENGTH];
+    int uuidStart = 0;
+    if (form == SORTABLE_FORM) {
+      encodeHex(timestamp, chars, 0, TIMESTAMP_LENGTH);
+      chars[TIMESTAMP_LENGTH] = DASH;
+      uuidStart = TIMESTAMP_LENGTH + EXTRA_DASH;
+    }
+    encodeUuid(chars, uuidStart);
+    return new String(chars);
+  }
+
+  private void encodeUuid(char[] chars, int start) {
+    long remaining = leastSignificantBits;
+    int digits = 0;
+    for (int position = UUID_LENGTH - 1; position >= 0; position--) {
+      if (isUuidDash(position)) {
+        chars[start + position] = DASH;
+        continue;
+      }
+      if (digits == HEX_DIGITS_PER_LONG) {
+        remaining = mostSignificantBits;
+      }
+      chars[start + position] = HEX_DIGITS[(int) remaining & HEX_DIGIT_MASK];
+      remaining >>>= BITS_PER_HEX_DIGIT;
+      digits++;
+    }
+  }
+
+  private static void encodeHex(long value, char[] chars, int start, int length) {
+    long remaining = value;
+    for (int position = start + length - 1; position >= start; position--) {
+      chars[position] = HEX_DIGITS[(int) remaining & HEX_DIGIT_MASK];
+      remaining >>>= BITS_PER_HEX_DIGIT;
+    }
+  }
+
+  private static long decodeUuidHalf(String identifier, int start) {
+    long bits = 0;
+    int digits = 0;
+    for (int position = start; digits < HEX_DIGITS_PER_LONG; position++) {
+      char character = identifier.charAt(position);
+      if (character != DASH) {
+        bits = bits << BITS_PER_HEX_DIGIT | HEX_VALUES[character];
+        digits++;
+      }
+    }
+    return bits;
+  }
+
+  private static long decodeHex(String identifier, int start, int end) {
+    long value = 0;
+    for (int position = start; position < end; position++) {
+      value = value << BITS_PER_HEX_DIGIT | HEX_VALUES[identifier.charAt(position)];
+    }
+    return value;
+  }
+
+  private static boolean isHexIdentifier(String identifier, int timestampEnd, int uuidStart) {
+    if (timestampEnd > 0 && identifier.charAt(timestampEnd) != DASH) {
+      return false;
+    }
+    for (int position = 0; position < identifier.length(); position++) {
+      if (position == timestampEnd && timestampEnd > 0) {
+        continue;
+      }
+      char character = identifier.charAt(position);
+      boolean isDashPosition = position >= uuidStart && isUuidDash(position - uuidStart);
+      if (isDashPosition ? character != DASH : !isHexDigit(character)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isUuidDash(int positionInUuid) {
+    for (int dashPosition : UUID_DASH_POSITIONS) {
+      if (positionInUuid == dashPosition) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isHexDigit(char character) {
+    return character < HEX_VALUES.length && HEX_VALUES[character] != INVALID_HEX;
+  }
+
+  /** Consistent with {@link String#equalsIgnoreCase(String)}, which folds characters this way. */
+  private static int caseInsensitiveHash(String value) {
+    int hash = 0;
+    for (int index = 0; index < value.length(); index++) {
+      char character = Character.toLowerCase(Character.toUpperCase(value.charAt(index)));
+      hash = HASH_MULTIPLIER * hash + character;
+    }
+    return hash;
+  }
+
+  private static byte[] hexValues() {
+    var values = new byte['f' + 1];
+    Arrays.fill(values, (byte) INVALID_HEX);
+    for (int digit = 0; digit < HEX_DIGITS.length; digit++) {
+      values[HEX_DIGITS[digit]] = (byte) digit;
+      values[Character.toUpperCase(HEX_DIGITS[digit])] = (byte) digit;
+    }
+    return values;
   }
 
   private void validate(String identifier) {
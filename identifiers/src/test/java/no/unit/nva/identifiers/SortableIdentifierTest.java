@@ -149,6 +149,77 @@ public class SortableIdentifierTest {
     assertEquals(leftSortableIdentifier, rightSortableIdentifier);
   }
 
+  @ParameterizedTest
+  @MethodSource("caseSensitiveIdentifierProvider")
+  public void shouldHaveSameHashCodeWhenIdentifiersDifferOnlyInCase(String left, String right) {
+    var leftSortableIdentifier = new SortableIdentifier(left);
+    var rightSortableIdentifier = new SortableIdentifier(right);
+    assertThat(leftSortableIdentifier.hashCode(), is(equalTo(rightSortableIdentifier.hashCode())));
+  }
+
+  @ParameterizedTest
+  @MethodSource("caseSensitiveIdentifierProvider")
+  public void shouldReturnTheStringTheIdentifierWasCreatedFrom(String identifier, String ignored) {
+    assertThat(new SortableIdentifier(identifier).toString(), is(equalTo(identifier)));
+  }
+
+  @Test
+  public void shouldSortIdentifiersCreatedInTheSameMillisecondInCreationOrder() {
+    var previous = SortableIdentifier.next();
+    for (int index = 0; index < 10_000; index++) {
+      var current = SortableIdentifier.next();
+      assertThat(current.compareTo(previous), is(equalTo(1)));
+      assertThat(current.toString().compareTo(previous.toString()) > 0, is(true));
+      previous = current;
+    }
+  }
+
+  @Test
+  public void shouldGenerateIdentifiersWhoseUuidPartIsRandomUuid() {
+    var identifier = SortableIdentifier.next().toString();
+    var uuid = UUID.fromString(identifier.substring(SortableIdentifier.TIMESTAMP_LENGTH + 1));
+    assertThat(uuid.version(), is(equalTo(4)));
+    assertThat(uuid.variant(), is(equalTo(2)));
+  }
+
+  @Test
+  public void shouldEqualTheIdentifierParsedFromItsString() {
+    var identifier = SortableIdentifier.next();
+    var parsed = new SortableIdentifier(identifier.toString());
+    assertThat(parsed, is(equalTo(identifier)));
+    assertThat(parsed.hashCode(), is(equalTo(identifier.hashCode())));
+    assertThat(parsed.compareTo(identifier), is(equalTo(0)));
+  }
+
+  @Test
+  public void shouldOrderIdentifiersAsTheirStringsIgnoringCase() {
+    var identifiers =
+        Stream.of(
+                "019716D1CB07-C12BEAB5-A45F-43AD-9496-8897A71D131B",
+                "019716d1cb07-0000beab-a45f-43ad-9496-8897a71d131b",
+                "2F451CDA-08A6-4469-9C26-72051632BB90",
+                "2f451cda-08a6-4469-9c26-72051632bb8f",
+                "not-a-hex-identifier-but-36-chars-ok")
+            .map(SortableIdentifier::new)
+            .toList();
+    for (var left : identifiers) {
+      for (var right : identifiers) {
+        var expected =
+            Integer.signum(
+                String.CASE_INSENSITIVE_ORDER.compare(left.toString(), right.toString()));
+        assertThat(Integer.signum(left.compareTo(right)), is(equalTo(expected)));
+      }
+    }
+  }
+
+  @Test
+  public void shouldAcceptAnyStringOfValidLengthIgnoringCaseInComparisons() {
+    var identifier = new SortableIdentifier("not-a-hex-identifier-but-36-chars-ok");
+    var upperCase = new SortableIdentifier("NOT-A-HEX-IDENTIFIER-BUT-36-CHARS-OK");
+    assertThat(identifier, is(equalTo(upperCase)));
+    assertThat(identifier.hashCode(), is(equalTo(upperCase.hashCode())));
+  }
+
   private static Stream<Arguments> caseSensitiveIdentifierProvider() {
     return Stream.of(
         Arguments.of(
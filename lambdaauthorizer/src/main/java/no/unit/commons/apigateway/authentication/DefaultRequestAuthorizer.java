@@ -1,5 +1,6 @@
 package no.unit.commons.apigateway.authentication;
 
+import java.time.Duration;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
 import nva.commons.secrets.SecretsReader;
@@ -7,13 +8,15 @@ import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
 /**
  * A simple Lambda Authorizer. The class can be used by extending it and adding in the default
- * constructor the principal id value.
+ * constructor the principal id value. The API key is read from Secrets Manager at most once every
+ * {@link #SECRET_TIME_TO_LIVE}.
  */
 public class DefaultRequestAuthorizer extends RequestAuthorizer {
 
   private static final Environment ENVIRONMENT = new Environment();
   public static final String API_KEY_SECRET_NAME = ENVIRONMENT.readEnv("API_KEY_SECRET_NAME");
   public static final String API_KEY_SECRET_KEY = ENVIRONMENT.readEnv("API_KEY_SECRET_KEY");
+  public static final Duration SECRET_TIME_TO_LIVE = Duration.ofMinutes(5);
   private final SecretsReader secretsReader;
   private final String principalIdentifier;
 
@@ -29,7 +32,7 @@ public class DefaultRequestAuthorizer extends RequestAuthorizer {
   }
 
   public DefaultRequestAuthorizer(SecretsManagerClient secretsClient, String principalId) {
-    super();
+    super(SECRET_TIME_TO_LIVE);
     this.secretsReader = new SecretsReader(secretsClient);
     this.principalIdentifier = principalId;
   }
@@ -0,0 +1,62 @@
+package no.unit.commons.apigateway.authentication;
+
+import static java.util.Objects.nonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The secret that callers must present, as fetched at one point in time, with the decisions made
+ * against it.
+ *
+ * <p>Only SHA-256 digests are kept: of the secret, and of every presented Authorization header.
+ * Digests are compared with {@link MessageDigest#isEqual(byte[], byte[])}, which takes the same
+ * time wherever the digests differ. Since all digests have the same length, the time does not
+ * depend on the length of the presented header either. At most {@link #MAX_CACHED_DECISIONS}
+ * decisions are kept, so that callers presenting random headers cannot grow the cache without
+ * bounds.
+ */
+final class ExpectedSecret {
+
+  static final int MAX_CACHED_DECISIONS = 1000;
+  private static final String SHA_256 = "SHA-256";
+
+  private final byte[] secretDigest;
+  private final long expiresAtMillis;
+  private final Map<ByteBuffer, Boolean> decisions = new ConcurrentHashMap<>();
+
+  ExpectedSecret(String secret, long expiresAtMillis) {
+    this.secretDigest = sha256(secret);
+    this.expiresAtMillis = expiresAtMillis;
+  }
+
+  boolean isExpiredAt(long nowMillis) {
+    return nowMillis >= expiresAtMillis;
+  }
+
+  boolean isPresentedIn(String authorizationHeader) {
+    var presentedDigest = sha256(authorizationHeader);
+    var cached = decisions.get(ByteBuffer.wrap(presentedDigest));
+    if (nonNull(cached)) {
+      return cached;
+    }
+    var matches = MessageDigest.isEqual(secretDigest, presentedDigest);
+    if (decisions.size() >= MAX_CACHED_DECISIONS) {
+      decisions.clear();
+    }
+    decisions.put(ByteBuffer.wrap(presentedDigest), matches);
+    return matches;
+  }
+
+  private static byte[] sha256(String value) {
+    try {
+      return MessageDigest.getInstance(SHA_256).digest(value.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+}
@@ -1,12 +1,18 @@
 package no.unit.commons.apigateway.authentication;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static nva.commons.core.attempt.Try.attempt;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayCustomAuthorizerEvent;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import nva.commons.core.attempt.Failure;
 import nva.commons.core.exceptions.ExceptionUtils;
 import org.slf4j.Logger;
@@ -17,6 +23,12 @@ import org.slf4j.LoggerFactory;
  * found in the following page :
  * "https://docs.aws.amazon.com/apigateway/latest/developerguide/apigateway-use-lambda-authorizer
  * .html".
+ *
+ * <p>By default the expected secret is fetched, and the policy built, for every request. Subclasses
+ * that pass a time to live to {@link #RequestAuthorizer(Duration)} keep the secret for that long
+ * instead, along with the decisions made against it and the policies returned by {@link
+ * #createAllowAuthPolicy(String)} and {@link #createDenyAuthPolicy()}, so that warm invocations do
+ * not call these methods. Every response gets its own copy of a cached policy.
  */
 public abstract class RequestAuthorizer
     implements RequestHandler<APIGatewayCustomAuthorizerEvent, AuthorizerResponse> {
@@ -34,14 +46,40 @@ public abstract class RequestAuthorizer
       "Error while trying to get the principal ID.";
   private static final String DENY_EFFECT = "Deny";
   private static final Logger LOGGER = LoggerFactory.getLogger(RequestAuthorizer.class);
+  private static final int MAX_CACHED_POLICIES = 100;
 
-  protected RequestAuthorizer() {}
+  private final Duration secretTimeToLive;
+  private final Clock clock;
+  private final Map<String, AuthPolicy> allowPolicies = new ConcurrentHashMap<>();
+  private volatile AuthPolicy denyPolicy;
+  private volatile ExpectedSecret expectedSecret;
+
+  protected RequestAuthorizer() {
+    this(Duration.ZERO);
+  }
+
+  /**
+   * Creates an authorizer that keeps the expected secret and the policies for {@code
+   * secretTimeToLive}. A rotated secret is therefore accepted, and the old one rejected, within that
+   * time, and policy hooks that depend on configuration are called again after that time.
+   *
+   * @param secretTimeToLive how long a fetched secret and the built policies are used. {@link
+   *     Duration#ZERO} fetches the secret and builds the policy for every request.
+   */
+  protected RequestAuthorizer(Duration secretTimeToLive) {
+    this(secretTimeToLive, Clock.systemUTC());
+  }
+
+  protected RequestAuthorizer(Duration secretTimeToLive, Clock clock) {
+    this.secretTimeToLive = secretTimeToLive;
+    this.clock = clock;
+  }
 
   @Override
   public AuthorizerResponse handleRequest(APIGatewayCustomAuthorizerEvent input, Context context) {
     return attempt(() -> callerIsAllowedToPerformAction(input))
         .map(callerIsAuthorized -> formatPolicyResource(input.getMethodArn()))
-        .map(this::createAllowAuthPolicy)
+        .map(this::allowPolicy)
         .map(this::createResponse)
         .orElse(fail -> createForbiddenResponse(fail.getException()));
   }
@@ -112,17 +150,85 @@ public abstract class RequestAuthorizer
     LOGGER.warn(ExceptionUtils.stackTraceInSingleLine(exception));
     return AuthorizerResponse.newBuilder()
         .withPrincipalId(readPrincipalId())
-        .withPolicyDocument(createDenyAuthPolicy())
+        .withPolicyDocument(denyPolicy())
         .build();
   }
 
+  private AuthPolicy allowPolicy(String resource) {
+    if (!cachesPolicies()) {
+      return createAllowAuthPolicy(resource);
+    }
+    var policy = allowPolicies.get(resource);
+    if (isNull(policy)) {
+      // With the default formatPolicyResource there is one resource per API and stage, so the
+      // bound is only reached by subclasses that keep more of the method ARN. Starting over then
+      // is cheaper than tracking the least recently used resource on every request.
+      if (allowPolicies.size() >= MAX_CACHED_POLICIES) {
+        allowPolicies.clear();
+      }
+      policy = allowPolicies.computeIfAbsent(resource, this::createAllowAuthPolicy);
+    }
+    return copyOf(policy);
+  }
+
+  private AuthPolicy denyPolicy() {
+    if (!cachesPolicies()) {
+      return createDenyAuthPolicy();
+    }
+    var policy = denyPolicy;
+    if (isNull(policy)) {
+      policy = createDenyAuthPolicy();
+      denyPolicy = policy;
+    }
+    return copyOf(policy);
+  }
+
+  private boolean cachesPolicies() {
+    return secretTimeToLive.isPositive();
+  }
+
+  /** The cached policies are mutable, so that each response gets its own copy. */
+  private static AuthPolicy copyOf(AuthPolicy policy) {
+    if (isNull(policy.getStatement())) {
+      var copy = AuthPolicy.newBuilder().build();
+      copy.setVersion(policy.getVersion());
+      return copy;
+    }
+    var statement =
+        policy.getStatement().stream()
+            .map(
+                element ->
+                    StatementElement.newBuilder()
+                        .withEffect(element.getEffect())
+                        .withAction(element.getAction())
+                        .withResource(element.getResource())
+                        .build())
+            .toList();
+    var copy = AuthPolicy.newBuilder().withStatement(statement).build();
+    copy.setVersion(policy.getVersion());
+    return copy;
+  }
+
   private Boolean validationSucceeded(Boolean check) {
     return check;
   }
 
   private boolean validateSecret(String clientSecret) {
+    return expectedSecret().isPresentedIn(clientSecret);
+  }
+
+  private ExpectedSecret expectedSecret() {
+    var current = expectedSecret;
+    var now = clock.millis();
+    if (nonNull(current) && !current.isExpiredAt(now)) {
+      return current;
+    }
     String correctSecret = attempt(this::fetchSecret).orElseThrow(this::logErrorAndThrowException);
-    return clientSecret.equals(correctSecret);
+    var fetched = new ExpectedSecret(correctSecret, now + secretTimeToLive.toMillis());
+    expectedSecret = fetched;
+    allowPolicies.clear();
+    denyPolicy = null;
+    return fetched;
   }
 
   private AuthorizerResponse createResponse(AuthPolicy authPolicy) {
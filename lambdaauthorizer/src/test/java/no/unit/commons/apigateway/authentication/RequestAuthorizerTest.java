@@ -3,13 +3,21 @@ package no.unit.commons.apigateway.authentication;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayCustomAuthorizerEvent;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import nva.commons.logutils.LogRecorder;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
@@ -25,7 +33,10 @@ public class RequestAuthorizerTest {
       "arn:aws:execute-api:eu-west-1:884807050265:2lcqynkwke/Prod/*/*";
   public static final String UNEXPECTED_EXCEPTION_MESSAGE = "UnexpectedExceptionMessage";
   private static final String WRONG_KEY = "WrongKey";
+  private static final String ROTATED_KEY = "ROTATED_KEY";
+  private static final Duration SECRET_TIME_TO_LIVE = Duration.ofMinutes(5);
   private final Context context = mock(Context.class);
+  private final MutableClock clock = new MutableClock();
   private final RequestAuthorizer handler = sampleHandler();
 
   public static APIGatewayCustomAuthorizerEvent createRequestStream(String apiKey) {
@@ -90,6 +101,80 @@ public class RequestAuthorizerTest {
         containsString(RequestAuthorizer.COULD_NOT_READ_PRINCIPAL_ID_ERROR));
   }
 
+  @Test
+  void shouldFetchSecretOnceWhenSecretIsCached() {
+    var handler = new CountingRequestAuthorizer(SECRET_TIME_TO_LIVE, clock);
+
+    handler.handleRequest(requestWithValidApiKey(), context);
+    handler.handleRequest(requestWithInvalidApiKey(), context);
+    var response = handler.handleRequest(requestWithValidApiKey(), context);
+
+    assertThat(response.getPolicyDocument(), is(equalTo(expectedAllowPolicy(handler))));
+    assertThat(handler.secretFetches.get(), is(equalTo(1)));
+  }
+
+  @Test
+  void shouldAcceptRotatedSecretWhenCachedSecretHasExpired() {
+    var handler = new CountingRequestAuthorizer(SECRET_TIME_TO_LIVE, clock);
+    handler.handleRequest(requestWithValidApiKey(), context);
+
+    handler.secret = ROTATED_KEY;
+    clock.advance(SECRET_TIME_TO_LIVE);
+    var oldKeyResponse = handler.handleRequest(requestWithValidApiKey(), context);
+    var rotatedKeyResponse = handler.handleRequest(createRequestStream(ROTATED_KEY), context);
+
+    assertThat(oldKeyResponse.getPolicyDocument(), is(equalTo(handler.createDenyAuthPolicy())));
+    assertThat(rotatedKeyResponse.getPolicyDocument(), is(equalTo(expectedAllowPolicy(handler))));
+    assertThat(handler.secretFetches.get(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldFetchSecretForEveryRequestWhenNoTimeToLiveIsGiven() {
+    var handler = new CountingRequestAuthorizer(Duration.ZERO, clock);
+
+    handler.handleRequest(requestWithValidApiKey(), context);
+    handler.handleRequest(requestWithValidApiKey(), context);
+
+    assertThat(handler.secretFetches.get(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldBuildAllowPolicyOnceAndReturnACopyToEveryResponseWhenSecretIsCached() {
+    var handler = new CountingRequestAuthorizer(SECRET_TIME_TO_LIVE, clock);
+
+    var first = handler.handleRequest(requestWithValidApiKey(), context);
+    var second = handler.handleRequest(requestWithValidApiKey(), context);
+
+    assertThat(second.getPolicyDocument(), is(equalTo(first.getPolicyDocument())));
+    assertThat(second.getPolicyDocument(), is(not(sameInstance(first.getPolicyDocument()))));
+    assertThat(handler.allowPolicyBuilds.get(), is(equalTo(1)));
+  }
+
+  @Test
+  void shouldBuildAllowPolicyForEveryResponseWhenNoTimeToLiveIsGiven() {
+    var handler = new CountingRequestAuthorizer(Duration.ZERO, clock);
+
+    handler.handleRequest(requestWithValidApiKey(), context);
+    handler.handleRequest(requestWithValidApiKey(), context);
+
+    assertThat(handler.allowPolicyBuilds.get(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldBuildAllowPolicyAgainWhenCachedSecretHasExpired() {
+    var handler = new CountingRequestAuthorizer(SECRET_TIME_TO_LIVE, clock);
+    handler.handleRequest(requestWithValidApiKey(), context);
+
+    clock.advance(SECRET_TIME_TO_LIVE);
+    handler.handleRequest(requestWithValidApiKey(), context);
+
+    assertThat(handler.allowPolicyBuilds.get(), is(equalTo(2)));
+  }
+
+  private static AuthPolicy expectedAllowPolicy(RequestAuthorizer handler) {
+    return handler.createAllowAuthPolicy(EXPECTED_RESOURCE);
+  }
+
   private AuthorizerResponse processRequestWithHandlerThrowingException(RequestAuthorizer handler) {
     var request = requestWithValidApiKey();
     return handler.handleRequest(request, context);
@@ -150,4 +235,56 @@ public class RequestAuthorizerTest {
       }
     };
   }
+
+  private static final class CountingRequestAuthorizer extends RequestAuthorizer {
+
+    private final AtomicInteger secretFetches = new AtomicInteger();
+    private final AtomicInteger allowPolicyBuilds = new AtomicInteger();
+    private volatile String secret = CORRECT_KEY;
+
+    private CountingRequestAuthorizer(Duration secretTimeToLive, Clock clock) {
+      super(secretTimeToLive, clock);
+    }
+
+    @Override
+    protected String principalId() {
+      return SOME_PRINCIPAL_ID;
+    }
+
+    @Override
+    protected String fetchSecret() {
+      secretFetches.incrementAndGet();
+      return secret;
+    }
+
+    @Override
+    protected AuthPolicy createAllowAuthPolicy(String methodArn) {
+      allowPolicyBuilds.incrementAndGet();
+      return super.createAllowAuthPolicy(methodArn);
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    private void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
 }
@@ -0,0 +1,130 @@
+package no.unit.nva.stubs;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import nva.commons.core.JacocoGenerated;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+/**
+ * An in-memory DynamoDB that supports putting, getting and scanning items, including paginated and
+ * parallel (segmented) scans. All tables share the key schema given to the constructor and are
+ * created by the first item put in them.
+ *
+ * <p>As in DynamoDB, an item belongs to the scan segment given by the hash of its partition key, so
+ * the segments of a parallel scan together return every item exactly once. Unlike DynamoDB, a page
+ * has a {@code lastEvaluatedKey} only when there are more items to scan in the segment.
+ */
+public class FakeDynamoDbClient implements DynamoDbClient {
+
+  public static final String TABLE_NOT_FOUND = "Requested resource not found: ";
+  private static final int WHOLE_TABLE = 1;
+  private final String partitionKey;
+  private final String sortKey;
+  private final Map<String, Map<Map<String, AttributeValue>, Map<String, AttributeValue>>> tables =
+      new HashMap<>();
+  private final List<ScanRequest> scanRequests = new ArrayList<>();
+
+  public FakeDynamoDbClient(String partitionKey) {
+    this(partitionKey, null);
+  }
+
+  public FakeDynamoDbClient(String partitionKey, String sortKey) {
+    this.partitionKey = partitionKey;
+    this.sortKey = sortKey;
+  }
+
+  @Override
+  public synchronized PutItemResponse putItem(PutItemRequest putItemRequest) {
+    var table = tables.computeIfAbsent(putItemRequest.tableName(), name -> new LinkedHashMap<>());
+    table.put(keyOf(putItemRequest.item()), Map.copyOf(putItemRequest.item()));
+    return PutItemResponse.builder().build();
+  }
+
+  @Override
+  public synchronized GetItemResponse getItem(GetItemRequest getItemRequest) {
+    var item = table(getItemRequest.tableName()).get(keyOf(getItemRequest.key()));
+    return GetItemResponse.builder().item(item).build();
+  }
+
+  @Override
+  public synchronized ScanResponse scan(ScanRequest scanRequest) {
+    scanRequests.add(scanRequest);
+    var items = itemsInSegment(scanRequest).toList();
+    int start = scanRequest.hasExclusiveStartKey() ? positionAfter(items, scanRequest) : 0;
+    int end = isNull(scanRequest.limit()) ? items.size() : start + scanRequest.limit();
+    var page = items.subList(start, Math.min(end, items.size()));
+    var response = ScanResponse.builder().items(page).count(page.size()).scannedCount(page.size());
+    if (end < items.size()) {
+      response.lastEvaluatedKey(keyOf(page.getLast()));
+    }
+    return response.build();
+  }
+
+  /** The scan requests received, in the order they were received. */
+  public synchronized List<ScanRequest> getScanRequests() {
+    return new ArrayList<>(scanRequests);
+  }
+
+  @JacocoGenerated
+  @Override
+  public String serviceName() {
+    return "FakeDynamoDbClient";
+  }
+
+  @Override
+  @JacocoGenerated
+  public void close() {
+    // NO-OP
+  }
+
+  private Stream<Map<String, AttributeValue>> itemsInSegment(ScanRequest scanRequest) {
+    int totalSegments =
+        nonNull(scanRequest.totalSegments()) ? scanRequest.totalSegments() : WHOLE_TABLE;
+    int segment = nonNull(scanRequest.segment()) ? scanRequest.segment() : 0;
+    return table(scanRequest.tableName()).values().stream()
+        .filter(item -> segmentOf(item, totalSegments) == segment);
+  }
+
+  private int positionAfter(List<Map<String, AttributeValue>> items, ScanRequest scanRequest) {
+    var startKey = scanRequest.exclusiveStartKey();
+    for (int index = 0; index < items.size(); index++) {
+      if (keyOf(items.get(index)).equals(startKey)) {
+        return index + 1;
+      }
+    }
+    return items.size();
+  }
+
+  private int segmentOf(Map<String, AttributeValue> item, int totalSegments) {
+    return Math.floorMod(item.get(partitionKey).hashCode(), totalSegments);
+  }
+
+  private Map<Map<String, AttributeValue>, Map<String, AttributeValue>> table(String tableName) {
+    var table = tables.get(tableName);
+    if (isNull(table)) {
+      throw ResourceNotFoundException.builder().message(TABLE_NOT_FOUND + tableName).build();
+    }
+    return table;
+  }
+
+  private Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item) {
+    return isNull(sortKey)
+        ? Map.of(partitionKey, item.get(partitionKey))
+        : Map.of(partitionKey, item.get(partitionKey), sortKey, item.get(sortKey));
+  }
+}
@@ -2,7 +2,9 @@ package no.unit.nva.stubs;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 import nva.commons.core.JacocoGenerated;
 import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
 import software.amazon.awssdk.services.eventbridge.model.EventBridgeException;
@@ -12,12 +14,17 @@ import software.amazon.awssdk.services.eventbridge.model.ListEventBusesResponse;
 import software.amazon.awssdk.services.eventbridge.model.PutEventsRequest;
 import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
 import software.amazon.awssdk.services.eventbridge.model.PutEventsResponse;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResultEntry;
 
 public class FakeEventBridgeClient implements EventBridgeClient {
 
-  private final List<PutEventsRequestEntry> requestEntries = new ArrayList<>();
+  public static final String THROTTLING_EXCEPTION = "ThrottlingException";
+  private final List<PutEventsRequestEntry> requestEntries =
+      Collections.synchronizedList(new ArrayList<>());
+  private final List<Integer> batchSizes = new ArrayList<>();
   private final List<String> eventBusNames;
   private final Integer mockFailedEntryCount;
+  private int entriesToFail;
 
   @JacocoGenerated
   public FakeEventBridgeClient(String... eventBusNames) {
@@ -31,11 +38,30 @@ public class FakeEventBridgeClient implements EventBridgeClient {
     this.mockFailedEntryCount = failCount;
   }
 
+  /**
+   * The entries that were published, in the order they were received. This is the live list, so
+   * callers may clear it between steps of a test.
+   */
   @JacocoGenerated
   public List<PutEventsRequestEntry> getRequestEntries() {
     return requestEntries;
   }
 
+  /** The number of entries in each PutEvents request, in the order the requests were received. */
+  public synchronized List<Integer> getBatchSizes() {
+    return new ArrayList<>(batchSizes);
+  }
+
+  /**
+   * Reject the next {@code count} entries, across requests, with a {@value #THROTTLING_EXCEPTION}
+   * entry error. Rejected entries are not recorded.
+   *
+   * @param count the number of entries to reject.
+   */
+  public synchronized void failNextEntries(int count) {
+    this.entriesToFail = count;
+  }
+
   @Override
   public ListEventBusesResponse listEventBuses(ListEventBusesRequest listEventBusesRequest) {
     var buses =
@@ -45,14 +71,29 @@ public class FakeEventBridgeClient implements EventBridgeClient {
 
   @JacocoGenerated
   @Override
-  public PutEventsResponse putEvents(PutEventsRequest putEventsRequest) {
+  public synchronized PutEventsResponse putEvents(PutEventsRequest putEventsRequest) {
     if (putEventsRequest.entries().isEmpty()) {
       throw EventBridgeException.builder()
           .message("Cannot send request with empty list of entries")
           .build();
     }
-    requestEntries.addAll(putEventsRequest.entries());
-    return PutEventsResponse.builder().failedEntryCount(mockFailedEntryCount).build();
+    batchSizes.add(putEventsRequest.entries().size());
+    var results = new ArrayList<PutEventsResultEntry>();
+    int failed = 0;
+    for (var entry : putEventsRequest.entries()) {
+      if (entriesToFail > 0) {
+        entriesToFail--;
+        failed++;
+        results.add(PutEventsResultEntry.builder().errorCode(THROTTLING_EXCEPTION).build());
+      } else {
+        requestEntries.add(entry);
+        results.add(PutEventsResultEntry.builder().eventId(UUID.randomUUID().toString()).build());
+      }
+    }
+    return PutEventsResponse.builder()
+        .entries(results)
+        .failedEntryCount(failed > 0 ? failed : mockFailedEntryCount)
+        .build();
   }
 
   @JacocoGenerated
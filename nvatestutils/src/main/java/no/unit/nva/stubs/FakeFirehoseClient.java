@@ -3,6 +3,7 @@ package no.unit.nva.stubs;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Stream;
 import nva.commons.core.JacocoGenerated;
@@ -11,6 +12,7 @@ import software.amazon.awssdk.services.firehose.FirehoseClient;
 import software.amazon.awssdk.services.firehose.model.FirehoseException;
 import software.amazon.awssdk.services.firehose.model.PutRecordBatchRequest;
 import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponse;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponseEntry;
 import software.amazon.awssdk.services.firehose.model.PutRecordRequest;
 import software.amazon.awssdk.services.firehose.model.PutRecordResponse;
 import software.amazon.awssdk.services.firehose.model.Record;
@@ -27,21 +29,55 @@ public class FakeFirehoseClient implements FirehoseClient {
   public static final String EMPTY_RECORDS_MESSAGE_TEMPLATE =
       "Value %s at 'records' failed to satisfy constraint: Member must have length greater "
           + "than or equal to 1";
+  public static final String SERVICE_UNAVAILABLE = "ServiceUnavailableException";
   private final List<Record> records = new ArrayList<>();
+  private final List<Integer> batchSizes = new ArrayList<>();
+  private int recordsToFail;
 
   @Override
-  public PutRecordResponse putRecord(PutRecordRequest putRecordRequest) {
+  public synchronized PutRecordResponse putRecord(PutRecordRequest putRecordRequest) {
     records.add(putRecordRequest.record());
     return PutRecordResponse.builder().build();
   }
 
   @Override
-  public PutRecordBatchResponse putRecordBatch(PutRecordBatchRequest putRecordBatchRequest) {
+  public synchronized PutRecordBatchResponse putRecordBatch(
+      PutRecordBatchRequest putRecordBatchRequest) {
     if (putRecordBatchRequest.records().isEmpty()) {
       throw emptyBatchException();
     }
-    records.addAll(putRecordBatchRequest.records());
-    return PutRecordBatchResponse.builder().build();
+    batchSizes.add(putRecordBatchRequest.records().size());
+    var results = new ArrayList<PutRecordBatchResponseEntry>();
+    int failedPutCount = 0;
+    for (var record : putRecordBatchRequest.records()) {
+      if (recordsToFail > 0) {
+        recordsToFail--;
+        failedPutCount++;
+        results.add(PutRecordBatchResponseEntry.builder().errorCode(SERVICE_UNAVAILABLE).build());
+      } else {
+        records.add(record);
+        results.add(PutRecordBatchResponseEntry.builder().recordId(randomRecordId()).build());
+      }
+    }
+    return PutRecordBatchResponse.builder()
+        .failedPutCount(failedPutCount)
+        .requestResponses(results)
+        .build();
+  }
+
+  /**
+   * Reject the next {@code count} records, across batches, with a {@value #SERVICE_UNAVAILABLE}
+   * error. Rejected records are not stored.
+   *
+   * @param count the number of records to reject.
+   */
+  public synchronized void failNextRecords(int count) {
+    this.recordsToFail = count;
+  }
+
+  /** The number of records in each PutRecordBatch request, in the order they were received. */
+  public synchronized List<Integer> getBatchSizes() {
+    return new ArrayList<>(batchSizes);
   }
 
   @JacocoGenerated
@@ -56,8 +92,8 @@ public class FakeFirehoseClient implements FirehoseClient {
     // NO-OP
   }
 
-  public List<Record> getRecords() {
-    return this.records;
+  public synchronized List<Record> getRecords() {
+    return new ArrayList<>(this.records);
   }
 
   public Stream<String> extractPushedContent() {
@@ -70,6 +106,10 @@ public class FakeFirehoseClient implements FirehoseClient {
     return extractPushedContent().map(parser::apply);
   }
 
+  private static String randomRecordId() {
+    return UUID.randomUUID().toString();
+  }
+
   private AwsServiceException emptyBatchException() {
     return FirehoseException.builder()
         .message(String.format(EMPTY_RECORDS_MESSAGE_TEMPLATE, records))
@@ -4,19 +4,28 @@ import static nva.commons.core.attempt.Try.attempt;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import no.unit.nva.commons.json.JsonUtils;
 import nva.commons.core.JacocoGenerated;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.APIErrorType;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueResponse;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.SecretValueEntry;
 
 public class FakeSecretsManagerClient implements SecretsManagerClient {
 
+  private static final String RESOURCE_NOT_FOUND = "ResourceNotFoundException";
   private final Map<SecretName, String> plainTextSecrets = new ConcurrentHashMap<>();
+  private final AtomicInteger getSecretValueRequestCount = new AtomicInteger();
+  private final AtomicInteger batchGetSecretValueRequestCount = new AtomicInteger();
   public Map<SecretName, Map<SecretKey, String>> secrets = new ConcurrentHashMap<>();
 
   public FakeSecretsManagerClient putSecret(String name, String key, String value) {
@@ -47,6 +56,7 @@ public class FakeSecretsManagerClient implements SecretsManagerClient {
 
   @Override
   public GetSecretValueResponse getSecretValue(GetSecretValueRequest getSecretValueRequest) {
+    getSecretValueRequestCount.incrementAndGet();
     return Optional.ofNullable(getSecretValueRequest.secretId())
         .map(SecretName::new)
         .flatMap(this::resolveSecret)
@@ -54,6 +64,34 @@ public class FakeSecretsManagerClient implements SecretsManagerClient {
         .orElseThrow();
   }
 
+  /**
+   * Returns the secrets in {@code secretIdList}, and a {@code ResourceNotFoundException} error for
+   * each secret that does not exist. Filters and pagination are not supported.
+   */
+  @Override
+  public BatchGetSecretValueResponse batchGetSecretValue(BatchGetSecretValueRequest request) {
+    batchGetSecretValueRequestCount.incrementAndGet();
+    var secretValues = new ArrayList<SecretValueEntry>();
+    var errors = new ArrayList<APIErrorType>();
+    for (var secretId : request.secretIdList()) {
+      resolveSecret(new SecretName(secretId))
+          .ifPresentOrElse(
+              contents -> secretValues.add(secretValueEntry(secretId, contents)),
+              () -> errors.add(notFoundError(secretId)));
+    }
+    return BatchGetSecretValueResponse.builder().secretValues(secretValues).errors(errors).build();
+  }
+
+  /** Number of {@link #getSecretValue(GetSecretValueRequest)} calls, including failed calls. */
+  public int getSecretValueRequestCount() {
+    return getSecretValueRequestCount.get();
+  }
+
+  /** Number of {@link #batchGetSecretValue(BatchGetSecretValueRequest)} calls. */
+  public int getBatchGetSecretValueRequestCount() {
+    return batchGetSecretValueRequestCount.get();
+  }
+
   @JacocoGenerated
   @Override
   public String serviceName() {
@@ -72,6 +110,18 @@ public class FakeSecretsManagerClient implements SecretsManagerClient {
         .build();
   }
 
+  private static SecretValueEntry secretValueEntry(String secretId, String secretContents) {
+    return SecretValueEntry.builder().name(secretId).secretString(secretContents).build();
+  }
+
+  private static APIErrorType notFoundError(String secretId) {
+    return APIErrorType.builder()
+        .secretId(secretId)
+        .errorCode(RESOURCE_NOT_FOUND)
+        .message("Secrets Manager can't find the specified secret.")
+        .build();
+  }
+
   private static String serializeSecretContents(Map<SecretKey, String> secretContents) {
     return attempt(() -> JsonUtils.dtoObjectMapper.writeValueAsString(secretContents))
         .orElseThrow();
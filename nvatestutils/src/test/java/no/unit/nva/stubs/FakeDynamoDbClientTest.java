@@ -0,0 +1,113 @@
+package no.unit.nva.stubs;
+
+import static no.unit.nva.testutils.RandomDataGenerator.randomString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+
+class FakeDynamoDbClientTest {
+
+  private static final String TABLE_NAME = "table";
+  private static final String PARTITION_KEY = "PK0";
+  private static final String SORT_KEY = "SK0";
+  private static final String DATA = "data";
+  private static final int NUMBER_OF_ITEMS = 50;
+  private static final int PAGE_SIZE = 7;
+
+  private FakeDynamoDbClient client;
+
+  @BeforeEach
+  public void init() {
+    this.client = new FakeDynamoDbClient(PARTITION_KEY, SORT_KEY);
+  }
+
+  @Test
+  void shouldReturnItemThatWasPut() {
+    var item = randomItem();
+    client.putItem(PutItemRequest.builder().tableName(TABLE_NAME).item(item).build());
+    var key = Map.of(PARTITION_KEY, item.get(PARTITION_KEY), SORT_KEY, item.get(SORT_KEY));
+
+    var response = client.getItem(GetItemRequest.builder().tableName(TABLE_NAME).key(key).build());
+
+    assertThat(response.item(), is(equalTo(item)));
+  }
+
+  @Test
+  void shouldReturnEveryItemExactlyOnceWhenScanningAllSegmentsPageByPage() {
+    var items = putRandomItems();
+    var scanned = new ArrayList<Map<String, AttributeValue>>();
+    int totalSegments = 4;
+    for (int segment = 0; segment < totalSegments; segment++) {
+      scanned.addAll(scanSegment(segment, totalSegments));
+    }
+
+    assertThat(scanned, containsInAnyOrder(items.toArray()));
+  }
+
+  @Test
+  void shouldReturnPagesOfAtMostTheRequestedSize() {
+    putRandomItems();
+    scanSegment(0, 1);
+
+    assertThat(client.getScanRequests().size(), is(equalTo(NUMBER_OF_ITEMS / PAGE_SIZE + 1)));
+  }
+
+  @Test
+  void shouldThrowWhenScanningTableThatDoesNotExist() {
+    var request = ScanRequest.builder().tableName(randomString()).build();
+    assertThrows(ResourceNotFoundException.class, () -> client.scan(request));
+  }
+
+  private List<Map<String, AttributeValue>> scanSegment(int segment, int totalSegments) {
+    var items = new ArrayList<Map<String, AttributeValue>>();
+    Map<String, AttributeValue> startKey = null;
+    do {
+      var response =
+          client.scan(
+              ScanRequest.builder()
+                  .tableName(TABLE_NAME)
+                  .limit(PAGE_SIZE)
+                  .segment(segment)
+                  .totalSegments(totalSegments)
+                  .exclusiveStartKey(startKey)
+                  .build());
+      assertThat(response.count(), is(lessThanOrEqualTo(PAGE_SIZE)));
+      items.addAll(response.items());
+      startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+    } while (startKey != null);
+    return items;
+  }
+
+  private List<Map<String, AttributeValue>> putRandomItems() {
+    var items = IntStream.range(0, NUMBER_OF_ITEMS).mapToObj(index -> randomItem()).toList();
+    items.forEach(
+        item -> client.putItem(PutItemRequest.builder().tableName(TABLE_NAME).item(item).build()));
+    return items;
+  }
+
+  private static Map<String, AttributeValue> randomItem() {
+    return Map.of(
+        PARTITION_KEY, stringAttribute(randomString()),
+        SORT_KEY, stringAttribute(randomString()),
+        DATA, stringAttribute(randomString()));
+  }
+
+  private static AttributeValue stringAttribute(String value) {
+    return AttributeValue.builder().s(value).build();
+  }
+}
@@ -66,6 +66,18 @@ public class FakeFirehoseClientTest {
     assertThat(actualContent, contains(expectedContent.toArray(JsonNode[]::new)));
   }
 
+  @Test
+  void shouldRejectRecordsWhenToldToFail() {
+    var records = List.of(randomRecord(), randomRecord(), randomRecord());
+    client.failNextRecords(2);
+
+    var response =
+        client.putRecordBatch(PutRecordBatchRequest.builder().records(records).build());
+
+    assertThat(response.failedPutCount(), is(equalTo(2)));
+    assertThat(client.getRecords(), contains(records.get(2)));
+  }
+
   @Test
   void shouldNotAcceptEmptyBatch() {
     var request = PutRecordBatchRequest.builder().records(Collections.emptyList()).build();
@@ -226,10 +226,36 @@ public class S3Driver {
     return response.asString(charset);
   }
 
+  /**
+   * Opens a gzipped file for reading as a decompressed stream.
+   *
+   * @param file the path of the file in the bucket.
+   * @return the decompressed contents of the file. The caller must close the stream.
+   * @throws IOException when the gzip header cannot be read. The S3 object is closed then.
+   */
   public GZIPInputStream getCompressedFile(UnixPath file) throws IOException {
     GetObjectRequest getObjectRequest = createGetObjectRequest(file);
     ResponseInputStream<GetObjectResponse> response = client.getObject(getObjectRequest);
-    return new GZIPInputStream(response);
+    try {
+      return new GZIPInputStream(response);
+    } catch (IOException exception) {
+      closeAfterFailure(response, exception);
+      throw exception;
+    }
+  }
+
+  /**
+   * Opens a file for reading as a stream, without loading it into memory. Files ending with {@link
+   * #GZIP_ENDING} are decompressed while they are read.
+   *
+   * @param file the path of the file in the bucket.
+   * @return the contents of the file, uncompressed. The caller must close the stream.
+   * @throws IOException when the gzip header cannot be read.
+   */
+  public InputStream openFile(UnixPath file) throws IOException {
+    return isCompressed(file.getLastPathElement())
+        ? getCompressedFile(file)
+        : client.getObject(createGetObjectRequest(file));
   }
 
   public String getFile(UnixPath filename, Charset charset) {
@@ -319,6 +345,14 @@ public class S3Driver {
     return client.getObject(getObjectRequest, ResponseTransformer.toBytes());
   }
 
+  private static void closeAfterFailure(InputStream stream, IOException failure) {
+    try {
+      stream.close();
+    } catch (IOException closeFailure) {
+      failure.addSuppressed(closeFailure);
+    }
+  }
+
   private String readCompressedStream(GZIPInputStream gzipInputStream, Charset charset)
       throws IOException {
     try (BufferedReader reader =
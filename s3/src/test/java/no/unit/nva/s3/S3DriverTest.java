@@ -12,6 +12,7 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -20,6 +21,7 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
@@ -33,8 +35,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
@@ -196,6 +201,50 @@ class S3DriverTest {
     assertThat(retrievedContent, is(equalTo(content)));
   }
 
+  @Test
+  void shouldStreamDecompressedEventContentWhenOpeningEventFile() throws IOException {
+    s3Driver = new S3Driver(new FakeS3Client(), "ignoredBucketName");
+    String content = randomString();
+    URI fileLocation = s3Driver.insertEvent(UnixPath.of("parent"), content);
+    try (var stream = s3Driver.openFile(UriWrapper.fromUri(fileLocation).toS3bucketPath())) {
+      assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8), is(equalTo(content)));
+    }
+  }
+
+  @Test
+  void shouldCloseObjectWhenCompressedFileIsNotGzipped() {
+    var closed = new AtomicBoolean();
+    var client =
+        new FakeS3Client() {
+          @Override
+          public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+            var content =
+                new ByteArrayInputStream(randomString().getBytes(StandardCharsets.UTF_8)) {
+                  @Override
+                  public void close() {
+                    closed.set(true);
+                  }
+                };
+            return new ResponseInputStream<>(GetObjectResponse.builder().build(), content);
+          }
+        };
+    s3Driver = new S3Driver(client, SAMPLE_BUCKET);
+
+    assertThrows(IOException.class, () -> s3Driver.openFile(UnixPath.of("parent", "file.gz")));
+    assertThat(closed.get(), is(true));
+  }
+
+  @Test
+  void shouldStreamContentAsIsWhenOpeningUncompressedFile() throws IOException {
+    s3Driver = new S3Driver(new FakeS3Client(), "ignoredBucketName");
+    String content = randomString();
+    UnixPath filePath = UnixPath.of("parent", randomString());
+    s3Driver.insertFile(filePath, content);
+    try (var stream = s3Driver.openFile(filePath)) {
+      assertThat(new String(stream.readAllBytes(), StandardCharsets.UTF_8), is(equalTo(content)));
+    }
+  }
+
   @Test
   void shouldReadFileWhenReadingEvent() throws IOException {
     s3Driver = new S3Driver(new FakeS3Client(), "ignoredBucketName");
@@ -0,0 +1,148 @@
+package nva.commons.secrets;
+
+import static java.util.Objects.nonNull;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import nva.commons.core.attempt.Try;
+import nva.commons.core.parallel.ParallelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.SecretValueEntry;
+import software.amazon.awssdk.services.secretsmanager.model.SecretsManagerException;
+
+/**
+ * Fetches several secrets with {@code BatchGetSecretValue}, at most {@link
+ * #MAX_SECRETS_PER_REQUEST} secrets per request.
+ *
+ * <p>If the client does not support the operation, or the role may not call it, the secrets are
+ * fetched with concurrent {@code GetSecretValue} calls instead. Either way, the fetch fails if any
+ * of the secrets cannot be read.
+ *
+ * <p>Package-private: used through {@link SecretsReader#fetchSecrets(java.util.Collection)}.
+ */
+final class BatchSecretsFetcher {
+
+  static final int MAX_SECRETS_PER_REQUEST = 20;
+  static final int MAX_CONCURRENT_REQUESTS = 10;
+  private static final Logger LOGGER = LoggerFactory.getLogger(BatchSecretsFetcher.class);
+  private static final String ACCESS_DENIED = "AccessDeniedException";
+  private static final String MISSING_SECRET = "NotReturned";
+  private static final String FALLING_BACK =
+      "BatchGetSecretValue is not available, fetching secrets one by one: {}";
+  private static final String COULD_NOT_READ_SECRETS = "Could not read secrets: ";
+  private static final String ARN_SUFFIX_SEPARATOR = "-";
+  /** A hyphen and six random characters. */
+  private static final int ARN_SUFFIX_LENGTH = 7;
+
+  private final SecretsManagerClient secretsManager;
+  private final Function<String, SecretValue> fetchOne;
+
+  BatchSecretsFetcher(SecretsManagerClient secretsManager, Function<String, SecretValue> fetchOne) {
+    this.secretsManager = secretsManager;
+    this.fetchOne = fetchOne;
+  }
+
+  /**
+   * Fetches the secrets with the given ids, which are names or ARNs.
+   *
+   * @param secretIds distinct secret ids
+   * @return the secrets by the id they were requested with
+   */
+  Map<String, SecretValue> fetch(List<String> secretIds) {
+    try {
+      return fetchInBatches(secretIds);
+    } catch (UnsupportedOperationException exception) {
+      LOGGER.info(FALLING_BACK, exception.getMessage());
+      return fetchConcurrently(secretIds);
+    } catch (SecretsManagerException exception) {
+      if (isAccessDenied(exception)) {
+        LOGGER.info(FALLING_BACK, exception.getMessage());
+        return fetchConcurrently(secretIds);
+      }
+      throw exception;
+    }
+  }
+
+  private Map<String, SecretValue> fetchInBatches(List<String> secretIds) {
+    var secrets = new HashMap<String, SecretValue>();
+    for (int from = 0; from < secretIds.size(); from += MAX_SECRETS_PER_REQUEST) {
+      var to = Math.min(from + MAX_SECRETS_PER_REQUEST, secretIds.size());
+      secrets.putAll(fetchBatch(secretIds.subList(from, to)));
+    }
+    return secrets;
+  }
+
+  private Map<String, SecretValue> fetchBatch(List<String> secretIds) {
+    var secrets = new HashMap<String, SecretValue>();
+    var errors = new LinkedHashMap<String, String>();
+    String nextToken = null;
+    do {
+      var request =
+          BatchGetSecretValueRequest.builder().secretIdList(secretIds).nextToken(nextToken).build();
+      var response = secretsManager.batchGetSecretValue(request);
+      response
+          .secretValues()
+          .forEach(entry -> secrets.put(requestedId(secretIds, entry), toSecretValue(entry)));
+      response.errors().forEach(error -> errors.put(error.secretId(), error.errorCode()));
+      nextToken = response.nextToken();
+    } while (nonNull(nextToken));
+    secretIds.stream()
+        .filter(secretId -> !secrets.containsKey(secretId))
+        .forEach(secretId -> errors.putIfAbsent(secretId, MISSING_SECRET));
+    if (!errors.isEmpty()) {
+      throw new IllegalStateException(COULD_NOT_READ_SECRETS + errors);
+    }
+    return secrets;
+  }
+
+  private Map<String, SecretValue> fetchConcurrently(List<String> secretIds) {
+    var mapper =
+        new ParallelMapper<String, Map.Entry<String, SecretValue>>(
+                secretIds, secretId -> Map.entry(secretId, fetchOne.apply(secretId)))
+            .withVirtualThreads(MAX_CONCURRENT_REQUESTS);
+    try (var results = mapper.mapAsStream()) {
+      return results
+          .map(Try::orElseThrow)
+          .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+  }
+
+  /**
+   * The id the secret was requested with: its ARN, its name, or a partial ARN, which is the ARN
+   * without the suffix that Secrets Manager appends to it.
+   */
+  private static String requestedId(List<String> secretIds, SecretValueEntry entry) {
+    if (secretIds.contains(entry.arn())) {
+      return entry.arn();
+    }
+    if (secretIds.contains(entry.name())) {
+      return entry.name();
+    }
+    return secretIds.stream()
+        .filter(secretId -> isPartialArn(secretId, entry.arn()))
+        .findFirst()
+        .orElse(entry.name());
+  }
+
+  private static boolean isPartialArn(String secretId, String arn) {
+    return nonNull(arn)
+        && arn.length() == secretId.length() + ARN_SUFFIX_LENGTH
+        && arn.startsWith(secretId + ARN_SUFFIX_SEPARATOR);
+  }
+
+  private static SecretValue toSecretValue(SecretValueEntry entry) {
+    return new SecretValue(entry.secretString());
+  }
+
+  private static boolean isAccessDenied(SecretsManagerException exception) {
+    return nonNull(exception.awsErrorDetails())
+        && ACCESS_DENIED.equals(exception.awsErrorDetails().errorCode());
+  }
+}
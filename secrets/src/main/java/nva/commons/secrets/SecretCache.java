@@ -0,0 +1,193 @@
+package nva.commons.secrets;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static nva.commons.core.exceptions.AwsSdkErrors.isTransient;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Secrets by name, each cached for a fixed time to live.
+ *
+ * <p>When a secret has lived for {@link #REFRESH_AHEAD_FRACTION} of its time to live, the next
+ * lookup starts one refresh on the refresh executor and keeps returning the cached secret until the
+ * refresh completes, so that callers do not wait for Secrets Manager while the secret is in use. A
+ * failed background refresh is logged and retried on a later lookup.
+ *
+ * <p>An expired secret is fetched on the calling thread. If that fails with a transient error
+ * (a network error, throttling or a server error), the last known secret is returned instead and
+ * is kept for {@link #RETRY_AFTER_FAILURE} before the next attempt. Other errors, such as a
+ * missing secret or denied access, are thrown.
+ *
+ * <p>Package-private: used through {@link SecretsReader.Builder#withCache(Duration)}.
+ */
+final class SecretCache {
+
+  static final double REFRESH_AHEAD_FRACTION = 0.8;
+  static final Duration RETRY_AFTER_FAILURE = Duration.ofSeconds(30);
+  private static final Logger LOGGER = LoggerFactory.getLogger(SecretCache.class);
+  private static final String BACKGROUND_REFRESH_FAILED = "Background refresh failed for secret: ";
+  private static final String USING_LAST_KNOWN_SECRET =
+      "Could not refresh secret, using last known value: ";
+
+  private final Function<String, SecretValue> loader;
+  private final Duration timeToLive;
+  private final Clock clock;
+  private final Executor refreshExecutor;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<SecretValue>> loadsInFlight =
+      new ConcurrentHashMap<>();
+
+  SecretCache(
+      Function<String, SecretValue> loader,
+      Duration timeToLive,
+      Clock clock,
+      Executor refreshExecutor) {
+    this.loader = loader;
+    this.timeToLive = timeToLive;
+    this.clock = clock;
+    this.refreshExecutor = refreshExecutor;
+  }
+
+  SecretValue get(String secretName) {
+    return getIfPresent(secretName).orElseGet(() -> loadOnCallingThread(secretName));
+  }
+
+  /** The cached secret, or empty if it is missing or expired. Does not fetch on this thread. */
+  Optional<SecretValue> getIfPresent(String secretName) {
+    var entry = entries.get(secretName);
+    var now = clock.millis();
+    if (isNull(entry) || entry.isExpiredAt(now)) {
+      return Optional.empty();
+    }
+    if (entry.isDueForRefreshAt(now) && entry.startRefresh()) {
+      refreshExecutor.execute(() -> refreshInBackground(secretName, entry));
+    }
+    return Optional.of(entry.value());
+  }
+
+  void put(String secretName, SecretValue value) {
+    entries.put(secretName, newEntry(value));
+  }
+
+  /**
+   * Single-flight per secret: callers that find the same expired secret wait for one fetch, while
+   * fetches of other secrets go ahead.
+   */
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private SecretValue loadOnCallingThread(String secretName) {
+    var load = new CompletableFuture<SecretValue>();
+    var running = loadsInFlight.putIfAbsent(secretName, load);
+    if (nonNull(running)) {
+      return await(running);
+    }
+    try {
+      var value = loadOrUseLastKnown(secretName);
+      load.complete(value);
+      return value;
+    } catch (RuntimeException | Error failure) {
+      load.completeExceptionally(failure);
+      throw failure;
+    } finally {
+      loadsInFlight.remove(secretName, load);
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private SecretValue loadOrUseLastKnown(String secretName) {
+    var current = entries.get(secretName);
+    if (nonNull(current) && !current.isExpiredAt(clock.millis())) {
+      return current.value();
+    }
+    try {
+      var value = loader.apply(secretName);
+      put(secretName, value);
+      return value;
+    } catch (RuntimeException exception) {
+      if (nonNull(current) && isTransient(exception)) {
+        LOGGER.warn(USING_LAST_KNOWN_SECRET + secretName, exception);
+        var retryAt = clock.millis() + RETRY_AFTER_FAILURE.toMillis();
+        entries.put(secretName, current.retryAfter(retryAt));
+        return current.value();
+      }
+      throw exception;
+    }
+  }
+
+  @SuppressWarnings("PMD.AvoidCatchingGenericException")
+  private void refreshInBackground(String secretName, Entry entry) {
+    try {
+      entries.replace(secretName, entry, newEntry(loader.apply(secretName)));
+    } catch (RuntimeException exception) {
+      LOGGER.warn(BACKGROUND_REFRESH_FAILED + secretName, exception);
+      entry.refreshFailed();
+    }
+  }
+
+  private Entry newEntry(SecretValue value) {
+    var now = clock.millis();
+    var refreshAt = now + (long) (timeToLive.toMillis() * REFRESH_AHEAD_FRACTION);
+    return new Entry(value, refreshAt, now + timeToLive.toMillis());
+  }
+
+  private static SecretValue await(CompletableFuture<SecretValue> load) {
+    try {
+      return load.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw exception.getCause() instanceof RuntimeException cause ? cause : exception;
+    }
+  }
+
+  private static final class Entry {
+
+    private final SecretValue value;
+    private final long refreshAtMillis;
+    private final long expiresAtMillis;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private Entry(SecretValue value, long refreshAtMillis, long expiresAtMillis) {
+      this.value = value;
+      this.refreshAtMillis = refreshAtMillis;
+      this.expiresAtMillis = expiresAtMillis;
+    }
+
+    private SecretValue value() {
+      return value;
+    }
+
+    private boolean isExpiredAt(long nowMillis) {
+      return nowMillis >= expiresAtMillis;
+    }
+
+    private boolean isDueForRefreshAt(long nowMillis) {
+      return nowMillis >= refreshAtMillis;
+    }
+
+    private boolean startRefresh() {
+      return refreshing.compareAndSet(false, true);
+    }
+
+    private void refreshFailed() {
+      refreshing.set(false);
+    }
+
+    /** The same secret, fetched again on the calling thread once {@code retryAtMillis} passes. */
+    private Entry retryAfter(long retryAtMillis) {
+      return new Entry(value, retryAtMillis, retryAtMillis);
+    }
+  }
+}
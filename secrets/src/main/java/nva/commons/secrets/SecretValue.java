@@ -0,0 +1,34 @@
+package nva.commons.secrets;
+
+import static java.util.Objects.isNull;
+import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The string of a secret, with its JSON tree parsed on first use so that key lookups on a cached
+ * secret do not parse it again.
+ */
+final class SecretValue {
+
+  private final String secretString;
+  private volatile JsonNode json;
+
+  SecretValue(String secretString) {
+    this.secretString = secretString;
+  }
+
+  String secretString() {
+    return secretString;
+  }
+
+  JsonNode json() throws JsonProcessingException {
+    var parsed = json;
+    if (isNull(parsed)) {
+      parsed = dtoObjectMapper.readTree(secretString);
+      json = parsed;
+    }
+    return parsed;
+  }
+}
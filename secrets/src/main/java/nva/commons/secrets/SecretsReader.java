@@ -1,9 +1,21 @@
 package nva.commons.secrets;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
 import static nva.commons.core.attempt.Try.attempt;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import nva.commons.core.Environment;
 import nva.commons.core.JacocoGenerated;
 import nva.commons.core.attempt.Failure;
@@ -17,6 +29,26 @@ import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
 
+/**
+ * Reads secrets from AWS Secrets Manager.
+ *
+ * <p>By default every call fetches the secret from Secrets Manager. A reader built with {@link
+ * Builder#withCache(Duration)} keeps each secret, and its parsed JSON, for the given time to live:
+ *
+ * <pre>
+ *      SecretsReader secretsReader = SecretsReader.builder()
+ *          .withSecretsManagerClient(secretsManagerClient)
+ *          .withCache(Duration.ofMinutes(15))
+ *          .build();
+ * </pre>
+ *
+ * <p>A cached secret is refreshed in the background shortly before it expires, and the last known
+ * value is used when Secrets Manager fails with a transient error. A rotated secret is therefore
+ * picked up within the time to live, not at once.
+ *
+ * <p>Secrets that are needed together, e.g. at cold start, can be fetched in one round trip with
+ * {@link #fetchSecrets(Collection)} or {@link #fetchClassSecrets(Collection, Class)}.
+ */
 public class SecretsReader {
 
   public static final String COULD_NOT_READ_SECRET_ERROR = "Could not read secret: ";
@@ -25,6 +57,8 @@ public class SecretsReader {
       new Environment().readEnvOpt("AWS_REGION").orElse(Region.EU_WEST_1.id());
 
   private final SecretsManagerClient awsSecretsManager;
+  private final SecretCache cache;
+  private final BatchSecretsFetcher batchFetcher;
 
   @JacocoGenerated
   public SecretsReader() {
@@ -33,6 +67,25 @@ public class SecretsReader {
 
   public SecretsReader(SecretsManagerClient awsSecretsManager) {
     this.awsSecretsManager = awsSecretsManager;
+    this.cache = null;
+    this.batchFetcher = new BatchSecretsFetcher(awsSecretsManager, this::fetchSecretValueFromAws);
+  }
+
+  private SecretsReader(Builder builder) {
+    this.awsSecretsManager = builder.secretsManagerClient;
+    this.cache =
+        nonNull(builder.timeToLive)
+            ? new SecretCache(
+                this::fetchSecretValueFromAws,
+                builder.timeToLive,
+                builder.clock,
+                builder.refreshExecutor)
+            : null;
+    this.batchFetcher = new BatchSecretsFetcher(awsSecretsManager, this::fetchSecretValueFromAws);
+  }
+
+  public static Builder builder() {
+    return new Builder();
   }
 
   /**
@@ -45,8 +98,8 @@ public class SecretsReader {
    */
   public String fetchSecret(String secretName, String secretKey) {
 
-    return attempt(() -> fetchSecretFromAws(secretName))
-        .map(fetchResult -> extractApiKey(fetchResult, secretKey, secretName))
+    return attempt(() -> readSecret(secretName))
+        .map(secret -> extractApiKey(secret, secretKey, secretName))
         .orElseThrow(this::logErrorAndThrowException);
   }
 
@@ -59,8 +112,8 @@ public class SecretsReader {
    */
   public String fetchPlainTextSecret(String secretName) {
 
-    return attempt(() -> fetchSecretFromAws(secretName))
-        .map(GetSecretValueResponse::secretString)
+    return attempt(() -> readSecret(secretName))
+        .map(SecretValue::secretString)
         .orElseThrow(this::logErrorAndThrowException);
   }
 
@@ -75,12 +128,44 @@ public class SecretsReader {
    */
   public <T> T fetchClassSecret(String secretName, Class<T> tclass) {
 
-    return attempt(() -> fetchSecretFromAws(secretName))
-        .map(GetSecretValueResponse::secretString)
-        .map(str -> dtoObjectMapper.readValue(str, tclass))
+    return attempt(() -> readSecret(secretName))
+        .map(SecretValue::json)
+        .map(json -> dtoObjectMapper.treeToValue(json, tclass))
         .orElseThrow((Failure<T> fail) -> errorReadingSecret(fail, secretName));
   }
 
+  /**
+   * Fetches several plain-text secrets from AWS Secrets Manager in as few requests as possible.
+   * Secrets that are cached are not fetched again.
+   *
+   * @param secretNames the user-friendly ids of the secrets or the secret ARNs
+   * @return the plain text values by the secret names they were requested with
+   * @throws ErrorReadingSecretException when any of the secrets cannot be read.
+   */
+  public Map<String, String> fetchSecrets(Collection<String> secretNames) {
+
+    return attempt(() -> readSecrets(secretNames))
+        .map(secrets -> mapValues(secrets, SecretValue::secretString))
+        .orElseThrow(this::logErrorAndThrowException);
+  }
+
+  /**
+   * Fetches several json secrets from AWS Secrets Manager as instances of the same class. See
+   * {@link #fetchSecrets(Collection)}.
+   *
+   * @param secretNames the user-friendly ids of the secrets or the secret ARNs
+   * @param tclass the class or interface of the class to be returned
+   * @param <T> the type of the class or interface of the class to be returned
+   * @return the secrets by the secret names they were requested with
+   * @throws ErrorReadingSecretException when any of the secrets cannot be read.
+   */
+  public <T> Map<String, T> fetchClassSecrets(Collection<String> secretNames, Class<T> tclass) {
+
+    return attempt(() -> readSecrets(secretNames))
+        .map(secrets -> mapValues(secrets, secret -> toClass(secret, tclass)))
+        .orElseThrow(this::logErrorAndThrowException);
+  }
+
   public String errorReadingSecretMessage(String secretName) {
     return COULD_NOT_READ_SECRET_ERROR + secretName;
   }
@@ -94,17 +179,56 @@ public class SecretsReader {
         .build();
   }
 
+  private SecretValue readSecret(String secretName) {
+    return isNull(cache) ? fetchSecretValueFromAws(secretName) : cache.get(secretName);
+  }
+
+  private Map<String, SecretValue> readSecrets(Collection<String> secretNames) {
+    var secrets = new LinkedHashMap<String, SecretValue>();
+    var missing = new ArrayList<String>();
+    for (var secretName : new LinkedHashSet<>(secretNames)) {
+      readCachedSecret(secretName)
+          .ifPresentOrElse(
+              secret -> secrets.put(secretName, secret), () -> missing.add(secretName));
+    }
+    if (!missing.isEmpty()) {
+      var fetched = batchFetcher.fetch(missing);
+      if (nonNull(cache)) {
+        fetched.forEach(cache::put);
+      }
+      missing.forEach(secretName -> secrets.put(secretName, fetched.get(secretName)));
+    }
+    return secrets;
+  }
+
+  private Optional<SecretValue> readCachedSecret(String secretName) {
+    return isNull(cache) ? Optional.empty() : cache.getIfPresent(secretName);
+  }
+
+  private static <T> T toClass(SecretValue secret, Class<T> tclass) {
+    return attempt(() -> dtoObjectMapper.treeToValue(secret.json(), tclass)).orElseThrow();
+  }
+
+  private static <T> Map<String, T> mapValues(
+      Map<String, SecretValue> secrets, Function<SecretValue, T> mapping) {
+    var values = new LinkedHashMap<String, T>();
+    secrets.forEach((secretName, secret) -> values.put(secretName, mapping.apply(secret)));
+    return values;
+  }
+
+  private SecretValue fetchSecretValueFromAws(String secretName) {
+    return new SecretValue(fetchSecretFromAws(secretName).secretString());
+  }
+
   private GetSecretValueResponse fetchSecretFromAws(String secretName) {
     return awsSecretsManager.getSecretValue(
         GetSecretValueRequest.builder().secretId(secretName).build());
   }
 
-  private String extractApiKey(
-      GetSecretValueResponse getSecretResult, String secretKey, String secretName) {
+  private String extractApiKey(SecretValue secret, String secretKey, String secretName) {
 
-    return Try.of(getSecretResult)
-        .map(GetSecretValueResponse::secretString)
-        .flatMap(this::readStringAsJsonObject)
+    return Try.of(secret)
+        .flatMap(this::readSecretAsJsonObject)
         .map(secretJson -> secretJson.get(secretKey))
         .map(JsonNode::textValue)
         .orElseThrow((Failure<String> fail) -> errorReadingSecret(fail, secretName));
@@ -115,12 +239,64 @@ public class SecretsReader {
     return new ErrorReadingSecretException();
   }
 
-  private Try<JsonNode> readStringAsJsonObject(String secretString) {
-    return attempt(() -> dtoObjectMapper.readTree(secretString));
+  private Try<JsonNode> readSecretAsJsonObject(SecretValue secret) {
+    return attempt(secret::json);
   }
 
   private <I> ErrorReadingSecretException logErrorAndThrowException(Failure<I> failure) {
     LOGGER.error(failure.getException().getMessage(), failure.getException());
     return new ErrorReadingSecretException();
   }
+
+  public static final class Builder {
+
+    private SecretsManagerClient secretsManagerClient;
+    private Duration timeToLive;
+    private Clock clock = Clock.systemUTC();
+    private Executor refreshExecutor = Builder::startVirtualThread;
+
+    private Builder() {}
+
+    public Builder withSecretsManagerClient(SecretsManagerClient secretsManagerClient) {
+      this.secretsManagerClient = secretsManagerClient;
+      return this;
+    }
+
+    /**
+     * Cache each secret for {@code timeToLive}. Default: secrets are not cached.
+     *
+     * @param timeToLive how long a fetched secret is used before it is fetched again
+     * @return this builder
+     */
+    public Builder withCache(Duration timeToLive) {
+      if (timeToLive.isNegative() || timeToLive.isZero()) {
+        throw new IllegalArgumentException("Time to live must be positive, was: " + timeToLive);
+      }
+      this.timeToLive = timeToLive;
+      return this;
+    }
+
+    public Builder withClock(Clock clock) {
+      this.clock = clock;
+      return this;
+    }
+
+    /** Executor for background refreshes of cached secrets. Default: one virtual thread each. */
+    public Builder withRefreshExecutor(Executor refreshExecutor) {
+      this.refreshExecutor = refreshExecutor;
+      return this;
+    }
+
+    public SecretsReader build() {
+      if (isNull(secretsManagerClient)) {
+        secretsManagerClient = defaultSecretsManagerClient();
+      }
+      return new SecretsReader(this);
+    }
+
+    @SuppressWarnings("PMD.DoNotUseThreads")
+    private static void startVirtualThread(Runnable task) {
+      Thread.ofVirtual().start(task);
+    }
+  }
 }
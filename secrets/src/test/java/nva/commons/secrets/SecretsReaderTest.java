@@ -1,26 +1,46 @@
 package nva.commons.secrets;
 
+import static java.util.Objects.nonNull;
 import static no.unit.nva.commons.json.JsonUtils.dtoObjectMapper;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import no.unit.nva.stubs.FakeSecretsManagerClient;
 import nva.commons.logutils.LogRecorder;
 import nva.commons.secrets.testutils.Credentials;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.mockito.invocation.InvocationOnMock;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueResponse;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.secretsmanager.model.SecretValueEntry;
 
 class SecretsReaderTest {
 
@@ -38,6 +58,8 @@ class SecretsReaderTest {
   static final String WRONG_SECRET_NAME = "WRONG_SECRET_NAME";
   static final String WRONG_SECRET_KEY = "WRONG_KEY";
   static final String ERROR_MESSAGE_FROM_AWS_SECRET_MANAGER = "Secret not found";
+  static final String ROTATED_SECRET_VALUE = "ROTATED_SECRET_VALUE";
+  static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
   private final SecretsReader secretsReader;
 
   SecretsReaderTest() {
@@ -118,6 +140,232 @@ class SecretsReaderTest {
     assertThat(logRecorder.asString(), containsString(ERROR_MESSAGE_FROM_AWS_SECRET_MANAGER));
   }
 
+  @Test
+  void shouldFetchSecretOnceWhenCachedSecretIsReadRepeatedly() {
+    var secretsManager = fakeSecretsManager();
+    var cachingReader = cachingSecretsReader(secretsManager, new MutableClock());
+
+    cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY);
+    var value = cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY);
+    cachingReader.fetchPlainTextSecret(JSON_SECRET_NAME);
+    var credentials = cachingReader.fetchClassSecret(JSON_SECRET_NAME, Credentials.class);
+
+    assertThat(value, is(equalTo(SECRET_VALUE)));
+    assertThat(credentials.username, is(equalTo(JSON_SECRET_VALUE_USERNAME)));
+    assertThat(secretsManager.getSecretValueRequestCount(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldFetchSecretAgainWhenTimeToLiveHasPassed() {
+    var secretsManager = fakeSecretsManager();
+    var clock = new MutableClock();
+    var cachingReader = cachingSecretsReader(secretsManager, clock);
+
+    cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY);
+    secretsManager.putSecret(SECRET_NAME, SECRET_KEY, ROTATED_SECRET_VALUE);
+    clock.advance(TIME_TO_LIVE);
+
+    assertThat(cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY), is(ROTATED_SECRET_VALUE));
+    assertThat(secretsManager.getSecretValueRequestCount(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldRefreshSecretInBackgroundAndReturnCachedSecretWhenSecretIsAboutToExpire() {
+    var secretsManager = fakeSecretsManager();
+    var clock = new MutableClock();
+    var refreshes = new AtomicReference<Runnable>();
+    var cachingReader =
+        SecretsReader.builder()
+            .withSecretsManagerClient(secretsManager)
+            .withCache(TIME_TO_LIVE)
+            .withClock(clock)
+            .withRefreshExecutor(refreshes::set)
+            .build();
+
+    cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY);
+    secretsManager.putSecret(SECRET_NAME, SECRET_KEY, ROTATED_SECRET_VALUE);
+    clock.advance(TIME_TO_LIVE.minusMinutes(1));
+    var valueDuringRefresh = cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY);
+    refreshes.get().run();
+
+    assertThat(valueDuringRefresh, is(equalTo(SECRET_VALUE)));
+    assertThat(cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY), is(ROTATED_SECRET_VALUE));
+    assertThat(secretsManager.getSecretValueRequestCount(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldReturnLastKnownSecretWhenRefreshFailsWithTransientError() {
+    var secretsManager = new FailingSecretsManagerClient();
+    secretsManager.putSecret(SECRET_NAME, SECRET_KEY, SECRET_VALUE);
+    var clock = new MutableClock();
+    var cachingReader = cachingSecretsReader(secretsManager, clock);
+
+    cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY);
+    secretsManager.failWith(SdkClientException.create("Connection reset"));
+    clock.advance(TIME_TO_LIVE);
+
+    assertThat(cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY), is(equalTo(SECRET_VALUE)));
+    assertThat(cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY), is(equalTo(SECRET_VALUE)));
+    assertThat(secretsManager.getSecretValueRequestCount(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldThrowWhenRefreshFailsWithPermanentError() {
+    var secretsManager = new FailingSecretsManagerClient();
+    secretsManager.putSecret(SECRET_NAME, SECRET_KEY, SECRET_VALUE);
+    var clock = new MutableClock();
+    var cachingReader = cachingSecretsReader(secretsManager, clock);
+
+    cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY);
+    secretsManager.failWith(ResourceNotFoundException.builder().message("Deleted").build());
+    clock.advance(TIME_TO_LIVE);
+
+    assertThrows(
+        ErrorReadingSecretException.class,
+        () -> cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY));
+  }
+
+  @Test
+  void shouldFetchOtherSecretsWhileOneSecretIsBeingFetched() throws Exception {
+    var secretsManager = new BlockingSecretsManagerClient(SECRET_NAME);
+    secretsManager.putSecret(SECRET_NAME, SECRET_KEY, SECRET_VALUE);
+    secretsManager.putPlainTextSecret(JSON_SECRET_NAME, JSON_SECRET_VALUE);
+    var cachingReader = cachingSecretsReader(secretsManager, new MutableClock());
+
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      var slowSecret = executor.submit(() -> cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY));
+      secretsManager.blocked.await();
+      var otherSecret =
+          assertTimeoutPreemptively(
+              Duration.ofSeconds(5), () -> cachingReader.fetchPlainTextSecret(JSON_SECRET_NAME));
+      secretsManager.release.countDown();
+
+      assertThat(otherSecret, is(equalTo(JSON_SECRET_VALUE)));
+      assertThat(slowSecret.get(), is(equalTo(SECRET_VALUE)));
+    }
+  }
+
+  @Test
+  void shouldRejectCacheWithoutPositiveTimeToLive() {
+    var builder = SecretsReader.builder();
+
+    assertThrows(IllegalArgumentException.class, () -> builder.withCache(Duration.ZERO));
+  }
+
+  @Test
+  void shouldFetchSeveralSecretsInOneBatchRequest() {
+    var secretsManager = fakeSecretsManager();
+    var secretsReader = new SecretsReader(secretsManager);
+
+    var secrets = secretsReader.fetchSecrets(List.of(JSON_SECRET_NAME, SECRET_NAME));
+
+    assertThat(secrets.keySet(), contains(JSON_SECRET_NAME, SECRET_NAME));
+    assertThat(secrets.get(JSON_SECRET_NAME), is(equalTo(JSON_SECRET_VALUE)));
+    assertThat(secretsManager.getBatchGetSecretValueRequestCount(), is(equalTo(1)));
+    assertThat(secretsManager.getSecretValueRequestCount(), is(equalTo(0)));
+  }
+
+  @Test
+  void shouldReturnSecretByPartialArnWhenItWasRequestedByPartialArn() {
+    var partialArn = "arn:aws:secretsmanager:eu-west-1:123456789012:secret:" + SECRET_NAME;
+    var secretsManager = mock(SecretsManagerClient.class);
+    when(secretsManager.batchGetSecretValue(any(BatchGetSecretValueRequest.class)))
+        .thenReturn(
+            BatchGetSecretValueResponse.builder()
+                .secretValues(
+                    SecretValueEntry.builder()
+                        .arn(partialArn + "-AbCdEf")
+                        .name(SECRET_NAME)
+                        .secretString(PLAIN_TEXT_SECRET_VALUE)
+                        .build())
+                .build());
+
+    var secrets = new SecretsReader(secretsManager).fetchSecrets(List.of(partialArn));
+
+    assertThat(secrets.get(partialArn), is(equalTo(PLAIN_TEXT_SECRET_VALUE)));
+  }
+
+  @Test
+  void shouldFetchSeveralJsonSecretsAsInputClass() {
+    var secretsManager = fakeSecretsManager().putPlainTextSecret(PLAIN_TEXT_SECRET_NAME, "{}");
+    var secretsReader = new SecretsReader(secretsManager);
+
+    var secrets =
+        secretsReader.fetchClassSecrets(
+            List.of(JSON_SECRET_NAME, PLAIN_TEXT_SECRET_NAME), Credentials.class);
+
+    assertThat(secrets.get(JSON_SECRET_NAME).password, is(equalTo(JSON_SECRET_VALUE_PASSWORD)));
+    assertThat(secrets.get(PLAIN_TEXT_SECRET_NAME).password, is(nullValue()));
+  }
+
+  @Test
+  void shouldSplitBatchesLargerThanTheBatchRequestLimit() {
+    var secretsManager = new FakeSecretsManagerClient();
+    var secretNames =
+        IntStream.rangeClosed(0, BatchSecretsFetcher.MAX_SECRETS_PER_REQUEST)
+            .mapToObj(index -> SECRET_NAME + index)
+            .toList();
+    secretNames.forEach(secretName -> secretsManager.putPlainTextSecret(secretName, SECRET_VALUE));
+
+    var secrets = new SecretsReader(secretsManager).fetchSecrets(secretNames);
+
+    assertThat(secrets.size(), is(equalTo(secretNames.size())));
+    assertThat(secretsManager.getBatchGetSecretValueRequestCount(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldThrowWhenAnyOfSeveralSecretsIsMissing() {
+    var secretsReader = new SecretsReader(fakeSecretsManager());
+
+    assertThrows(
+        ErrorReadingSecretException.class,
+        () -> secretsReader.fetchSecrets(List.of(SECRET_NAME, WRONG_SECRET_NAME)));
+  }
+
+  @Test
+  void shouldFetchSecretsOneByOneWhenBatchRequestsAreNotSupported() {
+    var secretsManager = new FakeSecretsManagerClientWithoutBatchSupport();
+    secretsManager.putPlainTextSecret(PLAIN_TEXT_SECRET_NAME, PLAIN_TEXT_SECRET_VALUE);
+    secretsManager.putPlainTextSecret(JSON_SECRET_NAME, JSON_SECRET_VALUE);
+
+    var secrets =
+        new SecretsReader(secretsManager)
+            .fetchSecrets(List.of(PLAIN_TEXT_SECRET_NAME, JSON_SECRET_NAME));
+
+    assertThat(secrets.get(PLAIN_TEXT_SECRET_NAME), is(equalTo(PLAIN_TEXT_SECRET_VALUE)));
+    assertThat(secretsManager.getSecretValueRequestCount(), is(equalTo(2)));
+  }
+
+  @Test
+  void shouldOnlyFetchSecretsThatAreNotCachedWhenFetchingSeveralSecrets() {
+    var secretsManager = fakeSecretsManager();
+    var cachingReader = cachingSecretsReader(secretsManager, new MutableClock());
+
+    cachingReader.fetchPlainTextSecret(JSON_SECRET_NAME);
+    cachingReader.fetchSecrets(List.of(JSON_SECRET_NAME, SECRET_NAME));
+    var secret = cachingReader.fetchSecret(SECRET_NAME, SECRET_KEY);
+
+    assertThat(secret, is(equalTo(SECRET_VALUE)));
+    assertThat(secretsManager.getSecretValueRequestCount(), is(equalTo(1)));
+    assertThat(secretsManager.getBatchGetSecretValueRequestCount(), is(equalTo(1)));
+  }
+
+  private static FakeSecretsManagerClient fakeSecretsManager() {
+    return new FakeSecretsManagerClient()
+        .putSecret(SECRET_NAME, SECRET_KEY, SECRET_VALUE)
+        .putPlainTextSecret(JSON_SECRET_NAME, JSON_SECRET_VALUE);
+  }
+
+  private static SecretsReader cachingSecretsReader(
+      SecretsManagerClient secretsManager, Clock clock) {
+    return SecretsReader.builder()
+        .withSecretsManagerClient(secretsManager)
+        .withCache(TIME_TO_LIVE)
+        .withClock(clock)
+        .withRefreshExecutor(Runnable::run)
+        .build();
+  }
+
   private SecretsReader createSecretsReaderMock() {
     var secretsManager = mock(SecretsManagerClient.class);
     when(secretsManager.getSecretValue(any(GetSecretValueRequest.class)))
@@ -157,4 +405,79 @@ class SecretsReaderTest {
     var secret = Map.of(SECRET_KEY, SECRET_VALUE);
     return dtoObjectMapper.writeValueAsString(secret);
   }
+
+  private static final class FailingSecretsManagerClient extends FakeSecretsManagerClient {
+
+    private RuntimeException failure;
+
+    private void failWith(RuntimeException failure) {
+      this.failure = failure;
+    }
+
+    @Override
+    public GetSecretValueResponse getSecretValue(GetSecretValueRequest request) {
+      var response = super.getSecretValue(request);
+      if (nonNull(failure)) {
+        throw failure;
+      }
+      return response;
+    }
+  }
+
+  private static final class BlockingSecretsManagerClient extends FakeSecretsManagerClient {
+
+    private final String blockedSecretName;
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private BlockingSecretsManagerClient(String blockedSecretName) {
+      this.blockedSecretName = blockedSecretName;
+    }
+
+    @Override
+    public GetSecretValueResponse getSecretValue(GetSecretValueRequest request) {
+      if (blockedSecretName.equals(request.secretId())) {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return super.getSecretValue(request);
+    }
+  }
+
+  private static final class FakeSecretsManagerClientWithoutBatchSupport
+      extends FakeSecretsManagerClient {
+
+    @Override
+    public BatchGetSecretValueResponse batchGetSecretValue(BatchGetSecretValueRequest request) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    private void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
 }